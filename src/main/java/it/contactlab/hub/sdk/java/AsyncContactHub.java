@@ -1,7 +1,23 @@
 package it.contactlab.hub.sdk.java;
 
 import it.contactlab.hub.sdk.java.Auth;
-import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+import it.contactlab.hub.sdk.java.batch.BatchOptions;
+import it.contactlab.hub.sdk.java.batch.CustomerBatcher;
+import it.contactlab.hub.sdk.java.circuit.CircuitBreakerOptions;
+import it.contactlab.hub.sdk.java.circuit.StateChangeListener;
+import it.contactlab.hub.sdk.java.http.CircuitBreakingHttpTransport;
+import it.contactlab.hub.sdk.java.http.CompressionOptions;
+import it.contactlab.hub.sdk.java.http.HedgeOptions;
+import it.contactlab.hub.sdk.java.http.HedgingHttpTransport;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
+import it.contactlab.hub.sdk.java.http.PooledHttpTransport;
+import it.contactlab.hub.sdk.java.http.PoolingOptions;
+import it.contactlab.hub.sdk.java.http.RateLimitedHttpTransport;
+import it.contactlab.hub.sdk.java.http.RetryOptions;
+import it.contactlab.hub.sdk.java.http.RetryingHttpTransport;
+import it.contactlab.hub.sdk.java.http.SingleFlightHttpTransport;
+import it.contactlab.hub.sdk.java.ingestion.EventSink;
+import it.contactlab.hub.sdk.java.ingestion.EventSinkOptions;
 import it.contactlab.hub.sdk.java.internal.api.CustomerApi;
 import it.contactlab.hub.sdk.java.internal.api.EducationApi;
 import it.contactlab.hub.sdk.java.internal.api.EventApi;
@@ -9,8 +25,9 @@ import it.contactlab.hub.sdk.java.internal.api.JobApi;
 import it.contactlab.hub.sdk.java.internal.api.LikeApi;
 import it.contactlab.hub.sdk.java.internal.api.QueryApi;
 import it.contactlab.hub.sdk.java.internal.api.SessionApi;
-import it.contactlab.hub.sdk.java.internal.api.TagApi;
+import it.contactlab.hub.sdk.java.internal.concurrent.VirtualThreads;
 import it.contactlab.hub.sdk.java.models.AsyncPaginated;
+import it.contactlab.hub.sdk.java.models.AsyncPreparedRequest;
 import it.contactlab.hub.sdk.java.models.Customer;
 import it.contactlab.hub.sdk.java.models.Education;
 import it.contactlab.hub.sdk.java.models.Event;
@@ -20,59 +37,256 @@ import it.contactlab.hub.sdk.java.models.Job;
 import it.contactlab.hub.sdk.java.models.Like;
 import it.contactlab.hub.sdk.java.queries.Operator;
 import it.contactlab.hub.sdk.java.queries.QueryContainer;
-
+import it.contactlab.hub.sdk.java.ratelimit.RateLimitOptions;
+import it.contactlab.hub.sdk.java.tags.TagMutator;
+import it.contactlab.hub.sdk.java.tags.TagOptions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
-import java.util.function.Consumer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * ContactHub Java SDK (Async version).
  */
 
-public class AsyncContactHub {
+public class AsyncContactHub implements Closeable {
 
   public Auth auth;
   private final ClientData clientData;
+  private final HttpTransport transport;
+  private final Executor executor;
+  private final boolean ownsExecutor;
+  private final CustomerBatcher batcher;
+  private final boolean batchLookups;
+  private final TagMutator tagMutator;
 
   public AsyncContactHub(Auth auth) {
     this(auth, null);
   }
   
   public AsyncContactHub(Auth auth, ClientData clientData) {
-      this.auth = auth;
-      this.clientData = clientData;
+    this(auth, clientData, new PooledHttpTransport());
   }
 
-  @FunctionalInterface
-  private interface ThrowingSupplier<T> {
-    T get() throws ContactHubException;
+  public AsyncContactHub(Auth auth, ClientData clientData, HttpTransport transport) {
+    this(auth, clientData, transport, ForkJoinPool.commonPool());
   }
 
-  @FunctionalInterface
-  private interface ThrowingRunnable {
-    void run() throws ContactHubException;
+  /**
+   * Creates a new AsyncContactHub client that sends its requests through
+   * 'transport' and completes its {@link CompletionStage}s on 'executor'.
+   *
+   * @param auth       The {@link Auth} params.
+   * @param clientData The {@link ClientData}, or null.
+   * @param transport  The {@link HttpTransport} owned by this client.
+   * @param executor   The {@link Executor} used to process responses.
+   */
+  public AsyncContactHub(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor
+  ) {
+    this(auth, clientData, transport, executor, false, null, null);
   }
 
-  private <T> CompletionStage<T> wrapAsync(ThrowingSupplier<T> supplier) {
-    return CompletableFuture.supplyAsync(() -> {
-      try {
-        return supplier.get();
-      } catch (ContactHubException exception) {
-        throw new CompletionException(exception);
-      }
-    });
+  private AsyncContactHub(
+      Auth auth, ClientData clientData, HttpTransport transport,
+      Executor executor, boolean ownsExecutor, BatchOptions batchOptions, TagOptions tagOptions
+  ) {
+    this.auth = auth;
+    this.clientData = clientData;
+    this.transport = transport;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+    this.batcher = new CustomerBatcher(auth, clientData, transport, executor,
+        batchOptions != null ? batchOptions : BatchOptions.builder().build());
+    this.batchLookups = batchOptions != null;
+    this.tagMutator = new TagMutator(auth, clientData, transport, executor,
+        tagOptions != null ? tagOptions : TagOptions.builder().build(), batcher,
+        Optional.empty());
+  }
+
+  public static Builder builder(Auth auth) {
+    return new Builder(auth);
   }
 
-  private CompletionStage<Void> wrapAsync(ThrowingRunnable runnable) {
-    return CompletableFuture.runAsync(() -> {
-      try {
-        runnable.run();
-      } catch (ContactHubException exception) {
-        throw new CompletionException(exception);
+  /**
+   * Builds an {@link AsyncContactHub} client with custom settings.
+   */
+  public static class Builder {
+
+    private final Auth auth;
+    private ClientData clientData;
+    private final TransportFactory transports = new TransportFactory();
+    private Executor executor;
+    private boolean virtualThreads;
+    private BatchOptions batchOptions;
+    private TagOptions tagOptions;
+
+    private Builder(Auth auth) {
+      this.auth = auth;
+    }
+
+    public Builder clientData(ClientData clientData) {
+      this.clientData = clientData;
+      return this;
+    }
+
+    public Builder transport(HttpTransport transport) {
+      transports.transport = transport;
+      return this;
+    }
+
+    /**
+     * Sets the connection pool of the default transport. Ignored if a
+     * transport is set.
+     */
+    public Builder poolingOptions(PoolingOptions options) {
+      transports.poolingOptions = options;
+      return this;
+    }
+
+    /**
+     * Enables gzip compression on the default transport. Ignored if a
+     * transport is set.
+     */
+    public Builder compression(CompressionOptions options) {
+      transports.compression = options;
+      return this;
+    }
+
+    /**
+     * Sends a single request for concurrent, identical GET requests. See
+     * {@link SingleFlightHttpTransport}.
+     */
+    public Builder singleFlight() {
+      transports.singleFlight = true;
+      return this;
+    }
+
+    /**
+     * Sends the requests that fail with an I/O error or a transient status
+     * code again, after a random, growing wait. See {@link RetryingHttpTransport}.
+     */
+    public Builder retry(RetryOptions options) {
+      transports.retryOptions = options;
+      return this;
+    }
+
+    /**
+     * Keeps the requests under a rate shared by all the clients of the same
+     * workspace in the JVM. See {@link RateLimitedHttpTransport}.
+     */
+    public Builder rateLimit(RateLimitOptions options) {
+      transports.rateLimitOptions = options;
+      return this;
+    }
+
+    /**
+     * Fails the requests of an endpoint group at once, without sending them,
+     * while too many of its latest requests failed or were slow. See
+     * {@link CircuitBreakingHttpTransport}.
+     *
+     * @param listeners Notified when a circuit opens, becomes half-open or
+     *                  closes.
+     */
+    public Builder circuitBreaker(
+        CircuitBreakerOptions options, StateChangeListener... listeners
+    ) {
+      transports.circuitBreakerOptions = options;
+      transports.circuitListeners = listeners;
+      return this;
+    }
+
+    /**
+     * Sends a GET request a second time when its response is late, and uses
+     * the response that arrives first. See {@link HedgingHttpTransport}.
+     */
+    public Builder hedging(HedgeOptions options) {
+      transports.hedgeOptions = options;
+      return this;
+    }
+
+    /**
+     * Sets the {@link Executor} that processes responses and runs the requests
+     * of transports without a non-blocking client. It defaults to the common
+     * ForkJoin pool.
+     */
+    public Builder executor(Executor executor) {
+      this.executor = executor;
+      this.virtualThreads = false;
+      return this;
+    }
+
+    /**
+     * Runs every response, and every blocking request, on its own virtual
+     * thread. The executor is shut down when the client is closed.
+     *
+     * @throws UnsupportedOperationException if the runtime has no virtual threads.
+     */
+    public Builder virtualThreads() {
+      if (!VirtualThreads.isSupported()) {
+        throw new UnsupportedOperationException(
+            "Virtual threads are not supported by this Java runtime");
+      }
+      this.executor = null;
+      this.virtualThreads = true;
+      return this;
+    }
+
+    /**
+     * Makes {@link AsyncContactHub#getCustomer(String)} wait for a short
+     * window, and load all the ids requested meanwhile with a single query.
+     * See {@link CustomerBatcher}.
+     */
+    public Builder batchCustomerLookups(BatchOptions options) {
+      this.batchOptions = options;
+      return this;
+    }
+
+    /**
+     * Sets how the tag changes made with
+     * {@link AsyncContactHub#addTag(String, String)} and
+     * {@link AsyncContactHub#removeTag(String, String)} are grouped. See
+     * {@link TagMutator}.
+     */
+    public Builder tagMutations(TagOptions options) {
+      this.tagOptions = options;
+      return this;
+    }
+
+    /**
+     * Returns a new {@link AsyncContactHub}, using a {@link PooledHttpTransport}
+     * with the pooling and compression settings if no transport was set.
+     */
+    public AsyncContactHub build() {
+      HttpTransport builtTransport = transports.build(auth.workspaceId);
+
+      if (virtualThreads) {
+        return new AsyncContactHub(auth, clientData, builtTransport,
+            VirtualThreads.newVirtualThreadPerTaskExecutor(), true, batchOptions, tagOptions);
       }
-    });
+      return new AsyncContactHub(auth, clientData, builtTransport,
+          executor != null ? executor : ForkJoinPool.commonPool(), false, batchOptions,
+          tagOptions);
+    }
+  }
+
+  /**
+   * Releases the connections held by the {@link HttpTransport} of this client,
+   * and shuts down its executor if it was created by the {@link Builder}.
+   */
+  @Override
+  public void close() throws IOException {
+    transport.close();
+    if (ownsExecutor) {
+      ((ExecutorService) executor).shutdown();
+    }
   }
 
   /**
@@ -92,7 +306,8 @@ public class AsyncContactHub {
    * @return            A {@link CompletionStage}.
    */
   public CompletionStage<Void> addCustomerSession(String customerId, String sessionId) {
-    return wrapAsync(() -> SessionApi.reconcile(this.auth, this.clientData, customerId, sessionId));
+    return SessionApi.asyncReconcile(this.auth, this.clientData, this.transport, this.executor,
+        customerId, sessionId);
   }
 
   /**
@@ -102,7 +317,29 @@ public class AsyncContactHub {
    * @return   A {@link CompletionStage} of {@link Customer}.
    */
   public CompletionStage<Customer> getCustomer(String id) {
-    return wrapAsync(() -> CustomerApi.getById(this.auth, this.clientData, id));
+    if (!batchLookups) {
+      return CustomerApi.asyncGetById(this.auth, this.clientData, this.transport, this.executor,
+          id);
+    }
+
+    // The ids the batch query did not find are requested on their own, so
+    // that a missing Customer fails with the same error as without batching.
+    return batcher.load(id).thenCompose(customer -> customer.isPresent()
+        ? CompletableFuture.completedFuture(customer.get())
+        : CustomerApi.asyncGetById(this.auth, this.clientData, this.transport, this.executor,
+            id));
+  }
+
+  /**
+   * Retrieves many Customers by id, with as few queries as possible.
+   *
+   * @param ids Some Customer ids.
+   * @return    A {@link CompletionStage} of a Map from each id, in the order
+   *            given, to its {@link Customer}, or to an empty Optional if no
+   *            Customer has that id.
+   */
+  public CompletionStage<Map<String, Optional<Customer>>> getCustomers(Collection<String> ids) {
+    return batcher.loadAll(ids);
   }
 
   /**
@@ -111,7 +348,8 @@ public class AsyncContactHub {
    * @return A {@link CompletionStage} of {@link AsyncPaginated} {@link Customer} objects.
    */
   public CompletionStage<AsyncPaginated<Customer>> getCustomers() {
-    return CustomerApi.asyncGet(this.auth, this.clientData, GetCustomersOptions.builder().build());
+    return CustomerApi.asyncGet(this.auth, this.clientData, this.transport, this.executor,
+        GetCustomersOptions.builder().build());
   }
 
   /**
@@ -121,7 +359,20 @@ public class AsyncContactHub {
    * @return        A {@link CompletionStage} of {@link AsyncPaginated} {@link Customer} objects.
    */
   public CompletionStage<AsyncPaginated<Customer>> getCustomers(GetCustomersOptions options) {
-    return CustomerApi.asyncGet(this.auth, this.clientData, options);
+    return CustomerApi.asyncGet(this.auth, this.clientData, this.transport, this.executor, options);
+  }
+
+  /**
+   * Prepares the request for the Customers matching 'options', to run it
+   * many times: the query is encoded once, and only the page number changes
+   * between runs and pages.
+   *
+   * @param options An instance of {@link GetCustomersOptions}.
+   * @return        An {@link AsyncPreparedRequest} for {@link Customer} objects.
+   */
+  public AsyncPreparedRequest<Customer> prepareGetCustomers(GetCustomersOptions options) {
+    return CustomerApi.asyncPrepareGet(this.auth, this.clientData, this.transport, this.executor,
+        options);
   }
 
   /**
@@ -133,7 +384,7 @@ public class AsyncContactHub {
   public CompletionStage<AsyncPaginated<Customer>> getCustomerByExternalId(String externalId) {
     GetCustomersOptions options = GetCustomersOptions.builder()
                                   .externalId(externalId).build();
-    return CustomerApi.asyncGet(this.auth, this.clientData, options);
+    return CustomerApi.asyncGet(this.auth, this.clientData, this.transport, this.executor, options);
   }
 
   /**
@@ -143,7 +394,8 @@ public class AsyncContactHub {
    * @return         A {@link CompletionStage} of {@link Customer}.
    */
   public CompletionStage<Customer> addCustomer(Customer customer) {
-    return wrapAsync(() -> CustomerApi.add(this.auth, this.clientData, customer));
+    return CustomerApi.asyncAdd(this.auth, this.clientData, this.transport, this.executor,
+        customer);
   }
 
   /**
@@ -153,7 +405,7 @@ public class AsyncContactHub {
    * @return   A {@link CompletionStage}
    */
   public CompletionStage<Void> deleteCustomer(String id) {
-    return wrapAsync(() -> CustomerApi.delete(this.auth, this.clientData, id));
+    return CustomerApi.asyncDelete(this.auth, this.clientData, this.transport, this.executor, id);
   }
 
   /**
@@ -163,7 +415,8 @@ public class AsyncContactHub {
    * @return         A {@link CompletionStage} of {@link Customer}.
    */
   public CompletionStage<Customer> updateCustomer(Customer customer) {
-    return wrapAsync(() -> CustomerApi.update(this.auth, this.clientData, customer));
+    return CustomerApi.asyncUpdate(this.auth, this.clientData, this.transport, this.executor,
+        customer);
   }
 
 
@@ -175,7 +428,8 @@ public class AsyncContactHub {
    * @return              A {@link CompletionStage} of {@link Customer}.
    */
   public CompletionStage<Customer> patchCustomer(String customerId, Customer patchCustomer) {
-    return wrapAsync(() -> CustomerApi.patch(this.auth, this.clientData, customerId, patchCustomer));
+    return CustomerApi.asyncPatch(this.auth, this.clientData, this.transport, this.executor,
+        customerId, patchCustomer);
   }
 
   /**
@@ -188,7 +442,8 @@ public class AsyncContactHub {
    * @return           The Like object that was persisted by the API.
    */
   public CompletionStage<Like> addLike(String customerId, Like like) {
-    return wrapAsync(() -> LikeApi.add(this.auth, this.clientData, customerId, like));
+    return LikeApi.asyncAdd(this.auth, this.clientData, this.transport, this.executor,
+        customerId, like);
   }
 
   /**
@@ -202,7 +457,8 @@ public class AsyncContactHub {
    */
 
   public CompletionStage<Like> updateLike(String customerId, Like like) {
-    return wrapAsync(() -> LikeApi.update(this.auth, this.clientData, customerId, like));
+    return LikeApi.asyncUpdate(this.auth, this.clientData, this.transport, this.executor,
+        customerId, like);
   }
 
   /**
@@ -215,7 +471,8 @@ public class AsyncContactHub {
    * @return           A {@link CompletionStage}.
    */
   public CompletionStage<Void> removeLike(String customerId, String likeId) {
-    return wrapAsync(() -> LikeApi.remove(this.auth, this.clientData, customerId, likeId));
+    return LikeApi.asyncRemove(this.auth, this.clientData, this.transport, this.executor,
+        customerId, likeId);
   }
 
   /**
@@ -228,7 +485,8 @@ public class AsyncContactHub {
    * @return           The Job object that was persisted by the API.
    */
   public CompletionStage<Job> addJob(String customerId, Job job) {
-    return wrapAsync(() -> JobApi.add(this.auth, this.clientData, customerId, job));
+    return JobApi.asyncAdd(this.auth, this.clientData, this.transport, this.executor,
+        customerId, job);
   }
 
   /**
@@ -242,7 +500,8 @@ public class AsyncContactHub {
    */
 
   public CompletionStage<Job> updateJob(String customerId, Job job) {
-    return wrapAsync(() -> JobApi.update(this.auth, this.clientData, customerId, job));
+    return JobApi.asyncUpdate(this.auth, this.clientData, this.transport, this.executor,
+        customerId, job);
   }
 
   /**
@@ -255,7 +514,8 @@ public class AsyncContactHub {
    * @return           A {@link CompletionStage}.
    */
   public CompletionStage<Void> removeJob(String customerId, String jobId) {
-    return wrapAsync(() -> JobApi.remove(this.auth, this.clientData, customerId, jobId));
+    return JobApi.asyncRemove(this.auth, this.clientData, this.transport, this.executor,
+        customerId, jobId);
   }
 
   /**
@@ -268,7 +528,8 @@ public class AsyncContactHub {
    * @return           The Education object that was persisted by the API.
    */
   public CompletionStage<Education> addEducation(String customerId, Education education) {
-    return wrapAsync(() -> EducationApi.add(this.auth, this.clientData, customerId, education));
+    return EducationApi.asyncAdd(this.auth, this.clientData, this.transport, this.executor,
+        customerId, education);
   }
 
   /**
@@ -282,7 +543,8 @@ public class AsyncContactHub {
    */
 
   public CompletionStage<Education> updateEducation(String customerId, Education education) {
-    return wrapAsync(() -> EducationApi.update(this.auth, this.clientData, customerId, education));
+    return EducationApi.asyncUpdate(this.auth, this.clientData, this.transport, this.executor,
+        customerId, education);
   }
 
   /**
@@ -295,33 +557,68 @@ public class AsyncContactHub {
    * @return            A {@link CompletionStage}.
    */
   public CompletionStage<Void> removeEducation(String customerId, String educationId) {
-    return wrapAsync(() -> EducationApi.remove(this.auth, this.clientData, customerId, educationId));
+    return EducationApi.asyncRemove(this.auth, this.clientData, this.transport, this.executor,
+        customerId, educationId);
   }
 
   /**
    * Adds a tag to an existing Customer.
    *
-   * <p>If the tag is already present, nothing will be done.
+   * <p>If the tag is already present, nothing will be done. Concurrent tag
+   * changes to the same Customer are sent with a single update. See
+   * {@link TagMutator}.
    *
    * @param customerId The id of the Customer.
    * @param tag        The tag to be added.
    * @return           The full Customer object after the update.
    */
   public CompletionStage<Customer> addTag(String customerId, String tag) {
-    return wrapAsync(() -> TagApi.add(this.auth, this.clientData, customerId, tag));
+    return tagMutator.add(customerId, tag);
+  }
+
+  /**
+   * Adds a tag to many Customers, loading them with as few queries as
+   * possible.
+   *
+   * @param customerIds The ids of the Customers.
+   * @param tag         The tag to be added.
+   * @return            A Map from each id, in the order given, to the full
+   *                    Customer object after the update.
+   */
+  public CompletionStage<Map<String, Customer>> addTag(
+      Collection<String> customerIds, String tag
+  ) {
+    return tagMutator.addAll(customerIds, tag);
   }
 
   /**
    * Removes a tag from an existing Customer.
    *
-   * <p>If the tag is not present, nothing will be done.
+   * <p>If the tag is not present, nothing will be done. Concurrent tag
+   * changes to the same Customer are sent with a single update. See
+   * {@link TagMutator}.
    *
    * @param customerId The id of the Customer.
    * @param tag        The tag to be removed.
    * @return           The full Customer object after the update.
    */
   public CompletionStage<Customer> removeTag(String customerId, String tag) {
-    return wrapAsync(() -> TagApi.remove(this.auth, this.clientData, customerId, tag));
+    return tagMutator.remove(customerId, tag);
+  }
+
+  /**
+   * Removes a tag from many Customers, loading them with as few queries as
+   * possible.
+   *
+   * @param customerIds The ids of the Customers.
+   * @param tag         The tag to be removed.
+   * @return            A Map from each id, in the order given, to the full
+   *                    Customer object after the update.
+   */
+  public CompletionStage<Map<String, Customer>> removeTag(
+      Collection<String> customerIds, String tag
+  ) {
+    return tagMutator.removeAll(customerIds, tag);
   }
 
   /**
@@ -331,7 +628,19 @@ public class AsyncContactHub {
    * @return         A {@link CompletionStage}.
    */
   public CompletionStage<Void> addEvent(Event newEvent) {
-    return wrapAsync(() -> EventApi.add(this.auth, this.clientData, newEvent));
+    return EventApi.asyncAdd(this.auth, this.clientData, this.transport, this.executor, newEvent);
+  }
+
+  /**
+   * Returns a new {@link EventSink}, that sends Events in the background
+   * through the transport of this client. The sink must be closed before
+   * the client.
+   *
+   * @param options The {@link EventSinkOptions} for the sink.
+   * @return        A running {@link EventSink}.
+   */
+  public EventSink eventSink(EventSinkOptions options) {
+    return new EventSink(this.auth, this.clientData, this.transport, this.executor, options);
   }
 
   /**
@@ -341,7 +650,7 @@ public class AsyncContactHub {
    * @return   An {@link Event}.
    */
   public CompletionStage<Event> getEvent(String id) {
-    return wrapAsync(() -> EventApi.getById(this.auth, this.clientData, id));
+    return EventApi.asyncGetById(this.auth, this.clientData, this.transport, this.executor, id);
   }
 
   /**
@@ -351,7 +660,8 @@ public class AsyncContactHub {
    * @return           A {@link CompletionStage} of {@link AsyncPaginated} {@link Event} objects.
    */
   public CompletionStage<AsyncPaginated<Event>> getEvents(String customerId) {
-    return EventApi.asyncGet(this.auth, this.clientData, customerId, EventFilters.builder().build());
+    return EventApi.asyncGet(this.auth, this.clientData, this.transport, this.executor,
+        customerId, EventFilters.builder().build());
   }
 
   /**
@@ -364,7 +674,21 @@ public class AsyncContactHub {
   public CompletionStage<AsyncPaginated<Event>> getEvents(
       String customerId, EventFilters filters
   ) {
-    return EventApi.asyncGet(this.auth, this.clientData, customerId, filters);
+    return EventApi.asyncGet(this.auth, this.clientData, this.transport, this.executor,
+        customerId, filters);
+  }
+
+  /**
+   * Prepares the request for the Events of a Customer, with filters, to run
+   * it many times.
+   *
+   * @param customerId The id of a Customer with some Events.
+   * @param filters    An instance of {@link EventFilters}.
+   * @return           An {@link AsyncPreparedRequest} for {@link Event} objects.
+   */
+  public AsyncPreparedRequest<Event> prepareGetEvents(String customerId, EventFilters filters) {
+    return EventApi.asyncPrepareGet(this.auth, this.clientData, this.transport, this.executor,
+        customerId, filters);
   }
 
   /**
@@ -1,8 +1,36 @@
 package it.contactlab.hub.sdk.java;
 
+import it.contactlab.hub.sdk.java.batch.BatchOptions;
+import it.contactlab.hub.sdk.java.batch.CustomerBatcher;
+import it.contactlab.hub.sdk.java.bulk.BulkOptions;
+import it.contactlab.hub.sdk.java.bulk.BulkUpserter;
+import it.contactlab.hub.sdk.java.cache.CacheOptions;
+import it.contactlab.hub.sdk.java.cache.CustomerCache;
+import it.contactlab.hub.sdk.java.cache.CustomerIdResolver;
+import it.contactlab.hub.sdk.java.cache.ResolverOptions;
+import it.contactlab.hub.sdk.java.circuit.CircuitBreakerOptions;
+import it.contactlab.hub.sdk.java.circuit.StateChangeListener;
 import it.contactlab.hub.sdk.java.exceptions.ApiException;
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
 import it.contactlab.hub.sdk.java.exceptions.HttpException;
 import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.export.CustomerExporter;
+import it.contactlab.hub.sdk.java.export.ExportOptions;
+import it.contactlab.hub.sdk.java.http.CircuitBreakingHttpTransport;
+import it.contactlab.hub.sdk.java.http.CompressionOptions;
+import it.contactlab.hub.sdk.java.http.HedgeOptions;
+import it.contactlab.hub.sdk.java.http.HedgingHttpTransport;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
+import it.contactlab.hub.sdk.java.http.PooledHttpTransport;
+import it.contactlab.hub.sdk.java.http.PoolingOptions;
+import it.contactlab.hub.sdk.java.http.RateLimitedHttpTransport;
+import it.contactlab.hub.sdk.java.http.RetryOptions;
+import it.contactlab.hub.sdk.java.http.RetryingHttpTransport;
+import it.contactlab.hub.sdk.java.http.SingleFlightHttpTransport;
+import it.contactlab.hub.sdk.java.ingestion.EventOutbox;
+import it.contactlab.hub.sdk.java.ingestion.EventOutboxOptions;
+import it.contactlab.hub.sdk.java.ingestion.EventSink;
+import it.contactlab.hub.sdk.java.ingestion.EventSinkOptions;
 import it.contactlab.hub.sdk.java.internal.api.CustomerApi;
 import it.contactlab.hub.sdk.java.internal.api.EducationApi;
 import it.contactlab.hub.sdk.java.internal.api.EventApi;
@@ -10,7 +38,6 @@ import it.contactlab.hub.sdk.java.internal.api.JobApi;
 import it.contactlab.hub.sdk.java.internal.api.LikeApi;
 import it.contactlab.hub.sdk.java.internal.api.QueryApi;
 import it.contactlab.hub.sdk.java.internal.api.SessionApi;
-import it.contactlab.hub.sdk.java.internal.api.TagApi;
 import it.contactlab.hub.sdk.java.models.Customer;
 import it.contactlab.hub.sdk.java.models.Education;
 import it.contactlab.hub.sdk.java.models.Event;
@@ -18,27 +45,272 @@ import it.contactlab.hub.sdk.java.models.EventFilters;
 import it.contactlab.hub.sdk.java.models.GetCustomersOptions;
 import it.contactlab.hub.sdk.java.models.Job;
 import it.contactlab.hub.sdk.java.models.Like;
+import it.contactlab.hub.sdk.java.models.Page;
 import it.contactlab.hub.sdk.java.models.Paginated;
+import it.contactlab.hub.sdk.java.models.PreparedRequest;
 import it.contactlab.hub.sdk.java.queries.Operator;
 import it.contactlab.hub.sdk.java.queries.QueryContainer;
+import it.contactlab.hub.sdk.java.ratelimit.RateLimitOptions;
+import it.contactlab.hub.sdk.java.sync.CustomerSync;
+import it.contactlab.hub.sdk.java.sync.SyncOptions;
+import it.contactlab.hub.sdk.java.sync.WatermarkStore;
+import it.contactlab.hub.sdk.java.tags.TagMutator;
+import it.contactlab.hub.sdk.java.tags.TagOptions;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * ContactHub Java SDK (Sync version).
  */
-public class ContactHub {
+public class ContactHub implements Closeable {
 
   private final Auth auth;
   private final ClientData clientData;
+  private final HttpTransport transport;
+  private final Executor executor;
+  private final Optional<EventOutbox> outbox;
+  private final Optional<CustomerCache> cache;
+  private final Optional<CustomerIdResolver> resolver;
+  private final CustomerBatcher batcher;
+  private final boolean batchLookups;
+  private final TagMutator tagMutator;
+  private final Optional<RetryingHttpTransport> retrying;
 
   public ContactHub(Auth auth) {
       this(auth, null);
   }
 
   public ContactHub(Auth auth, ClientData clientData) {
-    this.auth = auth;
-    this.clientData = clientData;
+    this(auth, clientData, new PooledHttpTransport());
+  }
+
+  /**
+   * Creates a new ContactHub client that sends its requests through 'transport'.
+   *
+   * @param auth       The {@link Auth} params.
+   * @param clientData The {@link ClientData}, or null.
+   * @param transport  The {@link HttpTransport} owned by this client.
+   */
+  public ContactHub(Auth auth, ClientData clientData, HttpTransport transport) {
+    this(new Builder(auth).clientData(clientData), transport);
+  }
+
+  private ContactHub(Builder builder, HttpTransport transport) {
+    this.auth = builder.auth;
+    this.clientData = builder.clientData;
+    this.transport = transport;
+    this.executor = builder.executor != null ? builder.executor : ForkJoinPool.commonPool();
+    this.outbox = Optional.ofNullable(builder.outboxOptions).map(options ->
+        new EventOutbox(auth, clientData, transport, executor, options));
+    this.cache = Optional.ofNullable(builder.cacheOptions).map(options ->
+        new CustomerCache(options, executor));
+    this.resolver = Optional.ofNullable(builder.resolverOptions).map(options ->
+        new CustomerIdResolver(options, externalId -> CustomerApi.get(auth, clientData,
+            transport, GetCustomersOptions.builder().externalId(externalId).build()).elements()));
+    this.batcher = new CustomerBatcher(auth, clientData, transport, executor,
+        builder.batchOptions != null ? builder.batchOptions : BatchOptions.builder().build());
+    this.batchLookups = builder.batchOptions != null;
+    this.retrying = transport instanceof RetryingHttpTransport
+        ? Optional.of((RetryingHttpTransport) transport)
+        : builder.transports.retrying();
+    this.tagMutator = new TagMutator(auth, clientData, transport, executor,
+        builder.tagOptions != null ? builder.tagOptions : TagOptions.builder().build(),
+        batcher, cache);
+  }
+
+  public static Builder builder(Auth auth) {
+    return new Builder(auth);
+  }
+
+  /**
+   * Builds a {@link ContactHub} client with custom settings.
+   */
+  public static class Builder {
+
+    private final Auth auth;
+    private ClientData clientData;
+    private final TransportFactory transports = new TransportFactory();
+    private Executor executor;
+    private EventOutboxOptions outboxOptions;
+    private CacheOptions cacheOptions;
+    private ResolverOptions resolverOptions;
+    private BatchOptions batchOptions;
+    private TagOptions tagOptions;
+
+    private Builder(Auth auth) {
+      this.auth = auth;
+    }
+
+    public Builder clientData(ClientData clientData) {
+      this.clientData = clientData;
+      return this;
+    }
+
+    public Builder transport(HttpTransport transport) {
+      transports.transport = transport;
+      return this;
+    }
+
+    /**
+     * Sets the connection pool of the default transport. Ignored if a
+     * transport is set.
+     */
+    public Builder poolingOptions(PoolingOptions options) {
+      transports.poolingOptions = options;
+      return this;
+    }
+
+    /**
+     * Enables gzip compression on the default transport. Ignored if a
+     * transport is set.
+     */
+    public Builder compression(CompressionOptions options) {
+      transports.compression = options;
+      return this;
+    }
+
+    /**
+     * Sends a single request for concurrent, identical GET requests. See
+     * {@link SingleFlightHttpTransport}.
+     */
+    public Builder singleFlight() {
+      transports.singleFlight = true;
+      return this;
+    }
+
+    /**
+     * Sends the requests that fail with an I/O error or a transient status
+     * code again, after a random, growing wait. See {@link RetryingHttpTransport}.
+     */
+    public Builder retry(RetryOptions options) {
+      transports.retryOptions = options;
+      return this;
+    }
+
+    /**
+     * Keeps the requests under a rate shared by all the clients of the same
+     * workspace in the JVM. See {@link RateLimitedHttpTransport}.
+     */
+    public Builder rateLimit(RateLimitOptions options) {
+      transports.rateLimitOptions = options;
+      return this;
+    }
+
+    /**
+     * Fails the requests of an endpoint group at once, without sending them,
+     * while too many of its latest requests failed or were slow. See
+     * {@link CircuitBreakingHttpTransport}.
+     *
+     * @param listeners Notified when a circuit opens, becomes half-open or
+     *                  closes.
+     */
+    public Builder circuitBreaker(
+        CircuitBreakerOptions options, StateChangeListener... listeners
+    ) {
+      transports.circuitBreakerOptions = options;
+      transports.circuitListeners = listeners;
+      return this;
+    }
+
+    /**
+     * Sends a GET request a second time when its response is late, and uses
+     * the response that arrives first. See {@link HedgingHttpTransport}.
+     */
+    public Builder hedging(HedgeOptions options) {
+      transports.hedgeOptions = options;
+      return this;
+    }
+
+    /**
+     * Sets the {@link Executor} of the background work of the client: the
+     * {@link EventOutbox} and {@link EventSink} responses, the cache
+     * refreshes, the batched lookups and the tag changes. It defaults to the
+     * common ForkJoin pool, and is not shut down by {@link ContactHub#close()}.
+     */
+    public Builder executor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Makes {@link ContactHub#addEvent(Event)} write Events to a durable
+     * {@link EventOutbox} instead of sending them right away.
+     */
+    public Builder eventOutbox(EventOutboxOptions options) {
+      this.outboxOptions = options;
+      return this;
+    }
+
+    /**
+     * Caches the Customers read with {@link ContactHub#getCustomer(String)}.
+     * Updates made through the client refresh or invalidate the cached copy.
+     */
+    public Builder customerCache(CacheOptions options) {
+      this.cacheOptions = options;
+      return this;
+    }
+
+    /**
+     * Remembers which Customer id each external id resolves to. The resolver
+     * is also used by {@link ContactHub#addEvent(Event)}, to send Events with
+     * an external id straight to the right Customer.
+     */
+    public Builder customerIdResolver(ResolverOptions options) {
+      this.resolverOptions = options;
+      return this;
+    }
+
+    /**
+     * Makes {@link ContactHub#getCustomer(String)} wait for a short window,
+     * and load all the ids requested meanwhile with a single query. See
+     * {@link CustomerBatcher}.
+     */
+    public Builder batchCustomerLookups(BatchOptions options) {
+      this.batchOptions = options;
+      return this;
+    }
+
+    /**
+     * Sets how the tag changes made with {@link ContactHub#addTag(String, String)}
+     * and {@link ContactHub#removeTag(String, String)} are grouped. See
+     * {@link TagMutator}.
+     */
+    public Builder tagMutations(TagOptions options) {
+      this.tagOptions = options;
+      return this;
+    }
+
+    /**
+     * Returns a new {@link ContactHub}, using a {@link PooledHttpTransport}
+     * with the pooling and compression settings if no transport was set.
+     */
+    public ContactHub build() {
+      return new ContactHub(this, transports.build(auth.workspaceId));
+    }
+  }
+
+  /**
+   * Releases the connections held by the {@link HttpTransport} of this client,
+   * after closing its {@link EventOutbox}, if any.
+   */
+  @Override
+  public void close() throws IOException {
+    if (outbox.isPresent()) {
+      outbox.get().close();
+    }
+    transport.close();
   }
 
   /**
@@ -62,7 +334,7 @@ public class ContactHub {
    */
   public void addCustomerSession(String customerId, String sessionId)
       throws ApiException, ServerException, HttpException {
-    SessionApi.reconcile(this.auth, this.clientData, customerId, sessionId);
+    SessionApi.reconcile(this.auth, this.clientData, this.transport, customerId, sessionId);
   }
 
   /**
@@ -77,7 +349,80 @@ public class ContactHub {
    */
   public Customer getCustomer(String id)
       throws ApiException, ServerException, HttpException {
-    return CustomerApi.getById(this.auth, this.clientData, id);
+    if (cache.isPresent()) {
+      return cache.get().get(id, this::loadCustomer);
+    }
+    return loadCustomer(id);
+  }
+
+  /**
+   * Retrieves many Customers by id, with as few queries as possible.
+   *
+   * @param ids Some Customer ids.
+   * @return    A Map from each id, in the order given, to its {@link Customer},
+   *            or to an empty Optional if no Customer has that id.
+   *
+   * @throws ApiException    if the API returns an error.
+   * @throws ServerException if the API returns an unexpected response.
+   * @throws HttpException   if the API request cannot be completed.
+   */
+  public Map<String, Optional<Customer>> getCustomers(Collection<String> ids)
+      throws ApiException, ServerException, HttpException {
+    if (!cache.isPresent()) {
+      return join(batcher.loadAll(ids));
+    }
+
+    Map<String, Optional<Customer>> customers = new LinkedHashMap<>();
+    List<String> misses = new ArrayList<>();
+    for (String id : ids) {
+      Optional<Customer> cached = cache.get().getIfPresent(id);
+      customers.put(id, cached);
+      if (!cached.isPresent()) {
+        misses.add(id);
+      }
+    }
+
+    Map<String, Optional<Customer>> loaded = join(batcher.loadAll(misses));
+    loaded.forEach((id, customer) -> {
+      customer.ifPresent(cache.get()::put);
+      customers.put(id, customer);
+    });
+    return customers;
+  }
+
+  /**
+   * Loads a Customer through the batcher, if enabled. The ids the batch
+   * query did not find are requested on their own, so that a missing
+   * Customer fails with the same error as without batching.
+   */
+  private Customer loadCustomer(String id)
+      throws ApiException, ServerException, HttpException {
+    if (batchLookups) {
+      Optional<Customer> customer = join(batcher.load(id));
+      if (customer.isPresent()) {
+        return customer.get();
+      }
+    }
+    return CustomerApi.getById(this.auth, this.clientData, this.transport, id);
+  }
+
+  private static <T> T join(CompletableFuture<T> future)
+      throws ApiException, ServerException, HttpException {
+    try {
+      return future.join();
+    } catch (CompletionException exception) {
+      Throwable cause = exception.getCause();
+      if (cause instanceof ApiException) {
+        throw (ApiException) cause;
+      }
+      if (cause instanceof ServerException) {
+        throw (ServerException) cause;
+      }
+      if (cause instanceof HttpException) {
+        throw (HttpException) cause;
+      }
+      throw exception;
+    }
   }
 
   /**
@@ -91,7 +436,8 @@ public class ContactHub {
    */
   public Paginated<Customer> getCustomers()
       throws ApiException, ServerException, HttpException {
-    return CustomerApi.get(this.auth, this.clientData, GetCustomersOptions.builder().build());
+    return CustomerApi.get(this.auth, this.clientData, this.transport,
+        GetCustomersOptions.builder().build());
   }
 
   /**
@@ -106,7 +452,38 @@ public class ContactHub {
    */
   public Paginated<Customer> getCustomers(GetCustomersOptions options)
       throws ApiException, ServerException, HttpException {
-    return CustomerApi.get(this.auth, this.clientData, options);
+    return CustomerApi.get(this.auth, this.clientData, this.transport, options);
+  }
+
+  /**
+   * Prepares the request for the Customers matching 'options', to run it
+   * many times: the query is encoded once, and only the page number changes
+   * between runs and pages.
+   *
+   * @param options An instance of {@link GetCustomersOptions}.
+   * @return        A {@link PreparedRequest} for {@link Customer} objects.
+   */
+  public PreparedRequest<Customer> prepareGetCustomers(GetCustomersOptions options) {
+    return CustomerApi.prepareGet(this.auth, this.clientData, this.transport, options);
+  }
+
+  /**
+   * Retrieves a single page of Customers, filtered and ordered with 'options',
+   * passing each Customer to 'consumer' while the response is being read.
+   * Unlike {@link #getCustomers(GetCustomersOptions)}, the page is never
+   * held in memory as a whole.
+   *
+   * @param options  An instance of {@link GetCustomersOptions}.
+   * @param consumer Called once for every {@link Customer} of the page.
+   * @return         The {@link Page} information, to request the next pages.
+   *
+   * @throws ApiException    if the API returns an error.
+   * @throws ServerException if the API returns an unexpected response.
+   * @throws HttpException   if the API request cannot be completed.
+   */
+  public Page forEachCustomer(GetCustomersOptions options, Consumer<? super Customer> consumer)
+      throws ApiException, ServerException, HttpException {
+    return CustomerApi.forEach(this.auth, this.clientData, this.transport, options, consumer);
   }
 
   /**
@@ -123,7 +500,7 @@ public class ContactHub {
       throws ApiException, ServerException, HttpException {
     GetCustomersOptions options = GetCustomersOptions.builder()
                                   .externalId(externalId).build();
-    return CustomerApi.get(this.auth, this.clientData, options);
+    return CustomerApi.get(this.auth, this.clientData, this.transport, options);
   }
 
   /**
@@ -138,7 +515,7 @@ public class ContactHub {
    */
   public Customer addCustomer(Customer customer)
       throws ApiException, ServerException, HttpException {
-    return CustomerApi.add(this.auth, this.clientData, customer);
+    return cached(CustomerApi.add(this.auth, this.clientData, this.transport, customer));
   }
 
   /**
@@ -152,7 +529,12 @@ public class ContactHub {
    */
   public void deleteCustomer(String id)
       throws ApiException, ServerException, HttpException {
-    CustomerApi.delete(this.auth, this.clientData, id);
+    try {
+      CustomerApi.delete(this.auth, this.clientData, this.transport, id);
+    } finally {
+      invalidate(id);
+      resolver.ifPresent(customerIdResolver -> customerIdResolver.invalidateCustomer(id));
+    }
   }
 
   /**
@@ -167,7 +549,7 @@ public class ContactHub {
    */
   public Customer updateCustomer(Customer customer)
       throws ApiException, ServerException, HttpException {
-    return CustomerApi.update(this.auth, this.clientData, customer);
+    return cached(CustomerApi.update(this.auth, this.clientData, this.transport, customer));
   }
 
 
@@ -184,7 +566,8 @@ public class ContactHub {
    */
   public Customer patchCustomer(String customerId, Customer patchCustomer)
       throws ApiException, ServerException, HttpException {
-    return CustomerApi.patch(this.auth, this.clientData, customerId, patchCustomer);
+    return cached(CustomerApi.patch(this.auth, this.clientData, this.transport,
+        customerId, patchCustomer));
   }
 
   /**
@@ -202,7 +585,11 @@ public class ContactHub {
    */
   public Like addLike(String customerId, Like like)
       throws ApiException, ServerException, HttpException {
-    return LikeApi.add(this.auth, this.clientData, customerId, like);
+    try {
+      return LikeApi.add(this.auth, this.clientData, this.transport, customerId, like);
+    } finally {
+      invalidate(customerId);
+    }
   }
 
   /**
@@ -221,7 +608,11 @@ public class ContactHub {
 
   public Like updateLike(String customerId, Like like)
       throws ApiException, ServerException, HttpException {
-    return LikeApi.update(this.auth, this.clientData, customerId, like);
+    try {
+      return LikeApi.update(this.auth, this.clientData, this.transport, customerId, like);
+    } finally {
+      invalidate(customerId);
+    }
   }
 
   /**
@@ -238,7 +629,11 @@ public class ContactHub {
    */
   public void removeLike(String customerId, String likeId)
       throws ApiException, ServerException, HttpException {
-    LikeApi.remove(this.auth, this.clientData, customerId, likeId);
+    try {
+      LikeApi.remove(this.auth, this.clientData, this.transport, customerId, likeId);
+    } finally {
+      invalidate(customerId);
+    }
   }
 
   /**
@@ -256,7 +651,11 @@ public class ContactHub {
    */
   public Job addJob(String customerId, Job job)
       throws ApiException, ServerException, HttpException {
-    return JobApi.add(this.auth, this.clientData, customerId, job);
+    try {
+      return JobApi.add(this.auth, this.clientData, this.transport, customerId, job);
+    } finally {
+      invalidate(customerId);
+    }
   }
 
   /**
@@ -275,7 +674,11 @@ public class ContactHub {
 
   public Job updateJob(String customerId, Job job)
       throws ApiException, ServerException, HttpException {
-    return JobApi.update(this.auth, this.clientData, customerId, job);
+    try {
+      return JobApi.update(this.auth, this.clientData, this.transport, customerId, job);
+    } finally {
+      invalidate(customerId);
+    }
   }
 
   /**
@@ -292,7 +695,11 @@ public class ContactHub {
    */
   public void removeJob(String customerId, String jobId)
       throws ApiException, ServerException, HttpException {
-    JobApi.remove(this.auth, this.clientData, customerId, jobId);
+    try {
+      JobApi.remove(this.auth, this.clientData, this.transport, customerId, jobId);
+    } finally {
+      invalidate(customerId);
+    }
   }
 
   /**
@@ -310,7 +717,11 @@ public class ContactHub {
    */
   public Education addEducation(String customerId, Education education)
       throws ApiException, ServerException, HttpException {
-    return EducationApi.add(this.auth, this.clientData, customerId, education);
+    try {
+      return EducationApi.add(this.auth, this.clientData, this.transport, customerId, education);
+    } finally {
+      invalidate(customerId);
+    }
   }
 
   /**
@@ -329,7 +740,11 @@ public class ContactHub {
 
   public Education updateEducation(String customerId, Education education)
       throws ApiException, ServerException, HttpException {
-    return EducationApi.update(this.auth, this.clientData, customerId, education);
+    try {
+      return EducationApi.update(this.auth, this.clientData, this.transport, customerId, education);
+    } finally {
+      invalidate(customerId);
+    }
   }
 
   /**
@@ -346,13 +761,19 @@ public class ContactHub {
    */
   public void removeEducation(String customerId, String educationId)
       throws ApiException, ServerException, HttpException {
-    EducationApi.remove(this.auth, this.clientData, customerId, educationId);
+    try {
+      EducationApi.remove(this.auth, this.clientData, this.transport, customerId, educationId);
+    } finally {
+      invalidate(customerId);
+    }
   }
 
   /**
    * Adds a tag to an existing Customer.
    *
-   * <p>If the tag is already present, nothing will be done.
+   * <p>If the tag is already present, nothing will be done. Concurrent tag
+   * changes to the same Customer are sent with a single update. See
+   * {@link TagMutator}.
    *
    * @param customerId The id of the Customer.
    * @param tag        The tag to be added.
@@ -364,13 +785,33 @@ public class ContactHub {
    */
   public Customer addTag(String customerId, String tag)
       throws ApiException, ServerException, HttpException {
-    return TagApi.add(this.auth, this.clientData, customerId, tag);
+    return join(tagMutator.add(customerId, tag));
+  }
+
+  /**
+   * Adds a tag to many Customers, loading them with as few queries as
+   * possible.
+   *
+   * @param customerIds The ids of the Customers.
+   * @param tag         The tag to be added.
+   * @return            A Map from each id, in the order given, to the full
+   *                    Customer object after the update.
+   *
+   * @throws ApiException    if the API returns an error for any Customer.
+   * @throws ServerException if the API returns an unexpected response.
+   * @throws HttpException   if an API request cannot be completed.
+   */
+  public Map<String, Customer> addTag(Collection<String> customerIds, String tag)
+      throws ApiException, ServerException, HttpException {
+    return join(tagMutator.addAll(customerIds, tag));
   }
 
   /**
    * Removes a tag from an existing Customer.
    *
-   * <p>If the tag is not present, nothing will be done.
+   * <p>If the tag is not present, nothing will be done. Concurrent tag
+   * changes to the same Customer are sent with a single update. See
+   * {@link TagMutator}.
    *
    * @param customerId The id of the Customer.
    * @param tag        The tag to be removed.
@@ -382,11 +823,30 @@ public class ContactHub {
    */
   public Customer removeTag(String customerId, String tag)
       throws ApiException, ServerException, HttpException {
-    return TagApi.remove(this.auth, this.clientData, customerId, tag);
+    return join(tagMutator.remove(customerId, tag));
   }
 
   /**
-   * Adds a new Event.
+   * Removes a tag from many Customers, loading them with as few queries as
+   * possible.
+   *
+   * @param customerIds The ids of the Customers.
+   * @param tag         The tag to be removed.
+   * @return            A Map from each id, in the order given, to the full
+   *                    Customer object after the update.
+   *
+   * @throws ApiException    if the API returns an error for any Customer.
+   * @throws ServerException if the API returns an unexpected response.
+   * @throws HttpException   if an API request cannot be completed.
+   */
+  public Map<String, Customer> removeTag(Collection<String> customerIds, String tag)
+      throws ApiException, ServerException, HttpException {
+    return join(tagMutator.removeAll(customerIds, tag));
+  }
+
+  /**
+   * Adds a new Event. If the client has an {@link EventOutbox}, the Event is
+   * written to it and sent later.
    *
    * @param newEvent The {@link Event} to create.
    *
@@ -396,7 +856,176 @@ public class ContactHub {
    */
   public void addEvent(Event newEvent)
       throws ApiException, ServerException, HttpException {
-    EventApi.add(this.auth, this.clientData, newEvent);
+    Event event = withResolvedCustomerId(newEvent);
+
+    if (outbox.isPresent()) {
+      outbox.get().add(event);
+    } else {
+      EventApi.add(this.auth, this.clientData, this.transport, event);
+    }
+  }
+
+  /**
+   * Replaces the external id of an Event with the Customer id it resolves to,
+   * so that the API does not have to resolve it again. The Event is left as
+   * it is if the external id cannot be resolved. With an outbox, only the
+   * external ids already known are used, to never wait for the API.
+   */
+  private Event withResolvedCustomerId(Event event) {
+    if (!resolver.isPresent() || event.customerId().isPresent()
+        || !event.externalId().isPresent()) {
+      return event;
+    }
+
+    String externalId = event.externalId().get();
+    Optional<String> customerId;
+    try {
+      customerId = outbox.isPresent()
+          ? resolver.get().peek(externalId)
+          : resolver.get().resolve(externalId);
+    } catch (ContactHubException exception) {
+      return event;
+    }
+
+    return customerId
+        .map(id -> event.withCustomerId(id).withExternalId(Optional.empty()))
+        .orElse(event);
+  }
+
+  /**
+   * Returns the id of the only Customer with an external id. With a resolver,
+   * the answer is cached, even when there is no such Customer.
+   *
+   * @param externalId A Customer external id.
+   * @return           The Customer id, or an empty Optional if no single
+   *                   Customer has this external id.
+   *
+   * @throws ApiException    if the API returns an error.
+   * @throws ServerException if the API returns an unexpected response.
+   * @throws HttpException   if the API request cannot be completed.
+   */
+  public Optional<String> resolveCustomerId(String externalId)
+      throws ApiException, ServerException, HttpException {
+    if (resolver.isPresent()) {
+      return resolver.get().resolve(externalId);
+    }
+
+    List<Customer> customers = getCustomerByExternalId(externalId).elements();
+    return customers.size() == 1 ? customers.get(0).id() : Optional.empty();
+  }
+
+  /**
+   * Loads the external ids of all the Customers matching 'options' into the
+   * resolver, one page at a time.
+   *
+   * @param options An instance of {@link GetCustomersOptions}.
+   * @return        The number of Customers with an external id.
+   *
+   * @throws IllegalStateException if the client was built without a resolver.
+   * @throws ApiException    if the API returns an error.
+   * @throws ServerException if the API returns an unexpected response.
+   * @throws HttpException   if the API request cannot be completed.
+   */
+  public int warmUpCustomerIds(GetCustomersOptions options)
+      throws ApiException, ServerException, HttpException {
+    CustomerIdResolver customerIdResolver = resolver.orElseThrow(() ->
+        new IllegalStateException("This client has no CustomerIdResolver"));
+
+    int added = 0;
+    int pageNumber = options.page().orElse(0);
+    Page page;
+    do {
+      List<Customer> customers = new ArrayList<>();
+      page = forEachCustomer(options.withPage(pageNumber), customers::add);
+      added += customerIdResolver.addAll(customers);
+      pageNumber++;
+    } while (pageNumber < page.totalPages());
+
+    return added;
+  }
+
+  /**
+   * Returns the {@link CustomerIdResolver} of this client, if it was built
+   * with one.
+   */
+  public Optional<CustomerIdResolver> customerIdResolver() {
+    return resolver;
+  }
+
+  /**
+   * Returns the {@link CustomerCache} of this client, if it was built with one.
+   */
+  public Optional<CustomerCache> customerCache() {
+    return cache;
+  }
+
+  /**
+   * Returns the {@link RetryingHttpTransport} of this client, if it was built
+   * with {@link Builder#retry(RetryOptions)} or given one as its transport.
+   * Its {@link RetryingHttpTransport#retries()} and
+   * {@link RetryingHttpTransport#exhausted()} count the requests sent again.
+   */
+  public Optional<RetryingHttpTransport> retryingTransport() {
+    return retrying;
+  }
+
+  /**
+   * Returns the {@link EventOutbox} of this client, if it was built with one.
+   */
+  public Optional<EventOutbox> eventOutbox() {
+    return outbox;
+  }
+
+  /**
+   * Returns a new {@link EventSink}, that sends Events in the background
+   * through the transport of this client. The sink must be closed before
+   * the client.
+   *
+   * @param options The {@link EventSinkOptions} for the sink.
+   * @return        A running {@link EventSink}.
+   */
+  public EventSink eventSink(EventSinkOptions options) {
+    return new EventSink(this.auth, this.clientData, this.transport,
+        this.executor, options);
+  }
+
+  /**
+   * Returns a new {@link CustomerExporter}, that writes the Customers of the
+   * node as newline-delimited JSON through the transport of this client.
+   *
+   * @param options The {@link ExportOptions} for the export.
+   * @return        A {@link CustomerExporter}, ready to export.
+   */
+  public CustomerExporter customerExporter(ExportOptions options) {
+    return new CustomerExporter(this.auth, this.clientData, this.transport, options);
+  }
+
+  /**
+   * Returns a new {@link CustomerSync}, that delivers the Customers changed
+   * since the watermark kept in 'store'.
+   *
+   * @param options The {@link SyncOptions} for the sync.
+   * @param store   Where the watermark is kept between runs, e.g. a
+   *                {@link it.contactlab.hub.sdk.java.sync.FileWatermarkStore}.
+   * @return        A {@link CustomerSync}, ready to run.
+   */
+  public CustomerSync customerSync(SyncOptions options, WatermarkStore store) {
+    return new CustomerSync(this.auth, this.clientData, this.transport, options, store);
+  }
+
+  /**
+   * Returns a new {@link BulkUpserter}, that adds or updates many Customers
+   * through the transport of this client, and keeps the cache up to date.
+   * If the client retries its requests, the upserter does not retry them
+   * again: {@link BulkOptions#maxRetries()} is ignored.
+   *
+   * @param options The {@link BulkOptions} for the upserts.
+   * @return        A {@link BulkUpserter}, ready to upsert.
+   */
+  public BulkUpserter bulkUpserter(BulkOptions options) {
+    BulkOptions upsertOptions =
+        retrying.isPresent() ? BulkOptions.copyOf(options).withMaxRetries(0) : options;
+    return new BulkUpserter(this.auth, this.clientData, this.transport, upsertOptions, cache);
   }
 
   /**
@@ -411,7 +1040,7 @@ public class ContactHub {
    */
   public Event getEvent(String id)
       throws ApiException, ServerException, HttpException {
-    return EventApi.getById(this.auth, this.clientData, id);
+    return EventApi.getById(this.auth, this.clientData, this.transport, id);
   }
 
   /**
@@ -426,7 +1055,8 @@ public class ContactHub {
    */
   public Paginated<Event> getEvents(String customerId)
       throws ApiException, ServerException, HttpException {
-    return EventApi.get(this.auth, this.clientData, customerId, EventFilters.builder().build());
+    return EventApi.get(this.auth, this.clientData, this.transport,
+        customerId, EventFilters.builder().build());
   }
 
   /**
@@ -442,7 +1072,49 @@ public class ContactHub {
    */
   public Paginated<Event> getEvents(String customerId, EventFilters filters)
       throws ApiException, ServerException, HttpException {
-    return EventApi.get(this.auth, this.clientData, customerId, filters);
+    return EventApi.get(this.auth, this.clientData, this.transport, customerId, filters);
+  }
+
+  /**
+   * Prepares the request for the Events of a Customer, with filters, to run
+   * it many times.
+   *
+   * @param customerId The id of a Customer with some Events.
+   * @param filters    An instance of {@link EventFilters}.
+   * @return A {@link PreparedRequest} for {@link Event} objects.
+   */
+  public PreparedRequest<Event> prepareGetEvents(String customerId, EventFilters filters) {
+    return EventApi.prepareGet(this.auth, this.clientData, this.transport, customerId, filters);
+  }
+
+  /**
+   * Retrieves a single page of Events for a Customer, passing each Event to
+   * 'consumer' while the response is being read.
+   *
+   * @param customerId The id of a Customer with some Events.
+   * @param filters    An instance of {@link EventFilters}.
+   * @param consumer   Called once for every {@link Event} of the page.
+   * @return The {@link Page} information, to request the next pages.
+   *
+   * @throws ApiException    if the API returns an error.
+   * @throws ServerException if the API returns an unexpected response.
+   * @throws HttpException   if the API request cannot be completed.
+   */
+  public Page forEachEvent(
+      String customerId, EventFilters filters, Consumer<? super Event> consumer
+  ) throws ApiException, ServerException, HttpException {
+    return EventApi.forEach(this.auth, this.clientData, this.transport,
+        customerId, filters, consumer);
+  }
+
+  private Customer cached(Customer customer) {
+    cache.ifPresent(customerCache -> customerCache.put(customer));
+    resolver.ifPresent(customerIdResolver -> customerIdResolver.add(customer));
+    return customer;
+  }
+
+  private void invalidate(String customerId) {
+    cache.ifPresent(customerCache -> customerCache.invalidate(customerId));
   }
 
   /**
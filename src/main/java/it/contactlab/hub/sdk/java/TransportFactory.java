@@ -0,0 +1,95 @@
+package it.contactlab.hub.sdk.java;
+
+import it.contactlab.hub.sdk.java.circuit.CircuitBreakerOptions;
+import it.contactlab.hub.sdk.java.circuit.StateChangeListener;
+import it.contactlab.hub.sdk.java.http.CircuitBreakingHttpTransport;
+import it.contactlab.hub.sdk.java.http.CompressionOptions;
+import it.contactlab.hub.sdk.java.http.HedgeOptions;
+import it.contactlab.hub.sdk.java.http.HedgingHttpTransport;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
+import it.contactlab.hub.sdk.java.http.PooledHttpTransport;
+import it.contactlab.hub.sdk.java.http.PoolingOptions;
+import it.contactlab.hub.sdk.java.http.RateLimitedHttpTransport;
+import it.contactlab.hub.sdk.java.http.RetryOptions;
+import it.contactlab.hub.sdk.java.http.RetryingHttpTransport;
+import it.contactlab.hub.sdk.java.http.SingleFlightHttpTransport;
+import it.contactlab.hub.sdk.java.ratelimit.RateLimitOptions;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The transport settings of {@link ContactHub.Builder} and
+ * {@link AsyncContactHub.Builder}, and the transport built from them.
+ */
+class TransportFactory {
+
+  HttpTransport transport;
+  PoolingOptions poolingOptions;
+  CompressionOptions compression;
+  boolean singleFlight;
+  RetryOptions retryOptions;
+  RateLimitOptions rateLimitOptions;
+  CircuitBreakerOptions circuitBreakerOptions;
+  StateChangeListener[] circuitListeners = new StateChangeListener[0];
+  HedgeOptions hedgeOptions;
+
+  private RetryingHttpTransport retrying;
+
+  /**
+   * The transport of the chain that sends failed requests again: the one
+   * made by the last {@link #build(String)}, or the transport that was set,
+   * if it is a {@link RetryingHttpTransport}.
+   */
+  Optional<RetryingHttpTransport> retrying() {
+    if (retrying != null) {
+      return Optional.of(retrying);
+    }
+    return transport instanceof RetryingHttpTransport
+        ? Optional.of((RetryingHttpTransport) transport)
+        : Optional.empty();
+  }
+
+  /**
+   * Returns the transport that was set, or a {@link PooledHttpTransport}
+   * with the pooling and compression settings, wrapped in the enabled
+   * decorators.
+   */
+  HttpTransport build(String workspaceId) {
+    return decorate(transport != null ? transport : defaultTransport(), workspaceId);
+  }
+
+  private HttpTransport decorate(HttpTransport transport, String workspaceId) {
+    // Every attempt takes a permit, and then goes through the circuit
+    // breaker, that times the request only. The second request of a hedged
+    // GET is sent below both: it takes no permit, and the breaker records a
+    // single outcome for the two. Requests joined by single-flight are
+    // retried once, for all the callers. Hedging is right on top of the
+    // transport, that can abort the slower request.
+    HttpTransport hedging =
+        hedgeOptions != null ? new HedgingHttpTransport(transport, hedgeOptions) : transport;
+    HttpTransport guarded = hedging;
+    if (circuitBreakerOptions != null) {
+      CircuitBreakingHttpTransport breaking =
+          new CircuitBreakingHttpTransport(hedging, circuitBreakerOptions);
+      Arrays.stream(circuitListeners).forEach(breaking::addListener);
+      guarded = breaking;
+    }
+    HttpTransport limited = rateLimitOptions != null
+        ? new RateLimitedHttpTransport(guarded, workspaceId, rateLimitOptions)
+        : guarded;
+    retrying = retryOptions != null ? new RetryingHttpTransport(limited, retryOptions) : null;
+    HttpTransport retried = retrying != null ? retrying : limited;
+    return singleFlight ? new SingleFlightHttpTransport(retried) : retried;
+  }
+
+  private HttpTransport defaultTransport() {
+    PoolingOptions pooling =
+        poolingOptions != null ? poolingOptions : PoolingOptions.builder().build();
+
+    return compression != null
+        ? new PooledHttpTransport(pooling, compression)
+        : new PooledHttpTransport(pooling);
+  }
+
+}
@@ -0,0 +1,41 @@
+package it.contactlab.hub.sdk.java.batch;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Settings for a {@link CustomerBatcher}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractBatchOptions {
+
+  /**
+   * The maximum number of ids in a single query. A batch is sent as soon as
+   * it is full.
+   */
+  @Value.Default
+  public int maxBatchSize() {
+    return 50;
+  }
+
+  /**
+   * How long a batch waits for more ids after the first one.
+   */
+  @Value.Default
+  public Duration window() {
+    return Duration.ofMillis(5);
+  }
+
+  @Value.Check
+  protected void check() {
+    if (maxBatchSize() < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be positive");
+    }
+    if (window().isNegative()) {
+      throw new IllegalArgumentException("window cannot be negative");
+    }
+  }
+
+}
@@ -0,0 +1,190 @@
+package it.contactlab.hub.sdk.java.batch;
+
+import it.contactlab.hub.sdk.java.Auth;
+import it.contactlab.hub.sdk.java.ClientData;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
+import it.contactlab.hub.sdk.java.internal.api.CustomerApi;
+import it.contactlab.hub.sdk.java.internal.api.QueryApi;
+import it.contactlab.hub.sdk.java.models.Customer;
+import it.contactlab.hub.sdk.java.models.GetCustomersOptions;
+import it.contactlab.hub.sdk.java.queries.Operator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects the Customer ids requested within a short window, and loads them
+ * all with a single query on the "id" attribute with the IN operator.
+ *
+ * <p>Each caller gets its own future, completed with an empty Optional if no
+ * Customer has the requested id. If the query fails, every future of the
+ * batch fails with the same exception.</p>
+ */
+public class CustomerBatcher {
+
+  private static final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "contacthub-batcher-timer");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final Auth auth;
+  private final ClientData clientData;
+  private final HttpTransport transport;
+  private final Executor executor;
+  private final BatchOptions options;
+
+  private Map<String, CompletableFuture<Optional<Customer>>> pending = new LinkedHashMap<>();
+  private ScheduledFuture<?> scheduledFlush;
+
+  /**
+   * Creates a new batcher.
+   *
+   * @param executor Processes the responses of the API.
+   * @param options  The {@link BatchOptions} for the batcher.
+   */
+  public CustomerBatcher(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      BatchOptions options
+  ) {
+    this.auth = auth;
+    this.clientData = clientData;
+    this.transport = transport;
+    this.executor = executor;
+    this.options = options;
+  }
+
+  /**
+   * Adds an id to the current batch.
+   *
+   * @param id A Customer id.
+   * @return   A future of the Customer, or of an empty Optional if not found.
+   */
+  public CompletableFuture<Optional<Customer>> load(String id) {
+    // A copy, so that a caller completing its own future cannot affect the others.
+    return enqueue(id).thenApply(Function.identity());
+  }
+
+  /**
+   * Loads many ids at once, without waiting for the window to expire.
+   *
+   * @param ids Some Customer ids.
+   * @return    A future of a Map from each id, in the order given, to its Customer.
+   */
+  public CompletableFuture<Map<String, Optional<Customer>>> loadAll(Collection<String> ids) {
+    Map<String, CompletableFuture<Optional<Customer>>> futures = new LinkedHashMap<>();
+    for (String id : ids) {
+      futures.computeIfAbsent(id, this::enqueue);
+    }
+    flush();
+
+    return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+        .thenApply(done -> {
+          Map<String, Optional<Customer>> customers = new LinkedHashMap<>();
+          futures.forEach((id, future) -> customers.put(id, future.join()));
+          return customers;
+        });
+  }
+
+  /**
+   * Sends the current batch right away.
+   */
+  public void flush() {
+    Map<String, CompletableFuture<Optional<Customer>>> batch;
+    synchronized (this) {
+      batch = takePending();
+    }
+    dispatch(batch);
+  }
+
+  private CompletableFuture<Optional<Customer>> enqueue(String id) {
+    Map<String, CompletableFuture<Optional<Customer>>> fullBatch = null;
+    CompletableFuture<Optional<Customer>> future;
+
+    synchronized (this) {
+      future = pending.get(id);
+      if (future == null) {
+        future = new CompletableFuture<>();
+        pending.put(id, future);
+
+        if (pending.size() >= options.maxBatchSize()) {
+          fullBatch = takePending();
+        } else if (pending.size() == 1) {
+          scheduledFlush = timer.schedule(this::flush,
+              options.window().toNanos(), TimeUnit.NANOSECONDS);
+        }
+      }
+    }
+
+    if (fullBatch != null) {
+      dispatch(fullBatch);
+    }
+    return future;
+  }
+
+  private Map<String, CompletableFuture<Optional<Customer>>> takePending() {
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    Map<String, CompletableFuture<Optional<Customer>>> batch = pending;
+    pending = new LinkedHashMap<>();
+    return batch;
+  }
+
+  private void dispatch(Map<String, CompletableFuture<Optional<Customer>>> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    List<String> ids = new ArrayList<>(batch.keySet());
+    GetCustomersOptions query = GetCustomersOptions.builder()
+        .query(QueryApi.createQuery("id", Operator.IN, Optional.of(ids)))
+        .pageSize(ids.size())
+        .build();
+
+    fetch(query, 0, new HashMap<>()).whenComplete((found, exception) -> {
+      batch.forEach((id, future) -> {
+        if (exception == null) {
+          future.complete(Optional.ofNullable(found.get(id)));
+        } else {
+          future.completeExceptionally(exception);
+        }
+      });
+    });
+  }
+
+  /**
+   * Collects the Customers of every page of the query, in case the API
+   * returns fewer elements per page than requested.
+   */
+  private CompletionStage<Map<String, Customer>> fetch(
+      GetCustomersOptions query, int pageNumber, Map<String, Customer> found
+  ) {
+    return CustomerApi.asyncGet(auth, clientData, transport, executor, query.withPage(pageNumber))
+        .thenCompose(result -> {
+          for (Customer customer : result.elements()) {
+            customer.id().ifPresent(id -> found.put(id, customer));
+          }
+          if (result.page().number() + 1 < result.page().totalPages()) {
+            return fetch(query, pageNumber + 1, found);
+          }
+          return CompletableFuture.completedFuture(found);
+        });
+  }
+
+}
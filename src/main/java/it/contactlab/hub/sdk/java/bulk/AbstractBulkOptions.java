@@ -0,0 +1,74 @@
+package it.contactlab.hub.sdk.java.bulk;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Settings for a {@link BulkUpserter}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractBulkOptions {
+
+  /**
+   * The maximum number of Customers being written at the same time.
+   */
+  @Value.Default
+  public int concurrency() {
+    return 8;
+  }
+
+  /**
+   * Updates the existing Customers with a PATCH, instead of replacing them.
+   */
+  @Value.Default
+  public boolean patch() {
+    return false;
+  }
+
+  /**
+   * How many times a Customer is written again after a transient failure:
+   * an I/O error, a 429 or a 5xx response.
+   *
+   * <p>Ignored by the upserters of a client built with
+   * {@code .retry(RetryOptions)}: its transport retries the requests
+   * already, so that they are not retried twice over.</p>
+   */
+  @Value.Default
+  public int maxRetries() {
+    return 3;
+  }
+
+  /**
+   * The longest wait before the first retry, doubled at each of the next
+   * ones. Each wait is picked at random below it.
+   */
+  @Value.Default
+  public Duration retryBackoff() {
+    return Duration.ofMillis(200);
+  }
+
+  /**
+   * The longest wait between two attempts.
+   */
+  @Value.Default
+  public Duration maxRetryBackoff() {
+    return Duration.ofSeconds(10);
+  }
+
+  @Value.Check
+  protected void check() {
+    if (concurrency() < 1) {
+      throw new IllegalArgumentException("concurrency must be positive");
+    }
+    if (maxRetries() < 0) {
+      throw new IllegalArgumentException("maxRetries cannot be negative");
+    }
+    if (retryBackoff().isNegative() || maxRetryBackoff().compareTo(retryBackoff()) < 0) {
+      throw new IllegalArgumentException(
+          "retryBackoff cannot be negative, nor more than maxRetryBackoff");
+    }
+  }
+
+}
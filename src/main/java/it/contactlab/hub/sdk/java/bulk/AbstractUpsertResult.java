@@ -0,0 +1,45 @@
+package it.contactlab.hub.sdk.java.bulk;
+
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+import it.contactlab.hub.sdk.java.models.Customer;
+
+import org.immutables.value.Value;
+
+import java.util.Optional;
+
+/**
+ * The result of writing one Customer with a {@link BulkUpserter}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractUpsertResult {
+
+  /**
+   * The position of the Customer in the input, from 0.
+   */
+  public abstract long index();
+
+  /**
+   * The Customer as given.
+   */
+  public abstract Customer input();
+
+  public abstract UpsertOutcome outcome();
+
+  /**
+   * The Customer returned by the API, unless the write failed.
+   */
+  public abstract Optional<Customer> customer();
+
+  /**
+   * The error of the last attempt, if the write failed.
+   */
+  public abstract Optional<ContactHubException> error();
+
+  /**
+   * The number of requests that tried to write the Customer, without the
+   * lookup of an existing Customer after a conflict.
+   */
+  public abstract int attempts();
+
+}
@@ -0,0 +1,126 @@
+package it.contactlab.hub.sdk.java.bulk;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of a {@link BulkUpserter}, safe to read from any thread.
+ */
+public class BulkStats {
+
+  private final AtomicLong added = new AtomicLong();
+  private final AtomicLong updated = new AtomicLong();
+  private final AtomicLong patched = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong conflicts = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private volatile long startedAt = System.nanoTime();
+  private volatile long finishedAt;
+
+  public long added() {
+    return added.get();
+  }
+
+  public long updated() {
+    return updated.get();
+  }
+
+  public long patched() {
+    return patched.get();
+  }
+
+  public long failed() {
+    return failed.get();
+  }
+
+  /**
+   * The number of Customers that were already there when added, and were
+   * updated instead.
+   */
+  public long conflicts() {
+    return conflicts.get();
+  }
+
+  /**
+   * The number of requests repeated after a transient failure.
+   */
+  public long retries() {
+    return retries.get();
+  }
+
+  /**
+   * The number of Customers written or failed.
+   */
+  public long completed() {
+    return added() + updated() + patched() + failed();
+  }
+
+  /**
+   * The time since the upsert started, until it finished.
+   */
+  public Duration elapsed() {
+    long end = finishedAt != 0 ? finishedAt : System.nanoTime();
+    return Duration.ofNanos(end - startedAt);
+  }
+
+  /**
+   * The number of Customers completed per second.
+   */
+  public double throughput() {
+    long nanos = elapsed().toNanos();
+    return nanos > 0 ? completed() * 1e9 / nanos : 0;
+  }
+
+  void start() {
+    added.set(0);
+    updated.set(0);
+    patched.set(0);
+    failed.set(0);
+    conflicts.set(0);
+    retries.set(0);
+    finishedAt = 0;
+    startedAt = System.nanoTime();
+  }
+
+  void finish() {
+    finishedAt = System.nanoTime();
+  }
+
+  void record(UpsertOutcome outcome) {
+    switch (outcome) {
+      case ADDED:
+        added.incrementAndGet();
+        break;
+      case UPDATED:
+        updated.incrementAndGet();
+        break;
+      case PATCHED:
+        patched.incrementAndGet();
+        break;
+      default:
+        failed.incrementAndGet();
+    }
+  }
+
+  void recordConflict() {
+    conflicts.incrementAndGet();
+  }
+
+  void recordRetry() {
+    retries.incrementAndGet();
+  }
+
+  @Override
+  public String toString() {
+    return "BulkStats{"
+      + "added=" + added()
+      + ", updated=" + updated()
+      + ", patched=" + patched()
+      + ", failed=" + failed()
+      + ", conflicts=" + conflicts()
+      + ", retries=" + retries()
+      + ", throughput=" + String.format("%.1f/s", throughput())
+      + "}";
+  }
+
+}
@@ -0,0 +1,324 @@
+package it.contactlab.hub.sdk.java.bulk;
+
+import it.contactlab.hub.sdk.java.Auth;
+import it.contactlab.hub.sdk.java.ClientData;
+import it.contactlab.hub.sdk.java.cache.CustomerCache;
+import it.contactlab.hub.sdk.java.exceptions.ApiException;
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.http.Backoff;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
+import it.contactlab.hub.sdk.java.internal.api.CustomerApi;
+import it.contactlab.hub.sdk.java.models.Customer;
+import it.contactlab.hub.sdk.java.models.GetCustomersOptions;
+
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Writes many Customers, a few at a time, and reports the result of each of
+ * them instead of stopping at the first error.
+ *
+ * <p>Customers with an id update the existing ones; the others are added.
+ * When an added Customer already exists (409 Conflict), the one with the same
+ * external id is updated instead. Transient failures are retried after a
+ * random wait below an exponential bound; any other error fails that
+ * Customer only.</p>
+ *
+ * <p>The input is read as the writes complete, so that it never needs to be
+ * in memory all at once, and the results are returned in the order the
+ * writes complete.</p>
+ */
+public class BulkUpserter {
+
+  private static final int CONFLICT = 409;
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private final Auth auth;
+  private final ClientData clientData;
+  private final HttpTransport transport;
+  private final BulkOptions options;
+  private final Optional<CustomerCache> cache;
+  private final BulkStats stats = new BulkStats();
+
+  /**
+   * Creates a new upserter.
+   *
+   * @param options The {@link BulkOptions} for the upserts.
+   * @param cache   Where the written Customers are stored, if any.
+   */
+  public BulkUpserter(
+      Auth auth, ClientData clientData, HttpTransport transport, BulkOptions options,
+      Optional<CustomerCache> cache
+  ) {
+    this.auth = auth;
+    this.clientData = clientData;
+    this.transport = transport;
+    this.options = options;
+    this.cache = cache;
+  }
+
+  /**
+   * The counters of the running, or last, upsert.
+   */
+  public BulkStats stats() {
+    return stats;
+  }
+
+  /**
+   * Writes the Customers as the returned Stream is consumed. Closing the
+   * Stream stops the writes that have not started yet.
+   *
+   * @return A Stream of one {@link UpsertResult} for each Customer, in the
+   *         order the writes complete.
+   */
+  public Stream<UpsertResult> upsert(Stream<Customer> customers) {
+    return upsert(customers.iterator()).onClose(customers::close);
+  }
+
+  /**
+   * Writes the Customers as the returned Stream is consumed. Closing the
+   * Stream stops the writes that have not started yet.
+   *
+   * @return A Stream of one {@link UpsertResult} for each Customer, in the
+   *         order the writes complete.
+   */
+  public Stream<UpsertResult> upsert(Iterable<Customer> customers) {
+    return upsert(customers.iterator());
+  }
+
+  private Stream<UpsertResult> upsert(Iterator<Customer> customers) {
+    Upsert upsert = new Upsert(customers);
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(upsert, Spliterator.NONNULL), false)
+        .onClose(upsert::close);
+  }
+
+  /**
+   * Keeps up to 'concurrency' writes running, and hands out their results
+   * as they complete.
+   */
+  private class Upsert implements Iterator<UpsertResult> {
+
+    private final Iterator<Customer> customers;
+    private final ExecutorService pool;
+    private final CompletionService<UpsertResult> results;
+    private long nextIndex;
+    private int inFlight;
+
+    private Upsert(Iterator<Customer> customers) {
+      this.customers = customers;
+      this.pool = Executors.newFixedThreadPool(options.concurrency(), new BulkThreadFactory());
+      this.results = new ExecutorCompletionService<>(pool);
+      stats.start();
+    }
+
+    @Override
+    public boolean hasNext() {
+      fill();
+      if (inFlight == 0) {
+        close();
+        return false;
+      }
+      return true;
+    }
+
+    @Override
+    public UpsertResult next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        UpsertResult result = results.take().get();
+        inFlight--;
+        return result;
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new UncheckedIOException(
+            new InterruptedIOException("Interrupted while waiting for the upserts"));
+      } catch (ExecutionException exception) {
+        // write() reports every error in its result.
+        close();
+        throw new IllegalStateException("Unexpected exception", exception.getCause());
+      }
+    }
+
+    private void fill() {
+      while (inFlight < options.concurrency() && !pool.isShutdown() && customers.hasNext()) {
+        long index = nextIndex++;
+        Customer customer = customers.next();
+        results.submit(() -> write(index, customer));
+        inFlight++;
+      }
+    }
+
+    private void close() {
+      if (!pool.isShutdown()) {
+        pool.shutdown();
+        stats.finish();
+      }
+    }
+  }
+
+  private UpsertResult write(long index, Customer input) {
+    Customer customer = input;
+    boolean add = !customer.id().isPresent();
+    int attempts = 0;
+
+    while (true) {
+      attempts++;
+      try {
+        Customer written;
+        UpsertOutcome outcome;
+        if (add) {
+          written = CustomerApi.add(auth, clientData, transport, customer);
+          outcome = UpsertOutcome.ADDED;
+        } else if (options.patch()) {
+          written = CustomerApi.patch(auth, clientData, transport, customer.id().get(), customer);
+          outcome = UpsertOutcome.PATCHED;
+        } else {
+          written = CustomerApi.update(auth, clientData, transport, customer);
+          outcome = UpsertOutcome.UPDATED;
+        }
+        cache.ifPresent(customerCache -> customerCache.put(written));
+        return result(index, input, attempts, outcome, Optional.of(written), Optional.empty());
+
+      } catch (ApiException exception) {
+        if (add && exception.getStatusCode() == CONFLICT) {
+          Optional<String> existingId;
+          try {
+            existingId = findByExternalId(customer);
+          } catch (ContactHubException lookupException) {
+            return failed(index, input, attempts, lookupException);
+          } catch (RuntimeException lookupException) {
+            return failed(index, input, attempts, unexpected(lookupException));
+          }
+          if (!existingId.isPresent()) {
+            return failed(index, input, attempts, exception);
+          }
+          stats.recordConflict();
+          customer = customer.withId(existingId.get());
+          add = false;
+          // The conflict is not a failure: write again at once.
+          attempts--;
+          continue;
+        }
+        if (!isTransient(exception.getStatusCode()) || !backOff(attempts)) {
+          return failed(index, input, attempts, exception);
+        }
+
+      } catch (ServerException exception) {
+        if (!isTransient(exception.getStatusCode()) || !backOff(attempts)) {
+          return failed(index, input, attempts, exception);
+        }
+
+      } catch (HttpException exception) {
+        if (!backOff(attempts)) {
+          return failed(index, input, attempts, exception);
+        }
+
+      } catch (RuntimeException exception) {
+        // A malformed response, say: it fails this Customer only.
+        return failed(index, input, attempts, unexpected(exception));
+      }
+    }
+  }
+
+  private static ContactHubException unexpected(RuntimeException exception) {
+    return new ContactHubException("The upsert failed with error: " + exception, exception);
+  }
+
+  /**
+   * The id of the single Customer with the same external id.
+   */
+  private Optional<String> findByExternalId(Customer customer)
+      throws ApiException, ServerException, HttpException {
+    if (!customer.externalId().isPresent()) {
+      return Optional.empty();
+    }
+    List<Customer> existing = CustomerApi.get(auth, clientData, transport,
+        GetCustomersOptions.builder().externalId(customer.externalId().get()).build())
+        .elements();
+    return existing.size() == 1 ? existing.get(0).id() : Optional.empty();
+  }
+
+  private static boolean isTransient(int statusCode) {
+    return statusCode == TOO_MANY_REQUESTS || statusCode >= 500;
+  }
+
+  /**
+   * Waits before the next attempt, if there is one left.
+   */
+  private boolean backOff(int attempts) {
+    if (attempts > options.maxRetries()) {
+      return false;
+    }
+    stats.recordRetry();
+    try {
+      Duration delay = Backoff.delay(options.retryBackoff(), options.maxRetryBackoff(), attempts);
+      TimeUnit.NANOSECONDS.sleep(delay.toNanos());
+      return true;
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private UpsertResult failed(
+      long index, Customer input, int attempts, ContactHubException exception
+  ) {
+    return result(index, input, attempts, UpsertOutcome.FAILED, Optional.empty(),
+        Optional.of(exception));
+  }
+
+  private UpsertResult result(
+      long index, Customer input, int attempts, UpsertOutcome outcome,
+      Optional<Customer> customer, Optional<ContactHubException> error
+  ) {
+    stats.record(outcome);
+    return UpsertResult.builder()
+        .index(index)
+        .input(input)
+        .outcome(outcome)
+        .customer(customer)
+        .error(error)
+        .attempts(attempts)
+        .build();
+  }
+
+  private static class BulkThreadFactory implements ThreadFactory {
+
+    private static final AtomicInteger upserts = new AtomicInteger();
+
+    private final int upsert = upserts.incrementAndGet();
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable,
+          "contacthub-bulk-" + upsert + "-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
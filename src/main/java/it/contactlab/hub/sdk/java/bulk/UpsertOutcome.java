@@ -0,0 +1,11 @@
+package it.contactlab.hub.sdk.java.bulk;
+
+/**
+ * What a {@link BulkUpserter} did with a Customer.
+ */
+public enum UpsertOutcome {
+  ADDED,
+  UPDATED,
+  PATCHED,
+  FAILED
+}
@@ -0,0 +1,66 @@
+package it.contactlab.hub.sdk.java.cache;
+
+import it.contactlab.hub.sdk.java.models.Customer;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+/**
+ * Settings for a {@link CustomerCache}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractCacheOptions {
+
+  /**
+   * The maximum total weight of the cached Customers. The least recently used
+   * ones are evicted when it is exceeded.
+   */
+  @Value.Default
+  public long maximumWeight() {
+    return 10000;
+  }
+
+  /**
+   * The weight of each Customer. Every Customer weighs 1 by default, which
+   * makes {@link #maximumWeight()} a number of entries.
+   */
+  @Value.Default
+  public ToIntFunction<Customer> weigher() {
+    return customer -> 1;
+  }
+
+  /**
+   * How long a Customer is kept after being loaded or updated.
+   */
+  @Value.Default
+  public Duration expireAfterWrite() {
+    return Duration.ofMinutes(5);
+  }
+
+  /**
+   * When set, a Customer older than this is still returned, and reloaded in
+   * the background, so that hot entries never expire.
+   */
+  public abstract Optional<Duration> refreshAfterWrite();
+
+  @Value.Check
+  protected void check() {
+    if (maximumWeight() < 1) {
+      throw new IllegalArgumentException("maximumWeight must be positive");
+    }
+    if (expireAfterWrite().isNegative() || expireAfterWrite().isZero()) {
+      throw new IllegalArgumentException("expireAfterWrite must be positive");
+    }
+    refreshAfterWrite().ifPresent(refresh -> {
+      if (refresh.isNegative() || refresh.compareTo(expireAfterWrite()) >= 0) {
+        throw new IllegalArgumentException(
+            "refreshAfterWrite must be positive and shorter than expireAfterWrite");
+      }
+    });
+  }
+
+}
@@ -0,0 +1,51 @@
+package it.contactlab.hub.sdk.java.cache;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Settings for a {@link CustomerIdResolver}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractResolverOptions {
+
+  /**
+   * The maximum number of external ids kept, known or unknown. The least
+   * recently used ones are evicted first.
+   */
+  @Value.Default
+  public int maximumSize() {
+    return 100000;
+  }
+
+  /**
+   * How long a resolved external id is kept.
+   */
+  @Value.Default
+  public Duration ttl() {
+    return Duration.ofHours(1);
+  }
+
+  /**
+   * How long an external id without a Customer is remembered as such.
+   * Keep it short: the Customer could be created at any time.
+   */
+  @Value.Default
+  public Duration negativeTtl() {
+    return Duration.ofSeconds(30);
+  }
+
+  @Value.Check
+  protected void check() {
+    if (maximumSize() < 1) {
+      throw new IllegalArgumentException("maximumSize must be positive");
+    }
+    if (ttl().isNegative() || ttl().isZero()
+        || negativeTtl().isNegative() || negativeTtl().isZero()) {
+      throw new IllegalArgumentException("ttl and negativeTtl must be positive");
+    }
+  }
+
+}
@@ -0,0 +1,87 @@
+package it.contactlab.hub.sdk.java.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a {@link CustomerCache}.
+ */
+public class CacheStats {
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong expirations = new AtomicLong();
+  private final AtomicLong refreshes = new AtomicLong();
+
+  /**
+   * Lookups answered from the cache.
+   */
+  public long hits() {
+    return hits.get();
+  }
+
+  /**
+   * Lookups that had to call the API.
+   */
+  public long misses() {
+    return misses.get();
+  }
+
+  /**
+   * Customers removed to stay within the maximum weight.
+   */
+  public long evictions() {
+    return evictions.get();
+  }
+
+  /**
+   * Customers removed because they were too old.
+   */
+  public long expirations() {
+    return expirations.get();
+  }
+
+  /**
+   * Customers reloaded in the background.
+   */
+  public long refreshes() {
+    return refreshes.get();
+  }
+
+  /**
+   * The ratio of hits over all lookups, or 1 if there were none.
+   */
+  public double hitRate() {
+    long hits = hits();
+    long total = hits + misses();
+    return total == 0 ? 1.0 : (double) hits / total;
+  }
+
+  void recordHit() {
+    hits.incrementAndGet();
+  }
+
+  void recordMiss() {
+    misses.incrementAndGet();
+  }
+
+  void recordEviction() {
+    evictions.incrementAndGet();
+  }
+
+  void recordExpiration() {
+    expirations.incrementAndGet();
+  }
+
+  void recordRefresh() {
+    refreshes.incrementAndGet();
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStats{hits=" + hits() + ", misses=" + misses()
+        + ", evictions=" + evictions() + ", expirations=" + expirations()
+        + ", refreshes=" + refreshes() + "}";
+  }
+
+}
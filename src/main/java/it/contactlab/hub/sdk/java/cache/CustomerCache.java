@@ -0,0 +1,265 @@
+package it.contactlab.hub.sdk.java.cache;
+
+import it.contactlab.hub.sdk.java.exceptions.ApiException;
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.models.Customer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A bounded, read-through cache of Customers by id, with least recently used
+ * eviction, expiration and optional refresh-ahead.
+ *
+ * <p>A load that races with a {@link #put(Customer)} or an
+ * {@link #invalidate(String)} of the same Customer is not stored, so that
+ * the cache never goes back to a version older than the last write made
+ * through the client. Writes to other Customers do not affect it.</p>
+ */
+public class CustomerCache {
+
+  /**
+   * Loads a Customer from the API.
+   */
+  @FunctionalInterface
+  public interface Loader {
+    Customer load(String id) throws ApiException, ServerException, HttpException;
+  }
+
+  private final CacheOptions options;
+  private final Executor refreshExecutor;
+  private final CacheStats stats = new CacheStats();
+
+  private final long expireNanos;
+  private final long refreshNanos;
+
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  // The Customers being loaded, and the writes made to each of them
+  // meanwhile; an id is removed once its last load is over.
+  private final Map<String, Loads> loads = new HashMap<>();
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param options         The {@link CacheOptions} for the cache.
+   * @param refreshExecutor Runs the background refreshes.
+   */
+  public CustomerCache(CacheOptions options, Executor refreshExecutor) {
+    this.options = options;
+    this.refreshExecutor = refreshExecutor;
+    this.expireNanos = options.expireAfterWrite().toNanos();
+    this.refreshNanos = options.refreshAfterWrite().map(Duration::toNanos)
+        .orElse(Long.MAX_VALUE);
+  }
+
+  /**
+   * Returns the cached Customer with this id, or loads it with 'loader' and
+   * caches it.
+   */
+  public Customer get(String id, Loader loader)
+      throws ApiException, ServerException, HttpException {
+    Loads pending = null;
+    long writesBeforeLoad = 0;
+    Entry refresh = null;
+
+    synchronized (this) {
+      Entry entry = entries.get(id);
+      long now = System.nanoTime();
+
+      if (entry != null && now - entry.writtenAt >= expireNanos) {
+        remove(id);
+        stats.recordExpiration();
+        entry = null;
+      }
+
+      if (entry != null) {
+        stats.recordHit();
+        if (now - entry.writtenAt >= refreshNanos && !entry.refreshing) {
+          entry.refreshing = true;
+          refresh = entry;
+        } else {
+          return entry.customer;
+        }
+      } else {
+        stats.recordMiss();
+        pending = loads.computeIfAbsent(id, key -> new Loads());
+        pending.count++;
+        writesBeforeLoad = pending.writes;
+      }
+    }
+
+    if (refresh != null) {
+      refresh(id, refresh, loader);
+      return refresh.customer;
+    }
+
+    Customer customer = null;
+    try {
+      customer = loader.load(id);
+      return customer;
+    } finally {
+      synchronized (this) {
+        if (customer != null && pending.writes == writesBeforeLoad) {
+          store(id, customer);
+        }
+        if (--pending.count == 0) {
+          loads.remove(id);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the cached Customer with this id, without loading it. Entries
+   * due for a refresh are returned as they are.
+   */
+  public synchronized Optional<Customer> getIfPresent(String id) {
+    Entry entry = entries.get(id);
+    if (entry != null && System.nanoTime() - entry.writtenAt >= expireNanos) {
+      remove(id);
+      stats.recordExpiration();
+      entry = null;
+    }
+
+    if (entry == null) {
+      stats.recordMiss();
+      return Optional.empty();
+    }
+    stats.recordHit();
+    return Optional.of(entry.customer);
+  }
+
+  /**
+   * Caches the latest version of a Customer, as returned by an update.
+   * Customers without an id are ignored.
+   */
+  public void put(Customer customer) {
+    customer.id().ifPresent(id -> {
+      synchronized (this) {
+        written(id);
+        store(id, customer);
+      }
+    });
+  }
+
+  /**
+   * Removes a Customer, after it was changed or deleted.
+   */
+  public synchronized void invalidate(String id) {
+    written(id);
+    remove(id);
+  }
+
+  public synchronized void invalidateAll() {
+    loads.values().forEach(pending -> pending.writes++);
+    entries.clear();
+    weight = 0;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long weight() {
+    return weight;
+  }
+
+  public CacheStats stats() {
+    return stats;
+  }
+
+  private void refresh(String id, Entry entry, Loader loader) {
+    try {
+      refreshExecutor.execute(() -> reload(id, entry, loader));
+    } catch (RejectedExecutionException exception) {
+      synchronized (this) {
+        entry.refreshing = false;
+      }
+    }
+  }
+
+  private void reload(String id, Entry entry, Loader loader) {
+    try {
+      Customer customer = loader.load(id);
+      synchronized (this) {
+        if (entries.get(id) == entry) {
+          store(id, customer);
+          stats.recordRefresh();
+        }
+      }
+    } catch (ApiException exception) {
+      synchronized (this) {
+        if (exception.getStatusCode() == 404 && entries.get(id) == entry) {
+          remove(id);
+        }
+        entry.refreshing = false;
+      }
+    } catch (ContactHubException | RuntimeException exception) {
+      // Keep serving the current version until it expires.
+      synchronized (this) {
+        entry.refreshing = false;
+      }
+    }
+  }
+
+  /**
+   * Keeps the loads of this Customer that are in flight from being stored.
+   */
+  private void written(String id) {
+    Loads pending = loads.get(id);
+    if (pending != null) {
+      pending.writes++;
+    }
+  }
+
+  private void store(String id, Customer customer) {
+    int entryWeight = options.weigher().applyAsInt(customer);
+
+    remove(id);
+    entries.put(id, new Entry(customer, entryWeight));
+    weight += entryWeight;
+
+    Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+    while (weight > options.maximumWeight() && eldest.hasNext()) {
+      weight -= eldest.next().getValue().weight;
+      eldest.remove();
+      stats.recordEviction();
+    }
+  }
+
+  private void remove(String id) {
+    Entry removed = entries.remove(id);
+    if (removed != null) {
+      weight -= removed.weight;
+    }
+  }
+
+  private static class Loads {
+
+    private int count;
+    private long writes;
+  }
+
+  private static class Entry {
+
+    private final Customer customer;
+    private final int weight;
+    private final long writtenAt = System.nanoTime();
+    private boolean refreshing;
+
+    private Entry(Customer customer, int weight) {
+      this.customer = customer;
+      this.weight = weight;
+    }
+  }
+
+}
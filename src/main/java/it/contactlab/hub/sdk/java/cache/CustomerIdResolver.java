@@ -0,0 +1,215 @@
+package it.contactlab.hub.sdk.java.cache;
+
+import it.contactlab.hub.sdk.java.exceptions.ApiException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.models.Customer;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves external ids to Customer ids, remembering both the external ids
+ * that were found and, for a shorter time, the ones that were not.
+ *
+ * <p>An external id shared by several Customers is not resolved, and is
+ * remembered like an unknown one.</p>
+ */
+public class CustomerIdResolver {
+
+  /**
+   * Finds the Customers with an external id.
+   */
+  @FunctionalInterface
+  public interface Lookup {
+    List<Customer> find(String externalId) throws ApiException, ServerException, HttpException;
+  }
+
+  private final ResolverOptions options;
+  private final Lookup lookup;
+  private final CacheStats stats = new CacheStats();
+
+  private final long ttlNanos;
+  private final long negativeTtlNanos;
+
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, String> externalIds = new HashMap<>();
+  private long writes;
+
+  /**
+   * Creates an empty resolver.
+   *
+   * @param options The {@link ResolverOptions} for the resolver.
+   * @param lookup  Finds the Customers of an external id on a miss.
+   */
+  public CustomerIdResolver(ResolverOptions options, Lookup lookup) {
+    this.options = options;
+    this.lookup = lookup;
+    this.ttlNanos = options.ttl().toNanos();
+    this.negativeTtlNanos = options.negativeTtl().toNanos();
+  }
+
+  /**
+   * Returns the id of the only Customer with this external id, looking it up
+   * if it is not known yet.
+   *
+   * @return The Customer id, or an empty Optional if no single Customer has
+   *         this external id.
+   */
+  public Optional<String> resolve(String externalId)
+      throws ApiException, ServerException, HttpException {
+    Entry cached = cachedEntry(externalId);
+    if (cached != null) {
+      stats.recordHit();
+      return cached.customerId;
+    }
+    stats.recordMiss();
+
+    long writesBeforeLookup;
+    synchronized (this) {
+      writesBeforeLookup = writes;
+    }
+
+    List<Customer> customers = lookup.find(externalId);
+    Optional<String> customerId = customers.size() == 1
+        ? customers.get(0).id()
+        : Optional.empty();
+
+    synchronized (this) {
+      if (writes == writesBeforeLookup) {
+        store(externalId, customerId);
+      }
+    }
+    return customerId;
+  }
+
+  /**
+   * Returns the Customer id of an external id only if it is already known,
+   * without calling the API.
+   */
+  public Optional<String> peek(String externalId) {
+    Entry cached = cachedEntry(externalId);
+    if (cached != null) {
+      stats.recordHit();
+      return cached.customerId;
+    }
+    stats.recordMiss();
+    return Optional.empty();
+  }
+
+  /**
+   * Remembers the external id of a Customer, e.g. one that was just created.
+   * Customers without an id or an external id are ignored.
+   */
+  public void add(Customer customer) {
+    if (customer.id().isPresent() && customer.externalId().isPresent()) {
+      synchronized (this) {
+        writes++;
+        store(customer.externalId().get(), customer.id());
+      }
+    }
+  }
+
+  /**
+   * Remembers the external ids of many Customers, e.g. from a scan of the
+   * Customers of a node.
+   *
+   * @return The number of Customers with both an id and an external id.
+   */
+  public int addAll(Iterable<Customer> customers) {
+    int added = 0;
+    for (Customer customer : customers) {
+      if (customer.id().isPresent() && customer.externalId().isPresent()) {
+        add(customer);
+        added++;
+      }
+    }
+    return added;
+  }
+
+  /**
+   * Forgets an external id.
+   */
+  public synchronized void invalidate(String externalId) {
+    writes++;
+    remove(externalId);
+  }
+
+  /**
+   * Forgets the external id of a Customer, e.g. after it was deleted.
+   */
+  public synchronized void invalidateCustomer(String customerId) {
+    writes++;
+    String externalId = externalIds.get(customerId);
+    if (externalId != null) {
+      remove(externalId);
+    }
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public CacheStats stats() {
+    return stats;
+  }
+
+  /**
+   * Returns the entry of an external id, or null if it is unknown or expired.
+   */
+  private synchronized Entry cachedEntry(String externalId) {
+    Entry entry = entries.get(externalId);
+    if (entry != null && System.nanoTime() - entry.expiresAt >= 0) {
+      remove(externalId);
+      stats.recordExpiration();
+      return null;
+    }
+    return entry;
+  }
+
+  private void store(String externalId, Optional<String> customerId) {
+    remove(externalId);
+
+    // A Customer has a single external id: drop the previous one, if it changed.
+    customerId.ifPresent(id -> {
+      String previous = externalIds.put(id, externalId);
+      if (previous != null && !previous.equals(externalId)) {
+        entries.remove(previous);
+      }
+    });
+
+    long ttl = customerId.isPresent() ? ttlNanos : negativeTtlNanos;
+    entries.put(externalId, new Entry(customerId, System.nanoTime() + ttl));
+
+    Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+    while (entries.size() > options.maximumSize() && eldest.hasNext()) {
+      Map.Entry<String, Entry> evicted = eldest.next();
+      eldest.remove();
+      evicted.getValue().customerId.ifPresent(id -> externalIds.remove(id, evicted.getKey()));
+      stats.recordEviction();
+    }
+  }
+
+  private void remove(String externalId) {
+    Entry removed = entries.remove(externalId);
+    if (removed != null) {
+      removed.customerId.ifPresent(id -> externalIds.remove(id, externalId));
+    }
+  }
+
+  private static class Entry {
+
+    private final Optional<String> customerId;
+    private final long expiresAt;
+
+    private Entry(Optional<String> customerId, long expiresAt) {
+      this.customerId = customerId;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+package it.contactlab.hub.sdk.java.circuit;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Settings for the {@link CircuitBreaker}s of a client.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractCircuitBreakerOptions {
+
+  /**
+   * The number of the latest requests whose outcomes are kept.
+   */
+  @Value.Default
+  public int windowSize() {
+    return 100;
+  }
+
+  /**
+   * The number of outcomes needed in the window before the circuit can open.
+   */
+  @Value.Default
+  public int minimumCalls() {
+    return 20;
+  }
+
+  /**
+   * The fraction of failed requests, from 0 to 1, that opens the circuit.
+   * Requests fail with an I/O error or a 5xx status code.
+   */
+  @Value.Default
+  public double failureRateThreshold() {
+    return 0.5;
+  }
+
+  /**
+   * How long a request takes before it counts as slow.
+   */
+  @Value.Default
+  public Duration slowCallDuration() {
+    return Duration.ofSeconds(10);
+  }
+
+  /**
+   * The fraction of slow requests, from 0 to 1, that opens the circuit.
+   */
+  @Value.Default
+  public double slowCallRateThreshold() {
+    return 1.0;
+  }
+
+  /**
+   * How long the circuit stays open before it lets trial requests through.
+   */
+  @Value.Default
+  public Duration openDuration() {
+    return Duration.ofSeconds(30);
+  }
+
+  /**
+   * The number of trial requests sent while half-open. Their outcomes decide,
+   * with the same thresholds, whether the circuit closes or opens again.
+   */
+  @Value.Default
+  public int halfOpenCalls() {
+    return 5;
+  }
+
+  @Value.Check
+  protected void check() {
+    if (windowSize() < 1 || minimumCalls() < 1 || halfOpenCalls() < 1) {
+      throw new IllegalArgumentException(
+          "windowSize, minimumCalls and halfOpenCalls must be positive");
+    }
+    if (minimumCalls() > windowSize()) {
+      throw new IllegalArgumentException("minimumCalls cannot be greater than windowSize");
+    }
+    if (failureRateThreshold() <= 0 || failureRateThreshold() > 1
+        || slowCallRateThreshold() <= 0 || slowCallRateThreshold() > 1) {
+      throw new IllegalArgumentException("Rate thresholds must be greater than 0 and at most 1");
+    }
+    if (slowCallDuration().isNegative() || openDuration().isNegative()) {
+      throw new IllegalArgumentException("slowCallDuration and openDuration cannot be negative");
+    }
+  }
+
+}
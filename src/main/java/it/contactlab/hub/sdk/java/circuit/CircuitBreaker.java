@@ -0,0 +1,256 @@
+package it.contactlab.hub.sdk.java.circuit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stops sending the requests of an endpoint group while too many of the
+ * latest ones failed or were slow, so that callers fail at once instead of
+ * waiting for timeouts during an incident.
+ *
+ * <p>The outcomes of the latest 'windowSize' requests are kept. When at
+ * least 'minimumCalls' of them are known, and the rate of failed or of slow
+ * ones reaches its threshold, the circuit opens: requests are refused for
+ * 'openDuration'. Then the circuit is half-open: 'halfOpenCalls' trial
+ * requests are let through, and their outcomes close the circuit again, or
+ * open it for another 'openDuration'.</p>
+ *
+ * <p>The outcomes of the requests started before a state change are
+ * ignored.</p>
+ */
+public class CircuitBreaker {
+
+  private final String group;
+  private final CircuitBreakerOptions options;
+  private final List<StateChangeListener> listeners = new CopyOnWriteArrayList<>();
+  private final AtomicLong rejected = new AtomicLong();
+
+  private CircuitState state = CircuitState.CLOSED;
+  private long generation;
+  private long openedAt;
+
+  // The outcomes of the window, as a ring buffer.
+  private final boolean[] failed;
+  private final boolean[] slow;
+  private int size;
+  private int next;
+  private int failures;
+  private int slowCalls;
+
+  // The trial requests, while half-open.
+  private int trialsStarted;
+  private int trialsDone;
+  private int trialFailures;
+  private int trialSlowCalls;
+
+  /**
+   * Creates a new, closed, circuit breaker.
+   *
+   * @param group The name of the endpoint group, passed to the listeners.
+   */
+  public CircuitBreaker(String group, CircuitBreakerOptions options) {
+    this.group = group;
+    this.options = options;
+    this.failed = new boolean[options.windowSize()];
+    this.slow = new boolean[options.windowSize()];
+  }
+
+  public String group() {
+    return group;
+  }
+
+  public void addListener(StateChangeListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * The current state. An open circuit becomes half-open only when a request
+   * is asked for.
+   */
+  public synchronized CircuitState state() {
+    return state;
+  }
+
+  /**
+   * The fraction of failed requests in the window.
+   */
+  public synchronized double failureRate() {
+    return size == 0 ? 0 : (double) failures / size;
+  }
+
+  /**
+   * The fraction of slow requests in the window.
+   */
+  public synchronized double slowCallRate() {
+    return size == 0 ? 0 : (double) slowCalls / size;
+  }
+
+  /**
+   * The number of requests refused.
+   */
+  public long rejected() {
+    return rejected.get();
+  }
+
+  /**
+   * Asks to send a request.
+   *
+   * @return A permit, to record the outcome of the request with, or empty if
+   *         the request must not be sent.
+   */
+  public Optional<Permit> tryAcquire() {
+    Optional<Permit> permit;
+    boolean halfOpened = false;
+
+    synchronized (this) {
+      if (state == CircuitState.OPEN
+          && System.nanoTime() - openedAt >= options.openDuration().toNanos()) {
+        transition(CircuitState.HALF_OPEN);
+        halfOpened = true;
+      }
+
+      if (state == CircuitState.CLOSED
+          || (state == CircuitState.HALF_OPEN && trialsStarted < options.halfOpenCalls())) {
+        if (state == CircuitState.HALF_OPEN) {
+          trialsStarted++;
+        }
+        permit = Optional.of(new Permit(generation));
+      } else {
+        permit = Optional.empty();
+      }
+    }
+
+    if (halfOpened) {
+      notify(CircuitState.OPEN, CircuitState.HALF_OPEN);
+    }
+    if (!permit.isPresent()) {
+      rejected.incrementAndGet();
+    }
+    return permit;
+  }
+
+  /**
+   * The right to send one request, and to record its outcome once.
+   */
+  public class Permit {
+
+    private final long permitGeneration;
+    private final long startedAt = System.nanoTime();
+    private boolean recorded;
+
+    private Permit(long permitGeneration) {
+      this.permitGeneration = permitGeneration;
+    }
+
+    /**
+     * Records the outcome of the request, and how long it took from the
+     * permit. Only the first outcome, or release, of a permit counts.
+     */
+    public void record(boolean failure) {
+      boolean isSlow = System.nanoTime() - startedAt >= options.slowCallDuration().toNanos();
+      CircuitState from;
+      CircuitState to;
+
+      synchronized (CircuitBreaker.this) {
+        if (recorded || permitGeneration != generation) {
+          return;
+        }
+        recorded = true;
+        from = state;
+        to = state == CircuitState.HALF_OPEN ? recordTrial(failure, isSlow)
+            : recordClosed(failure, isSlow);
+      }
+
+      if (from != to) {
+        CircuitBreaker.this.notify(from, to);
+      }
+    }
+
+    /**
+     * Gives the permit back without an outcome, for a request that ended
+     * for reasons unrelated to the API, such as an interrupt.
+     */
+    public void release() {
+      synchronized (CircuitBreaker.this) {
+        if (recorded || permitGeneration != generation) {
+          return;
+        }
+        recorded = true;
+        if (state == CircuitState.HALF_OPEN) {
+          trialsStarted--;
+        }
+      }
+    }
+  }
+
+  private CircuitState recordClosed(boolean failure, boolean isSlow) {
+    if (size == failed.length) {
+      failures -= failed[next] ? 1 : 0;
+      slowCalls -= slow[next] ? 1 : 0;
+    } else {
+      size++;
+    }
+    failed[next] = failure;
+    slow[next] = isSlow;
+    failures += failure ? 1 : 0;
+    slowCalls += isSlow ? 1 : 0;
+    next = (next + 1) % failed.length;
+
+    if (size >= options.minimumCalls() && exceeds(failures, slowCalls, size)) {
+      transition(CircuitState.OPEN);
+    }
+    return state;
+  }
+
+  private CircuitState recordTrial(boolean failure, boolean isSlow) {
+    trialsDone++;
+    trialFailures += failure ? 1 : 0;
+    trialSlowCalls += isSlow ? 1 : 0;
+
+    if (trialsDone == options.halfOpenCalls()) {
+      transition(exceeds(trialFailures, trialSlowCalls, trialsDone)
+          ? CircuitState.OPEN
+          : CircuitState.CLOSED);
+    }
+    return state;
+  }
+
+  private boolean exceeds(int failures, int slowCalls, int calls) {
+    return failures >= options.failureRateThreshold() * calls
+        || slowCalls >= options.slowCallRateThreshold() * calls;
+  }
+
+  private void transition(CircuitState to) {
+    state = to;
+    generation++;
+    openedAt = System.nanoTime();
+    size = 0;
+    next = 0;
+    failures = 0;
+    slowCalls = 0;
+    trialsStarted = 0;
+    trialsDone = 0;
+    trialFailures = 0;
+    trialSlowCalls = 0;
+  }
+
+  private void notify(CircuitState from, CircuitState to) {
+    for (StateChangeListener listener : listeners) {
+      try {
+        listener.onStateChange(group, from, to);
+      } catch (RuntimeException exception) {
+        // A failing listener must not fail the request.
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "CircuitBreaker{group=" + group + ", state=" + state()
+        + ", failureRate=" + failureRate() + ", slowCallRate=" + slowCallRate()
+        + ", rejected=" + rejected() + "}";
+  }
+
+}
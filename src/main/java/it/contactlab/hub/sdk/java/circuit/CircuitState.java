@@ -0,0 +1,20 @@
+package it.contactlab.hub.sdk.java.circuit;
+
+/**
+ * The state of a {@link CircuitBreaker}.
+ */
+public enum CircuitState {
+  /**
+   * Requests are sent, and their outcomes recorded.
+   */
+  CLOSED,
+  /**
+   * Requests fail at once, without being sent.
+   */
+  OPEN,
+  /**
+   * A few trial requests are sent, to find out whether the API has
+   * recovered; the others fail at once.
+   */
+  HALF_OPEN
+}
@@ -0,0 +1,19 @@
+package it.contactlab.hub.sdk.java.circuit;
+
+/**
+ * Receives the state changes of the {@link CircuitBreaker}s, for instance to
+ * raise an alert when a circuit opens.
+ */
+@FunctionalInterface
+public interface StateChangeListener {
+
+  /**
+   * Called on the thread that completed the request causing the change, or
+   * that asked to send a request after the circuit was open long enough. It
+   * should return quickly; an exception it throws is ignored.
+   *
+   * @param group The endpoint group of the circuit, such as "customers".
+   */
+  void onStateChange(String group, CircuitState from, CircuitState to);
+
+}
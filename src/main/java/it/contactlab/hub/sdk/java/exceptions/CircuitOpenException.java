@@ -0,0 +1,20 @@
+package it.contactlab.hub.sdk.java.exceptions;
+
+public class CircuitOpenException extends HttpException {
+
+  private final String group;
+
+  /**
+   * CircuitOpenException is thrown when a request is not sent because the
+   * circuit breaker of its endpoint group is open.
+   */
+  public CircuitOpenException(String group) {
+    super("The HTTP call was not sent: the circuit of the " + group + " endpoints is open");
+
+    this.group = group;
+  }
+
+  public String getGroup() {
+    return group;
+  }
+}
@@ -2,6 +2,8 @@ package it.contactlab.hub.sdk.java.exceptions;
 
 import com.mashape.unirest.http.exceptions.UnirestException;
 
+import java.io.IOException;
+
 public class HttpException extends ContactHubException {
 
   /**
@@ -12,4 +14,19 @@ public class HttpException extends ContactHubException {
     super("The HTTP call failed with error: " + exception.getMessage(), exception);
   }
 
+  /**
+   * HttpException is thrown when a request to the ContactHub API failed with an
+   * I/O error and no response is available.
+   */
+  public HttpException(IOException exception) {
+    super("The HTTP call failed with error: " + exception.getMessage(), exception);
+  }
+
+  /**
+   * For the requests that the client did not send at all.
+   */
+  protected HttpException(String message) {
+    super(message);
+  }
+
 }
@@ -0,0 +1,22 @@
+package it.contactlab.hub.sdk.java.exceptions;
+
+import java.time.Duration;
+
+public class RateLimitException extends HttpException {
+
+  private final Duration maxWait;
+
+  /**
+   * RateLimitException is thrown when a request is not sent because the
+   * client-side rate limit had no permit for it within 'maxWait'.
+   */
+  public RateLimitException(Duration maxWait) {
+    super("The HTTP call was not sent: no rate limit permit within " + maxWait.toMillis() + "ms");
+
+    this.maxWait = maxWait;
+  }
+
+  public Duration getMaxWait() {
+    return maxWait;
+  }
+}
@@ -0,0 +1,59 @@
+package it.contactlab.hub.sdk.java.export;
+
+import it.contactlab.hub.sdk.java.models.GetCustomersOptions;
+
+import org.immutables.value.Value;
+
+/**
+ * Settings for a {@link CustomerExporter}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractExportOptions {
+
+  /**
+   * Selects the Customers to export: query, fields, sorting and page size.
+   * The export starts from its page, if set.
+   */
+  @Value.Default
+  public GetCustomersOptions customers() {
+    return GetCustomersOptions.builder().build();
+  }
+
+  /**
+   * The maximum number of pages requested at the same time. Pages are
+   * always written in order.
+   */
+  @Value.Default
+  public int concurrency() {
+    return 4;
+  }
+
+  /**
+   * Whether to gzip the output.
+   */
+  @Value.Default
+  public boolean gzip() {
+    return false;
+  }
+
+  /**
+   * How many pages are written between two checkpoints, when exporting to a
+   * file.
+   */
+  @Value.Default
+  public int checkpointInterval() {
+    return 10;
+  }
+
+  @Value.Check
+  protected void check() {
+    if (concurrency() < 1) {
+      throw new IllegalArgumentException("concurrency must be positive");
+    }
+    if (checkpointInterval() < 1) {
+      throw new IllegalArgumentException("checkpointInterval must be positive");
+    }
+  }
+
+}
@@ -0,0 +1,311 @@
+package it.contactlab.hub.sdk.java.export;
+
+import it.contactlab.hub.sdk.java.Auth;
+import it.contactlab.hub.sdk.java.ClientData;
+import it.contactlab.hub.sdk.java.exceptions.ApiException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
+import it.contactlab.hub.sdk.java.internal.api.CustomerApi;
+import it.contactlab.hub.sdk.java.internal.gson.ContactHubGson;
+import it.contactlab.hub.sdk.java.models.Customer;
+import it.contactlab.hub.sdk.java.models.Paginated;
+import it.contactlab.hub.sdk.java.models.ScanOrder;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the Customers of a node as newline-delimited JSON, one Customer per
+ * line, fetching pages in parallel and writing them in order.
+ *
+ * <p>When exporting to a file, a checkpoint is saved next to it every few
+ * pages, and removed when the export completes. If the export fails, running
+ * it again with the same options resumes from the last checkpoint. Gzipped
+ * files are resumed by appending a new gzip member, which every gzip reader
+ * decompresses as a single stream.</p>
+ */
+public class CustomerExporter {
+
+  private static final Gson gson = ContactHubGson.getInstance();
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Auth auth;
+  private final ClientData clientData;
+  private final HttpTransport transport;
+  private final ExportOptions options;
+  private final ExportProgress progress = new ExportProgress();
+
+  /**
+   * Creates a new exporter.
+   *
+   * @param options The {@link ExportOptions} for the export.
+   */
+  public CustomerExporter(
+      Auth auth, ClientData clientData, HttpTransport transport, ExportOptions options
+  ) {
+    this.auth = auth;
+    this.clientData = clientData;
+    this.transport = transport;
+    this.options = options;
+  }
+
+  /**
+   * The progress of the running, or last, export.
+   */
+  public ExportProgress progress() {
+    return progress;
+  }
+
+  /**
+   * The file where the checkpoint of an export to 'file' is saved.
+   */
+  public static Path checkpointFile(Path file) {
+    return file.resolveSibling(file.getFileName() + ".checkpoint");
+  }
+
+  /**
+   * Exports the Customers to 'file', resuming from its checkpoint if there
+   * is one, or replacing the file otherwise.
+   *
+   * @throws ApiException          if the API returns an error.
+   * @throws ServerException       if the API returns an unexpected response.
+   * @throws HttpException         if the API request cannot be completed.
+   * @throws IOException           if the file cannot be written.
+   * @throws IllegalStateException if the checkpoint belongs to an export with
+   *                               different options, or to a different file.
+   */
+  public void export(Path file)
+      throws ApiException, ServerException, HttpException, IOException {
+    Path checkpointFile = checkpointFile(file);
+    Optional<Checkpoint> checkpoint = readCheckpoint(checkpointFile);
+
+    try (FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      long resumeAt = checkpoint.map(saved -> saved.bytes).orElse(0L);
+      if (channel.size() < resumeAt) {
+        throw new IllegalStateException("The checkpoint " + checkpointFile
+            + " does not match " + file + ": delete it to start over");
+      }
+      channel.truncate(resumeAt);
+      channel.position(resumeAt);
+
+      int startPage = checkpoint.isPresent()
+          ? checkpoint.get().nextPage
+          : options.customers().page().orElse(0);
+      Paginated<Customer> first = CustomerApi.get(auth, clientData, transport,
+          options.customers().withPage(startPage));
+
+      progress.start(first.page().totalPages(),
+          checkpoint.map(saved -> saved.pages).orElse(0L),
+          checkpoint.map(saved -> saved.customers).orElse(0L),
+          resumeAt);
+
+      FileSink sink = new FileSink(channel, checkpointFile);
+      writeAll(first, sink);
+      sink.finish();
+    }
+
+    Files.deleteIfExists(checkpointFile);
+  }
+
+  /**
+   * Exports the Customers to 'output', without checkpoints. 'output' is
+   * flushed, but not closed.
+   *
+   * @throws ApiException    if the API returns an error.
+   * @throws ServerException if the API returns an unexpected response.
+   * @throws HttpException   if the API request cannot be completed.
+   * @throws IOException     if 'output' cannot be written.
+   */
+  public void export(OutputStream output)
+      throws ApiException, ServerException, HttpException, IOException {
+    Paginated<Customer> first = CustomerApi.get(auth, clientData, transport, options.customers());
+    progress.start(first.page().totalPages(), 0, 0, 0);
+
+    UnclosedOutputStream counting = new UnclosedOutputStream(output);
+    try (Writer writer = openWriter(counting)) {
+      writeAll(first, page -> {
+        writePage(writer, page);
+        progress.recordBytes(counting.count);
+      });
+    }
+    progress.recordBytes(counting.count);
+  }
+
+  @FunctionalInterface
+  private interface PageSink {
+    void write(Paginated<Customer> page) throws IOException;
+  }
+
+  private void writeAll(Paginated<Customer> first, PageSink sink)
+      throws ApiException, ServerException, HttpException, IOException {
+    try {
+      first.scanPages(options.concurrency(), ScanOrder.ORDERED, page -> {
+        try {
+          sink.write(page);
+        } catch (IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+      });
+    } catch (UncheckedIOException exception) {
+      throw exception.getCause();
+    }
+  }
+
+  private void writePage(Writer writer, Paginated<Customer> page) throws IOException {
+    for (Customer customer : page.elements()) {
+      gson.toJson(customer, writer);
+      writer.write('\n');
+    }
+    progress.recordPage(page.elements().size());
+  }
+
+  private Writer openWriter(OutputStream output) throws IOException {
+    OutputStream target = options.gzip()
+        ? new GZIPOutputStream(output, BUFFER_SIZE)
+        : output;
+    return new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8),
+        BUFFER_SIZE);
+  }
+
+  /**
+   * Identifies the options of an export, but for the page it started from.
+   */
+  private String fingerprint() {
+    return options.customers().withPage(Optional.empty()) + ", gzip=" + options.gzip();
+  }
+
+  private Optional<Checkpoint> readCheckpoint(Path checkpointFile) throws IOException {
+    if (!Files.exists(checkpointFile)) {
+      return Optional.empty();
+    }
+
+    Checkpoint checkpoint;
+    try {
+      checkpoint = gson.fromJson(
+          new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8),
+          Checkpoint.class);
+    } catch (JsonParseException exception) {
+      throw new IllegalStateException("Cannot read the checkpoint " + checkpointFile
+          + ": delete it to start over", exception);
+    }
+
+    if (checkpoint == null || !fingerprint().equals(checkpoint.options)) {
+      throw new IllegalStateException("The checkpoint " + checkpointFile
+          + " was saved by an export with different options: delete it to start over");
+    }
+    return Optional.of(checkpoint);
+  }
+
+  /**
+   * Writes the pages to the file in members: a checkpoint is saved after a
+   * member is complete and on disk, so that the file can be truncated to it.
+   */
+  private class FileSink implements PageSink {
+
+    private final FileChannel channel;
+    private final Path checkpointFile;
+    private Writer writer;
+    private int pagesSinceCheckpoint;
+
+    private FileSink(FileChannel channel, Path checkpointFile) throws IOException {
+      this.channel = channel;
+      this.checkpointFile = checkpointFile;
+      this.writer = openWriter(new UnclosedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    @Override
+    public void write(Paginated<Customer> page) throws IOException {
+      writePage(writer, page);
+
+      if (++pagesSinceCheckpoint >= options.checkpointInterval()) {
+        endMember();
+        saveCheckpoint(page.page().number() + 1);
+        writer = openWriter(new UnclosedOutputStream(Channels.newOutputStream(channel)));
+        pagesSinceCheckpoint = 0;
+      }
+    }
+
+    private void finish() throws IOException {
+      endMember();
+    }
+
+    private void endMember() throws IOException {
+      writer.close();
+      channel.force(false);
+      progress.recordBytes(channel.position());
+    }
+
+    private void saveCheckpoint(int nextPage) throws IOException {
+      Checkpoint checkpoint = new Checkpoint();
+      checkpoint.options = fingerprint();
+      checkpoint.nextPage = nextPage;
+      checkpoint.pages = progress.pages();
+      checkpoint.customers = progress.customers();
+      checkpoint.bytes = channel.position();
+
+      Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+      Files.write(temporary, gson.toJson(checkpoint).getBytes(StandardCharsets.UTF_8));
+      Files.move(temporary, checkpointFile,
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+  }
+
+  private static class Checkpoint {
+
+    private String options;
+    private int nextPage;
+    private long pages;
+    private long customers;
+    private long bytes;
+  }
+
+  /**
+   * Counts the bytes written, and only flushes on close, so that closing a
+   * writer or a gzip member leaves the underlying stream open.
+   */
+  private static class UnclosedOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    private UnclosedOutputStream(OutputStream output) {
+      super(output);
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+      out.write(value);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      out.write(bytes, offset, length);
+      count += length;
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+
+}
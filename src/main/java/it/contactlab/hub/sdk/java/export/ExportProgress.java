@@ -0,0 +1,70 @@
+package it.contactlab.hub.sdk.java.export;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of a {@link CustomerExporter}, safe to read from any thread.
+ * They include what was exported before a resume.
+ */
+public class ExportProgress {
+
+  private final AtomicLong pages = new AtomicLong();
+  private final AtomicLong totalPages = new AtomicLong();
+  private final AtomicLong customers = new AtomicLong();
+  private final AtomicLong bytes = new AtomicLong();
+
+  /**
+   * The number of pages written.
+   */
+  public long pages() {
+    return pages.get();
+  }
+
+  /**
+   * The number of pages of the export, known after the first response.
+   */
+  public long totalPages() {
+    return totalPages.get();
+  }
+
+  /**
+   * The number of Customers written.
+   */
+  public long customers() {
+    return customers.get();
+  }
+
+  /**
+   * The number of bytes that reached the output. Files are measured after
+   * every checkpoint.
+   */
+  public long bytes() {
+    return bytes.get();
+  }
+
+  void start(long totalPages, long pages, long customers, long bytes) {
+    this.totalPages.set(totalPages);
+    this.pages.set(pages);
+    this.customers.set(customers);
+    this.bytes.set(bytes);
+  }
+
+  void recordPage(int customers) {
+    this.pages.incrementAndGet();
+    this.customers.addAndGet(customers);
+  }
+
+  void recordBytes(long bytes) {
+    this.bytes.set(bytes);
+  }
+
+  @Override
+  public String toString() {
+    return "ExportProgress{"
+      + "pages=" + pages() + "/" + totalPages()
+      + ", customers=" + customers()
+      + ", bytes=" + bytes()
+      + "}";
+  }
+
+}
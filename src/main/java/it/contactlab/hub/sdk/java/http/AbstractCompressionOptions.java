@@ -0,0 +1,46 @@
+package it.contactlab.hub.sdk.java.http;
+
+import org.immutables.value.Value;
+
+/**
+ * Gzip compression settings for a {@link PooledHttpTransport}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractCompressionOptions {
+
+  /**
+   * Whether gzip responses are requested with an Accept-Encoding header and
+   * inflated on arrival.
+   */
+  @Value.Default
+  public boolean compressResponses() {
+    return true;
+  }
+
+  /**
+   * Whether request bodies of at least {@link #requestThreshold()} bytes are
+   * sent gzipped.
+   */
+  @Value.Default
+  public boolean compressRequests() {
+    return true;
+  }
+
+  /**
+   * The minimum size of a request body to be compressed, in bytes. Smaller
+   * bodies would not fit in fewer packets anyway.
+   */
+  @Value.Default
+  public int requestThreshold() {
+    return 1024;
+  }
+
+  @Value.Check
+  protected void check() {
+    if (requestThreshold() < 0) {
+      throw new IllegalArgumentException("requestThreshold cannot be negative");
+    }
+  }
+
+}
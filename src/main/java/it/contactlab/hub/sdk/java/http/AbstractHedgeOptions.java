@@ -0,0 +1,82 @@
+package it.contactlab.hub.sdk.java.http;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Settings for a {@link HedgingHttpTransport}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractHedgeOptions {
+
+  /**
+   * The percentile of the latest response times, from 0 to 1, after which
+   * a GET request is sent a second time.
+   */
+  @Value.Default
+  public double percentile() {
+    return 0.95;
+  }
+
+  /**
+   * The number of the latest response times the percentile is computed on.
+   */
+  @Value.Default
+  public int sampleSize() {
+    return 1000;
+  }
+
+  /**
+   * The delay used until 'minSamples' response times are known.
+   */
+  @Value.Default
+  public Duration initialDelay() {
+    return Duration.ofMillis(100);
+  }
+
+  /**
+   * The number of response times needed to use the percentile.
+   */
+  @Value.Default
+  public int minSamples() {
+    return 20;
+  }
+
+  /**
+   * The shortest delay, so that fast responses are not hedged because of
+   * their small jitter.
+   */
+  @Value.Default
+  public Duration minDelay() {
+    return Duration.ofMillis(5);
+  }
+
+  /**
+   * The largest fraction of the GET requests, from 0 to 1, that are sent a
+   * second time.
+   */
+  @Value.Default
+  public double maxHedgeRatio() {
+    return 0.05;
+  }
+
+  @Value.Check
+  protected void check() {
+    if (!(percentile() > 0 && percentile() < 1)) {
+      throw new IllegalArgumentException("percentile must be between 0 and 1");
+    }
+    if (!(maxHedgeRatio() >= 0 && maxHedgeRatio() <= 1)) {
+      throw new IllegalArgumentException("maxHedgeRatio must be between 0 and 1");
+    }
+    if (sampleSize() < 1 || minSamples() < 1 || minSamples() > sampleSize()) {
+      throw new IllegalArgumentException(
+          "sampleSize and minSamples must be positive, and minSamples at most sampleSize");
+    }
+    if (initialDelay().isNegative() || minDelay().isNegative()) {
+      throw new IllegalArgumentException("initialDelay and minDelay cannot be negative");
+    }
+  }
+
+}
@@ -0,0 +1,117 @@
+package it.contactlab.hub.sdk.java.http;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Connection pool settings for a {@link PooledHttpTransport}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractPoolingOptions {
+
+  /**
+   * The maximum number of open connections, across all routes.
+   */
+  @Value.Default
+  public int maxConnectionsTotal() {
+    return 200;
+  }
+
+  /**
+   * The maximum number of open connections to a single host.
+   */
+  @Value.Default
+  public int maxConnectionsPerRoute() {
+    return 20;
+  }
+
+  /**
+   * How long a pooled connection is kept alive when the server does not send
+   * a Keep-Alive header.
+   */
+  @Value.Default
+  public Duration keepAlive() {
+    return Duration.ofSeconds(30);
+  }
+
+  /**
+   * Connections idle for longer than this are evicted from the pool.
+   */
+  @Value.Default
+  public Duration maxIdleTime() {
+    return Duration.ofSeconds(60);
+  }
+
+  /**
+   * Pooled connections idle for longer than this are validated before reuse.
+   */
+  @Value.Default
+  public Duration validateAfterInactivity() {
+    return Duration.ofSeconds(2);
+  }
+
+  /**
+   * The timeout for establishing a connection.
+   */
+  @Value.Default
+  public Duration connectTimeout() {
+    return Duration.ofSeconds(10);
+  }
+
+  /**
+   * The timeout for waiting for data on an open connection.
+   */
+  @Value.Default
+  public Duration socketTimeout() {
+    return Duration.ofSeconds(60);
+  }
+
+  /**
+   * The timeout for leasing a connection from the pool.
+   */
+  @Value.Default
+  public Duration connectionRequestTimeout() {
+    return Duration.ofSeconds(10);
+  }
+
+  /**
+   * The size of the socket send and receive buffers, in bytes. Zero leaves
+   * the operating system default.
+   */
+  @Value.Default
+  public int socketBufferSize() {
+    return 0;
+  }
+
+  /**
+   * Whether Nagle's algorithm is disabled on pooled sockets.
+   */
+  @Value.Default
+  public boolean tcpNoDelay() {
+    return true;
+  }
+
+  /**
+   * The number of I/O dispatch threads used for asynchronous requests.
+   */
+  @Value.Default
+  public int ioThreads() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  @Value.Check
+  protected void check() {
+    if (maxConnectionsTotal() < 1 || maxConnectionsPerRoute() < 1) {
+      throw new IllegalArgumentException("connection limits must be positive");
+    }
+    if (ioThreads() < 1) {
+      throw new IllegalArgumentException("ioThreads must be positive");
+    }
+    if (socketBufferSize() < 0) {
+      throw new IllegalArgumentException("socketBufferSize cannot be negative");
+    }
+  }
+
+}
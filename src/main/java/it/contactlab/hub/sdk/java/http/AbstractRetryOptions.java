@@ -0,0 +1,71 @@
+package it.contactlab.hub.sdk.java.http;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Retry settings for a {@link RetryingHttpTransport}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractRetryOptions {
+
+  /**
+   * The maximum number of times a request is sent, the first one included.
+   */
+  @Value.Default
+  public int maxAttempts() {
+    return 3;
+  }
+
+  /**
+   * The upper bound of the wait before the first retry. It doubles at each
+   * of the next ones, up to 'maxDelay', and the actual wait is picked at
+   * random below it.
+   */
+  @Value.Default
+  public Duration baseDelay() {
+    return Duration.ofMillis(100);
+  }
+
+  /**
+   * The longest wait before a retry, also when asked for a longer one by a
+   * Retry-After header.
+   */
+  @Value.Default
+  public Duration maxDelay() {
+    return Duration.ofSeconds(10);
+  }
+
+  /**
+   * The status codes of the responses that are retried.
+   */
+  @Value.Default
+  public Set<Integer> retryStatusCodes() {
+    return new HashSet<>(Arrays.asList(429, 500, 502, 503, 504));
+  }
+
+  /**
+   * Retries POST and PATCH requests too. They are not idempotent: a request
+   * that failed on the way back may be applied twice.
+   */
+  @Value.Default
+  public boolean retryNonIdempotent() {
+    return false;
+  }
+
+  @Value.Check
+  protected void check() {
+    if (maxAttempts() < 1) {
+      throw new IllegalArgumentException("maxAttempts must be positive");
+    }
+    if (baseDelay().isNegative() || maxDelay().isNegative()) {
+      throw new IllegalArgumentException("baseDelay and maxDelay cannot be negative");
+    }
+  }
+
+}
@@ -0,0 +1,35 @@
+package it.contactlab.hub.sdk.java.http;
+
+import org.immutables.value.Value;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An HTTP request, as handed to an {@link HttpTransport}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractTransportRequest {
+
+  /**
+   * The HTTP method.
+   */
+  public abstract HttpMethod method();
+
+  /**
+   * The full request url, including the encoded query string.
+   */
+  public abstract String url();
+
+  /**
+   * The request headers.
+   */
+  public abstract Map<String, String> headers();
+
+  /**
+   * The request body, if any.
+   */
+  public abstract Optional<String> body();
+
+}
@@ -0,0 +1,40 @@
+package it.contactlab.hub.sdk.java.http;
+
+import org.immutables.value.Value;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An HTTP response, as returned by an {@link HttpTransport}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractTransportResponse {
+
+  /**
+   * The HTTP status code.
+   */
+  public abstract int statusCode();
+
+  /**
+   * The response headers.
+   */
+  public abstract Map<String, String> headers();
+
+  /**
+   * The response body. It is an empty String if the response has no body.
+   */
+  public abstract String body();
+
+  /**
+   * Looks up a response header, ignoring the case of its name.
+   */
+  public Optional<String> header(String name) {
+    return headers().entrySet().stream()
+        .filter(entry -> entry.getKey().equalsIgnoreCase(name))
+        .map(Map.Entry::getValue)
+        .findFirst();
+  }
+
+}
@@ -0,0 +1,73 @@
+package it.contactlab.hub.sdk.java.http;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The waits between the attempts of a request: exponential, capped, and
+ * picked at random below that bound ("full jitter"), so that many clients
+ * failing together do not retry together.
+ */
+public final class Backoff {
+
+  private Backoff() {
+  }
+
+  /**
+   * The longest wait before attempt 'attempt' + 1: 'base' doubled at each
+   * attempt after the first, and at most 'max'.
+   */
+  public static Duration bound(Duration base, Duration max, int attempt) {
+    long baseNanos = base.toNanos();
+    long maxNanos = max.toNanos();
+    int shift = Math.min(Math.max(attempt - 1, 0), 62);
+    return Duration.ofNanos(baseNanos > maxNanos >> shift ? maxNanos : baseNanos << shift);
+  }
+
+  /**
+   * A random wait between zero and {@link #bound(Duration, Duration, int)}.
+   */
+  public static Duration delay(Duration base, Duration max, int attempt) {
+    long boundNanos = bound(base, max, attempt).toNanos();
+    return Duration.ofNanos(
+        boundNanos > 0 ? ThreadLocalRandom.current().nextLong(boundNanos + 1) : 0);
+  }
+
+  /**
+   * Like {@link #delay(Duration, Duration, int)}, but not shorter than
+   * 'atLeast', such as the wait asked by a Retry-After header, up to 'max'.
+   */
+  public static Duration delay(
+      Duration base, Duration max, int attempt, Optional<Duration> atLeast
+  ) {
+    Duration delay = delay(base, max, attempt);
+    if (!atLeast.isPresent() || atLeast.get().compareTo(delay) <= 0) {
+      return delay;
+    }
+    return atLeast.get().compareTo(max) < 0 ? atLeast.get() : max;
+  }
+
+  /**
+   * Parses a Retry-After header: either a number of seconds or an HTTP date.
+   *
+   * @return The wait it asks for, never negative, or empty if it is invalid.
+   */
+  public static Optional<Duration> parseRetryAfter(String value) {
+    try {
+      return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim()))));
+    } catch (NumberFormatException notSeconds) {
+      try {
+        Duration untilDate = Duration.between(ZonedDateTime.now(),
+            ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+        return Optional.of(untilDate.isNegative() ? Duration.ZERO : untilDate);
+      } catch (DateTimeParseException notDate) {
+        return Optional.empty();
+      }
+    }
+  }
+
+}
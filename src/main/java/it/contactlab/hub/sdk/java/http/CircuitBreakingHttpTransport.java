@@ -0,0 +1,191 @@
+package it.contactlab.hub.sdk.java.http;
+
+import it.contactlab.hub.sdk.java.circuit.CircuitBreaker;
+import it.contactlab.hub.sdk.java.circuit.CircuitBreakerOptions;
+import it.contactlab.hub.sdk.java.circuit.StateChangeListener;
+import it.contactlab.hub.sdk.java.exceptions.CircuitOpenException;
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * An {@link HttpTransport} that guards each endpoint group with a
+ * {@link CircuitBreaker}. While the circuit of a group is open, its requests
+ * fail at once with a {@link CircuitOpenException}, without being sent.
+ *
+ * <p>The group of a request is the first path segment after the workspace,
+ * such as "customers" or "events". A request fails when it ends with an I/O
+ * error, timeouts included, or a 5xx status code; it is slow when its
+ * response takes longer than 'slowCallDuration' to arrive. A request whose
+ * caller was interrupted is not counted.</p>
+ */
+public class CircuitBreakingHttpTransport implements HttpTransport {
+
+  private static final String WORKSPACES = "/workspaces/";
+
+  private final HttpTransport delegate;
+  private final CircuitBreakerOptions options;
+  private final List<StateChangeListener> listeners = new CopyOnWriteArrayList<>();
+  private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+  public CircuitBreakingHttpTransport(HttpTransport delegate, CircuitBreakerOptions options) {
+    this.delegate = delegate;
+    this.options = options;
+  }
+
+  /**
+   * Adds a listener to the circuits of all the groups, including the ones
+   * created later.
+   */
+  public void addListener(StateChangeListener listener) {
+    listeners.add(listener);
+    breakers.values().forEach(breaker -> breaker.addListener(listener));
+  }
+
+  /**
+   * The circuit breaker of an endpoint group, such as "customers".
+   */
+  public CircuitBreaker breaker(String group) {
+    return breakers.computeIfAbsent(group, name -> {
+      CircuitBreaker breaker = new CircuitBreaker(name, options);
+      listeners.forEach(breaker::addListener);
+      return breaker;
+    });
+  }
+
+  /**
+   * The circuit breakers of the groups requested so far.
+   */
+  public Collection<CircuitBreaker> breakers() {
+    return Collections.unmodifiableCollection(breakers.values());
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws HttpException {
+    CircuitBreaker.Permit permit = acquire(request);
+    try {
+      TransportResponse response = delegate.execute(request);
+      permit.record(isFailure(response.statusCode()));
+      return response;
+    } catch (HttpException exception) {
+      record(permit, exception);
+      throw exception;
+    } finally {
+      // Any other failure, Errors included, must not keep a trial permit
+      // forever: a permit that was already recorded ignores this.
+      permit.record(true);
+    }
+  }
+
+  /**
+   * The outcome is recorded when the response arrives, before it is handed
+   * to 'handler'.
+   */
+  @Override
+  public <T> T execute(TransportRequest request, ResponseHandler<T> handler)
+      throws ContactHubException {
+    CircuitBreaker.Permit permit = acquire(request);
+    try {
+      return delegate.execute(request, (statusCode, headers, body) -> {
+        permit.record(isFailure(statusCode));
+        return handler.handle(statusCode, headers, body);
+      });
+    } catch (HttpException exception) {
+      record(permit, exception);
+      throw exception;
+    } finally {
+      permit.record(true);
+    }
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> executeAsync(
+      TransportRequest request, Executor executor
+  ) {
+    String group = group(request.url());
+    Optional<CircuitBreaker.Permit> permit = breaker(group).tryAcquire();
+    if (!permit.isPresent()) {
+      CompletableFuture<TransportResponse> open = new CompletableFuture<>();
+      open.completeExceptionally(new CompletionException(new CircuitOpenException(group)));
+      return open;
+    }
+
+    CompletableFuture<TransportResponse> response = null;
+    try {
+      response = delegate.executeAsync(request, executor);
+    } finally {
+      if (response == null) {
+        permit.get().record(true);
+      }
+    }
+
+    return response.whenComplete((result, exception) -> {
+      if (exception == null) {
+        permit.get().record(isFailure(result.statusCode()));
+      } else {
+        Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+            ? exception.getCause()
+            : exception;
+        if (cause instanceof HttpException) {
+          record(permit.get(), (HttpException) cause);
+        } else {
+          permit.get().record(true);
+        }
+      }
+    });
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  private CircuitBreaker.Permit acquire(TransportRequest request) throws CircuitOpenException {
+    String group = group(request.url());
+    return breaker(group).tryAcquire().orElseThrow(() -> new CircuitOpenException(group));
+  }
+
+  private static boolean isFailure(int statusCode) {
+    return statusCode >= 500;
+  }
+
+  private static void record(CircuitBreaker.Permit permit, HttpException exception) {
+    if (TransportFailures.isInterrupt(exception)) {
+      permit.release();
+    } else {
+      permit.record(true);
+    }
+  }
+
+  /**
+   * The first path segment after "/workspaces/{id}/", or the whole path if
+   * there is none.
+   */
+  private static String group(String url) {
+    int end = url.indexOf('?');
+    String path = end < 0 ? url : url.substring(0, end);
+
+    int workspaces = path.indexOf(WORKSPACES);
+    if (workspaces < 0) {
+      return path;
+    }
+    int start = path.indexOf('/', workspaces + WORKSPACES.length());
+    if (start < 0) {
+      return path;
+    }
+    int slash = path.indexOf('/', start + 1);
+    return path.substring(start + 1, slash < 0 ? path.length() : slash);
+  }
+
+}
@@ -0,0 +1,69 @@
+package it.contactlab.hub.sdk.java.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes of request and response bodies exchanged by a
+ * {@link PooledHttpTransport}, before and after gzip compression.
+ */
+public class CompressionStats {
+
+  private final AtomicLong requestBytes = new AtomicLong();
+  private final AtomicLong requestWireBytes = new AtomicLong();
+  private final AtomicLong responseBytes = new AtomicLong();
+  private final AtomicLong responseWireBytes = new AtomicLong();
+
+  /**
+   * The size of the request bodies, as produced by the SDK.
+   */
+  public long requestBytes() {
+    return requestBytes.get();
+  }
+
+  /**
+   * The size of the request bodies actually sent.
+   */
+  public long requestWireBytes() {
+    return requestWireBytes.get();
+  }
+
+  /**
+   * The size of the response bodies, once inflated.
+   */
+  public long responseBytes() {
+    return responseBytes.get();
+  }
+
+  /**
+   * The size of the response bodies actually received.
+   */
+  public long responseWireBytes() {
+    return responseWireBytes.get();
+  }
+
+  /**
+   * The number of bytes that did not go over the network thanks to compression.
+   */
+  public long savedBytes() {
+    return requestBytes() - requestWireBytes() + responseBytes() - responseWireBytes();
+  }
+
+  void recordRequest(long bytes, long wireBytes) {
+    requestBytes.addAndGet(bytes);
+    requestWireBytes.addAndGet(wireBytes);
+  }
+
+  void recordResponse(long bytes, long wireBytes) {
+    responseBytes.addAndGet(bytes);
+    responseWireBytes.addAndGet(wireBytes);
+  }
+
+  @Override
+  public String toString() {
+    return "CompressionStats{requestBytes=" + requestBytes()
+        + ", requestWireBytes=" + requestWireBytes()
+        + ", responseBytes=" + responseBytes()
+        + ", responseWireBytes=" + responseWireBytes() + "}";
+  }
+
+}
@@ -0,0 +1,267 @@
+package it.contactlab.hub.sdk.java.http;
+
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link HttpTransport} that sends a GET request a second time when its
+ * response is late, and returns the response that arrives first, whatever
+ * its status code. The other request is cancelled.
+ *
+ * <p>A response is late when it takes longer than the given percentile of
+ * the latest response times. At most 'maxHedgeRatio' of the requests are
+ * hedged, with an allowance for short bursts, so that a slow API does not
+ * get twice the load.</p>
+ *
+ * <p>A first request cancelled because the second one answered first counts
+ * with the time it ran for, a lower bound of its response time, so that
+ * the slowest responses are not left out of the percentile.</p>
+ *
+ * <p>Hedged requests are always sent through
+ * {@link HttpTransport#executeAsync(TransportRequest, Executor)}, also for
+ * blocking callers. Streamed responses, such as the pages read by
+ * {@code forEachCustomer}, are not hedged, so that they are never
+ * buffered. Other requests are passed to the wrapped transport as they
+ * are. Cancelling a request aborts it only if the wrapped transport
+ * supports it, like {@link PooledHttpTransport}: use this transport right
+ * on top of it.</p>
+ */
+public class HedgingHttpTransport implements HttpTransport {
+
+  private static final double MAX_CREDIT = 10;
+
+  private static final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "contacthub-hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private static final AtomicInteger threads = new AtomicInteger();
+
+  // Runs the blocking requests of transports without a non-blocking client.
+  private static final ExecutorService blockingExecutor =
+      Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "contacthub-hedge-" + threads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final HttpTransport delegate;
+  private final HedgeOptions options;
+  private final AtomicLong hedged = new AtomicLong();
+  private final AtomicLong hedgeWins = new AtomicLong();
+
+  // The latest response times, as a ring buffer, and the delay computed on them.
+  private final long[] samples;
+  private int size;
+  private int next;
+  private int sinceUpdate;
+  private long delayNanos;
+
+  // The hedges that can be sent: 'maxHedgeRatio' is added for each request.
+  private double credit;
+
+  public HedgingHttpTransport(HttpTransport delegate, HedgeOptions options) {
+    this.delegate = delegate;
+    this.options = options;
+    this.samples = new long[options.sampleSize()];
+    this.delayNanos = options.initialDelay().toNanos();
+  }
+
+  /**
+   * The number of requests sent a second time.
+   */
+  public long hedged() {
+    return hedged.get();
+  }
+
+  /**
+   * The number of hedged requests whose second request answered first.
+   */
+  public long hedgeWins() {
+    return hedgeWins.get();
+  }
+
+  /**
+   * How long a GET request is waited for before it is sent again.
+   */
+  public synchronized Duration delay() {
+    return Duration.ofNanos(delayNanos);
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws HttpException {
+    if (request.method() != HttpMethod.GET) {
+      return delegate.execute(request);
+    }
+
+    CompletableFuture<TransportResponse> response = executeAsync(request, blockingExecutor);
+    try {
+      return response.get();
+    } catch (InterruptedException exception) {
+      response.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new HttpException(new InterruptedIOException("Interrupted while waiting"));
+    } catch (ExecutionException exception) {
+      Throwable cause = unwrap(exception.getCause());
+      if (cause instanceof HttpException) {
+        throw (HttpException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new HttpException(cause instanceof IOException
+          ? (IOException) cause
+          : new IOException(cause));
+    }
+  }
+
+  /**
+   * Streamed requests are not hedged: they are sent by the wrapped
+   * transport, without buffering the response.
+   */
+  @Override
+  public <T> T execute(TransportRequest request, ResponseHandler<T> handler)
+      throws ContactHubException {
+    return delegate.execute(request, handler);
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> executeAsync(
+      TransportRequest request, Executor executor
+  ) {
+    if (request.method() != HttpMethod.GET) {
+      return delegate.executeAsync(request, executor);
+    }
+
+    Hedge hedge = new Hedge(request, executor);
+    long delay;
+    synchronized (this) {
+      credit = Math.min(MAX_CREDIT, credit + options.maxHedgeRatio());
+      delay = delayNanos;
+    }
+
+    hedge.send(false);
+    ScheduledFuture<?> second = timer.schedule(() -> {
+      if (!hedge.result.isDone() && takeCredit()) {
+        hedged.incrementAndGet();
+        hedge.send(true);
+      }
+    }, delay, TimeUnit.NANOSECONDS);
+
+    hedge.result.whenComplete((response, exception) -> {
+      second.cancel(false);
+      hedge.attempts.forEach(attempt -> attempt.cancel(true));
+    });
+    return hedge.result;
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  /**
+   * The requests sent for a GET, and their first response.
+   */
+  private class Hedge {
+
+    private final TransportRequest request;
+    private final Executor executor;
+    private final CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+    private final List<CompletableFuture<TransportResponse>> attempts =
+        new CopyOnWriteArrayList<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private Hedge(TransportRequest request, Executor executor) {
+      this.request = request;
+      this.executor = executor;
+    }
+
+    private void send(boolean second) {
+      long start = System.nanoTime();
+      pending.incrementAndGet();
+
+      CompletableFuture<TransportResponse> attempt = delegate.executeAsync(request, executor);
+      attempts.add(attempt);
+      if (result.isDone()) {
+        // The first request answered meanwhile.
+        attempt.cancel(true);
+        return;
+      }
+
+      attempt.whenComplete((response, exception) -> {
+        if (exception == null) {
+          record(System.nanoTime() - start);
+          if (result.complete(response) && second) {
+            hedgeWins.incrementAndGet();
+          }
+        } else if (attempt.isCancelled()) {
+          // Cancelled once the result is known: a slow first request would
+          // otherwise never count.
+          if (!second) {
+            record(System.nanoTime() - start);
+          }
+        } else if (pending.decrementAndGet() == 0) {
+          // Fails only when no other request can still answer.
+          result.completeExceptionally(exception);
+        }
+      });
+    }
+  }
+
+  private synchronized boolean takeCredit() {
+    if (credit < 1) {
+      return false;
+    }
+    credit -= 1;
+    return true;
+  }
+
+  /**
+   * Adds a response time, and computes the delay again every few of them.
+   */
+  private synchronized void record(long nanos) {
+    samples[next] = nanos;
+    next = (next + 1) % samples.length;
+    size = Math.min(size + 1, samples.length);
+
+    if (size < options.minSamples() || ++sinceUpdate < Math.max(1, samples.length / 20)) {
+      return;
+    }
+    sinceUpdate = 0;
+    long[] sorted = Arrays.copyOf(samples, size);
+    Arrays.sort(sorted);
+    long percentile = sorted[Math.min(size - 1, (int) Math.ceil(options.percentile() * size) - 1)];
+    delayNanos = Math.max(options.minDelay().toNanos(), percentile);
+  }
+
+  private static Throwable unwrap(Throwable exception) {
+    Throwable cause = exception;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+}
@@ -0,0 +1,9 @@
+package it.contactlab.hub.sdk.java.http;
+
+public enum HttpMethod {
+  GET,
+  POST,
+  PUT,
+  PATCH,
+  DELETE
+}
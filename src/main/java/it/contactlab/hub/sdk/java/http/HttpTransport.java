@@ -0,0 +1,76 @@
+package it.contactlab.hub.sdk.java.http;
+
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * The HTTP layer used by a ContactHub client to talk to the API.
+ *
+ * <p>Every {@link it.contactlab.hub.sdk.java.ContactHub} instance owns its own
+ * transport, so connection pools and timeouts can be tuned per workload. The
+ * default implementation is {@link PooledHttpTransport}.</p>
+ */
+public interface HttpTransport extends Closeable {
+
+  /**
+   * Sends a request and returns the response, whatever its status code.
+   *
+   * @throws HttpException if the request cannot be completed.
+   */
+  TransportResponse execute(TransportRequest request) throws HttpException;
+
+  /**
+   * Sends a request and streams the response body into 'handler', whatever
+   * its status code, so that large bodies never need to be held in memory as
+   * a whole.
+   *
+   * <p>Implementations should override this; the default reads the whole
+   * body through {@link #execute(TransportRequest)} first.</p>
+   *
+   * @throws HttpException       if the request cannot be completed or the body
+   *                             cannot be read.
+   * @throws ContactHubException if thrown by 'handler'.
+   */
+  default <T> T execute(TransportRequest request, ResponseHandler<T> handler)
+      throws ContactHubException {
+    TransportResponse response = execute(request);
+
+    try (InputStream body = new ByteArrayInputStream(
+        response.body().getBytes(StandardCharsets.UTF_8))) {
+      return handler.handle(response.statusCode(), response.headers(), body);
+    } catch (IOException ex) {
+      throw new HttpException(ex);
+    }
+  }
+
+  /**
+   * Sends a request without blocking the calling thread.
+   *
+   * <p>The returned future completes with the response, whatever its status
+   * code, or exceptionally with a {@link CompletionException} wrapping an
+   * {@link HttpException}. Implementations backed by a non-blocking client
+   * should override this; the default runs {@link #execute} on 'executor',
+   * the executor of the calling client.</p>
+   */
+  default CompletableFuture<TransportResponse> executeAsync(
+      TransportRequest request, Executor executor
+  ) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return execute(request);
+      } catch (HttpException exception) {
+        throw new CompletionException(exception);
+      }
+    }, executor);
+  }
+
+}
@@ -0,0 +1,487 @@
+package it.contactlab.hub.sdk.java.http;
+
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.util.EntityUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The default {@link HttpTransport}, backed by a pool of persistent
+ * connections that belongs to this instance only.
+ *
+ * <p>Asynchronous requests go through a separate non-blocking client, started
+ * on first use, whose futures complete from its I/O dispatch threads: no
+ * thread is parked while a request is in flight.</p>
+ *
+ * <p>When created with {@link CompressionOptions}, it asks for gzip responses
+ * and compresses large request bodies. {@link #compressionStats()} reports the
+ * bytes sent and received either way.</p>
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+  private static final String GZIP = "gzip";
+
+  private final PoolingOptions options;
+  private final PoolingHttpClientConnectionManager connectionManager;
+  private final CloseableHttpClient client;
+  private final RequestConfig requestConfig;
+  private final Optional<CompressionOptions> compression;
+  private final CompressionStats compressionStats = new CompressionStats();
+
+  private volatile CloseableHttpAsyncClient asyncClient;
+  private ScheduledExecutorService asyncEvictor;
+  private boolean closed;
+
+  public PooledHttpTransport() {
+    this(PoolingOptions.builder().build());
+  }
+
+  /**
+   * Creates a new transport with its own connection pool.
+   *
+   * @param options The {@link PoolingOptions} for the connection pool.
+   */
+  public PooledHttpTransport(PoolingOptions options) {
+    this(options, Optional.empty());
+  }
+
+  /**
+   * Creates a new transport with its own connection pool, that compresses
+   * requests and responses with gzip.
+   *
+   * @param options     The {@link PoolingOptions} for the connection pool.
+   * @param compression The {@link CompressionOptions} to apply.
+   */
+  public PooledHttpTransport(PoolingOptions options, CompressionOptions compression) {
+    this(options, Optional.of(compression));
+  }
+
+  private PooledHttpTransport(PoolingOptions options, Optional<CompressionOptions> compression) {
+    this.options = options;
+    this.compression = compression;
+
+    this.connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(options.maxConnectionsTotal());
+    connectionManager.setDefaultMaxPerRoute(options.maxConnectionsPerRoute());
+    connectionManager.setValidateAfterInactivity(
+        (int) options.validateAfterInactivity().toMillis());
+    connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+        .setSoKeepAlive(true)
+        .setTcpNoDelay(options.tcpNoDelay())
+        .setSoTimeout((int) options.socketTimeout().toMillis())
+        .setRcvBufSize(options.socketBufferSize())
+        .setSndBufSize(options.socketBufferSize())
+        .build());
+    if (options.socketBufferSize() > 0) {
+      connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+          .setBufferSize(options.socketBufferSize())
+          .build());
+    }
+
+    this.requestConfig = RequestConfig.custom()
+        .setConnectTimeout((int) options.connectTimeout().toMillis())
+        .setSocketTimeout((int) options.socketTimeout().toMillis())
+        .setConnectionRequestTimeout((int) options.connectionRequestTimeout().toMillis())
+        .build();
+
+    this.client = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .setKeepAliveStrategy(keepAliveStrategy(options))
+        .evictExpiredConnections()
+        .evictIdleConnections(options.maxIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+        .disableContentCompression()
+        .build();
+  }
+
+  public PoolingOptions options() {
+    return options;
+  }
+
+  public Optional<CompressionOptions> compression() {
+    return compression;
+  }
+
+  /**
+   * The body sizes of every request sent so far, before and after compression.
+   */
+  public CompressionStats compressionStats() {
+    return compressionStats;
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws HttpException {
+    HttpRequestBase httpRequest = toHttpRequest(request);
+
+    try (CloseableHttpResponse response = client.execute(httpRequest)) {
+      return toTransportResponse(response);
+    } catch (IOException ex) {
+      throw new HttpException(ex);
+    }
+  }
+
+  @Override
+  public <T> T execute(TransportRequest request, ResponseHandler<T> handler)
+      throws ContactHubException {
+    HttpRequestBase httpRequest = toHttpRequest(request);
+
+    try (CloseableHttpResponse response = client.execute(httpRequest)) {
+      HttpEntity entity = response.getEntity();
+      Map<String, String> headers = toHeaderMap(response.getAllHeaders());
+      int statusCode = response.getStatusLine().getStatusCode();
+
+      if (entity == null) {
+        return handler.handle(statusCode, headers, new ByteArrayInputStream(new byte[0]));
+      }
+
+      CountingInputStream wire = new CountingInputStream(entity.getContent());
+      try (CountingInputStream body = new CountingInputStream(decode(entity, wire))) {
+        T result = handler.handle(statusCode, headers, body);
+        // Drain what the handler left unread, so the connection can be reused.
+        drain(body);
+        EntityUtils.consume(entity);
+        compressionStats.recordResponse(body.count(), wire.count());
+        return result;
+      }
+    } catch (IOException ex) {
+      throw new HttpException(ex);
+    }
+  }
+
+  /**
+   * Sends the request on the non-blocking client. 'executor' is not used: the
+   * returned future completes from an I/O dispatch thread.
+   */
+  @Override
+  public CompletableFuture<TransportResponse> executeAsync(
+      TransportRequest request, Executor executor
+  ) {
+    CompletableFuture<TransportResponse> future = new CompletableFuture<>();
+
+    try {
+      Future<HttpResponse> exchange =
+          asyncClient().execute(toHttpRequest(request), new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+              try {
+                future.complete(toTransportResponse(response));
+              } catch (IOException ex) {
+                future.completeExceptionally(new CompletionException(new HttpException(ex)));
+              }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+              IOException cause =
+                  ex instanceof IOException ? (IOException) ex : new IOException(ex);
+              future.completeExceptionally(new CompletionException(new HttpException(cause)));
+            }
+
+            @Override
+            public void cancelled() {
+              future.completeExceptionally(new CancellationException("Request cancelled"));
+            }
+          });
+
+      // Cancelling the returned future aborts the exchange, freeing its connection.
+      future.whenComplete((response, exception) -> {
+        if (future.isCancelled()) {
+          exchange.cancel(true);
+        }
+      });
+    } catch (IOException ex) {
+      future.completeExceptionally(new CompletionException(new HttpException(ex)));
+    }
+
+    return future;
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      closed = true;
+      if (asyncClient != null) {
+        asyncEvictor.shutdownNow();
+        asyncClient.close();
+      }
+    }
+    client.close();
+  }
+
+  /**
+   * Returns the non-blocking client, starting it and its own connection pool
+   * the first time an asynchronous request is sent.
+   */
+  private CloseableHttpAsyncClient asyncClient() throws IOException {
+    CloseableHttpAsyncClient current = asyncClient;
+    if (current != null) {
+      return current;
+    }
+
+    synchronized (this) {
+      if (closed) {
+        throw new IOException("The transport has been closed");
+      }
+      if (asyncClient == null) {
+        asyncClient = startAsyncClient();
+      }
+      return asyncClient;
+    }
+  }
+
+  private CloseableHttpAsyncClient startAsyncClient() throws IOReactorException {
+    IOReactorConfig reactorConfig = IOReactorConfig.custom()
+        .setIoThreadCount(options.ioThreads())
+        .setSoKeepAlive(true)
+        .setTcpNoDelay(options.tcpNoDelay())
+        .setConnectTimeout((int) options.connectTimeout().toMillis())
+        .setSoTimeout((int) options.socketTimeout().toMillis())
+        .setRcvBufSize(options.socketBufferSize())
+        .setSndBufSize(options.socketBufferSize())
+        .build();
+
+    PoolingNHttpClientConnectionManager asyncConnectionManager =
+        new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig));
+    asyncConnectionManager.setMaxTotal(options.maxConnectionsTotal());
+    asyncConnectionManager.setDefaultMaxPerRoute(options.maxConnectionsPerRoute());
+
+    // The async client has no built-in idle eviction, so we run our own.
+    long maxIdleMillis = options.maxIdleTime().toMillis();
+    asyncEvictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "contacthub-async-evictor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    asyncEvictor.scheduleWithFixedDelay(() -> {
+      asyncConnectionManager.closeExpiredConnections();
+      asyncConnectionManager.closeIdleConnections(maxIdleMillis, TimeUnit.MILLISECONDS);
+    }, maxIdleMillis, maxIdleMillis, TimeUnit.MILLISECONDS);
+
+    CloseableHttpAsyncClient started = HttpAsyncClients.custom()
+        .setConnectionManager(asyncConnectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .setKeepAliveStrategy(keepAliveStrategy(options))
+        .build();
+    started.start();
+    return started;
+  }
+
+  private HttpRequestBase toHttpRequest(TransportRequest request) {
+    HttpRequestBase httpRequest;
+
+    switch (request.method()) {
+      case GET:
+        httpRequest = new HttpGet(request.url());
+        break;
+      case DELETE:
+        httpRequest = new HttpDelete(request.url());
+        break;
+      case POST:
+        httpRequest = withBody(new HttpPost(request.url()), request);
+        break;
+      case PUT:
+        httpRequest = withBody(new HttpPut(request.url()), request);
+        break;
+      case PATCH:
+        httpRequest = withBody(new HttpPatch(request.url()), request);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported method " + request.method());
+    }
+
+    request.headers().forEach(httpRequest::setHeader);
+    if (compression.map(CompressionOptions::compressResponses).orElse(false)) {
+      httpRequest.setHeader(HttpHeaders.ACCEPT_ENCODING, GZIP);
+    }
+    return httpRequest;
+  }
+
+  private HttpRequestBase withBody(
+      HttpEntityEnclosingRequestBase httpRequest, TransportRequest request
+  ) {
+    request.body().ifPresent(body -> {
+      byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+      boolean compress = compression
+          .map(options -> options.compressRequests() && bytes.length >= options.requestThreshold())
+          .orElse(false);
+
+      byte[] wireBytes = compress ? gzip(bytes) : bytes;
+      if (compress) {
+        httpRequest.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+      }
+      httpRequest.setEntity(new ByteArrayEntity(wireBytes));
+      compressionStats.recordRequest(bytes.length, wireBytes.length);
+    });
+    return httpRequest;
+  }
+
+  private TransportResponse toTransportResponse(HttpResponse response) throws IOException {
+    HttpEntity entity = response.getEntity();
+    String body = "";
+
+    if (entity != null) {
+      CountingInputStream wire = new CountingInputStream(entity.getContent());
+      try (InputStream content = decode(entity, wire)) {
+        byte[] bytes = readFully(content);
+        compressionStats.recordResponse(bytes.length, wire.count());
+        body = new String(bytes, StandardCharsets.UTF_8);
+      }
+    }
+
+    return TransportResponse.builder()
+        .statusCode(response.getStatusLine().getStatusCode())
+        .headers(toHeaderMap(response.getAllHeaders()))
+        .body(body)
+        .build();
+  }
+
+  private static Map<String, String> toHeaderMap(Header[] headers) {
+    Map<String, String> headerMap = new HashMap<>();
+    for (Header header : headers) {
+      headerMap.put(header.getName(), header.getValue());
+    }
+    return headerMap;
+  }
+
+  /**
+   * Inflates the entity content if the server sent it gzipped.
+   */
+  private static InputStream decode(HttpEntity entity, InputStream content) throws IOException {
+    Header encoding = entity.getContentEncoding();
+    if (encoding != null && encoding.getValue().trim().equalsIgnoreCase(GZIP)) {
+      return new GZIPInputStream(content);
+    }
+    return content;
+  }
+
+  private static byte[] gzip(byte[] bytes) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(bytes);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return compressed.toByteArray();
+  }
+
+  private static byte[] readFully(InputStream content) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = content.read(buffer)) != -1) {
+      bytes.write(buffer, 0, read);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void drain(InputStream content) throws IOException {
+    byte[] buffer = new byte[8192];
+    while (content.read(buffer) != -1) {
+      // discard
+    }
+  }
+
+  /**
+   * Counts the bytes read through it.
+   */
+  private static class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    long count() {
+      return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read = super.read();
+      if (read != -1) {
+        count++;
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read > 0) {
+        count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long length) throws IOException {
+      long skipped = super.skip(length);
+      count += skipped;
+      return skipped;
+    }
+  }
+
+  /**
+   * Honours the server Keep-Alive header, falling back to the configured value.
+   */
+  private static ConnectionKeepAliveStrategy keepAliveStrategy(PoolingOptions options) {
+    long defaultKeepAlive = options.keepAlive().toMillis();
+
+    return (response, context) -> {
+      long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+          .getKeepAliveDuration(response, context);
+      return keepAlive > 0 ? keepAlive : defaultKeepAlive;
+    };
+  }
+
+}
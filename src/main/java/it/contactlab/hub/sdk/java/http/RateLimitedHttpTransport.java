@@ -0,0 +1,120 @@
+package it.contactlab.hub.sdk.java.http;
+
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+import it.contactlab.hub.sdk.java.exceptions.RateLimitException;
+import it.contactlab.hub.sdk.java.ratelimit.EndpointClass;
+import it.contactlab.hub.sdk.java.ratelimit.RateLimitOptions;
+import it.contactlab.hub.sdk.java.ratelimit.RateLimiter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * An {@link HttpTransport} that takes a permit from a {@link RateLimiter}
+ * before each request, so that the requests of a workspace stay under its
+ * quota instead of failing with 429 Too Many Requests.
+ *
+ * <p>A request waits for its permit up to 'maxWait', and then fails with a
+ * {@link RateLimitException} without being sent. Asynchronous requests wait
+ * without holding a thread.</p>
+ */
+public class RateLimitedHttpTransport implements HttpTransport {
+
+  private final HttpTransport delegate;
+  private final RateLimiter reads;
+  private final RateLimiter writes;
+  private final Duration maxWait;
+
+  /**
+   * Limits the requests with the read and write limiters shared by all the
+   * clients of the workspace, creating them with the given options if needed.
+   *
+   * @throws IllegalArgumentException if a shared limiter already exists with
+   *                                  another rate or burst.
+   */
+  public RateLimitedHttpTransport(
+      HttpTransport delegate, String workspaceId, RateLimitOptions options
+  ) {
+    this(delegate,
+        RateLimiter.shared(workspaceId, EndpointClass.READ,
+            options.permitsPerSecond(), options.burst()),
+        RateLimiter.shared(workspaceId, EndpointClass.WRITE,
+            options.writePermitsPerSecond().orElse(options.permitsPerSecond()), options.burst()),
+        options.maxWait());
+  }
+
+  /**
+   * Limits the requests with the given limiters.
+   *
+   * @param writes The limiter of the writes, or null to use 'reads' for all
+   *               the requests.
+   */
+  public RateLimitedHttpTransport(
+      HttpTransport delegate, RateLimiter reads, RateLimiter writes, Duration maxWait
+  ) {
+    this.delegate = delegate;
+    this.reads = reads;
+    this.writes = writes != null ? writes : reads;
+    this.maxWait = maxWait;
+  }
+
+  /**
+   * The limiter of the requests with the given method.
+   */
+  public RateLimiter limiter(HttpMethod method) {
+    return EndpointClass.of(method) == EndpointClass.READ ? reads : writes;
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws HttpException {
+    acquire(request);
+    return delegate.execute(request);
+  }
+
+  @Override
+  public <T> T execute(TransportRequest request, ResponseHandler<T> handler)
+      throws ContactHubException {
+    acquire(request);
+    return delegate.execute(request, handler);
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> executeAsync(
+      TransportRequest request, Executor executor
+  ) {
+    CompletableFuture<Boolean> permit = limiter(request.method()).tryAcquireAsync(maxWait);
+    Function<Boolean, CompletionStage<TransportResponse>> send = acquired -> {
+      if (!acquired) {
+        throw new CompletionException(new RateLimitException(maxWait));
+      }
+      return delegate.executeAsync(request, executor);
+    };
+
+    // A permit given at once needs no hop from the timer to the executor.
+    return permit.isDone() ? permit.thenCompose(send) : permit.thenComposeAsync(send, executor);
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  private void acquire(TransportRequest request) throws HttpException {
+    try {
+      if (!limiter(request.method()).tryAcquire(maxWait)) {
+        throw new RateLimitException(maxWait);
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new HttpException(new InterruptedIOException("Interrupted while waiting for a permit"));
+    }
+  }
+
+}
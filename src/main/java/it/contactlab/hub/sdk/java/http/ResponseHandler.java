@@ -0,0 +1,27 @@
+package it.contactlab.hub.sdk.java.http;
+
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Consumes the body of an HTTP response while it is being received.
+ */
+@FunctionalInterface
+public interface ResponseHandler<T> {
+
+  /**
+   * Reads the response.
+   *
+   * @param statusCode The HTTP status code.
+   * @param headers    The response headers.
+   * @param body       The response body. It is closed by the transport.
+   * @return           The value returned by {@link HttpTransport#execute(TransportRequest,
+   *                   ResponseHandler)}.
+   */
+  T handle(int statusCode, Map<String, String> headers, InputStream body)
+      throws IOException, ContactHubException;
+
+}
@@ -0,0 +1,256 @@
+package it.contactlab.hub.sdk.java.http;
+
+import it.contactlab.hub.sdk.java.exceptions.CircuitOpenException;
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+import it.contactlab.hub.sdk.java.exceptions.RateLimitException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link HttpTransport} that sends a request again when it fails with an
+ * I/O error or with one of the retried status codes, such as 429 and 503.
+ *
+ * <p>The waits between attempts grow exponentially, and are picked at random
+ * below that bound ("full jitter"), so that many clients failing together do
+ * not retry together. A Retry-After header sets the shortest wait. Only GET,
+ * PUT and DELETE requests are retried, unless the options allow POST and
+ * PATCH too.</p>
+ *
+ * <p>When the attempts run out, the last response is returned, or the last
+ * error thrown, as they are.</p>
+ */
+public class RetryingHttpTransport implements HttpTransport {
+
+  private static final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "contacthub-retry-timer");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final HttpTransport delegate;
+  private final RetryOptions options;
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong exhausted = new AtomicLong();
+
+  public RetryingHttpTransport(HttpTransport delegate, RetryOptions options) {
+    this.delegate = delegate;
+    this.options = options;
+  }
+
+  public RetryOptions options() {
+    return options;
+  }
+
+  /**
+   * The number of requests sent again.
+   */
+  public long retries() {
+    return retries.get();
+  }
+
+  /**
+   * The number of requests that still failed after the last attempt.
+   */
+  public long exhausted() {
+    return exhausted.get();
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws HttpException {
+    for (int attempt = 1; ; attempt++) {
+      TransportResponse response;
+      try {
+        response = delegate.execute(request);
+      } catch (HttpException exception) {
+        if (!canRetry(request, attempt, exception)) {
+          throw exception;
+        }
+        sleep(delay(attempt, Optional.empty()));
+        continue;
+      }
+
+      if (!canRetry(request, attempt, response.statusCode())) {
+        return response;
+      }
+      sleep(delay(attempt, response.header("Retry-After")));
+    }
+  }
+
+  /**
+   * Retried responses are read and discarded: only the final one is handed
+   * to 'handler'.
+   */
+  @Override
+  public <T> T execute(TransportRequest request, ResponseHandler<T> handler)
+      throws ContactHubException {
+    for (int attempt = 1; ; attempt++) {
+      int currentAttempt = attempt;
+      try {
+        return delegate.execute(request, (statusCode, headers, body) -> {
+          if (canRetry(request, currentAttempt, statusCode)) {
+            drain(body);
+            throw new RetryableResponse(headers);
+          }
+          return handler.handle(statusCode, headers, body);
+        });
+      } catch (RetryableResponse retryable) {
+        sleep(delay(attempt, header(retryable.headers, "Retry-After")));
+      } catch (HttpException exception) {
+        if (!canRetry(request, attempt, exception)) {
+          throw exception;
+        }
+        sleep(delay(attempt, Optional.empty()));
+      }
+    }
+  }
+
+  /**
+   * Waits between attempts on a shared timer, without holding a thread.
+   */
+  @Override
+  public CompletableFuture<TransportResponse> executeAsync(
+      TransportRequest request, Executor executor
+  ) {
+    CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+    attemptAsync(request, executor, 1, result);
+    return result;
+  }
+
+  private void attemptAsync(
+      TransportRequest request, Executor executor, int attempt,
+      CompletableFuture<TransportResponse> result
+  ) {
+    CompletableFuture<TransportResponse> attemptResult;
+    try {
+      attemptResult = delegate.executeAsync(request, executor);
+    } catch (RuntimeException exception) {
+      result.completeExceptionally(exception);
+      return;
+    }
+
+    attemptResult.whenComplete((response, exception) -> {
+      Duration delay;
+      if (exception != null) {
+        Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+            ? exception.getCause()
+            : exception;
+        if (!(cause instanceof HttpException)
+            || !canRetry(request, attempt, (HttpException) cause)) {
+          result.completeExceptionally(exception);
+          return;
+        }
+        delay = delay(attempt, Optional.empty());
+      } else if (canRetry(request, attempt, response.statusCode())) {
+        delay = delay(attempt, response.header("Retry-After"));
+      } else {
+        result.complete(response);
+        return;
+      }
+
+      timer.schedule(() -> {
+        try {
+          executor.execute(() -> attemptAsync(request, executor, attempt + 1, result));
+        } catch (RejectedExecutionException rejected) {
+          // Such as the caller's executor, shut down during the wait.
+          result.completeExceptionally(rejected);
+        }
+      }, delay.toNanos(), TimeUnit.NANOSECONDS);
+    });
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  private boolean canRetry(TransportRequest request, int attempt, int statusCode) {
+    return options.retryStatusCodes().contains(statusCode) && canRetry(request, attempt);
+  }
+
+  private boolean canRetry(TransportRequest request, int attempt, HttpException exception) {
+    // An interrupted caller wants to stop, not to wait for another attempt,
+    // and a request the rate limit or an open circuit did not send is not
+    // worth sending again.
+    return !TransportFailures.isInterrupt(exception)
+        && !(exception instanceof RateLimitException)
+        && !(exception instanceof CircuitOpenException)
+        && canRetry(request, attempt);
+  }
+
+  private boolean canRetry(TransportRequest request, int attempt) {
+    boolean idempotent = request.method() != HttpMethod.POST
+        && request.method() != HttpMethod.PATCH;
+    if (!idempotent && !options.retryNonIdempotent()) {
+      return false;
+    }
+    if (attempt >= options.maxAttempts()) {
+      if (options.maxAttempts() > 1) {
+        exhausted.incrementAndGet();
+      }
+      return false;
+    }
+    retries.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * A random wait below the exponential bound for this attempt, but not
+   * shorter than asked by 'retryAfter'.
+   */
+  private Duration delay(int attempt, Optional<String> retryAfter) {
+    return Backoff.delay(options.baseDelay(), options.maxDelay(), attempt,
+        retryAfter.flatMap(Backoff::parseRetryAfter));
+  }
+
+  private static void sleep(Duration delay) throws HttpException {
+    try {
+      TimeUnit.NANOSECONDS.sleep(delay.toNanos());
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new HttpException(new InterruptedIOException("Interrupted while waiting to retry"));
+    }
+  }
+
+  private static Optional<String> header(Map<String, String> headers, String name) {
+    return headers.entrySet().stream()
+        .filter(entry -> entry.getKey().equalsIgnoreCase(name))
+        .map(Map.Entry::getValue)
+        .findFirst();
+  }
+
+  private static void drain(InputStream body) throws IOException {
+    byte[] buffer = new byte[4096];
+    while (body.read(buffer) != -1) {
+      // Read to the end, so that the connection can be reused.
+    }
+  }
+
+  /**
+   * Thrown by the wrapping handler to leave a response that is retried.
+   */
+  private static class RetryableResponse extends ContactHubException {
+
+    private final Map<String, String> headers;
+
+    private RetryableResponse(Map<String, String> headers) {
+      super("Retryable response");
+      this.headers = headers;
+    }
+  }
+
+}
@@ -0,0 +1,179 @@
+package it.contactlab.hub.sdk.java.http;
+
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * An {@link HttpTransport} that sends a single request for concurrent,
+ * identical GET requests: the ones issued while the first is in flight wait
+ * for its response, or its failure, instead of going to the network.
+ *
+ * <p>Requests are identical when they have the same URL, query string
+ * included, and the same Authorization header. Nothing is cached once the
+ * response has arrived. The callers share the response, not its parsed
+ * body, since each of them may read it differently: GET responses are
+ * always buffered, also for streaming handlers, and each handler reads the
+ * buffered copy.</p>
+ */
+public class SingleFlightHttpTransport implements HttpTransport {
+
+  private final HttpTransport delegate;
+  private final ConcurrentMap<String, CompletableFuture<TransportResponse>> inFlight =
+      new ConcurrentHashMap<>();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  public SingleFlightHttpTransport(HttpTransport delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * The number of requests that shared the response of another one.
+   */
+  public long coalesced() {
+    return coalesced.get();
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws HttpException {
+    if (request.method() != HttpMethod.GET) {
+      return delegate.execute(request);
+    }
+
+    String key = key(request);
+    CompletableFuture<TransportResponse> flight = new CompletableFuture<>();
+    CompletableFuture<TransportResponse> leader = inFlight.putIfAbsent(key, flight);
+
+    if (leader == null) {
+      TransportResponse response = null;
+      Throwable failure = null;
+      try {
+        response = delegate.execute(request);
+        return response;
+      } catch (Throwable exception) {
+        failure = exception;
+        throw exception;
+      } finally {
+        // Whatever happened, Errors included, the followers must not wait forever.
+        inFlight.remove(key, flight);
+        if (failure == null) {
+          flight.complete(response);
+        } else {
+          flight.completeExceptionally(failure);
+        }
+      }
+    }
+
+    coalesced.incrementAndGet();
+    try {
+      return leader.get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new HttpException(new InterruptedIOException("Interrupted while waiting"));
+    } catch (ExecutionException exception) {
+      Throwable cause = unwrap(exception.getCause());
+      if (cause instanceof HttpException) {
+        throw (HttpException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new HttpException(cause instanceof IOException
+          ? (IOException) cause
+          : new IOException(cause));
+    }
+  }
+
+  /**
+   * GET requests are coalesced like in {@link #execute(TransportRequest)}, and
+   * handed to 'handler' from the buffered response. Other requests are
+   * streamed by the wrapped transport.
+   */
+  @Override
+  public <T> T execute(TransportRequest request, ResponseHandler<T> handler)
+      throws ContactHubException {
+    if (request.method() != HttpMethod.GET) {
+      return delegate.execute(request, handler);
+    }
+
+    TransportResponse response = execute(request);
+    try {
+      return handler.handle(response.statusCode(), response.headers(),
+          new ByteArrayInputStream(response.body().getBytes(StandardCharsets.UTF_8)));
+    } catch (IOException exception) {
+      throw new HttpException(exception);
+    }
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> executeAsync(
+      TransportRequest request, Executor executor
+  ) {
+    if (request.method() != HttpMethod.GET) {
+      return delegate.executeAsync(request, executor);
+    }
+
+    String key = key(request);
+    CompletableFuture<TransportResponse> flight = new CompletableFuture<>();
+    CompletableFuture<TransportResponse> leader = inFlight.putIfAbsent(key, flight);
+
+    if (leader == null) {
+      CompletableFuture<TransportResponse> response;
+      try {
+        response = delegate.executeAsync(request, executor);
+      } catch (Throwable exception) {
+        inFlight.remove(key, flight);
+        flight.completeExceptionally(exception);
+        throw exception;
+      }
+      response.whenComplete((result, exception) -> {
+        inFlight.remove(key, flight);
+        if (exception == null) {
+          flight.complete(result);
+        } else {
+          flight.completeExceptionally(exception);
+        }
+      });
+      leader = flight;
+    } else {
+      coalesced.incrementAndGet();
+    }
+
+    // A copy, so that a caller completing its own future cannot affect the others.
+    return leader.thenApply(Function.identity());
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  private static String key(TransportRequest request) {
+    return request.headers().getOrDefault("Authorization", "") + " " + request.url();
+  }
+
+  private static Throwable unwrap(Throwable exception) {
+    Throwable cause = exception;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+}
@@ -0,0 +1,31 @@
+package it.contactlab.hub.sdk.java.http;
+
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Tells apart the ways a request can fail, for the transports that retry or
+ * count failures.
+ */
+public final class TransportFailures {
+
+  private TransportFailures() {
+  }
+
+  /**
+   * Whether the request stopped because its caller was interrupted, rather
+   * than because of the API or the network.
+   *
+   * <p>The transports report an interrupt with a plain
+   * {@link InterruptedIOException}. Its subclasses, such as
+   * {@link java.net.SocketTimeoutException} and the connect and connection
+   * pool timeouts of the HTTP client, are timeouts: they are failures.</p>
+   */
+  public static boolean isInterrupt(HttpException exception) {
+    return Thread.currentThread().isInterrupted()
+        || (exception.getCause() != null
+            && exception.getCause().getClass() == InterruptedIOException.class);
+  }
+
+}
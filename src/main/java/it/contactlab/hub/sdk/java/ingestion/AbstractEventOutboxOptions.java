@@ -0,0 +1,114 @@
+package it.contactlab.hub.sdk.java.ingestion;
+
+import org.immutables.value.Value;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for an {@link EventOutbox}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractEventOutboxOptions {
+
+  /**
+   * The directory of the journal files. It must not be shared with other
+   * clients or processes.
+   */
+  public abstract Path directory();
+
+  /**
+   * The size of each journal file, in bytes.
+   */
+  @Value.Default
+  public int segmentSize() {
+    return 16 * 1024 * 1024;
+  }
+
+  /**
+   * The maximum space taken by the journal files, in bytes. New Events are
+   * rejected once it is reached.
+   */
+  @Value.Default
+  public long maxDiskBytes() {
+    return 1024L * 1024 * 1024;
+  }
+
+  /**
+   * Whether every write is forced to the storage device. Without it, the
+   * journal survives a crash of the process but not of the machine.
+   */
+  @Value.Default
+  public boolean fsync() {
+    return false;
+  }
+
+  /**
+   * The maximum number of Events sent per second, so that a backlog built up
+   * during an outage does not flood the API when it comes back.
+   */
+  @Value.Default
+  public int maxReplayRate() {
+    return 200;
+  }
+
+  /**
+   * The number of Events sent concurrently by the replayer.
+   */
+  @Value.Default
+  public int replayBatchSize() {
+    return 20;
+  }
+
+  /**
+   * The first wait before sending again Events that failed. It doubles after
+   * every failure, up to {@link #maxRetryBackoff()}.
+   */
+  @Value.Default
+  public Duration retryBackoff() {
+    return Duration.ofSeconds(1);
+  }
+
+  @Value.Default
+  public Duration maxRetryBackoff() {
+    return Duration.ofMinutes(1);
+  }
+
+  /**
+   * The number of times an Event is sent before it is moved to the
+   * dead-letter journal, so that it cannot hold back the ones after it.
+   */
+  @Value.Default
+  public int maxAttempts() {
+    return 20;
+  }
+
+  /**
+   * The directory of the journal of the Events rejected by the API, or sent
+   * 'maxAttempts' times without success. They stay there until they are
+   * moved back with {@link EventOutbox#redeliverDeadLetters()}.
+   */
+  @Value.Default
+  public Path deadLetterDirectory() {
+    return directory().resolve("dead-letter");
+  }
+
+  @Value.Check
+  protected void check() {
+    if (segmentSize() < 1024) {
+      throw new IllegalArgumentException("segmentSize must be at least 1024 bytes");
+    }
+    if (maxDiskBytes() < segmentSize()) {
+      throw new IllegalArgumentException("maxDiskBytes cannot be less than segmentSize");
+    }
+    if (maxReplayRate() < 1 || replayBatchSize() < 1 || maxAttempts() < 1) {
+      throw new IllegalArgumentException(
+          "maxReplayRate, replayBatchSize and maxAttempts must be positive");
+    }
+    if (deadLetterDirectory().equals(directory())) {
+      throw new IllegalArgumentException("deadLetterDirectory must differ from directory");
+    }
+  }
+
+}
@@ -0,0 +1,75 @@
+package it.contactlab.hub.sdk.java.ingestion;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Settings for an {@link EventSink}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractEventSinkOptions {
+
+  /**
+   * The maximum number of Events waiting to be sent.
+   */
+  @Value.Default
+  public int queueCapacity() {
+    return 10000;
+  }
+
+  /**
+   * The number of sender threads. Each of them has at most one batch in
+   * flight at any time.
+   */
+  @Value.Default
+  public int workers() {
+    return 4;
+  }
+
+  /**
+   * A batch is sent as soon as it holds this many Events.
+   */
+  @Value.Default
+  public int batchSize() {
+    return 100;
+  }
+
+  /**
+   * The maximum number of requests in flight, across all the workers. The
+   * default matches the default connections per route of
+   * {@link it.contactlab.hub.sdk.java.http.PoolingOptions}, so that requests
+   * do not queue up for a pooled connection.
+   */
+  @Value.Default
+  public int maxInFlight() {
+    return 20;
+  }
+
+  /**
+   * A batch is sent when this much time has passed since its first Event was
+   * taken from the queue, even if it is not full.
+   */
+  @Value.Default
+  public Duration flushInterval() {
+    return Duration.ofMillis(200);
+  }
+
+  @Value.Default
+  public BackpressureStrategy backpressure() {
+    return BackpressureStrategy.BLOCK;
+  }
+
+  @Value.Check
+  protected void check() {
+    if (queueCapacity() < 1 || workers() < 1 || batchSize() < 1 || maxInFlight() < 1) {
+      throw new IllegalArgumentException(
+          "queueCapacity, workers, batchSize and maxInFlight must be positive");
+    }
+    if (flushInterval().isNegative() || flushInterval().isZero()) {
+      throw new IllegalArgumentException("flushInterval must be positive");
+    }
+  }
+
+}
@@ -0,0 +1,21 @@
+package it.contactlab.hub.sdk.java.ingestion;
+
+/**
+ * What an {@link EventSink} does with a new Event when its queue is full.
+ */
+public enum BackpressureStrategy {
+  /**
+   * Waits for room in the queue.
+   */
+  BLOCK,
+
+  /**
+   * Discards the Event: its future fails with a RejectedExecutionException.
+   */
+  DROP,
+
+  /**
+   * Throws a RejectedExecutionException to the caller.
+   */
+  FAIL
+}
@@ -0,0 +1,340 @@
+package it.contactlab.hub.sdk.java.ingestion;
+
+import it.contactlab.hub.sdk.java.Auth;
+import it.contactlab.hub.sdk.java.ClientData;
+import it.contactlab.hub.sdk.java.exceptions.ApiException;
+import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
+import it.contactlab.hub.sdk.java.internal.api.EventApi;
+import it.contactlab.hub.sdk.java.models.Event;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Writes Events to a journal on disk, and sends them from a background
+ * thread, so that they survive API outages and restarts of the application.
+ *
+ * <p>Delivery is at least once: an Event is removed from the journal only
+ * after the API has accepted it, and it can be sent again if the application
+ * stops in between.</p>
+ *
+ * <p>Events rejected by the API as invalid (400, 404, 409, 410 or 422) are
+ * moved to a dead-letter journal, since sending them again would not help.
+ * So are the Events that still fail after 'maxAttempts' sends, so that they
+ * do not hold back the ones after them. Any other error, such as 401, 403,
+ * 408, 429 or 5xx, is retried.</p>
+ */
+public class EventOutbox implements Closeable {
+
+  private static final Set<Integer> PERMANENT_STATUS_CODES =
+      new HashSet<>(Arrays.asList(400, 404, 409, 410, 422));
+
+  private final Auth auth;
+  private final ClientData clientData;
+  private final HttpTransport transport;
+  private final Executor executor;
+  private final EventOutboxOptions options;
+
+  private final Journal journal;
+  private final Journal deadLetters;
+  private final Thread replayer;
+  private final Object signal = new Object();
+  private volatile boolean closed;
+
+  private final AtomicLong delivered = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong deadLettered = new AtomicLong();
+
+  /**
+   * Opens the journal, and starts sending the Events left in it by a
+   * previous run.
+   *
+   * @param executor Processes the responses of the API.
+   * @param options  The {@link EventOutboxOptions} for this outbox.
+   *
+   * @throws UncheckedIOException if the journal cannot be opened.
+   */
+  public EventOutbox(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      EventOutboxOptions options
+  ) {
+    this.auth = auth;
+    this.clientData = clientData;
+    this.transport = transport;
+    this.executor = executor;
+    this.options = options;
+
+    try {
+      this.journal = new Journal(options.directory(), options.segmentSize(),
+          options.maxDiskBytes(), options.fsync());
+      this.deadLetters = new Journal(options.deadLetterDirectory(), options.segmentSize(),
+          options.maxDiskBytes(), options.fsync());
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+
+    this.replayer = new Thread(this::replay, "contacthub-event-outbox");
+    replayer.setDaemon(true);
+    replayer.start();
+  }
+
+  /**
+   * Writes an Event to the journal. It returns as soon as the Event is stored
+   * locally, without waiting for the API.
+   *
+   * @param event The {@link Event} to add.
+   *
+   * @throws RejectedExecutionException if the journal has reached its disk budget.
+   * @throws UncheckedIOException       if the journal cannot be written.
+   * @throws IllegalStateException      if the outbox has been closed.
+   */
+  public void add(Event event) {
+    if (closed) {
+      throw new IllegalStateException("The EventOutbox has been closed");
+    }
+
+    try {
+      journal.append(EventApi.payload(auth, event));
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+
+    synchronized (signal) {
+      signal.notifyAll();
+    }
+  }
+
+  /**
+   * The number of Events in the journal, waiting to be sent.
+   */
+  public long pending() {
+    return journal.pending();
+  }
+
+  /**
+   * The number of Events accepted by the API.
+   */
+  public long delivered() {
+    return delivered.get();
+  }
+
+  /**
+   * The number of Events the API rejected as invalid.
+   */
+  public long rejected() {
+    return rejected.get();
+  }
+
+  /**
+   * The number of Events moved to the dead-letter journal, because they were
+   * rejected or sent 'maxAttempts' times without success.
+   */
+  public long deadLettered() {
+    return deadLettered.get();
+  }
+
+  /**
+   * The number of Events in the dead-letter journal.
+   */
+  public long deadLetterPending() {
+    return deadLetters.pending();
+  }
+
+  /**
+   * Moves the Events of the dead-letter journal back to the journal, to be
+   * sent again, for example after fixing what made the API reject them.
+   *
+   * @return The number of Events moved.
+   *
+   * @throws RejectedExecutionException if the journal has reached its disk budget.
+   * @throws UncheckedIOException       if a journal cannot be written.
+   */
+  public long redeliverDeadLetters() {
+    long moved = 0;
+    try {
+      for (List<Journal.Record> records = deadLetters.read(options.replayBatchSize());
+           !records.isEmpty();
+           records = deadLetters.read(options.replayBatchSize())) {
+        for (Journal.Record record : records) {
+          journal.append(record.payload());
+          deadLetters.acknowledge(record);
+          moved++;
+        }
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    deadLetters.truncate();
+
+    synchronized (signal) {
+      signal.notifyAll();
+    }
+    return moved;
+  }
+
+  /**
+   * The space taken by the journal files, in bytes.
+   */
+  public long diskUsage() {
+    return journal.diskUsage();
+  }
+
+  /**
+   * Stops sending Events and closes the journal. The Events not sent yet stay
+   * on disk, and are sent by the next outbox opened on the same directory.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    synchronized (signal) {
+      signal.notifyAll();
+    }
+
+    replayer.interrupt();
+    try {
+      replayer.join();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+
+    journal.close();
+    deadLetters.close();
+  }
+
+  private void replay() {
+    long sendIntervalNanos = TimeUnit.SECONDS.toNanos(1) / options.maxReplayRate();
+    long nextSend = System.nanoTime();
+
+    try {
+      while (!closed) {
+        List<Journal.Record> records = journal.read(options.replayBatchSize());
+        if (records.isEmpty()) {
+          journal.truncate();
+          synchronized (signal) {
+            if (!closed && journal.pending() == 0) {
+              signal.wait(options.retryBackoff().toMillis());
+            }
+          }
+          continue;
+        }
+
+        long backoff = options.retryBackoff().toNanos();
+        while (!records.isEmpty()) {
+          long wait = nextSend - System.nanoTime();
+          if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+          }
+          nextSend = Math.max(nextSend, System.nanoTime()) + records.size() * sendIntervalNanos;
+
+          try {
+            records = send(records);
+          } catch (RuntimeException exception) {
+            // Such as an executor that rejects the requests. The thread must
+            // not die: the records not delivered yet are tried again.
+            records = records.stream()
+                .filter(record -> !journal.isAcknowledged(record))
+                .collect(Collectors.toList());
+          }
+          // Under a steady flow of Events the journal is never read empty:
+          // acknowledged segments are deleted after every batch.
+          journal.truncate();
+          if (records.isEmpty()) {
+            break;
+          }
+
+          TimeUnit.NANOSECONDS.sleep(backoff);
+          backoff = Math.min(backoff * 2, options.maxRetryBackoff().toNanos());
+        }
+      }
+    } catch (InterruptedException exception) {
+      // Interrupted by close(): what is left is sent by the next run.
+    }
+  }
+
+  /**
+   * Sends the records concurrently, and returns the ones worth retrying.
+   */
+  private List<Journal.Record> send(List<Journal.Record> records) throws InterruptedException {
+    List<CompletableFuture<Void>> requests = new ArrayList<>(records.size());
+    for (Journal.Record record : records) {
+      requests.add(EventApi.asyncAddPayload(auth, clientData, transport, executor,
+          record.payload()).toCompletableFuture());
+    }
+
+    List<Journal.Record> retries = new ArrayList<>();
+    for (int i = 0; i < records.size(); i++) {
+      Journal.Record record = records.get(i);
+      try {
+        requests.get(i).get();
+        journal.acknowledge(record);
+        delivered.incrementAndGet();
+      } catch (ExecutionException exception) {
+        if (isPermanent(unwrap(exception))) {
+          rejected.incrementAndGet();
+          deadLetter(record, retries);
+        } else if (record.fail() >= options.maxAttempts()) {
+          deadLetter(record, retries);
+        } else {
+          retries.add(record);
+        }
+      }
+    }
+    return retries;
+  }
+
+  /**
+   * Moves a record to the dead-letter journal. If that fails too, the record
+   * is kept and retried, rather than lost.
+   */
+  private void deadLetter(Journal.Record record, List<Journal.Record> retries) {
+    try {
+      deadLetters.append(record.payload());
+    } catch (IOException | RejectedExecutionException exception) {
+      retries.add(record);
+      return;
+    }
+    journal.acknowledge(record);
+    deadLettered.incrementAndGet();
+  }
+
+  /**
+   * The API says the Event itself is invalid. Other 4xx errors, such as
+   * 401, 403, 408 and 429, can succeed later.
+   */
+  private static boolean isPermanent(Throwable cause) {
+    int statusCode;
+    if (cause instanceof ApiException) {
+      statusCode = ((ApiException) cause).getStatusCode();
+    } else if (cause instanceof ServerException) {
+      statusCode = ((ServerException) cause).getStatusCode();
+    } else {
+      return false;
+    }
+    return PERMANENT_STATUS_CODES.contains(statusCode);
+  }
+
+  private static Throwable unwrap(Throwable exception) {
+    Throwable cause = exception;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+}
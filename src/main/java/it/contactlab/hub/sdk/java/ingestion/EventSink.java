@@ -0,0 +1,267 @@
+package it.contactlab.hub.sdk.java.ingestion;
+
+import it.contactlab.hub.sdk.java.Auth;
+import it.contactlab.hub.sdk.java.ClientData;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
+import it.contactlab.hub.sdk.java.internal.api.EventApi;
+import it.contactlab.hub.sdk.java.models.Event;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Queues Events in memory and sends them in batches from a pool of worker
+ * threads, so that callers never wait for a round trip to the API.
+ *
+ * <p>The API has no bulk endpoint: the Events of a batch are sent as
+ * concurrent requests, and a worker takes its next batch once all of them
+ * are completed. At most {@link EventSinkOptions#maxInFlight()} requests are
+ * in flight at any time, across all the workers. Every Event gets a future,
+ * completed when its own request succeeds or fails.</p>
+ *
+ * <p>{@link #close()} stops accepting Events and waits for the queued ones to
+ * be sent.</p>
+ */
+public class EventSink implements Closeable {
+
+  private final Auth auth;
+  private final ClientData clientData;
+  private final HttpTransport transport;
+  private final Executor executor;
+  private final EventSinkOptions options;
+
+  private final BlockingQueue<PendingEvent> queue;
+  private final Semaphore inFlight;
+  private final List<Thread> workers = new ArrayList<>();
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+  private volatile boolean closed;
+
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * Creates a new sink and starts its workers.
+   *
+   * @param executor Completes the futures of the Events.
+   * @param options  The {@link EventSinkOptions} for this sink.
+   */
+  public EventSink(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      EventSinkOptions options
+  ) {
+    this.auth = auth;
+    this.clientData = clientData;
+    this.transport = transport;
+    this.executor = executor;
+    this.options = options;
+    this.queue = new ArrayBlockingQueue<>(options.queueCapacity());
+    this.inFlight = new Semaphore(options.maxInFlight());
+
+    for (int i = 0; i < options.workers(); i++) {
+      Thread worker = new Thread(this::work, "contacthub-event-sink-" + i);
+      worker.setDaemon(true);
+      worker.start();
+      workers.add(worker);
+    }
+  }
+
+  /**
+   * Queues an Event for sending. When the queue is full, the behaviour depends
+   * on the {@link BackpressureStrategy} of the sink.
+   *
+   * @param event The {@link Event} to add.
+   * @return      A future completed when the Event has been accepted by the API.
+   *
+   * @throws RejectedExecutionException if the queue is full and the strategy is FAIL.
+   * @throws IllegalStateException      if the sink has been closed.
+   */
+  public CompletableFuture<Void> add(Event event) {
+    PendingEvent pending = new PendingEvent(event);
+
+    closeLock.readLock().lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("The EventSink has been closed");
+      }
+      enqueue(pending);
+    } finally {
+      closeLock.readLock().unlock();
+    }
+
+    return pending.future;
+  }
+
+  /**
+   * The number of Events waiting to be sent.
+   */
+  public int queued() {
+    return queue.size();
+  }
+
+  /**
+   * The number of Events accepted by the API.
+   */
+  public long sent() {
+    return sent.get();
+  }
+
+  /**
+   * The number of Events whose request failed.
+   */
+  public long failed() {
+    return failed.get();
+  }
+
+  /**
+   * The number of Events discarded because the queue was full.
+   */
+  public long dropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Stops accepting Events, then waits until every queued Event is sent.
+   */
+  @Override
+  public void close() {
+    closeLock.writeLock().lock();
+    try {
+      closed = true;
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+
+    boolean interrupted = false;
+    for (Thread worker : workers) {
+      while (worker.isAlive()) {
+        try {
+          worker.join();
+        } catch (InterruptedException exception) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void enqueue(PendingEvent pending) {
+    switch (options.backpressure()) {
+      case BLOCK:
+        try {
+          queue.put(pending);
+        } catch (InterruptedException exception) {
+          Thread.currentThread().interrupt();
+          pending.future.completeExceptionally(exception);
+        }
+        break;
+      case DROP:
+        if (!queue.offer(pending)) {
+          dropped.incrementAndGet();
+          pending.future.completeExceptionally(
+              new RejectedExecutionException("The EventSink queue is full"));
+        }
+        break;
+      default:
+        if (!queue.offer(pending)) {
+          throw new RejectedExecutionException("The EventSink queue is full");
+        }
+    }
+  }
+
+  private void work() {
+    List<PendingEvent> batch = new ArrayList<>(options.batchSize());
+    long flushNanos = options.flushInterval().toNanos();
+
+    while (!(closed && queue.isEmpty())) {
+      try {
+        PendingEvent first = queue.poll(flushNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + flushNanos;
+        while (batch.size() < options.batchSize()) {
+          long remaining = deadline - System.nanoTime();
+          PendingEvent next = remaining > 0 && !closed
+              ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+              : queue.poll();
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException exception) {
+        // Only close() can stop a worker, and it does so through 'closed'.
+      }
+
+      send(batch);
+      batch.clear();
+    }
+  }
+
+  /**
+   * Sends every Event of the batch concurrently, as far as 'maxInFlight'
+   * allows, and waits for all of them.
+   */
+  private void send(List<PendingEvent> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    CompletableFuture<?>[] requests = new CompletableFuture<?>[batch.size()];
+    for (int i = 0; i < batch.size(); i++) {
+      PendingEvent pending = batch.get(i);
+      inFlight.acquireUninterruptibly();
+      CompletableFuture<?> request;
+      try {
+        request = EventApi.asyncAdd(auth, clientData, transport, executor, pending.event)
+            .toCompletableFuture();
+      } catch (RuntimeException exception) {
+        request = new CompletableFuture<>();
+        request.completeExceptionally(exception);
+      }
+      requests[i] = request.whenComplete((result, exception) -> {
+        inFlight.release();
+        if (exception == null) {
+          sent.incrementAndGet();
+          pending.future.complete(null);
+        } else {
+          failed.incrementAndGet();
+          pending.future.completeExceptionally(exception);
+        }
+      });
+    }
+
+    try {
+      CompletableFuture.allOf(requests).join();
+    } catch (RuntimeException exception) {
+      // Already reported through the future of each Event.
+    }
+  }
+
+  private static class PendingEvent {
+
+    private final Event event;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    private PendingEvent(Event event) {
+      this.event = event;
+    }
+  }
+
+}
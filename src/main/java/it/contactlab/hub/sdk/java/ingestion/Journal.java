@@ -0,0 +1,340 @@
+package it.contactlab.hub.sdk.java.ingestion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of payloads, stored in memory-mapped segment files of a
+ * fixed size.
+ *
+ * <p>Each record is laid out as {@code [length][crc32][payload]}. The length
+ * is written last, so a record torn by a crash is never visible, and it is
+ * negated once the record is acknowledged. A segment whose records are all
+ * acknowledged is deleted as soon as writing has moved on to the next one.</p>
+ */
+class Journal implements Closeable {
+
+  private static final int HEADER_SIZE = 8;
+  private static final String PREFIX = "events-";
+  private static final String SUFFIX = ".log";
+
+  private final Path directory;
+  private final int segmentSize;
+  private final long maxDiskBytes;
+  private final boolean fsync;
+
+  private final List<Segment> segments = new ArrayList<>();
+  private int readSegment;
+  private int readPosition;
+
+  /**
+   * Opens the journal in 'directory', recovering the records of a previous run.
+   */
+  Journal(Path directory, int segmentSize, long maxDiskBytes, boolean fsync) throws IOException {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxDiskBytes = maxDiskBytes;
+    this.fsync = fsync;
+
+    Files.createDirectories(directory);
+
+    List<Path> files = new ArrayList<>();
+    String pattern = PREFIX + "*" + SUFFIX;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, pattern)) {
+      stream.forEach(files::add);
+    }
+    files.sort(null);
+
+    for (Path file : files) {
+      segments.add(Segment.recover(file, sequence(file)));
+    }
+    if (segments.isEmpty()) {
+      segments.add(Segment.create(file(0), 0, segmentSize));
+    }
+  }
+
+  /**
+   * Appends a payload, starting a new segment if it does not fit in the
+   * current one.
+   *
+   * @throws RejectedExecutionException if a new segment would exceed the disk budget.
+   */
+  synchronized void append(String payload) throws IOException {
+    byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length + HEADER_SIZE > segmentSize) {
+      throw new IllegalArgumentException(
+          "Event of " + bytes.length + " bytes does not fit in a journal segment");
+    }
+
+    Segment segment = segments.get(segments.size() - 1);
+    if (segment.writePosition + HEADER_SIZE + bytes.length > segment.capacity()) {
+      if ((long) (segments.size() + 1) * segmentSize > maxDiskBytes) {
+        throw new RejectedExecutionException("The event journal has reached its disk budget");
+      }
+      segment = Segment.create(file(segment.sequence + 1), segment.sequence + 1, segmentSize);
+      segments.add(segment);
+    }
+
+    segment.write(bytes);
+    if (fsync) {
+      segment.buffer.force();
+    }
+  }
+
+  /**
+   * Returns up to 'max' records that were not acknowledged, following the
+   * ones returned by the previous calls.
+   */
+  synchronized List<Record> read(int max) {
+    List<Record> records = new ArrayList<>();
+
+    while (records.size() < max && readSegment < segments.size()) {
+      Segment segment = segments.get(readSegment);
+
+      if (readPosition >= segment.writePosition) {
+        if (readSegment == segments.size() - 1) {
+          break;
+        }
+        readSegment++;
+        readPosition = 0;
+        continue;
+      }
+
+      int length = segment.buffer.getInt(readPosition);
+      if (length > 0) {
+        records.add(new Record(segment, readPosition, segment.payload(readPosition, length)));
+      }
+      readPosition += HEADER_SIZE + Math.abs(length);
+    }
+
+    return records;
+  }
+
+  /**
+   * Marks a record as delivered.
+   */
+  synchronized void acknowledge(Record record) {
+    record.segment.acknowledge(record.position);
+    if (fsync) {
+      record.segment.buffer.force();
+    }
+  }
+
+  /**
+   * Whether a record has been marked as delivered.
+   */
+  synchronized boolean isAcknowledged(Record record) {
+    return record.segment.buffer.getInt(record.position) < 0;
+  }
+
+  /**
+   * Deletes the segments already read whose records are all acknowledged.
+   */
+  synchronized void truncate() {
+    while (readSegment > 0 && segments.get(0).unacknowledged == 0) {
+      Segment segment = segments.remove(0);
+      readSegment--;
+      segment.delete();
+    }
+  }
+
+  /**
+   * The number of records not acknowledged yet.
+   */
+  synchronized long pending() {
+    long pending = 0;
+    for (Segment segment : segments) {
+      pending += segment.unacknowledged;
+    }
+    return pending;
+  }
+
+  /**
+   * The space taken by the segment files, in bytes.
+   */
+  synchronized long diskUsage() {
+    return (long) segments.size() * segmentSize;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    for (Segment segment : segments) {
+      segment.buffer.force();
+      segment.channel.close();
+    }
+  }
+
+  private Path file(long sequence) {
+    return directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+  }
+
+  private static long sequence(Path file) {
+    String name = file.getFileName().toString();
+    return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+  }
+
+  /**
+   * A record read from the journal.
+   */
+  static class Record {
+
+    private final Segment segment;
+    private final int position;
+    private final String payload;
+    private int failures;
+
+    private Record(Segment segment, int position, String payload) {
+      this.segment = segment;
+      this.position = position;
+      this.payload = payload;
+    }
+
+    String payload() {
+      return payload;
+    }
+
+    /**
+     * Counts a failed attempt to send the record.
+     *
+     * @return The number of failed attempts so far, in this run.
+     */
+    int fail() {
+      return ++failures;
+    }
+  }
+
+  private static class Segment {
+
+    private final Path file;
+    private final long sequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+    private int unacknowledged;
+
+    private Segment(Path file, long sequence, FileChannel channel, MappedByteBuffer buffer) {
+      this.file = file;
+      this.sequence = sequence;
+      this.channel = channel;
+      this.buffer = buffer;
+    }
+
+    static Segment create(Path file, long sequence, int size) throws IOException {
+      try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+        raf.setLength(size);
+      }
+      return open(file, sequence);
+    }
+
+    /**
+     * Opens an existing segment and finds where its valid records end.
+     */
+    static Segment recover(Path file, long sequence) throws IOException {
+      Segment segment = open(file, sequence);
+      int position = 0;
+
+      while (position + HEADER_SIZE <= segment.capacity()) {
+        int length = segment.buffer.getInt(position);
+        int size = Math.abs(length);
+        if (length == 0 || size < 0 || position + HEADER_SIZE + size > segment.capacity()) {
+          break;
+        }
+        if (length > 0) {
+          if (!segment.isValid(position, length)) {
+            // A torn write: clear it, so that new records can take its place.
+            segment.clear(position);
+            break;
+          }
+          segment.unacknowledged++;
+        }
+        position += HEADER_SIZE + size;
+      }
+
+      segment.writePosition = position;
+      return segment;
+    }
+
+    private static Segment open(Path file, long sequence) throws IOException {
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+      return new Segment(file, sequence, channel, buffer);
+    }
+
+    private void clear(int from) {
+      for (int position = from; position < capacity(); position++) {
+        buffer.put(position, (byte) 0);
+      }
+    }
+
+    int capacity() {
+      return buffer.capacity();
+    }
+
+    void write(byte[] bytes) {
+      int position = writePosition;
+
+      ByteBuffer target = buffer.duplicate();
+      target.position(position + HEADER_SIZE);
+      target.put(bytes);
+      buffer.putInt(position + 4, checksum(bytes));
+      buffer.putInt(position, bytes.length);
+
+      writePosition = position + HEADER_SIZE + bytes.length;
+      unacknowledged++;
+    }
+
+    String payload(int position, int length) {
+      return new String(bytes(position, length), StandardCharsets.UTF_8);
+    }
+
+    void acknowledge(int position) {
+      int length = buffer.getInt(position);
+      if (length > 0) {
+        buffer.putInt(position, -length);
+        unacknowledged--;
+      }
+    }
+
+    void delete() {
+      try {
+        channel.close();
+        Files.deleteIfExists(file);
+      } catch (IOException exception) {
+        // The file only holds acknowledged records: it is safe to leave it.
+      }
+    }
+
+    private boolean isValid(int position, int length) {
+      return buffer.getInt(position + 4) == checksum(bytes(position, length));
+    }
+
+    private byte[] bytes(int position, int length) {
+      byte[] bytes = new byte[length];
+      ByteBuffer source = buffer.duplicate();
+      source.position(position + HEADER_SIZE);
+      source.get(bytes);
+      return bytes;
+    }
+
+    private static int checksum(byte[] bytes) {
+      CRC32 crc = new CRC32();
+      crc.update(bytes, 0, bytes.length);
+      return (int) crc.getValue();
+    }
+  }
+
+}
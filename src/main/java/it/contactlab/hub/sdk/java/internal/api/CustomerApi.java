@@ -6,13 +6,19 @@ import it.contactlab.hub.sdk.java.exceptions.ApiException;
 import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
 import it.contactlab.hub.sdk.java.exceptions.HttpException;
 import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
 import it.contactlab.hub.sdk.java.internal.gson.ContactHubGson;
+import it.contactlab.hub.sdk.java.internal.gson.PagedReader;
+import it.contactlab.hub.sdk.java.internal.http.PreparedGet;
 import it.contactlab.hub.sdk.java.internal.http.Request;
 import it.contactlab.hub.sdk.java.models.AsyncPaginated;
+import it.contactlab.hub.sdk.java.models.AsyncPreparedRequest;
 import it.contactlab.hub.sdk.java.models.Customer;
 import it.contactlab.hub.sdk.java.models.GetCustomersOptions;
+import it.contactlab.hub.sdk.java.models.Page;
 import it.contactlab.hub.sdk.java.models.Paged;
 import it.contactlab.hub.sdk.java.models.Paginated;
+import it.contactlab.hub.sdk.java.models.PreparedRequest;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonParser;
@@ -22,24 +28,27 @@ import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 public class CustomerApi {
 
   private static Gson gson = ContactHubGson.getInstance();
 
-  private static Paged<Customer> getPaged(Auth auth, ClientData clientData, GetCustomersOptions options)
-      throws ApiException, ServerException, HttpException {
-    Map<String, Object> queryString = new HashMap<>();
+  private static final String ENDPOINT = "/customers";
 
-    final String endpoint = "/customers";
+  private static final Type pagedCustomerType = new TypeToken<Paged<Customer>>(){}.getType();
 
-    queryString.put("nodeId", auth.nodeId);
+  /**
+   * The query string of 'options', but for the page, which is added to the
+   * prepared request for each page.
+   */
+  private static Map<String, Object> queryString(Auth auth, GetCustomersOptions options) {
+    Map<String, Object> queryString = new HashMap<>();
 
-    options.page().ifPresent(page -> queryString.put("page", page));
+    queryString.put("nodeId", auth.nodeId);
 
     options.pageSize().ifPresent(pageSize -> queryString.put("size", pageSize));
 
@@ -56,12 +65,60 @@ public class CustomerApi {
           sortField + options.direction().map(dir -> "," + dir).orElse(""));
     });
 
-    String response = Request.doGet(auth, clientData, endpoint, queryString);
+    return queryString;
+  }
 
-    Type paginatedCustomerType = new TypeToken<Paged<Customer>>(){}.getType();
-    Paged<Customer> pagedCustomers = gson.fromJson(response, paginatedCustomerType);
+  /**
+   * Encodes the request for the Customers matching 'options' once, query
+   * included, for all of its pages.
+   */
+  private static PreparedGet prepare(
+      Auth auth, ClientData clientData, GetCustomersOptions options
+  ) {
+    return Request.prepareGet(auth, clientData, ENDPOINT, queryString(auth, options));
+  }
 
-    return pagedCustomers;
+  /**
+   * Prepares the request for the Customers matching 'options', to run it
+   * many times.
+   */
+  public static PreparedRequest<Customer> prepareGet(
+      Auth auth, ClientData clientData, HttpTransport transport, GetCustomersOptions options
+  ) {
+    PreparedGet prepared = prepare(auth, clientData, options);
+
+    return new PreparedRequest<Customer>(options.page(),
+        page -> get(transport, prepared, page));
+  }
+
+  /**
+   * Async version of prepareGet.
+   */
+  public static AsyncPreparedRequest<Customer> asyncPrepareGet(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      GetCustomersOptions options
+  ) {
+    PreparedGet prepared = prepare(auth, clientData, options);
+
+    return new AsyncPreparedRequest<Customer>(options.page(),
+        page -> asyncGet(transport, executor, prepared, page));
+  }
+
+  /**
+   * Retrieves a single page of Customers, handing each one to 'consumer' as
+   * soon as it is read from the response instead of collecting the page.
+   *
+   * @param auth       A ContactHub Auth object.
+   * @param options    An instance of {@link GetCustomersOptions}.
+   * @param consumer   Called once for every Customer of the page.
+   * @return           The {@link Page} information of the response.
+   */
+  public static Page forEach(
+      Auth auth, ClientData clientData, HttpTransport transport,
+      GetCustomersOptions options, Consumer<? super Customer> consumer
+  ) throws ApiException, ServerException, HttpException {
+    return Request.doGet(transport, prepare(auth, clientData, options), options.page(),
+        reader -> PagedReader.read(gson, reader, Customer.class, consumer));
   }
 
   /**
@@ -72,21 +129,24 @@ public class CustomerApi {
    * @return           A {@link CompletionStage} of {@link AsyncPaginated} {@link Customer} objects.
    */
   public static CompletionStage<AsyncPaginated<Customer>> asyncGet(
-      Auth auth, ClientData clientData, GetCustomersOptions options) {
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      GetCustomersOptions options) {
+    return asyncGet(transport, executor, prepare(auth, clientData, options), options.page());
+  }
 
+  private static CompletionStage<AsyncPaginated<Customer>> asyncGet(
+      HttpTransport transport, Executor executor, PreparedGet prepared, Optional<Integer> page
+  ) {
     Function<Integer, CompletionStage<AsyncPaginated<Customer>>>
         requestFunction = (Integer pageNumber) ->
-            asyncGet(auth, clientData, options.withPage(pageNumber));
+            asyncGet(transport, executor, prepared, Optional.of(pageNumber));
 
-    return CompletableFuture.supplyAsync(() -> {
-      try {
-        Paged<Customer> pagedCustomers = getPaged(auth, clientData, options);
+    return Request.doGetAsync(transport, executor, prepared, page)
+        .thenApply(response -> {
+          Paged<Customer> pagedCustomers = gson.fromJson(response, pagedCustomerType);
 
-        return new AsyncPaginated<Customer>(pagedCustomers, requestFunction);
-      } catch (ContactHubException ex) {
-        throw new CompletionException(ex);
-      }
-    });
+          return new AsyncPaginated<Customer>(pagedCustomers, requestFunction);
+        });
   }
 
   /**
@@ -100,14 +160,21 @@ public class CustomerApi {
    * @throws ServerException if the API returns an unexpected response.
    * @throws HttpException   if the API request cannot be completed.
    */
-  public static Paginated<Customer> get(Auth auth, ClientData clientData, GetCustomersOptions options)
-      throws ApiException, ServerException, HttpException {
+  public static Paginated<Customer> get(
+      Auth auth, ClientData clientData, HttpTransport transport, GetCustomersOptions options
+  ) throws ApiException, ServerException, HttpException {
+    return get(transport, prepare(auth, clientData, options), options.page());
+  }
 
-    Paged<Customer> pagedCustomers = getPaged(auth, clientData, options);
+  private static Paginated<Customer> get(
+      HttpTransport transport, PreparedGet prepared, Optional<Integer> page
+  ) throws ApiException, ServerException, HttpException {
+    Paged<Customer> pagedCustomers = Request.doGet(transport, prepared, page,
+        reader -> PagedReader.read(gson, reader, Customer.class));
 
     Function<Integer, Paginated<Customer>> requestFunction = (Integer pageNumber) -> {
       try {
-        return get(auth, clientData, options.withPage(pageNumber));
+        return get(transport, prepared, Optional.of(pageNumber));
       } catch (ContactHubException exception) {
         throw new RuntimeException(exception);
       }
@@ -128,10 +195,11 @@ public class CustomerApi {
    * @throws ServerException if the API returns an unexpected response.
    * @throws HttpException   if the API request cannot be completed.
    */
-  public static Customer getById(Auth auth, ClientData clientData, String id)
-      throws ApiException, ServerException, HttpException {
+  public static Customer getById(
+      Auth auth, ClientData clientData, HttpTransport transport, String id
+  ) throws ApiException, ServerException, HttpException {
     String endpoint = "/customers/" + id;
-    String response = Request.doGet(auth, clientData, endpoint);
+    String response = Request.doGet(auth, clientData, transport, endpoint);
 
     return gson.fromJson(response, Customer.class);
   }
@@ -148,12 +216,13 @@ public class CustomerApi {
    * @throws ServerException if the API returns an unexpected response.
    * @throws HttpException   if the API request cannot be completed.
    */
-  public static Customer add(Auth auth, ClientData clientData, Customer customer)
-      throws ApiException, ServerException, HttpException {
-    String endpoint = "/customers";
+  public static Customer add(
+      Auth auth, ClientData clientData, HttpTransport transport, Customer customer
+  ) throws ApiException, ServerException, HttpException {
+    String endpoint = ENDPOINT;
     Customer expectedCustomer = customer.withNodeId(auth.nodeId);
     String payload = gson.toJson(expectedCustomer);
-    String response = Request.doPost(auth, clientData, endpoint, payload);
+    String response = Request.doPost(auth, clientData, transport, endpoint, payload);
 
     return gson.fromJson(response, Customer.class);
   }
@@ -169,10 +238,11 @@ public class CustomerApi {
    * @throws ServerException if the API returns an unexpected response.
    * @throws HttpException   if the API request cannot be completed.
    */
-  public static void delete(Auth auth, ClientData clientData, String customerId)
-      throws ApiException, ServerException, HttpException {
+  public static void delete(
+      Auth auth, ClientData clientData, HttpTransport transport, String customerId
+  ) throws ApiException, ServerException, HttpException {
     String endpoint = "/customers/" + customerId;
-    String response = Request.doDelete(auth, clientData, endpoint);
+    String response = Request.doDelete(auth, clientData, transport, endpoint);
   }
 
   /**
@@ -187,12 +257,13 @@ public class CustomerApi {
    * @throws ServerException if the API returns an unexpected response.
    * @throws HttpException   if the API request cannot be completed.
    */
-  public static Customer update(Auth auth, ClientData clientData, Customer customer)
-      throws ApiException, ServerException, HttpException {
+  public static Customer update(
+      Auth auth, ClientData clientData, HttpTransport transport, Customer customer
+  ) throws ApiException, ServerException, HttpException {
     String endpoint = "/customers/" + customer.id().get();
     Customer expectedCustomer = customer.withNodeId(auth.nodeId);
     String payload = gson.toJson(expectedCustomer);
-    String response = Request.doPut(auth, clientData, endpoint, payload);
+    String response = Request.doPut(auth, clientData, transport, endpoint, payload);
 
     return gson.fromJson(response.toString(), Customer.class);
   }
@@ -210,13 +281,82 @@ public class CustomerApi {
    * @throws ServerException if the API returns an unexpected response.
    * @throws HttpException   if the API request cannot be completed.
    */
-  public static Customer patch(Auth auth, ClientData clientData, String customerId, Customer patchCustomer)
-      throws ApiException, ServerException, HttpException {
+  public static Customer patch(
+      Auth auth, ClientData clientData, HttpTransport transport,
+      String customerId, Customer patchCustomer
+  ) throws ApiException, ServerException, HttpException {
     String endpoint = "/customers/" + customerId;
     String payload = gson.toJson(patchCustomer);
-    String response = Request.doPatch(auth, clientData, endpoint, payload);
+    String response = Request.doPatch(auth, clientData, transport, endpoint, payload);
 
     return gson.fromJson(response, Customer.class);
   }
 
+  /**
+   * Async version of getById.
+   */
+  public static CompletionStage<Customer> asyncGetById(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String id
+  ) {
+    String endpoint = "/customers/" + id;
+
+    return Request.doGetAsync(auth, clientData, transport, executor, endpoint)
+        .thenApply(response -> gson.fromJson(response, Customer.class));
+  }
+
+  /**
+   * Async version of add.
+   */
+  public static CompletionStage<Customer> asyncAdd(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      Customer customer
+  ) {
+    String payload = gson.toJson(customer.withNodeId(auth.nodeId));
+
+    return Request.doPostAsync(auth, clientData, transport, executor, ENDPOINT, payload)
+        .thenApply(response -> gson.fromJson(response, Customer.class));
+  }
+
+  /**
+   * Async version of delete.
+   */
+  public static CompletionStage<Void> asyncDelete(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId
+  ) {
+    String endpoint = "/customers/" + customerId;
+
+    return Request.doDeleteAsync(auth, clientData, transport, executor, endpoint)
+        .thenApply(response -> null);
+  }
+
+  /**
+   * Async version of update.
+   */
+  public static CompletionStage<Customer> asyncUpdate(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      Customer customer
+  ) {
+    String endpoint = "/customers/" + customer.id().get();
+    String payload = gson.toJson(customer.withNodeId(auth.nodeId));
+
+    return Request.doPutAsync(auth, clientData, transport, executor, endpoint, payload)
+        .thenApply(response -> gson.fromJson(response, Customer.class));
+  }
+
+  /**
+   * Async version of patch.
+   */
+  public static CompletionStage<Customer> asyncPatch(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, Customer patchCustomer
+  ) {
+    String endpoint = "/customers/" + customerId;
+    String payload = gson.toJson(patchCustomer);
+
+    return Request.doPatchAsync(auth, clientData, transport, executor, endpoint, payload)
+        .thenApply(response -> gson.fromJson(response, Customer.class));
+  }
+
 }
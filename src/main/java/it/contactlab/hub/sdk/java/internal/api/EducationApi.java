@@ -5,12 +5,16 @@ import it.contactlab.hub.sdk.java.ClientData;
 import it.contactlab.hub.sdk.java.exceptions.ApiException;
 import it.contactlab.hub.sdk.java.exceptions.HttpException;
 import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
 import it.contactlab.hub.sdk.java.internal.gson.ContactHubGson;
 import it.contactlab.hub.sdk.java.internal.http.Request;
 import it.contactlab.hub.sdk.java.models.Education;
 
 import com.google.gson.Gson;
 
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
 public class EducationApi {
 
   private static Gson gson = ContactHubGson.getInstance();
@@ -19,12 +23,14 @@ public class EducationApi {
    * Add a new Education to a Customer.
  * @param clientData 
    */
-  public static Education add(Auth auth, ClientData clientData, String customerId, Education education)
-      throws ApiException, ServerException, HttpException {
+  public static Education add(
+      Auth auth, ClientData clientData, HttpTransport transport,
+      String customerId, Education education
+  ) throws ApiException, ServerException, HttpException {
 
     String endpoint = "/customers/" + customerId + "/educations";
     String payload = gson.toJson(education);
-    String response = Request.doPost(auth, clientData, endpoint, payload);
+    String response = Request.doPost(auth, clientData, transport, endpoint, payload);
 
     return gson.fromJson(response, Education.class);
   }
@@ -33,12 +39,14 @@ public class EducationApi {
    * Update an existing Education.
  * @param clientData 
    */
-  public static Education update(Auth auth, ClientData clientData, String customerId, Education education)
-      throws ApiException, ServerException, HttpException {
+  public static Education update(
+      Auth auth, ClientData clientData, HttpTransport transport,
+      String customerId, Education education
+  ) throws ApiException, ServerException, HttpException {
 
     String endpoint = "/customers/" + customerId + "/educations/" + education.id();
     String payload = gson.toJson(education);
-    String response = Request.doPut(auth, clientData, endpoint, payload);
+    String response = Request.doPut(auth, clientData, transport, endpoint, payload);
 
     return gson.fromJson(response, Education.class);
   }
@@ -47,11 +55,54 @@ public class EducationApi {
    * Remove a tag from a Customer.
  * @param clientData 
    */
-  public static void remove(Auth auth, ClientData clientData, String customerId, String educationId)
-      throws ApiException, ServerException, HttpException {
+  public static void remove(
+      Auth auth, ClientData clientData, HttpTransport transport,
+      String customerId, String educationId
+  ) throws ApiException, ServerException, HttpException {
 
     String endpoint = "/customers/" + customerId + "/educations/" + educationId;
-    String response = Request.doDelete(auth, clientData, endpoint);
+    String response = Request.doDelete(auth, clientData, transport, endpoint);
+  }
+
+  /**
+   * Async version of add.
+   */
+  public static CompletionStage<Education> asyncAdd(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, Education education
+  ) {
+    String endpoint = "/customers/" + customerId + "/educations";
+    String payload = gson.toJson(education);
+
+    return Request.doPostAsync(auth, clientData, transport, executor, endpoint, payload)
+        .thenApply(response -> gson.fromJson(response, Education.class));
+  }
+
+  /**
+   * Async version of update.
+   */
+  public static CompletionStage<Education> asyncUpdate(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, Education education
+  ) {
+    String endpoint = "/customers/" + customerId + "/educations/" + education.id();
+    String payload = gson.toJson(education);
+
+    return Request.doPutAsync(auth, clientData, transport, executor, endpoint, payload)
+        .thenApply(response -> gson.fromJson(response, Education.class));
+  }
+
+  /**
+   * Async version of remove.
+   */
+  public static CompletionStage<Void> asyncRemove(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, String educationId
+  ) {
+    String endpoint = "/customers/" + customerId + "/educations/" + educationId;
+
+    return Request.doDeleteAsync(auth, clientData, transport, executor, endpoint)
+        .thenApply(response -> null);
   }
 
 }
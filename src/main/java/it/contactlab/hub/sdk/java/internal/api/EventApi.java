@@ -6,13 +6,19 @@ import it.contactlab.hub.sdk.java.exceptions.ApiException;
 import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
 import it.contactlab.hub.sdk.java.exceptions.HttpException;
 import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
 import it.contactlab.hub.sdk.java.internal.gson.ContactHubGson;
+import it.contactlab.hub.sdk.java.internal.gson.PagedReader;
+import it.contactlab.hub.sdk.java.internal.http.PreparedGet;
 import it.contactlab.hub.sdk.java.internal.http.Request;
 import it.contactlab.hub.sdk.java.models.AsyncPaginated;
+import it.contactlab.hub.sdk.java.models.AsyncPreparedRequest;
 import it.contactlab.hub.sdk.java.models.Event;
 import it.contactlab.hub.sdk.java.models.EventFilters;
+import it.contactlab.hub.sdk.java.models.Page;
 import it.contactlab.hub.sdk.java.models.Paged;
 import it.contactlab.hub.sdk.java.models.Paginated;
+import it.contactlab.hub.sdk.java.models.PreparedRequest;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
@@ -26,9 +32,10 @@ import org.json.JSONObject;
 import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
+import java.util.Optional;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 public class EventApi {
@@ -37,15 +44,60 @@ public class EventApi {
 
   private static String baseUrl = "https://api.contactlab.it/hub/v1";
 
+  private static final String ENDPOINT = "/events";
+
+  private static final Type pagedEventType = new TypeToken<Paged<Event>>(){}.getType();
+
   /**
    * Add a new Event.
  * @param clientData 
    */
-  public static void add(Auth auth, ClientData clientData, Event event)
+  public static void add(Auth auth, ClientData clientData, HttpTransport transport, Event event)
       throws ApiException, ServerException, HttpException {
-    final String endpoint = "/events";
-    String payload = "";
+    addPayload(auth, clientData, transport, payload(auth, event));
+  }
+
+  /**
+   * Async version of add.
+   */
+  public static CompletionStage<Void> asyncAdd(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      Event event
+  ) {
+    String payload;
+    try {
+      payload = payload(auth, event);
+    } catch (RuntimeException exception) {
+      return Request.failedFuture(exception);
+    }
+
+    return asyncAddPayload(auth, clientData, transport, executor, payload);
+  }
+
+  /**
+   * Sends an Event already serialized with {@link #payload(Auth, Event)}.
+   */
+  public static void addPayload(
+      Auth auth, ClientData clientData, HttpTransport transport, String payload
+  ) throws ApiException, ServerException, HttpException {
+    Request.doPost(auth, clientData, transport, ENDPOINT, payload);
+  }
+
+  /**
+   * Async version of addPayload.
+   */
+  public static CompletionStage<Void> asyncAddPayload(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String payload
+  ) {
+    return Request.doPostAsync(auth, clientData, transport, executor, ENDPOINT, payload)
+        .thenApply(response -> null);
+  }
 
+  /**
+   * Serializes an Event into the JSON payload expected by the API.
+   */
+  public static String payload(Auth auth, Event event) {
     JsonObject jsonPayload = (JsonObject) gson.toJsonTree(event);
 
     // `externalId` and `sessionId` must be wrapped in a `bringBackProperties`
@@ -55,7 +107,7 @@ public class EventApi {
 
     if (event.customerId().isPresent()) {
 
-      payload = jsonPayload.toString();
+      return jsonPayload.toString();
 
     } else if (event.externalId().isPresent()) {
 
@@ -65,7 +117,7 @@ public class EventApi {
       bringBackProperties.addProperty("nodeId", auth.nodeId);
 
       jsonPayload.add("bringBackProperties", bringBackProperties);
-      payload = jsonPayload.toString();
+      return jsonPayload.toString();
 
     } else if (event.sessionId().isPresent()) {
 
@@ -75,27 +127,24 @@ public class EventApi {
       bringBackProperties.addProperty("nodeId", auth.nodeId);
 
       jsonPayload.add("bringBackProperties", bringBackProperties);
-      payload = jsonPayload.toString();
+      return jsonPayload.toString();
 
     } else {
 
       throw new RuntimeException("You must specify a customerId or an externalId or a sessionId");
 
     }
-
-    Request.doPost(auth, clientData, endpoint, payload);
   }
 
-  private static Paged<Event> getPaged(
-      Auth auth, ClientData clientData, String customerId, EventFilters filters
-  ) throws ApiException, ServerException, HttpException {
-    final String endpoint = "/events";
-
+  /**
+   * The query string of 'filters', but for the page, which is added to the
+   * prepared request for each page.
+   */
+  private static Map<String, Object> queryString(String customerId, EventFilters filters) {
     Map<String, Object> queryString = new HashMap<>();
 
     queryString.put("customerId", customerId);
 
-    filters.page().ifPresent(page -> queryString.put("page", page.toString()));
     filters.type().ifPresent(type -> queryString.put("type", type.toString()));
     filters.context().ifPresent(context -> queryString.put("context", context.toString()));
     filters.mode().ifPresent(mode -> queryString.put("mode", mode.toString()));
@@ -106,33 +155,77 @@ public class EventApi {
           "dateTo", ContactHubGson.formatDate(date)
     ));
 
-    String response = Request.doGet(auth, clientData, endpoint, queryString);
+    return queryString;
+  }
+
+  private static PreparedGet prepare(
+      Auth auth, ClientData clientData, String customerId, EventFilters filters
+  ) {
+    return Request.prepareGet(auth, clientData, ENDPOINT, queryString(customerId, filters));
+  }
+
+  /**
+   * Prepares the request for the Events of a Customer matching 'filters', to
+   * run it many times.
+   */
+  public static PreparedRequest<Event> prepareGet(
+      Auth auth, ClientData clientData, HttpTransport transport,
+      String customerId, EventFilters filters
+  ) {
+    PreparedGet prepared = prepare(auth, clientData, customerId, filters);
+
+    return new PreparedRequest<Event>(filters.page(), page -> get(transport, prepared, page));
+  }
+
+  /**
+   * Async version of prepareGet.
+   */
+  public static AsyncPreparedRequest<Event> asyncPrepareGet(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, EventFilters filters
+  ) {
+    PreparedGet prepared = prepare(auth, clientData, customerId, filters);
 
-    Type pagedEventType = new TypeToken<Paged<Event>>(){}.getType();
-    Paged<Event> pagedEvents = gson.fromJson(response, pagedEventType);
+    return new AsyncPreparedRequest<Event>(filters.page(),
+        page -> asyncGet(transport, executor, prepared, page));
+  }
 
-    return pagedEvents;
+  /**
+   * Retrieves a single page of Events for a Customer, handing each one to
+   * 'consumer' as soon as it is read from the response.
+   */
+  public static Page forEach(
+      Auth auth, ClientData clientData, HttpTransport transport,
+      String customerId, EventFilters filters, Consumer<? super Event> consumer
+  ) throws ApiException, ServerException, HttpException {
+    return Request.doGet(transport, prepare(auth, clientData, customerId, filters),
+        filters.page(), reader -> PagedReader.read(gson, reader, Event.class, consumer));
   }
 
   /**
    * Async version of get.
    */
   public static CompletionStage<AsyncPaginated<Event>> asyncGet(
-      Auth auth, ClientData clientData, String customerId, EventFilters filters
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, EventFilters filters
+  ) {
+    return asyncGet(transport, executor, prepare(auth, clientData, customerId, filters),
+        filters.page());
+  }
+
+  private static CompletionStage<AsyncPaginated<Event>> asyncGet(
+      HttpTransport transport, Executor executor, PreparedGet prepared, Optional<Integer> page
   ) {
     Function<Integer, CompletionStage<AsyncPaginated<Event>>>
         requestFunction = (Integer pageNumber) ->
-            asyncGet(auth, clientData, customerId, filters.withPage(pageNumber));
+            asyncGet(transport, executor, prepared, Optional.of(pageNumber));
 
-    return CompletableFuture.supplyAsync(() -> {
-      try {
-        Paged<Event> pagedEvents = getPaged(auth, clientData, customerId, filters);
+    return Request.doGetAsync(transport, executor, prepared, page)
+        .thenApply(response -> {
+          Paged<Event> pagedEvents = gson.fromJson(response, pagedEventType);
 
-        return new AsyncPaginated<Event>(pagedEvents, requestFunction);
-      } catch (ContactHubException ex) {
-        throw new CompletionException(ex);
-      }
-    });
+          return new AsyncPaginated<Event>(pagedEvents, requestFunction);
+        });
   }
 
   /**
@@ -140,13 +233,21 @@ public class EventApi {
  * @param clientData 
    */
   public static Paginated<Event> get(
-      Auth auth, ClientData clientData, String customerId, EventFilters filters
+      Auth auth, ClientData clientData, HttpTransport transport,
+      String customerId, EventFilters filters
+  ) throws ApiException, ServerException, HttpException {
+    return get(transport, prepare(auth, clientData, customerId, filters), filters.page());
+  }
+
+  private static Paginated<Event> get(
+      HttpTransport transport, PreparedGet prepared, Optional<Integer> page
   ) throws ApiException, ServerException, HttpException {
-    Paged<Event> pagedEvents = getPaged(auth, clientData, customerId, filters);
+    Paged<Event> pagedEvents = Request.doGet(transport, prepared, page,
+        reader -> PagedReader.read(gson, reader, Event.class));
 
     Function<Integer, Paginated<Event>> requestFunction = (Integer pageNumber) -> {
       try {
-        return get(auth, clientData, customerId, filters.withPage(pageNumber));
+        return get(transport, prepared, Optional.of(pageNumber));
       } catch (ContactHubException exception) {
         throw new RuntimeException(exception);
       }
@@ -159,12 +260,25 @@ public class EventApi {
    * Retrieves an Event by id.
  * @param clientData 
    */
-  public static Event getById(Auth auth, ClientData clientData, String id)
+  public static Event getById(Auth auth, ClientData clientData, HttpTransport transport, String id)
       throws ApiException, ServerException, HttpException {
     String endpoint = "/events/" + id;
-    String response = Request.doGet(auth, clientData, endpoint);
+    String response = Request.doGet(auth, clientData, transport, endpoint);
 
     return gson.fromJson(response, Event.class);
   }
 
+  /**
+   * Async version of getById.
+   */
+  public static CompletionStage<Event> asyncGetById(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String id
+  ) {
+    String endpoint = "/events/" + id;
+
+    return Request.doGetAsync(auth, clientData, transport, executor, endpoint)
+        .thenApply(response -> gson.fromJson(response, Event.class));
+  }
+
 }
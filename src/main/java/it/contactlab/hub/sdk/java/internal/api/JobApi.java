@@ -5,12 +5,16 @@ import it.contactlab.hub.sdk.java.ClientData;
 import it.contactlab.hub.sdk.java.exceptions.ApiException;
 import it.contactlab.hub.sdk.java.exceptions.HttpException;
 import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
 import it.contactlab.hub.sdk.java.internal.gson.ContactHubGson;
 import it.contactlab.hub.sdk.java.internal.http.Request;
 import it.contactlab.hub.sdk.java.models.Job;
 
 import com.google.gson.Gson;
 
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
 public class JobApi {
 
   private static Gson gson = ContactHubGson.getInstance();
@@ -19,12 +23,13 @@ public class JobApi {
    * Add a new Job to a Customer.
  * @param clientData 
    */
-  public static Job add(Auth auth, ClientData clientData, String customerId, Job job)
-      throws ApiException, ServerException, HttpException {
+  public static Job add(
+      Auth auth, ClientData clientData, HttpTransport transport, String customerId, Job job
+  ) throws ApiException, ServerException, HttpException {
 
     String endpoint = "/customers/" + customerId + "/jobs";
     String payload = gson.toJson(job);
-    String response = Request.doPost(auth, clientData, endpoint, payload);
+    String response = Request.doPost(auth, clientData, transport, endpoint, payload);
 
     return gson.fromJson(response, Job.class);
   }
@@ -33,12 +38,13 @@ public class JobApi {
    * Update an existing Job.
  * @param clientData 
    */
-  public static Job update(Auth auth, ClientData clientData, String customerId, Job job)
-      throws ApiException, ServerException, HttpException {
+  public static Job update(
+      Auth auth, ClientData clientData, HttpTransport transport, String customerId, Job job
+  ) throws ApiException, ServerException, HttpException {
 
     String endpoint = "/customers/" + customerId + "/jobs/" + job.id();
     String payload = gson.toJson(job);
-    String response = Request.doPut(auth, clientData, endpoint, payload);
+    String response = Request.doPut(auth, clientData, transport, endpoint, payload);
 
     return gson.fromJson(response, Job.class);
   }
@@ -47,11 +53,53 @@ public class JobApi {
    * Remove a tag from a Customer.
  * @param clientData 
    */
-  public static void remove(Auth auth, ClientData clientData, String customerId, String jobId)
-      throws ApiException, ServerException, HttpException {
+  public static void remove(
+      Auth auth, ClientData clientData, HttpTransport transport, String customerId, String jobId
+  ) throws ApiException, ServerException, HttpException {
 
     String endpoint = "/customers/" + customerId + "/jobs/" + jobId;
-    String response = Request.doDelete(auth, clientData, endpoint);
+    String response = Request.doDelete(auth, clientData, transport, endpoint);
+  }
+
+  /**
+   * Async version of add.
+   */
+  public static CompletionStage<Job> asyncAdd(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, Job job
+  ) {
+    String endpoint = "/customers/" + customerId + "/jobs";
+    String payload = gson.toJson(job);
+
+    return Request.doPostAsync(auth, clientData, transport, executor, endpoint, payload)
+        .thenApply(response -> gson.fromJson(response, Job.class));
+  }
+
+  /**
+   * Async version of update.
+   */
+  public static CompletionStage<Job> asyncUpdate(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, Job job
+  ) {
+    String endpoint = "/customers/" + customerId + "/jobs/" + job.id();
+    String payload = gson.toJson(job);
+
+    return Request.doPutAsync(auth, clientData, transport, executor, endpoint, payload)
+        .thenApply(response -> gson.fromJson(response, Job.class));
+  }
+
+  /**
+   * Async version of remove.
+   */
+  public static CompletionStage<Void> asyncRemove(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, String jobId
+  ) {
+    String endpoint = "/customers/" + customerId + "/jobs/" + jobId;
+
+    return Request.doDeleteAsync(auth, clientData, transport, executor, endpoint)
+        .thenApply(response -> null);
   }
 
 }
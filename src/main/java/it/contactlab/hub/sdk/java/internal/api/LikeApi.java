@@ -5,12 +5,16 @@ import it.contactlab.hub.sdk.java.ClientData;
 import it.contactlab.hub.sdk.java.exceptions.ApiException;
 import it.contactlab.hub.sdk.java.exceptions.HttpException;
 import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
 import it.contactlab.hub.sdk.java.internal.gson.ContactHubGson;
 import it.contactlab.hub.sdk.java.internal.http.Request;
 import it.contactlab.hub.sdk.java.models.Like;
 
 import com.google.gson.Gson;
 
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
 public class LikeApi {
 
   private static Gson gson = ContactHubGson.getInstance();
@@ -19,12 +23,13 @@ public class LikeApi {
    * Add a new Like to a Customer.
  * @param clientData 
    */
-  public static Like add(Auth auth, ClientData clientData, String customerId, Like like)
-      throws ApiException, ServerException, HttpException {
+  public static Like add(
+      Auth auth, ClientData clientData, HttpTransport transport, String customerId, Like like
+  ) throws ApiException, ServerException, HttpException {
 
     String endpoint = "/customers/" + customerId + "/likes";
     String payload = gson.toJson(like);
-    String response = Request.doPost(auth, clientData, endpoint, payload);
+    String response = Request.doPost(auth, clientData, transport, endpoint, payload);
 
     return gson.fromJson(response, Like.class);
   }
@@ -33,12 +38,13 @@ public class LikeApi {
    * Update an existing Like.
  * @param clientData 
    */
-  public static Like update(Auth auth, ClientData clientData, String customerId, Like like)
-      throws ApiException, ServerException, HttpException {
+  public static Like update(
+      Auth auth, ClientData clientData, HttpTransport transport, String customerId, Like like
+  ) throws ApiException, ServerException, HttpException {
 
     String endpoint = "/customers/" + customerId + "/likes/" + like.id();
     String payload = gson.toJson(like);
-    String response = Request.doPut(auth, clientData, endpoint, payload);
+    String response = Request.doPut(auth, clientData, transport, endpoint, payload);
 
     return gson.fromJson(response, Like.class);
   }
@@ -47,10 +53,53 @@ public class LikeApi {
    * Remove a tag from a Customer.
  * @param clientData 
    */
-  public static void remove(Auth auth, ClientData clientData, String customerId, String likeId)
-      throws ApiException, ServerException, HttpException {
+  public static void remove(
+      Auth auth, ClientData clientData, HttpTransport transport, String customerId, String likeId
+  ) throws ApiException, ServerException, HttpException {
+
+    String endpoint = "/customers/" + customerId + "/likes/" + likeId;
+    String response = Request.doDelete(auth, clientData, transport, endpoint);
+  }
+
+  /**
+   * Async version of add.
+   */
+  public static CompletionStage<Like> asyncAdd(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, Like like
+  ) {
+    String endpoint = "/customers/" + customerId + "/likes";
+    String payload = gson.toJson(like);
+
+    return Request.doPostAsync(auth, clientData, transport, executor, endpoint, payload)
+        .thenApply(response -> gson.fromJson(response, Like.class));
+  }
+
+  /**
+   * Async version of update.
+   */
+  public static CompletionStage<Like> asyncUpdate(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, Like like
+  ) {
+    String endpoint = "/customers/" + customerId + "/likes/" + like.id();
+    String payload = gson.toJson(like);
 
+    return Request.doPutAsync(auth, clientData, transport, executor, endpoint, payload)
+        .thenApply(response -> gson.fromJson(response, Like.class));
+  }
+
+  /**
+   * Async version of remove.
+   */
+  public static CompletionStage<Void> asyncRemove(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, String likeId
+  ) {
     String endpoint = "/customers/" + customerId + "/likes/" + likeId;
-    String response = Request.doDelete(auth, clientData, endpoint);
+
+    return Request.doDeleteAsync(auth, clientData, transport, executor, endpoint)
+        .thenApply(response -> null);
   }
+
 }
@@ -5,6 +5,7 @@ import it.contactlab.hub.sdk.java.ClientData;
 import it.contactlab.hub.sdk.java.exceptions.ApiException;
 import it.contactlab.hub.sdk.java.exceptions.HttpException;
 import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
 import it.contactlab.hub.sdk.java.internal.gson.ContactHubGson;
 import it.contactlab.hub.sdk.java.internal.http.Request;
 
@@ -12,6 +13,8 @@ import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
 public class SessionApi {
 
@@ -30,14 +33,31 @@ public class SessionApi {
    * Reconcile a SessionId with a Customer.
  * @param clientData 
    */
-  public static void reconcile(Auth auth, ClientData clientData, String customerId, String sessionId)
-      throws ApiException, ServerException, HttpException {
+  public static void reconcile(
+      Auth auth, ClientData clientData, HttpTransport transport, String customerId, String sessionId
+  ) throws ApiException, ServerException, HttpException {
     String endpoint = "/customers/" + customerId + "/sessions";
     JsonObject session = new JsonObject();
     session.addProperty("value", sessionId);
 
     String payload = gson.toJson(session);
-    Request.doPost(auth, clientData, endpoint, payload);
+    Request.doPost(auth, clientData, transport, endpoint, payload);
+  }
+
+  /**
+   * Async version of reconcile.
+   */
+  public static CompletionStage<Void> asyncReconcile(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String customerId, String sessionId
+  ) {
+    String endpoint = "/customers/" + customerId + "/sessions";
+    JsonObject session = new JsonObject();
+    session.addProperty("value", sessionId);
+
+    String payload = gson.toJson(session);
+    return Request.doPostAsync(auth, clientData, transport, executor, endpoint, payload)
+        .thenApply(response -> null);
   }
 
 }
@@ -0,0 +1,47 @@
+package it.contactlab.hub.sdk.java.internal.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class VirtualThreads {
+
+  /**
+   * Whether the running JVM supports virtual threads (Java 21 and later).
+   */
+  public static boolean isSupported() {
+    return factoryMethod() != null;
+  }
+
+  /**
+   * Returns a new executor that starts a virtual thread for each task.
+   *
+   * <p>The SDK is compiled for Java 8, so the factory method is looked up
+   * reflectively.</p>
+   *
+   * @throws UnsupportedOperationException if virtual threads are not available.
+   */
+  public static ExecutorService newVirtualThreadPerTaskExecutor() {
+    Method factory = factoryMethod();
+    if (factory == null) {
+      throw new UnsupportedOperationException(
+          "Virtual threads are not supported by this Java runtime");
+    }
+
+    try {
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      throw new UnsupportedOperationException(
+          "Virtual threads are not supported by this Java runtime", ex);
+    }
+  }
+
+  private static Method factoryMethod() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException ex) {
+      return null;
+    }
+  }
+
+}
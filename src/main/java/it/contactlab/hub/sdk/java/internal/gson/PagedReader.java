@@ -0,0 +1,64 @@
+package it.contactlab.hub.sdk.java.internal.gson;
+
+import it.contactlab.hub.sdk.java.models.Page;
+import it.contactlab.hub.sdk.java.models.Paged;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Deserializes a page of results one element at a time, straight from the
+ * response stream.
+ */
+public class PagedReader {
+
+  /**
+   * Reads a whole {@link Paged} object.
+   */
+  public static <T> Paged<T> read(Gson gson, JsonReader reader, Class<T> elementType)
+      throws IOException {
+    Paged.Builder<T> builder = Paged.builder();
+    Page page = read(gson, reader, elementType, builder::addElements);
+
+    return builder.page(page).build();
+  }
+
+  /**
+   * Hands each element to 'consumer' as soon as it is parsed, without keeping
+   * a reference to it, and returns the {@link Page} metadata.
+   */
+  public static <T> Page read(
+      Gson gson, JsonReader reader, Class<T> elementType, Consumer<? super T> consumer
+  ) throws IOException {
+    Page page = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+
+      if (name.equals("elements")) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+          T element = gson.fromJson(reader, elementType);
+          consumer.accept(element);
+        }
+        reader.endArray();
+      } else if (name.equals("page")) {
+        page = gson.fromJson(reader, Page.class);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (page == null) {
+      throw new JsonParseException("Missing 'page' in paged response");
+    }
+    return page;
+  }
+
+}
@@ -0,0 +1,38 @@
+package it.contactlab.hub.sdk.java.internal.http;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A GET request with its URL, query string included, and headers encoded in
+ * advance, so that the pages of a result can be requested by swapping the
+ * page number only.
+ */
+public class PreparedGet {
+
+  private final String url;
+  private final String pageSeparator;
+  private final Map<String, String> headers;
+
+  PreparedGet(String url, Map<String, String> headers) {
+    this.url = url;
+    this.pageSeparator = url.indexOf('?') < 0 ? "?page=" : "&page=";
+    this.headers = Collections.unmodifiableMap(new HashMap<>(headers));
+  }
+
+  String url(Optional<Integer> page) {
+    return page.isPresent() ? url + pageSeparator + page.get() : url;
+  }
+
+  Map<String, String> headers() {
+    return headers;
+  }
+
+  @Override
+  public String toString() {
+    return "PreparedGet{url=" + url + "}";
+  }
+
+}
@@ -3,19 +3,31 @@ package it.contactlab.hub.sdk.java.internal.http;
 import it.contactlab.hub.sdk.java.Auth;
 import it.contactlab.hub.sdk.java.ClientData;
 import it.contactlab.hub.sdk.java.exceptions.ApiException;
+import it.contactlab.hub.sdk.java.exceptions.ContactHubException;
 import it.contactlab.hub.sdk.java.exceptions.HttpException;
 import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.http.HttpMethod;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
+import it.contactlab.hub.sdk.java.http.TransportRequest;
+import it.contactlab.hub.sdk.java.http.TransportResponse;
 import it.contactlab.hub.sdk.java.models.ApiErrorResponse;
 
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
-import com.mashape.unirest.request.GetRequest;
-import com.mashape.unirest.request.HttpRequest;
+import com.google.gson.stream.JsonReader;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class Request {
 
@@ -23,134 +35,288 @@ public class Request {
    * Sends a generic GET request and returns the response String.
    */
   public static String doGet(
+      Auth auth, ClientData clientData, HttpTransport transport,
+      String endpoint, Map<String, Object> queryString
+  ) throws ApiException, ServerException, HttpException {
+    String url = url(auth, endpoint) + encodeQueryString(queryString);
+
+    return send(transport, HttpMethod.GET, url, headersNoContent(auth, clientData),
+        Optional.empty());
+  }
+
+  /**
+   * Encodes the URL and headers of a GET request once, to send it many times
+   * with {@link #doGet(HttpTransport, PreparedGet, Optional, JsonBodyReader)}.
+   * The query string must not contain the page.
+   */
+  public static PreparedGet prepareGet(
       Auth auth, ClientData clientData, String endpoint, Map<String, Object> queryString
+  ) {
+    return new PreparedGet(url(auth, endpoint) + encodeQueryString(queryString),
+        headersNoContent(auth, clientData));
+  }
+
+  public static String doGet(
+      Auth auth, ClientData clientData, HttpTransport transport, String endpoint
   ) throws ApiException, ServerException, HttpException {
-    String url = auth.apiUrl + "/workspaces/" + auth.workspaceId + endpoint;
+    return doGet(auth, clientData, transport, endpoint, Collections.emptyMap());
+  }
 
-    try {
-      HttpResponse<String> response = Unirest
-          .get(url)
-          .headers(headersNoContent(auth, clientData))
-          .queryString(queryString)
-          .asString();
-
-      if (response.getStatus() >= 400) {
-        ApiErrorResponse error = ApiException.parseApiErrorResponse(
-            response.getStatus(), response.getBody());
-        throw new ApiException(response.getStatus(), error);
-      }
-
-      return response.getBody().toString();
-    } catch (UnirestException ex) {
-      throw new HttpException(ex);
-    }
+  /**
+   * Reads a JSON response body from a stream.
+   */
+  @FunctionalInterface
+  public interface JsonBodyReader<T> {
+    T read(JsonReader reader) throws IOException;
   }
 
-  public static String doGet(Auth auth, ClientData clientData, String endpoint)
-      throws ApiException, ServerException, HttpException {
-    return doGet(auth, clientData, endpoint, Collections.emptyMap());
+  /**
+   * Sends a generic GET request and deserializes the response with 'bodyReader'
+   * while it is being received, without building the response String.
+   */
+  public static <T> T doGet(
+      Auth auth, ClientData clientData, HttpTransport transport,
+      String endpoint, Map<String, Object> queryString, JsonBodyReader<T> bodyReader
+  ) throws ApiException, ServerException, HttpException {
+    return doGet(transport, prepareGet(auth, clientData, endpoint, queryString),
+        Optional.empty(), bodyReader);
   }
 
   /**
-   * Sends a generic POST request and returns the response String.
+   * Sends a prepared GET request for a page, and deserializes the response
+   * with 'bodyReader' while it is being received.
    */
-  public static String doPost(Auth auth, ClientData clientData, String endpoint, String payload)
-      throws ApiException, ServerException, HttpException {
+  public static <T> T doGet(
+      HttpTransport transport, PreparedGet prepared, Optional<Integer> page,
+      JsonBodyReader<T> bodyReader
+  ) throws ApiException, ServerException, HttpException {
+    TransportRequest request = request(HttpMethod.GET, prepared.url(page), prepared.headers(),
+        Optional.empty());
+
     try {
-      String url = auth.apiUrl + "/workspaces/" + auth.workspaceId + endpoint;
-
-      HttpResponse<String> response = Unirest
-          .post(url)
-          .headers(headersWithContent(auth, clientData))
-          .body(payload)
-          .asString();
-
-      if (response.getStatus() >= 400) {
-        ApiErrorResponse error = ApiException.parseApiErrorResponse(
-            response.getStatus(), response.getBody());
-        throw new ApiException(response.getStatus(), error);
-      }
-
-      return response.getBody().toString();
-    } catch (UnirestException ex) {
-      throw new HttpException(ex);
+      return transport.execute(request, (statusCode, headers, body) -> {
+        if (statusCode >= 400) {
+          checkStatus(statusCode, readFully(body));
+        }
+        return bodyReader.read(new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+      });
+    } catch (ApiException | ServerException | HttpException exception) {
+      throw exception;
+    } catch (ContactHubException exception) {
+      throw new IllegalStateException("Unexpected exception", exception);
     }
   }
 
+  /**
+   * Sends a generic POST request and returns the response String.
+   */
+  public static String doPost(
+      Auth auth, ClientData clientData, HttpTransport transport, String endpoint, String payload
+  ) throws ApiException, ServerException, HttpException {
+    return send(transport, HttpMethod.POST, url(auth, endpoint),
+        headersWithContent(auth, clientData), Optional.of(payload));
+  }
+
   /**
    * Sends a generic DELETE request and returns the response String.
    */
-  public static String doDelete(Auth auth, ClientData clientData, String endpoint)
-      throws ApiException, ServerException, HttpException {
-    try {
-      String url = auth.apiUrl + "/workspaces/" + auth.workspaceId + endpoint;
-
-      HttpResponse<String> response = Unirest
-          .delete(url)
-          .headers(headersNoContent(auth, clientData))
-          .asString();
-
-      if (response.getStatus() >= 400) {
-        ApiErrorResponse error = ApiException.parseApiErrorResponse(
-            response.getStatus(), response.getBody());
-        throw new ApiException(response.getStatus(), error);
-      }
-
-      return response.getBody().toString();
-    } catch (UnirestException ex) {
-      throw new HttpException(ex);
-    }
+  public static String doDelete(
+      Auth auth, ClientData clientData, HttpTransport transport, String endpoint
+  ) throws ApiException, ServerException, HttpException {
+    return send(transport, HttpMethod.DELETE, url(auth, endpoint),
+        headersNoContent(auth, clientData), Optional.empty());
   }
 
   /**
    * Sends a generic PUT request and returns the response String.
    */
-  public static String doPut(Auth auth, ClientData clientData, String endpoint, String payload)
-      throws ApiException, ServerException, HttpException {
-    try {
-      String url = auth.apiUrl + "/workspaces/" + auth.workspaceId + endpoint;
-
-      HttpResponse<String> response = Unirest
-          .put(url)
-          .headers(headersWithContent(auth, clientData))
-          .body(payload)
-          .asString();
-
-      if (response.getStatus() >= 400) {
-        ApiErrorResponse error = ApiException.parseApiErrorResponse(
-            response.getStatus(), response.getBody());
-        throw new ApiException(response.getStatus(), error);
-      }
-
-      return response.getBody().toString();
-    } catch (UnirestException ex) {
-      throw new HttpException(ex);
-    }
+  public static String doPut(
+      Auth auth, ClientData clientData, HttpTransport transport, String endpoint, String payload
+  ) throws ApiException, ServerException, HttpException {
+    return send(transport, HttpMethod.PUT, url(auth, endpoint),
+        headersWithContent(auth, clientData), Optional.of(payload));
   }
 
   /**
    * Sends a generic PATCH request and returns the response String.
    */
-  public static String doPatch(Auth auth, ClientData clientData, String endpoint, String payload)
-      throws ApiException, ServerException, HttpException {
+  public static String doPatch(
+      Auth auth, ClientData clientData, HttpTransport transport, String endpoint, String payload
+  ) throws ApiException, ServerException, HttpException {
+    return send(transport, HttpMethod.PATCH, url(auth, endpoint),
+        headersWithContent(auth, clientData), Optional.of(payload));
+  }
+
+  /**
+   * Async version of doGet.
+   */
+  public static CompletableFuture<String> doGetAsync(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String endpoint, Map<String, Object> queryString
+  ) {
+    String url = url(auth, endpoint) + encodeQueryString(queryString);
+
+    return sendAsync(transport, executor, HttpMethod.GET, url, headersNoContent(auth, clientData),
+        Optional.empty());
+  }
+
+  /**
+   * Async version of doGet, for a prepared request.
+   */
+  public static CompletableFuture<String> doGetAsync(
+      HttpTransport transport, Executor executor, PreparedGet prepared, Optional<Integer> page
+  ) {
+    return sendAsync(transport, executor, HttpMethod.GET, prepared.url(page),
+        prepared.headers(), Optional.empty());
+  }
+
+  public static CompletableFuture<String> doGetAsync(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String endpoint
+  ) {
+    return doGetAsync(auth, clientData, transport, executor, endpoint, Collections.emptyMap());
+  }
+
+  /**
+   * Async version of doPost.
+   */
+  public static CompletableFuture<String> doPostAsync(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String endpoint, String payload
+  ) {
+    return sendAsync(transport, executor, HttpMethod.POST, url(auth, endpoint),
+        headersWithContent(auth, clientData), Optional.of(payload));
+  }
+
+  /**
+   * Async version of doDelete.
+   */
+  public static CompletableFuture<String> doDeleteAsync(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String endpoint
+  ) {
+    return sendAsync(transport, executor, HttpMethod.DELETE, url(auth, endpoint),
+        headersNoContent(auth, clientData), Optional.empty());
+  }
+
+  /**
+   * Async version of doPut.
+   */
+  public static CompletableFuture<String> doPutAsync(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String endpoint, String payload
+  ) {
+    return sendAsync(transport, executor, HttpMethod.PUT, url(auth, endpoint),
+        headersWithContent(auth, clientData), Optional.of(payload));
+  }
+
+  /**
+   * Async version of doPatch.
+   */
+  public static CompletableFuture<String> doPatchAsync(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      String endpoint, String payload
+  ) {
+    return sendAsync(transport, executor, HttpMethod.PATCH, url(auth, endpoint),
+        headersWithContent(auth, clientData), Optional.of(payload));
+  }
+
+  /**
+   * Returns a future that is already completed with 'exception', wrapped in a
+   * {@link CompletionException} like every other failure of the async methods.
+   */
+  public static <T> CompletableFuture<T> failedFuture(Throwable exception) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(new CompletionException(exception));
+    return future;
+  }
+
+  private static String send(
+      HttpTransport transport, HttpMethod method, String url,
+      Map<String, String> headers, Optional<String> payload
+  ) throws ApiException, ServerException, HttpException {
+    TransportResponse response = transport.execute(request(method, url, headers, payload));
+
+    return checkResponse(response);
+  }
+
+  /**
+   * The response is handed over to 'executor' as soon as it arrives, so that
+   * error handling, deserialization and the caller's own stages never run on
+   * the I/O threads of the transport.
+   */
+  private static CompletableFuture<String> sendAsync(
+      HttpTransport transport, Executor executor, HttpMethod method, String url,
+      Map<String, String> headers, Optional<String> payload
+  ) {
+    return transport.executeAsync(request(method, url, headers, payload), executor)
+        .thenApplyAsync(response -> {
+          try {
+            return checkResponse(response);
+          } catch (ContactHubException exception) {
+            throw new CompletionException(exception);
+          }
+        }, executor);
+  }
+
+  private static TransportRequest request(
+      HttpMethod method, String url, Map<String, String> headers, Optional<String> payload
+  ) {
+    return TransportRequest.builder()
+        .method(method)
+        .url(url)
+        .headers(headers)
+        .body(payload)
+        .build();
+  }
+
+  private static String checkResponse(TransportResponse response)
+      throws ApiException, ServerException {
+    checkStatus(response.statusCode(), response.body());
+
+    return response.body();
+  }
+
+  private static void checkStatus(int statusCode, String body)
+      throws ApiException, ServerException {
+    if (statusCode >= 400) {
+      ApiErrorResponse error = ApiException.parseApiErrorResponse(statusCode, body);
+      throw new ApiException(statusCode, error);
+    }
+  }
+
+  private static String readFully(InputStream body) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = body.read(buffer)) != -1) {
+      bytes.write(buffer, 0, read);
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static String url(Auth auth, String endpoint) {
+    return auth.apiUrl + "/workspaces/" + auth.workspaceId + endpoint;
+  }
+
+  private static String encodeQueryString(Map<String, Object> queryString) {
+    StringBuilder encoded = new StringBuilder();
+
+    for (Map.Entry<String, Object> param : queryString.entrySet()) {
+      encoded.append(encoded.length() == 0 ? "?" : "&")
+          .append(urlEncode(param.getKey()))
+          .append("=")
+          .append(urlEncode(String.valueOf(param.getValue())));
+    }
+
+    return encoded.toString();
+  }
+
+  private static String urlEncode(String value) {
     try {
-      String url = auth.apiUrl + "/workspaces/" + auth.workspaceId + endpoint;
-
-      HttpResponse<String> response = Unirest
-          .patch(url)
-          .headers(headersWithContent(auth, clientData))
-          .body(payload)
-          .asString();
-
-      if (response.getStatus() >= 400) {
-        ApiErrorResponse error = ApiException.parseApiErrorResponse(
-            response.getStatus(), response.getBody());
-        throw new ApiException(response.getStatus(), error);
-      }
-
-      return response.getBody().toString();
-    } catch (UnirestException ex) {
-      throw new HttpException(ex);
+      return URLEncoder.encode(value, "UTF-8");
+    } catch (UnsupportedEncodingException ex) {
+      throw new IllegalStateException(ex);
     }
   }
 
@@ -162,11 +328,11 @@ public class Request {
     }
     return headers;
   }
-    
+
   private static Map<String, String> headersWithContent(Auth auth, ClientData clientData) {
     Map<String, String> headers = headersNoContent(auth, clientData);
     headers.put("Content-Type", "application/json");
     return headers;
   }
-  
+
 }
@@ -4,12 +4,28 @@ import it.contactlab.hub.sdk.java.exceptions.ApiException;
 import it.contactlab.hub.sdk.java.exceptions.HttpException;
 import it.contactlab.hub.sdk.java.exceptions.ServerException;
 
+import org.reactivestreams.Publisher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+/**
+ * A page of elements returned by the async client, and the requests for the
+ * other pages.
+ *
+ * <p>Unlike the pages of {@link Paginated}, these are not parsed while they
+ * are received: the async transport hands over the whole response body, and
+ * the page is parsed from it.</p>
+ */
 public class AsyncPaginated<T> {
 
   private final Paged<T> pagedElements;
@@ -53,10 +69,177 @@ public class AsyncPaginated<T> {
     return Optional.of(request(page().number() - 1));
   }
 
+  /**
+   * Returns a {@link Publisher} of this page and of the following ones. Pages
+   * are requested as the subscriber's demand requires, with up to 'prefetch'
+   * more requested ahead; cancelling the subscription stops the requests.
+   *
+   * @param prefetch The number of pages to request before they are demanded.
+   */
+  public Publisher<AsyncPaginated<T>> pagePublisher(int prefetch) {
+    return new PagePublisher<>(this, requestFunction, Collections::singletonList, prefetch);
+  }
+
+  /**
+   * Returns a {@link Publisher} of the elements of this page and of the
+   * following ones. See {@link #pagePublisher(int)}.
+   *
+   * @param prefetch The number of pages to request before they are demanded.
+   */
+  public Publisher<T> publisher(int prefetch) {
+    return new PagePublisher<>(this, requestFunction, AsyncPaginated::elements, prefetch);
+  }
+
+  /**
+   * Passes every element of this page and of the following ones to
+   * 'consumer', fetching up to 'concurrency' pages at the same time.
+   *
+   * <p>The page count is read from this page. 'consumer' is never called
+   * concurrently, but it can be called from different threads. The scan
+   * stops at the first failed request, and the returned stage fails with
+   * its error.</p>
+   *
+   * @param concurrency The maximum number of pages requested, or waiting to
+   *                    be delivered, at the same time.
+   * @param order       Whether pages are delivered in order, or as they arrive.
+   * @param consumer    Called once for every element.
+   * @return            A {@link CompletionStage} completed after the last element.
+   */
+  public CompletionStage<Void> scan(
+      int concurrency, ScanOrder order, Consumer<? super T> consumer
+  ) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("concurrency must be positive");
+    }
+    return new Scan(concurrency, order, consumer).start();
+  }
+
   private CompletionStage<AsyncPaginated<T>> request(Integer pageNumber) {
     return requestFunction.apply(pageNumber);
   }
 
+  /**
+   * The state of a scan: pages are requested as earlier ones are delivered,
+   * so that no more than 'concurrency' are in flight or buffered.
+   */
+  private class Scan {
+
+    private final int concurrency;
+    private final ScanOrder order;
+    private final Consumer<? super T> consumer;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    private final int totalPages = page().totalPages();
+    private final Map<Integer, AsyncPaginated<T>> arrived = new HashMap<>();
+    private int nextToRequest = page().number() + 1;
+    private int nextToDeliver = page().number() + 1;
+    private int outstanding;
+    private boolean draining;
+    private boolean missed;
+
+    private Scan(int concurrency, ScanOrder order, Consumer<? super T> consumer) {
+      this.concurrency = concurrency;
+      this.order = order;
+      this.consumer = consumer;
+    }
+
+    private CompletableFuture<Void> start() {
+      try {
+        elements().forEach(consumer);
+      } catch (RuntimeException exception) {
+        result.completeExceptionally(exception);
+        return result;
+      }
+      requestMore();
+      return result;
+    }
+
+    /**
+     * Sends new requests outside of the lock, since a page can complete in
+     * the calling thread. One thread at a time sends them, in a loop: the
+     * pages that complete meanwhile just flag that there is more to do, so
+     * that completed pages do not recurse through here.
+     */
+    private void requestMore() {
+      synchronized (this) {
+        if (draining) {
+          missed = true;
+          return;
+        }
+        draining = true;
+      }
+
+      while (true) {
+        List<Integer> pageNumbers = new ArrayList<>();
+        synchronized (this) {
+          if (result.isDone()) {
+            return;
+          }
+          if (nextToRequest >= totalPages && outstanding == 0) {
+            result.complete(null);
+            return;
+          }
+          while (nextToRequest < totalPages && outstanding < concurrency) {
+            pageNumbers.add(nextToRequest++);
+            outstanding++;
+          }
+          if (pageNumbers.isEmpty()) {
+            if (!missed) {
+              draining = false;
+              return;
+            }
+            missed = false;
+          }
+        }
+
+        for (Integer pageNumber : pageNumbers) {
+          CompletionStage<AsyncPaginated<T>> request;
+          try {
+            request = request(pageNumber);
+          } catch (RuntimeException exception) {
+            result.completeExceptionally(exception);
+            return;
+          }
+          request.whenComplete((page, exception) -> {
+            if (exception != null) {
+              result.completeExceptionally(exception);
+            } else {
+              arrive(pageNumber, page);
+            }
+          });
+        }
+      }
+    }
+
+    private void arrive(int pageNumber, AsyncPaginated<T> page) {
+      synchronized (this) {
+        if (result.isDone()) {
+          return;
+        }
+        arrived.put(pageNumber, page);
+
+        try {
+          if (order == ScanOrder.ORDERED) {
+            while (arrived.containsKey(nextToDeliver)) {
+              deliver(arrived.remove(nextToDeliver++));
+            }
+          } else {
+            deliver(arrived.remove(pageNumber));
+          }
+        } catch (RuntimeException exception) {
+          result.completeExceptionally(exception);
+          return;
+        }
+      }
+      requestMore();
+    }
+
+    private void deliver(AsyncPaginated<T> page) {
+      page.elements().forEach(consumer);
+      outstanding--;
+    }
+  }
+
   @Override
   public String toString() {
     return "AsyncPaginated{"
@@ -0,0 +1,43 @@
+package it.contactlab.hub.sdk.java.models;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Async version of {@link PreparedRequest}.
+ */
+public class AsyncPreparedRequest<T> {
+
+  private final Optional<Integer> page;
+  private final Function<Optional<Integer>, CompletionStage<AsyncPaginated<T>>> request;
+
+  /**
+   * Creates a prepared request.
+   *
+   * @param page    The page requested by {@link #get()}, as set in the options.
+   * @param request Sends the encoded request for a page, or the default one if empty.
+   */
+  public AsyncPreparedRequest(
+      Optional<Integer> page,
+      Function<Optional<Integer>, CompletionStage<AsyncPaginated<T>>> request
+  ) {
+    this.page = page;
+    this.request = request;
+  }
+
+  /**
+   * Runs the request for the page set in its options, or the first one.
+   */
+  public CompletionStage<AsyncPaginated<T>> get() {
+    return request.apply(page);
+  }
+
+  /**
+   * Runs the request for a page.
+   */
+  public CompletionStage<AsyncPaginated<T>> get(int page) {
+    return request.apply(Optional.of(page));
+  }
+
+}
@@ -0,0 +1,263 @@
+package it.contactlab.hub.sdk.java.models;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * A {@link Publisher} over the pages of an {@link AsyncPaginated} result,
+ * starting from its current page, that requests pages only as the
+ * subscriber's demand requires, plus 'prefetch' pages ahead.
+ *
+ * <p>Each page is turned into the items to publish by 'unpack': the page
+ * itself, or its elements. Every subscription walks the pages again.</p>
+ */
+class PagePublisher<T, R> implements Publisher<R> {
+
+  private final AsyncPaginated<T> first;
+  private final Function<Integer, CompletionStage<AsyncPaginated<T>>> requestFunction;
+  private final Function<AsyncPaginated<T>, List<R>> unpack;
+  private final int prefetch;
+
+  PagePublisher(
+      AsyncPaginated<T> first,
+      Function<Integer, CompletionStage<AsyncPaginated<T>>> requestFunction,
+      Function<AsyncPaginated<T>, List<R>> unpack,
+      int prefetch
+  ) {
+    if (prefetch < 0) {
+      throw new IllegalArgumentException("prefetch cannot be negative");
+    }
+    this.first = first;
+    this.requestFunction = requestFunction;
+    this.unpack = unpack;
+    this.prefetch = prefetch;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super R> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber");
+    }
+    PageSubscription subscription = new PageSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+    subscription.drain();
+  }
+
+  /**
+   * All the state is guarded by the subscription itself. Signals to the
+   * subscriber are sent outside of the lock, by one thread at a time: the
+   * one in drain(), while the others just flag that there is more to do.
+   */
+  private class PageSubscription implements Subscription {
+
+    private final Subscriber<? super R> subscriber;
+
+    private final int endPage;
+    private int nextPage;
+    private int inFlight;
+
+    private final Map<Integer, AsyncPaginated<T>> arrived = new HashMap<>();
+    private int nextToReady;
+    private final Deque<Deque<R>> ready = new ArrayDeque<>();
+    private long readyItems;
+
+    private long demand;
+    private Throwable error;
+    private boolean terminated;
+    private boolean draining;
+    private boolean missed;
+
+    private PageSubscription(Subscriber<? super R> subscriber) {
+      this.subscriber = subscriber;
+
+      int firstPage = first.page().number();
+      this.endPage = Math.max(first.page().totalPages(), firstPage + 1);
+      this.nextPage = firstPage + 1;
+      this.nextToReady = firstPage;
+      arrive(firstPage, first);
+    }
+
+    @Override
+    public void request(long items) {
+      synchronized (this) {
+        if (items <= 0) {
+          if (error == null) {
+            error = new IllegalArgumentException(
+                "The number of requested items must be positive (rule 3.9)");
+          }
+        } else {
+          demand = demand + items < 0 ? Long.MAX_VALUE : demand + items;
+        }
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      synchronized (this) {
+        terminated = true;
+        arrived.clear();
+        ready.clear();
+        readyItems = 0;
+      }
+    }
+
+    private void drain() {
+      synchronized (this) {
+        if (draining) {
+          missed = true;
+          return;
+        }
+        draining = true;
+      }
+
+      while (true) {
+        R item = null;
+        Throwable failure = null;
+        boolean complete = false;
+        List<Integer> pagesToFetch;
+
+        synchronized (this) {
+          if (terminated) {
+            return;
+          }
+
+          pagesToFetch = pagesToFetch();
+
+          if (error != null) {
+            terminated = true;
+            failure = error;
+          } else if (demand > 0 && readyItems > 0) {
+            item = poll();
+            if (demand != Long.MAX_VALUE) {
+              demand--;
+            }
+          } else if (readyItems == 0 && arrived.isEmpty() && inFlight == 0
+              && nextPage >= endPage) {
+            terminated = true;
+            complete = true;
+          } else if (pagesToFetch.isEmpty()) {
+            if (!missed) {
+              draining = false;
+              return;
+            }
+            missed = false;
+          }
+        }
+
+        for (Integer pageNumber : pagesToFetch) {
+          fetch(pageNumber);
+        }
+
+        if (failure != null) {
+          subscriber.onError(failure);
+          return;
+        }
+        if (complete) {
+          subscriber.onComplete();
+          return;
+        }
+        if (item != null) {
+          try {
+            subscriber.onNext(item);
+          } catch (RuntimeException exception) {
+            // A subscriber must not throw (rule 2.13): treat it as a cancellation.
+            cancel();
+            return;
+          }
+        }
+      }
+    }
+
+    /**
+     * Keeps up to 'prefetch' pages requested or buffered ahead, plus one
+     * while the demand is not covered by the buffered items.
+     */
+    private List<Integer> pagesToFetch() {
+      if (error != null) {
+        return Collections.emptyList();
+      }
+
+      int limit = demand > readyItems ? prefetch + 1 : prefetch;
+      List<Integer> pages = new ArrayList<>();
+      while (nextPage < endPage && inFlight + arrived.size() + ready.size() < limit) {
+        pages.add(nextPage++);
+        inFlight++;
+      }
+      return pages;
+    }
+
+    private void fetch(int pageNumber) {
+      CompletionStage<AsyncPaginated<T>> request;
+      try {
+        request = requestFunction.apply(pageNumber);
+      } catch (RuntimeException exception) {
+        fail(exception);
+        return;
+      }
+
+      request.whenComplete((page, exception) -> {
+        if (exception != null) {
+          fail(exception);
+          return;
+        }
+        synchronized (this) {
+          inFlight--;
+          if (!terminated) {
+            arrive(pageNumber, page);
+          }
+        }
+        drain();
+      });
+    }
+
+    private void fail(Throwable exception) {
+      synchronized (this) {
+        inFlight--;
+        if (error == null) {
+          error = exception instanceof CompletionException && exception.getCause() != null
+              ? exception.getCause()
+              : exception;
+        }
+      }
+      drain();
+    }
+
+    /**
+     * Pages can arrive out of order: they become ready in order.
+     */
+    private void arrive(int pageNumber, AsyncPaginated<T> page) {
+      arrived.put(pageNumber, page);
+      while (arrived.containsKey(nextToReady)) {
+        Deque<R> items = new ArrayDeque<>(unpack.apply(arrived.remove(nextToReady++)));
+        if (!items.isEmpty()) {
+          ready.add(items);
+          readyItems += items.size();
+        }
+      }
+    }
+
+    private R poll() {
+      Deque<R> page = ready.peekFirst();
+      R item = page.pollFirst();
+      if (page.isEmpty()) {
+        ready.pollFirst();
+      }
+      readyItems--;
+      return item;
+    }
+  }
+
+}
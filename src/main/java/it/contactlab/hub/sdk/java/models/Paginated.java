@@ -4,9 +4,24 @@ import it.contactlab.hub.sdk.java.exceptions.ApiException;
 import it.contactlab.hub.sdk.java.exceptions.HttpException;
 import it.contactlab.hub.sdk.java.exceptions.ServerException;
 
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Paginated<T> {
 
@@ -51,6 +66,107 @@ public class Paginated<T> {
     return Optional.of(request(page().number() - 1));
   }
 
+  /**
+   * Returns a lazy Stream of this page and of the following ones. Each page
+   * is requested only when the Stream reaches it, so short-circuiting
+   * operations such as limit or findFirst stop fetching pages. A parallel
+   * Stream splits the remaining pages in ranges.
+   *
+   * <p>A failed request throws a RuntimeException, caused by the
+   * {@link ApiException}, {@link ServerException} or {@link HttpException}.</p>
+   */
+  public Stream<Paginated<T>> stream() {
+    int first = page().number();
+    int end = Math.max(page().totalPages(), first + 1);
+    return StreamSupport.stream(new PageSpliterator(first, end), false);
+  }
+
+  /**
+   * Returns a lazy Stream of the elements of this page and of the following
+   * ones. See {@link #stream()}.
+   */
+  public Stream<T> elementsStream() {
+    return stream().flatMap(page -> page.elements().stream());
+  }
+
+  /**
+   * Passes every element of this page and of the following ones to
+   * 'consumer', fetching up to 'concurrency' pages at the same time.
+   *
+   * <p>The page count is read from this page. 'consumer' is always called
+   * from the calling thread, one element at a time. The scan stops at the
+   * first failed request, and its error is thrown.</p>
+   *
+   * @param concurrency The maximum number of pages requested, or waiting to
+   *                    be delivered, at the same time.
+   * @param order       Whether pages are delivered in order, or as they arrive.
+   * @param consumer    Called once for every element.
+   */
+  public void scan(int concurrency, ScanOrder order, Consumer<? super T> consumer)
+      throws HttpException, ServerException, ApiException {
+    scanPages(concurrency, order, page -> page.elements().forEach(consumer));
+  }
+
+  /**
+   * Like {@link #scan(int, ScanOrder, Consumer)}, but passes whole pages to
+   * 'consumer', starting from this one.
+   */
+  public void scanPages(
+      int concurrency, ScanOrder order, Consumer<? super Paginated<T>> consumer
+  ) throws HttpException, ServerException, ApiException {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("concurrency must be positive");
+    }
+
+    consumer.accept(this);
+
+    int nextPage = page().number() + 1;
+    int totalPages = page().totalPages();
+    if (nextPage >= totalPages) {
+      return;
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(
+        Math.min(concurrency, totalPages - nextPage), new ScanThreadFactory());
+    CompletionService<Paginated<T>> arrivals = new ExecutorCompletionService<>(pool);
+    Deque<Future<Paginated<T>>> inFlight = new ArrayDeque<>();
+
+    try {
+      while (nextPage < totalPages || !inFlight.isEmpty()) {
+        while (nextPage < totalPages && inFlight.size() < concurrency) {
+          int pageNumber = nextPage++;
+          inFlight.add(order == ScanOrder.ORDERED
+              ? pool.submit(() -> request(pageNumber))
+              : arrivals.submit(() -> request(pageNumber)));
+        }
+
+        Future<Paginated<T>> arrived = order == ScanOrder.ORDERED
+            ? inFlight.peekFirst()
+            : arrivals.take();
+        inFlight.remove(arrived);
+        consumer.accept(arrived.get());
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new HttpException(new InterruptedIOException("Interrupted while scanning"));
+    } catch (ExecutionException exception) {
+      Throwable cause = exception.getCause();
+      if (cause instanceof HttpException) {
+        throw (HttpException) cause;
+      } else if (cause instanceof ServerException) {
+        throw (ServerException) cause;
+      } else if (cause instanceof ApiException) {
+        throw (ApiException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else {
+        throw new IllegalStateException(cause);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
   private Paginated<T> request(Integer pageNumber) throws HttpException,
       ServerException, ApiException {
     try {
@@ -68,6 +184,71 @@ public class Paginated<T> {
     }
   }
 
+  /**
+   * Covers the pages from 'next', included, to 'end', excluded.
+   */
+  private class PageSpliterator implements Spliterator<Paginated<T>> {
+
+    private int next;
+    private final int end;
+
+    private PageSpliterator(int next, int end) {
+      this.next = next;
+      this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Paginated<T>> action) {
+      if (next >= end) {
+        return false;
+      }
+
+      int pageNumber = next++;
+      action.accept(pageNumber == page().number()
+          ? Paginated.this
+          : requestFunction.apply(pageNumber));
+      return true;
+    }
+
+    @Override
+    public Spliterator<Paginated<T>> trySplit() {
+      if (end - next < 2) {
+        return null;
+      }
+
+      int middle = next + (end - next) / 2;
+      Spliterator<Paginated<T>> prefix = new PageSpliterator(next, middle);
+      next = middle;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return end - next;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+  }
+
+  private static class ScanThreadFactory implements ThreadFactory {
+
+    private static final AtomicInteger scans = new AtomicInteger();
+
+    private final int scan = scans.incrementAndGet();
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable,
+          "contacthub-scan-" + scan + "-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
   @Override
   public String toString() {
     return "Paginated{"
@@ -0,0 +1,60 @@
+package it.contactlab.hub.sdk.java.models;
+
+import it.contactlab.hub.sdk.java.exceptions.ApiException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+import it.contactlab.hub.sdk.java.exceptions.ServerException;
+
+import java.util.Optional;
+
+/**
+ * A query whose request is encoded once, to be run many times: running it
+ * again, or fetching its other pages, only changes the page number.
+ */
+public class PreparedRequest<T> {
+
+  /**
+   * Requests a page of the result, or the default one if empty.
+   */
+  @FunctionalInterface
+  public interface PageRequest<T> {
+    Paginated<T> get(Optional<Integer> page)
+        throws ApiException, ServerException, HttpException;
+  }
+
+  private final Optional<Integer> page;
+  private final PageRequest<T> request;
+
+  /**
+   * Creates a prepared request.
+   *
+   * @param page    The page requested by {@link #get()}, as set in the options.
+   * @param request Sends the encoded request for a page.
+   */
+  public PreparedRequest(Optional<Integer> page, PageRequest<T> request) {
+    this.page = page;
+    this.request = request;
+  }
+
+  /**
+   * Runs the request for the page set in its options, or the first one.
+   *
+   * @throws ApiException    if the API returns an error.
+   * @throws ServerException if the API returns an unexpected response.
+   * @throws HttpException   if the API request cannot be completed.
+   */
+  public Paginated<T> get() throws ApiException, ServerException, HttpException {
+    return request.get(page);
+  }
+
+  /**
+   * Runs the request for a page.
+   *
+   * @throws ApiException    if the API returns an error.
+   * @throws ServerException if the API returns an unexpected response.
+   * @throws HttpException   if the API request cannot be completed.
+   */
+  public Paginated<T> get(int page) throws ApiException, ServerException, HttpException {
+    return request.get(Optional.of(page));
+  }
+
+}
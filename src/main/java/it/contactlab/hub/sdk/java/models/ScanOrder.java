@@ -0,0 +1,18 @@
+package it.contactlab.hub.sdk.java.models;
+
+/**
+ * The order in which a scan of a {@link Paginated} or {@link AsyncPaginated}
+ * result delivers the pages fetched in parallel.
+ */
+public enum ScanOrder {
+  /**
+   * Page after page, as {@link Paginated#nextPage()} would. A slow page holds
+   * back the ones after it.
+   */
+  ORDERED,
+
+  /**
+   * As soon as each page arrives.
+   */
+  UNORDERED
+}
@@ -0,0 +1,456 @@
+package it.contactlab.hub.sdk.java.queries;
+
+import it.contactlab.hub.sdk.java.models.Customer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Compiles a query into a {@link Predicate} of {@link Customer}, to filter
+ * Customers in memory the way the API would.
+ *
+ * <p>Attribute paths are resolved once, against the Customer model, into
+ * chains of accessors; below an untyped attribute such as "extended" they are
+ * looked up on each Customer. Optional attributes are unwrapped, and a
+ * condition on a list matches if any of its elements does. The values of IN
+ * and NOT_IN are put in a hash set.</p>
+ *
+ * <p>Values are compared as numbers, dates or date-times when both sides can
+ * be read as such, and as strings otherwise.</p>
+ */
+public class QueryCompiler {
+
+  /**
+   * Compiles a query.
+   *
+   * @throws IllegalArgumentException if an attribute does not exist, or a
+   *                                  condition has no value to compare with.
+   */
+  public static Predicate<Customer> compile(QueryContainer query) {
+    return compile(query.query());
+  }
+
+  /**
+   * Compiles a query.
+   *
+   * @throws IllegalArgumentException if an attribute does not exist, or a
+   *                                  condition has no value to compare with.
+   */
+  public static Predicate<Customer> compile(Query query) {
+    if (query instanceof SimpleQuery) {
+      return compile(((SimpleQuery) query).are().condition());
+    }
+    if (query instanceof CombinedQuery) {
+      CombinedQuery combined = (CombinedQuery) query;
+      List<Predicate<Customer>> queries = new ArrayList<>();
+      for (Query each : combined.queries()) {
+        queries.add(compile(each));
+      }
+      return combine(combined.conjunction(), queries);
+    }
+    throw new IllegalArgumentException("Unsupported query: " + query);
+  }
+
+  /**
+   * Compiles a condition.
+   *
+   * @throws IllegalArgumentException if an attribute does not exist, or a
+   *                                  condition has no value to compare with.
+   */
+  public static Predicate<Customer> compile(Condition condition) {
+    if (condition instanceof AtomicCondition) {
+      return compileAtomic((AtomicCondition) condition);
+    }
+    if (condition instanceof CompositeCondition) {
+      CompositeCondition composite = (CompositeCondition) condition;
+      Predicate<Customer> result = null;
+      for (Condition each : composite.conditions()) {
+        Predicate<Customer> predicate = compile(each);
+        if (result == null) {
+          result = predicate;
+        } else {
+          result = composite.conjunction() == ConditionConjunction.and
+              ? result.and(predicate)
+              : result.or(predicate);
+        }
+      }
+      // Like an empty product or sum.
+      return result != null
+          ? result
+          : customer -> composite.conjunction() == ConditionConjunction.and;
+    }
+    throw new IllegalArgumentException("Unsupported condition: " + condition);
+  }
+
+  private static Predicate<Customer> combine(
+      QueryConjunction conjunction, List<Predicate<Customer>> queries
+  ) {
+    switch (conjunction) {
+      case INTERSECT:
+        return customer -> queries.stream().allMatch(query -> query.test(customer));
+      case UNION:
+        return customer -> queries.stream().anyMatch(query -> query.test(customer));
+      case EXCEPT:
+        if (queries.isEmpty()) {
+          return customer -> false;
+        }
+        Predicate<Customer> first = queries.get(0);
+        List<Predicate<Customer>> rest = queries.subList(1, queries.size());
+        return customer -> first.test(customer)
+            && rest.stream().noneMatch(query -> query.test(customer));
+      default:
+        throw new IllegalArgumentException("Unsupported conjunction: " + conjunction);
+    }
+  }
+
+  private static Predicate<Customer> compileAtomic(AtomicCondition condition) {
+    AttributePath path = AttributePath.resolve(condition.attribute());
+
+    switch (condition.operator()) {
+      case IS_NULL:
+        return customer -> !path.anyMatch(customer, value -> true);
+      case IS_NOT_NULL:
+        return customer -> path.anyMatch(customer, value -> true);
+      case EQUALS: {
+        Set<String> keys = Operand.of(requireValue(condition)).keys();
+        return customer -> path.anyMatch(customer, value -> keys.contains(key(value)));
+      }
+      case NOT_EQUALS: {
+        Set<String> keys = Operand.of(requireValue(condition)).keys();
+        return customer -> !path.anyMatch(customer, value -> keys.contains(key(value)));
+      }
+      case IN: {
+        Set<String> keys = keysOfAll(condition);
+        return customer -> path.anyMatch(customer, value -> keys.contains(key(value)));
+      }
+      case NOT_IN: {
+        Set<String> keys = keysOfAll(condition);
+        return customer -> !path.anyMatch(customer, value -> keys.contains(key(value)));
+      }
+      case GT: {
+        Operand operand = Operand.of(requireValue(condition));
+        return customer -> path.anyMatch(customer, value -> operand.compareTo(value) < 0);
+      }
+      case GTE: {
+        Operand operand = Operand.of(requireValue(condition));
+        return customer -> path.anyMatch(customer, value -> operand.compareTo(value) <= 0);
+      }
+      case LT: {
+        Operand operand = Operand.of(requireValue(condition));
+        return customer -> path.anyMatch(customer, value -> operand.compareTo(value) > 0);
+      }
+      case LTE: {
+        Operand operand = Operand.of(requireValue(condition));
+        return customer -> path.anyMatch(customer, value -> operand.compareTo(value) >= 0);
+      }
+      case BETWEEN: {
+        List<Object> bounds = asList(requireValue(condition));
+        if (bounds.size() != 2) {
+          throw new IllegalArgumentException(
+              "BETWEEN needs two values, from and to: " + condition);
+        }
+        Operand from = Operand.of(bounds.get(0));
+        Operand to = Operand.of(bounds.get(1));
+        return customer -> path.anyMatch(customer, value ->
+            from.compareTo(value) <= 0 && to.compareTo(value) >= 0);
+      }
+      default:
+        throw new IllegalArgumentException("Unsupported operator: " + condition.operator());
+    }
+  }
+
+  private static Object requireValue(AtomicCondition condition) {
+    return condition.value().orElseThrow(() -> new IllegalArgumentException(
+        "Operator " + condition.operator() + " needs a value: " + condition));
+  }
+
+  private static Set<String> keysOfAll(AtomicCondition condition) {
+    Set<String> keys = new HashSet<>();
+    for (Object value : asList(requireValue(condition))) {
+      keys.addAll(Operand.of(value).keys());
+    }
+    return keys;
+  }
+
+  private static List<Object> asList(Object value) {
+    List<Object> values = new ArrayList<>();
+    if (value instanceof Collection) {
+      values.addAll((Collection<?>) value);
+    } else if (value instanceof Object[]) {
+      for (Object each : (Object[]) value) {
+        values.add(each);
+      }
+    } else {
+      values.add(value);
+    }
+    return values;
+  }
+
+  /**
+   * The canonical form of an attribute value, for equality and hash lookups.
+   */
+  private static String key(Object value) {
+    if (value instanceof Number) {
+      return numberKey(new BigDecimal(value.toString()));
+    }
+    if (value instanceof OffsetDateTime) {
+      return ((OffsetDateTime) value).toInstant().toString();
+    }
+    if (value instanceof Enum) {
+      return ((Enum<?>) value).name();
+    }
+    return value.toString();
+  }
+
+  private static String numberKey(BigDecimal number) {
+    return number.signum() == 0 ? "0" : number.stripTrailingZeros().toPlainString();
+  }
+
+  /**
+   * A value of a condition, read in advance as every type it can be compared to.
+   */
+  private static class Operand {
+
+    private final String string;
+    private final BigDecimal number;
+    private final Instant instant;
+    private final LocalDate date;
+
+    private Operand(String string, BigDecimal number, Instant instant, LocalDate date) {
+      this.string = string;
+      this.number = number;
+      this.instant = instant;
+      this.date = date;
+    }
+
+    static Operand of(Object value) {
+      if (value instanceof Number) {
+        return new Operand(value.toString(), new BigDecimal(value.toString()), null, null);
+      }
+      if (value instanceof OffsetDateTime) {
+        OffsetDateTime dateTime = (OffsetDateTime) value;
+        return new Operand(value.toString(), null, dateTime.toInstant(),
+            dateTime.toLocalDate());
+      }
+      if (value instanceof LocalDate) {
+        return new Operand(value.toString(), null, null, (LocalDate) value);
+      }
+      if (value instanceof Enum) {
+        return new Operand(((Enum<?>) value).name(), null, null, null);
+      }
+
+      String string = value.toString();
+      return new Operand(string, parseNumber(string), parseInstant(string), parseDate(string));
+    }
+
+    /**
+     * The keys of the attribute values equal to this one.
+     */
+    Set<String> keys() {
+      Set<String> keys = new HashSet<>();
+      keys.add(string);
+      if (number != null) {
+        keys.add(numberKey(number));
+      }
+      if (instant != null) {
+        keys.add(instant.toString());
+      }
+      if (date != null && instant == null) {
+        keys.add(date.toString());
+      }
+      return keys;
+    }
+
+    /**
+     * Compares this operand with an attribute value.
+     */
+    int compareTo(Object value) {
+      if (value instanceof Number && number != null) {
+        return number.compareTo(new BigDecimal(value.toString()));
+      }
+      if (value instanceof OffsetDateTime && instant != null) {
+        return instant.compareTo(((OffsetDateTime) value).toInstant());
+      }
+      if (value instanceof LocalDate && date != null) {
+        return date.compareTo((LocalDate) value);
+      }
+      return string.compareTo(key(value));
+    }
+
+    private static BigDecimal parseNumber(String string) {
+      try {
+        return new BigDecimal(string.trim());
+      } catch (NumberFormatException exception) {
+        return null;
+      }
+    }
+
+    private static Instant parseInstant(String string) {
+      try {
+        return OffsetDateTime.parse(string).toInstant();
+      } catch (DateTimeParseException exception) {
+        return null;
+      }
+    }
+
+    private static LocalDate parseDate(String string) {
+      try {
+        TemporalAccessor parsed = string.length() > 10
+            ? OffsetDateTime.parse(string)
+            : LocalDate.parse(string);
+        return LocalDate.from(parsed);
+      } catch (DateTimeParseException exception) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * A dotted attribute path, resolved into accessors.
+   */
+  private static class AttributePath {
+
+    @FunctionalInterface
+    private interface Step {
+      Object apply(Object value);
+    }
+
+    private final Step[] steps;
+
+    private AttributePath(Step[] steps) {
+      this.steps = steps;
+    }
+
+    static AttributePath resolve(String attribute) {
+      String[] names = attribute.split("\\.");
+      Step[] steps = new Step[names.length];
+      Type type = Customer.class;
+
+      for (int i = 0; i < names.length; i++) {
+        String name = names[i];
+        Class<?> owner = rawClass(elementType(type));
+
+        if (Map.class.isAssignableFrom(owner)) {
+          steps[i] = value -> value instanceof Map ? ((Map<?, ?>) value).get(name) : null;
+          type = typeArgument(elementType(type), 1);
+        } else if (owner == Object.class) {
+          steps[i] = value -> lookup(value, name);
+          type = Object.class;
+        } else {
+          Method method;
+          try {
+            method = owner.getMethod(name);
+          } catch (NoSuchMethodException exception) {
+            throw new IllegalArgumentException(
+                "Unknown attribute '" + attribute + "': " + owner.getSimpleName()
+                + " has no '" + name + "'");
+          }
+          steps[i] = value -> invoke(method, value);
+          type = method.getGenericReturnType();
+        }
+      }
+      return new AttributePath(steps);
+    }
+
+    /**
+     * Whether any value at the end of the path, once unwrapped and
+     * flattened, satisfies 'test'.
+     */
+    boolean anyMatch(Customer customer, Predicate<Object> test) {
+      return anyMatch(customer, 0, test);
+    }
+
+    private boolean anyMatch(Object value, int step, Predicate<Object> test) {
+      if (value == null) {
+        return false;
+      }
+      if (value instanceof Optional) {
+        return anyMatch(((Optional<?>) value).orElse(null), step, test);
+      }
+      if (value instanceof Collection) {
+        for (Object element : (Collection<?>) value) {
+          if (anyMatch(element, step, test)) {
+            return true;
+          }
+        }
+        return false;
+      }
+      if (step == steps.length) {
+        return test.test(value);
+      }
+      return anyMatch(steps[step].apply(value), step + 1, test);
+    }
+
+    /**
+     * Looks up an attribute below an untyped one, e.g. a map parsed from JSON.
+     */
+    private static Object lookup(Object value, String name) {
+      if (value instanceof Map) {
+        return ((Map<?, ?>) value).get(name);
+      }
+      try {
+        return invoke(value.getClass().getMethod(name), value);
+      } catch (NoSuchMethodException exception) {
+        return null;
+      }
+    }
+
+    private static Object invoke(Method method, Object value) {
+      try {
+        return method.invoke(value);
+      } catch (IllegalAccessException | InvocationTargetException exception) {
+        throw new IllegalStateException("Cannot read " + method.getName(), exception);
+      }
+    }
+
+    /**
+     * The type of the values inside Optionals and collections.
+     */
+    private static Type elementType(Type type) {
+      Class<?> raw = rawClass(type);
+      if (Optional.class.isAssignableFrom(raw) || Collection.class.isAssignableFrom(raw)) {
+        return elementType(typeArgument(type, 0));
+      }
+      return type;
+    }
+
+    private static Type typeArgument(Type type, int index) {
+      if (type instanceof ParameterizedType) {
+        Type argument = ((ParameterizedType) type).getActualTypeArguments()[index];
+        if (argument instanceof WildcardType) {
+          return ((WildcardType) argument).getUpperBounds()[0];
+        }
+        return argument;
+      }
+      return Object.class;
+    }
+
+    private static Class<?> rawClass(Type type) {
+      if (type instanceof Class) {
+        return (Class<?>) type;
+      }
+      if (type instanceof ParameterizedType) {
+        return (Class<?>) ((ParameterizedType) type).getRawType();
+      }
+      return Object.class;
+    }
+  }
+
+}
@@ -0,0 +1,323 @@
+package it.contactlab.hub.sdk.java.queries;
+
+import it.contactlab.hub.sdk.java.internal.gson.ContactHubGson;
+
+import com.google.gson.Gson;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Rewrites a query into an equivalent, canonical one, and hashes it.
+ *
+ * <p>Normalization flattens composite conditions and combined queries nested
+ * in one with the same conjunction, removes the duplicate terms, and unwraps
+ * the ones left with a single term. Within an "or", the EQUALS and IN
+ * conditions on the same attribute are merged into a single IN. The terms
+ * of "and", "or", INTERSECT and UNION, the values of IN and NOT_IN, and the
+ * queries after the first one of EXCEPT are then put in a canonical order.</p>
+ *
+ * <p>Two queries that normalize to the same query have the same
+ * {@link #hash(Query)}, whatever the order their terms were built in.</p>
+ */
+public class QueryNormalizer {
+
+  private static final Gson gson = ContactHubGson.getInstance();
+
+  /**
+   * Normalizes the query of a container, keeping its name.
+   */
+  public static QueryContainer normalize(QueryContainer query) {
+    return query.withQuery(normalize(query.query()));
+  }
+
+  /**
+   * Normalizes a query.
+   */
+  public static Query normalize(Query query) {
+    return normalizeQuery(query).node;
+  }
+
+  /**
+   * Normalizes a condition.
+   */
+  public static Condition normalize(Condition condition) {
+    return normalizeCondition(condition).node;
+  }
+
+  /**
+   * A hash of the normalized query, as a hex string, to use as a cache key.
+   * The name of the query is not part of it.
+   */
+  public static String hash(QueryContainer query) {
+    return hash(query.query());
+  }
+
+  /**
+   * A hash of the normalized query, as a hex string, to use as a cache key.
+   */
+  public static String hash(Query query) {
+    return sha256(normalizeQuery(query).key);
+  }
+
+  /**
+   * A hash of the normalized condition, as a hex string.
+   */
+  public static String hash(Condition condition) {
+    return sha256(normalizeCondition(condition).key);
+  }
+
+  /**
+   * A normalized node, with its canonical form: nodes are equivalent if
+   * their keys are equal, and are ordered by key. The terms of a composite
+   * condition or combined query are kept, to flatten it without normalizing
+   * them again.
+   */
+  private static class Keyed<T> {
+
+    private final T node;
+    private final String key;
+    private final List<Keyed<T>> terms;
+
+    private Keyed(T node, String key) {
+      this(node, key, Collections.emptyList());
+    }
+
+    private Keyed(T node, String key, List<Keyed<T>> terms) {
+      this.node = node;
+      this.key = key;
+      this.terms = terms;
+    }
+  }
+
+  private static Keyed<Query> normalizeQuery(Query query) {
+    if (query instanceof SimpleQuery) {
+      Keyed<Condition> condition = normalizeCondition(((SimpleQuery) query).are().condition());
+      return new Keyed<>(
+          SimpleQuery.builder()
+              .are(ConditionContainer.builder().condition(condition.node).build())
+              .build(),
+          "simple(" + condition.key + ")");
+    }
+    if (query instanceof CombinedQuery) {
+      return normalizeCombined((CombinedQuery) query);
+    }
+    throw new IllegalArgumentException("Unsupported query: " + query);
+  }
+
+  private static Keyed<Query> normalizeCombined(CombinedQuery combined) {
+    QueryConjunction conjunction = combined.conjunction();
+    List<Keyed<Query>> queries = new ArrayList<>();
+    for (Query each : combined.queries()) {
+      Keyed<Query> normalized = normalizeQuery(each);
+      boolean first = queries.isEmpty();
+
+      // A \ B \ C is (A \ B) \ C, but not A \ (B \ C).
+      if (sameConjunction(normalized.node, conjunction)
+          && (conjunction != QueryConjunction.EXCEPT || first)) {
+        queries.addAll(normalized.terms);
+      } else {
+        queries.add(normalized);
+      }
+    }
+
+    if (conjunction == QueryConjunction.EXCEPT) {
+      if (queries.isEmpty()) {
+        return combined(conjunction, queries);
+      }
+      List<Keyed<Query>> rest = sortedDistinct(queries.subList(1, queries.size()));
+      rest.add(0, queries.get(0));
+      return combined(conjunction, rest);
+    }
+
+    queries = sortedDistinct(queries);
+    return queries.size() == 1 ? queries.get(0) : combined(conjunction, queries);
+  }
+
+  private static boolean sameConjunction(Query query, QueryConjunction conjunction) {
+    return query instanceof CombinedQuery
+        && ((CombinedQuery) query).conjunction() == conjunction;
+  }
+
+  private static Keyed<Query> combined(QueryConjunction conjunction, List<Keyed<Query>> queries) {
+    List<Query> nodes = new ArrayList<>();
+    List<String> keys = new ArrayList<>();
+    for (Keyed<Query> query : queries) {
+      nodes.add(query.node);
+      keys.add(query.key);
+    }
+    return new Keyed<>(
+        CombinedQuery.builder().conjunction(conjunction).queries(nodes).build(),
+        conjunction + "(" + String.join(",", keys) + ")",
+        queries);
+  }
+
+  private static Keyed<Condition> normalizeCondition(Condition condition) {
+    if (condition instanceof AtomicCondition) {
+      return normalizeAtomic((AtomicCondition) condition);
+    }
+    if (condition instanceof CompositeCondition) {
+      return normalizeComposite((CompositeCondition) condition);
+    }
+    throw new IllegalArgumentException("Unsupported condition: " + condition);
+  }
+
+  private static Keyed<Condition> normalizeComposite(CompositeCondition composite) {
+    ConditionConjunction conjunction = composite.conjunction();
+    List<Keyed<Condition>> conditions = new ArrayList<>();
+    for (Condition each : composite.conditions()) {
+      Keyed<Condition> normalized = normalizeCondition(each);
+      if (normalized.node instanceof CompositeCondition
+          && ((CompositeCondition) normalized.node).conjunction() == conjunction) {
+        conditions.addAll(normalized.terms);
+      } else {
+        conditions.add(normalized);
+      }
+    }
+
+    if (conjunction == ConditionConjunction.or) {
+      conditions = mergeIn(conditions);
+    }
+
+    conditions = sortedDistinct(conditions);
+    if (conditions.size() == 1) {
+      return conditions.get(0);
+    }
+
+    List<Condition> nodes = new ArrayList<>();
+    List<String> keys = new ArrayList<>();
+    for (Keyed<Condition> condition : conditions) {
+      nodes.add(condition.node);
+      keys.add(condition.key);
+    }
+    return new Keyed<>(
+        CompositeCondition.builder().conjunction(conjunction).conditions(nodes).build(),
+        conjunction + "(" + String.join(",", keys) + ")",
+        conditions);
+  }
+
+  /**
+   * Merges the EQUALS and IN conditions on the same attribute into one IN.
+   * Under "and" they cannot be merged: on a
+   * list attribute, such as tags, each of them can match a different element.
+   */
+  private static List<Keyed<Condition>> mergeIn(List<Keyed<Condition>> conditions) {
+    Map<String, List<AtomicCondition>> byAttribute = new LinkedHashMap<>();
+    for (Keyed<Condition> condition : conditions) {
+      if (isMergeable(condition.node)) {
+        AtomicCondition atomic = (AtomicCondition) condition.node;
+        byAttribute.computeIfAbsent(atomic.attribute(), attribute -> new ArrayList<>())
+            .add(atomic);
+      }
+    }
+
+    List<Keyed<Condition>> merged = new ArrayList<>();
+    for (Keyed<Condition> condition : conditions) {
+      if (!isMergeable(condition.node)) {
+        merged.add(condition);
+        continue;
+      }
+      String attribute = ((AtomicCondition) condition.node).attribute();
+      List<AtomicCondition> sameAttribute = byAttribute.remove(attribute);
+      if (sameAttribute == null) {
+        // Already merged into the first one.
+        continue;
+      }
+      if (sameAttribute.size() == 1) {
+        merged.add(condition);
+        continue;
+      }
+
+      List<Object> values = new ArrayList<>();
+      for (AtomicCondition atomic : sameAttribute) {
+        Object value = atomic.value().get();
+        if (atomic.operator() == Operator.IN) {
+          values.addAll((Collection<?>) value);
+        } else {
+          values.add(value);
+        }
+      }
+      Keyed<Condition> in = normalizeAtomic(AtomicCondition.builder()
+          .attribute(attribute)
+          .operator(Operator.IN)
+          .value(values)
+          .build());
+      List<?> distinct = (List<?>) ((AtomicCondition) in.node).value().get();
+      merged.add(distinct.size() == 1
+          ? normalizeAtomic(AtomicCondition.builder()
+              .attribute(attribute)
+              .operator(Operator.EQUALS)
+              .value(distinct.get(0))
+              .build())
+          : in);
+    }
+    return merged;
+  }
+
+  /**
+   * EQUALS on a single value, or IN on a list of values.
+   */
+  private static boolean isMergeable(Condition condition) {
+    if (!(condition instanceof AtomicCondition)) {
+      return false;
+    }
+    AtomicCondition atomic = (AtomicCondition) condition;
+    if (!atomic.value().isPresent()) {
+      return false;
+    }
+    boolean isList = atomic.value().get() instanceof Collection;
+    return (atomic.operator() == Operator.EQUALS && !isList)
+        || (atomic.operator() == Operator.IN && isList);
+  }
+
+  private static Keyed<Condition> normalizeAtomic(AtomicCondition condition) {
+    AtomicCondition normalized = condition;
+    if ((condition.operator() == Operator.IN || condition.operator() == Operator.NOT_IN)
+        && condition.value().isPresent() && condition.value().get() instanceof Collection) {
+      // Distinct values, by their JSON encoding, in the order of the encoding.
+      Map<String, Object> values = new TreeMap<>();
+      for (Object value : (Collection<?>) condition.value().get()) {
+        values.putIfAbsent(gson.toJson(value), value);
+      }
+      normalized = condition.withValue(Optional.of(new ArrayList<>(values.values())));
+    }
+
+    String key = "atomic(" + gson.toJson(normalized.attribute()) + "," + normalized.operator()
+        + normalized.value().map(value -> "," + gson.toJson(value)).orElse("") + ")";
+    return new Keyed<>(normalized, key);
+  }
+
+  private static <T> List<Keyed<T>> sortedDistinct(List<Keyed<T>> nodes) {
+    Map<String, Keyed<T>> distinct = new TreeMap<>();
+    for (Keyed<T> node : nodes) {
+      distinct.putIfAbsent(node.key, node);
+    }
+    return new ArrayList<>(distinct.values());
+  }
+
+  private static String sha256(String key) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(key.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(digest.length * 2);
+      for (byte each : digest) {
+        hex.append(Character.forDigit((each >> 4) & 0xf, 16))
+            .append(Character.forDigit(each & 0xf, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException exception) {
+      // Every Java platform supports SHA-256.
+      throw new IllegalStateException(exception);
+    }
+  }
+
+}
@@ -0,0 +1,58 @@
+package it.contactlab.hub.sdk.java.ratelimit;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Settings for the {@link RateLimiter}s of a workspace.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractRateLimitOptions {
+
+  /**
+   * The sustained number of reads per second, and of writes unless
+   * 'writePermitsPerSecond' is set.
+   */
+  public abstract double permitsPerSecond();
+
+  /**
+   * The number of writes per second, if it differs from the one of reads.
+   */
+  public abstract Optional<Double> writePermitsPerSecond();
+
+  /**
+   * The number of requests that can be sent at once after an idle time.
+   * It defaults to one second of requests.
+   */
+  @Value.Default
+  public int burst() {
+    return Math.max(1, (int) permitsPerSecond());
+  }
+
+  /**
+   * How long a request waits for a permit before it fails with a
+   * {@link it.contactlab.hub.sdk.java.exceptions.RateLimitException}.
+   * With zero, requests fail as soon as the limit is reached.
+   */
+  @Value.Default
+  public Duration maxWait() {
+    return Duration.ofSeconds(30);
+  }
+
+  @Value.Check
+  protected void check() {
+    if (!(permitsPerSecond() > 0) || !(writePermitsPerSecond().orElse(1.0) > 0)) {
+      throw new IllegalArgumentException("permitsPerSecond must be positive");
+    }
+    if (burst() < 1) {
+      throw new IllegalArgumentException("burst must be positive");
+    }
+    if (maxWait().isNegative()) {
+      throw new IllegalArgumentException("maxWait cannot be negative");
+    }
+  }
+
+}
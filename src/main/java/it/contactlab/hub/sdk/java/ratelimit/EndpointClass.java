@@ -0,0 +1,21 @@
+package it.contactlab.hub.sdk.java.ratelimit;
+
+import it.contactlab.hub.sdk.java.http.HttpMethod;
+
+/**
+ * The requests that share a {@link RateLimiter}.
+ */
+public enum EndpointClass {
+  /**
+   * GET requests.
+   */
+  READ,
+  /**
+   * POST, PUT, PATCH and DELETE requests.
+   */
+  WRITE;
+
+  public static EndpointClass of(HttpMethod method) {
+    return method == HttpMethod.GET ? READ : WRITE;
+  }
+}
@@ -0,0 +1,249 @@
+package it.contactlab.hub.sdk.java.ratelimit;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket: permits are added at a steady rate, up to 'burst' of them,
+ * and each request takes one.
+ *
+ * <p>A request that finds no permit reserves the next one, and waits until
+ * it is due, so that waiting requests are served in order and the rate is
+ * never exceeded. A request fails instead when its permit would be due
+ * after the longest wait it accepts.</p>
+ *
+ * <p>The limiters returned by {@link #shared(String, EndpointClass, double, int)}
+ * are shared by all the clients in the JVM that use the same workspace. The
+ * rate can be changed at any time with {@link #setRate(double, int)}.</p>
+ */
+public class RateLimiter {
+
+  private static final ConcurrentMap<String, RateLimiter> shared = new ConcurrentHashMap<>();
+
+  private static final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "contacthub-ratelimit-timer");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private double permitsPerSecond;
+  private int burst;
+  private double permits;
+  private long refilledAt;
+
+  private final AtomicLong acquired = new AtomicLong();
+  private final AtomicLong delayed = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong waitNanos = new AtomicLong();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  /**
+   * Creates a limiter of its own, that starts full.
+   */
+  public RateLimiter(double permitsPerSecond, int burst) {
+    check(permitsPerSecond, burst);
+    this.permitsPerSecond = permitsPerSecond;
+    this.burst = burst;
+    this.permits = burst;
+    this.refilledAt = System.nanoTime();
+  }
+
+  /**
+   * The limiter of a workspace for a class of endpoints, created with the
+   * given rate by the first caller. The next callers get the same limiter,
+   * and must ask for its current rate and burst.
+   *
+   * @throws IllegalArgumentException if the limiter exists with another rate
+   *                                  or burst.
+   */
+  public static RateLimiter shared(
+      String workspaceId, EndpointClass endpoints, double permitsPerSecond, int burst
+  ) {
+    String key = key(workspaceId, endpoints);
+    RateLimiter limiter = shared.computeIfAbsent(key,
+        created -> new RateLimiter(permitsPerSecond, burst));
+
+    synchronized (limiter) {
+      if (limiter.permitsPerSecond != permitsPerSecond || limiter.burst != burst) {
+        throw new IllegalArgumentException("The rate limiter of " + key + " already has "
+            + limiter.permitsPerSecond + " permits per second and a burst of " + limiter.burst
+            + ": change it with setRate");
+      }
+    }
+    return limiter;
+  }
+
+  /**
+   * The limiter of a workspace for a class of endpoints, if any client has
+   * created it.
+   */
+  public static Optional<RateLimiter> shared(String workspaceId, EndpointClass endpoints) {
+    return Optional.ofNullable(shared.get(key(workspaceId, endpoints)));
+  }
+
+  private static String key(String workspaceId, EndpointClass endpoints) {
+    return workspaceId + "/" + endpoints;
+  }
+
+  public synchronized double permitsPerSecond() {
+    return permitsPerSecond;
+  }
+
+  public synchronized int burst() {
+    return burst;
+  }
+
+  /**
+   * Changes the rate. The permits already reserved keep their due time.
+   */
+  public synchronized void setRate(double permitsPerSecond, int burst) {
+    check(permitsPerSecond, burst);
+    refill(System.nanoTime());
+    this.permitsPerSecond = permitsPerSecond;
+    this.burst = burst;
+    this.permits = Math.min(permits, burst);
+  }
+
+  /**
+   * Waits for a permit, as long as needed.
+   */
+  public void acquire() throws InterruptedException {
+    await(reserve(Long.MAX_VALUE));
+  }
+
+  /**
+   * Waits for a permit, unless it would take longer than 'maxWait'.
+   *
+   * @return false, at once, if no permit is due within 'maxWait'.
+   */
+  public boolean tryAcquire(Duration maxWait) throws InterruptedException {
+    long wait = reserve(maxWait.toNanos());
+    if (wait < 0) {
+      return false;
+    }
+    await(wait);
+    return true;
+  }
+
+  /**
+   * Like {@link #tryAcquire(Duration)}, without blocking the calling thread.
+   *
+   * @return A future that completes with true when the permit is due, or
+   *         with false, at once, if no permit is due within 'maxWait'. It
+   *         is completed on an internal timer thread.
+   */
+  public CompletableFuture<Boolean> tryAcquireAsync(Duration maxWait) {
+    long wait = reserve(maxWait.toNanos());
+    if (wait <= 0) {
+      return CompletableFuture.completedFuture(wait == 0);
+    }
+    CompletableFuture<Boolean> permit = new CompletableFuture<>();
+    timer.schedule(() -> permit.complete(true), wait, TimeUnit.NANOSECONDS);
+    return permit;
+  }
+
+  /**
+   * The number of permits given.
+   */
+  public long acquired() {
+    return acquired.get();
+  }
+
+  /**
+   * The number of permits that had to be waited for.
+   */
+  public long delayed() {
+    return delayed.get();
+  }
+
+  /**
+   * The number of requests that got no permit within their longest wait.
+   */
+  public long rejected() {
+    return rejected.get();
+  }
+
+  /**
+   * The sum of the waits for all the permits given.
+   */
+  public Duration totalWaitTime() {
+    return Duration.ofNanos(waitNanos.get());
+  }
+
+  /**
+   * The longest wait for a permit.
+   */
+  public Duration maxWaitTime() {
+    return Duration.ofNanos(maxWaitNanos.get());
+  }
+
+  @Override
+  public String toString() {
+    return "RateLimiter{permitsPerSecond=" + permitsPerSecond() + ", burst=" + burst()
+        + ", acquired=" + acquired() + ", delayed=" + delayed() + ", rejected=" + rejected()
+        + ", totalWaitTime=" + totalWaitTime() + ", maxWaitTime=" + maxWaitTime() + "}";
+  }
+
+  /**
+   * Takes the next permit, if it is due within 'maxWaitNanos'.
+   *
+   * @return How long to wait for it, or -1 if it was not taken.
+   */
+  private long reserve(long maxWaitNanos) {
+    long wait;
+    synchronized (this) {
+      refill(System.nanoTime());
+      wait = permits >= 1 ? 0 : (long) Math.ceil((1 - permits) / permitsPerSecond * 1e9);
+      if (wait > maxWaitNanos) {
+        rejected.incrementAndGet();
+        return -1;
+      }
+      // May go below zero: the next requests wait for the permits owed.
+      permits -= 1;
+    }
+
+    acquired.incrementAndGet();
+    if (wait > 0) {
+      delayed.incrementAndGet();
+      waitNanos.addAndGet(wait);
+      this.maxWaitNanos.accumulateAndGet(wait, Math::max);
+    }
+    return wait;
+  }
+
+  /**
+   * Sleeps until a reserved permit is due, and gives it back if interrupted,
+   * since the request it was for will not be sent.
+   */
+  private void await(long wait) throws InterruptedException {
+    try {
+      TimeUnit.NANOSECONDS.sleep(wait);
+    } catch (InterruptedException exception) {
+      synchronized (this) {
+        permits = Math.min(burst, permits + 1);
+      }
+      acquired.decrementAndGet();
+      throw exception;
+    }
+  }
+
+  private void refill(long now) {
+    permits = Math.min(burst, permits + (now - refilledAt) * permitsPerSecond / 1e9);
+    refilledAt = now;
+  }
+
+  private static void check(double permitsPerSecond, int burst) {
+    if (!(permitsPerSecond > 0) || burst < 1) {
+      throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+    }
+  }
+
+}
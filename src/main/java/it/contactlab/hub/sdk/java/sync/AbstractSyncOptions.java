@@ -0,0 +1,42 @@
+package it.contactlab.hub.sdk.java.sync;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Settings for a {@link CustomerSync}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractSyncOptions {
+
+  /**
+   * How far before the saved watermark a sync starts, to catch the
+   * Customers whose update became visible after a later one was read.
+   * Customers updated within the overlap are delivered again.
+   */
+  @Value.Default
+  public Duration overlap() {
+    return Duration.ofMinutes(1);
+  }
+
+  /**
+   * The number of Customers requested at a time.
+   */
+  @Value.Default
+  public int pageSize() {
+    return 100;
+  }
+
+  @Value.Check
+  protected void check() {
+    if (overlap().isNegative()) {
+      throw new IllegalArgumentException("overlap cannot be negative");
+    }
+    if (pageSize() < 1) {
+      throw new IllegalArgumentException("pageSize must be positive");
+    }
+  }
+
+}
@@ -0,0 +1,20 @@
+package it.contactlab.hub.sdk.java.sync;
+
+import it.contactlab.hub.sdk.java.models.Customer;
+
+import java.util.List;
+
+/**
+ * Receives the Customers changed since the last sync, in updatedAt order.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+  /**
+   * Called for each batch of changes. The watermark is saved only after it
+   * returns: if it throws, the sync stops and the batch is delivered again
+   * by the next one.
+   */
+  void onChanges(List<Customer> customers);
+
+}
@@ -0,0 +1,199 @@
+package it.contactlab.hub.sdk.java.sync;
+
+import it.contactlab.hub.sdk.java.Auth;
+import it.contactlab.hub.sdk.java.ClientData;
+import it.contactlab.hub.sdk.java.exceptions.ApiException;
+import it.contactlab.hub.sdk.java.exceptions.HttpException;
+import it.contactlab.hub.sdk.java.exceptions.ServerException;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
+import it.contactlab.hub.sdk.java.internal.api.CustomerApi;
+import it.contactlab.hub.sdk.java.internal.api.QueryApi;
+import it.contactlab.hub.sdk.java.internal.gson.ContactHubGson;
+import it.contactlab.hub.sdk.java.models.Customer;
+import it.contactlab.hub.sdk.java.models.GetCustomersOptions;
+import it.contactlab.hub.sdk.java.models.Paginated;
+import it.contactlab.hub.sdk.java.queries.Operator;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Delivers the Customers updated since the last run, in updatedAt order,
+ * and saves the latest updatedAt delivered as the new watermark.
+ *
+ * <p>Changes are read with a query on updatedAt greater than or equal to the
+ * last one delivered, rather than by page number, so that Customers updated
+ * while the sync runs cannot shift the pages and be skipped. Customers that
+ * share the same updatedAt are never skipped either, even if they do not fit
+ * a single page.</p>
+ *
+ * <p>Delivery is at least once: each run starts 'overlap' before the saved
+ * watermark, and a failed batch is delivered again.</p>
+ */
+public class CustomerSync {
+
+  private static final String UPDATED_AT = "updatedAt";
+
+  private final Auth auth;
+  private final ClientData clientData;
+  private final HttpTransport transport;
+  private final SyncOptions options;
+  private final WatermarkStore store;
+
+  /**
+   * Creates a new sync.
+   *
+   * @param options The {@link SyncOptions} for the sync.
+   * @param store   Where the watermark is kept between runs.
+   */
+  public CustomerSync(
+      Auth auth, ClientData clientData, HttpTransport transport,
+      SyncOptions options, WatermarkStore store
+  ) {
+    this.auth = auth;
+    this.clientData = clientData;
+    this.transport = transport;
+    this.options = options;
+    this.store = store;
+  }
+
+  /**
+   * Delivers the Customers changed since the saved watermark to 'listener',
+   * saving the watermark after every batch. The first run delivers every
+   * Customer of the node.
+   *
+   * @return The number of Customers delivered.
+   *
+   * @throws ApiException    if the API returns an error.
+   * @throws ServerException if the API returns an unexpected response.
+   * @throws HttpException   if the API request cannot be completed.
+   * @throws IOException     if the watermark cannot be loaded or saved.
+   */
+  public long sync(ChangeListener listener)
+      throws ApiException, ServerException, HttpException, IOException {
+    OffsetDateTime cursor = store.load()
+        .map(watermark -> watermark.minus(options.overlap()))
+        .orElse(OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC));
+
+    // The Customers already delivered with updatedAt equal to 'cursor'.
+    Set<String> deliveredAtCursor = new HashSet<>();
+    boolean afterCursor = false;
+    long delivered = 0;
+
+    while (true) {
+      Paginated<Customer> page = fetch(afterCursor ? Operator.GT : Operator.GTE, cursor, 0);
+      List<Customer> customers = page.elements();
+      afterCursor = false;
+
+      if (isFullPageAt(customers, cursor) && deliveredAtCursor.containsAll(ids(customers))) {
+        // More Customers share this updatedAt than a page holds: go through
+        // all of them by page number, then continue after it.
+        delivered += deliverAll(listener, cursor, deliveredAtCursor);
+        deliveredAtCursor.clear();
+        afterCursor = true;
+        continue;
+      }
+
+      List<Customer> changes = new ArrayList<>();
+      for (Customer customer : customers) {
+        if (!customer.id().isPresent() || !deliveredAtCursor.contains(customer.id().get())) {
+          changes.add(customer);
+        }
+      }
+
+      if (!changes.isEmpty()) {
+        listener.onChanges(changes);
+        delivered += changes.size();
+
+        for (Customer customer : changes) {
+          OffsetDateTime updatedAt = customer.updatedAt().orElse(cursor);
+          if (updatedAt.isAfter(cursor)) {
+            cursor = updatedAt;
+            deliveredAtCursor.clear();
+          }
+          customer.id().ifPresent(deliveredAtCursor::add);
+        }
+        store.save(cursor);
+      }
+
+      if (customers.size() < options.pageSize()) {
+        return delivered;
+      }
+    }
+  }
+
+  /**
+   * Delivers the Customers updated exactly at 'cursor', not delivered yet.
+   *
+   * <p>The pages are only sorted by updatedAt, so the API can order the
+   * Customers that share it differently from one request to the next, and a
+   * pass over the pages can repeat some of them and skip others. Passes are
+   * repeated until every Customer counted by the API has been seen, or one
+   * finds nothing new.</p>
+   */
+  private long deliverAll(ChangeListener listener, OffsetDateTime cursor, Set<String> seen)
+      throws ApiException, ServerException, HttpException, IOException {
+    long delivered = 0;
+    long found;
+    Paginated<Customer> page;
+
+    do {
+      found = 0;
+      int pageNumber = 0;
+
+      do {
+        page = fetch(Operator.EQUALS, cursor, pageNumber++);
+
+        List<Customer> changes = new ArrayList<>();
+        for (Customer customer : page.elements()) {
+          if (customer.id().isPresent() && seen.add(customer.id().get())) {
+            changes.add(customer);
+          }
+        }
+        if (!changes.isEmpty()) {
+          listener.onChanges(changes);
+          found += changes.size();
+        }
+      } while (pageNumber < page.page().totalPages());
+
+      delivered += found;
+    } while (found > 0 && seen.size() < page.page().totalElements());
+
+    store.save(cursor);
+    return delivered;
+  }
+
+  private Paginated<Customer> fetch(Operator operator, OffsetDateTime cursor, int pageNumber)
+      throws ApiException, ServerException, HttpException {
+    GetCustomersOptions query = GetCustomersOptions.builder()
+        .query(QueryApi.createQuery(UPDATED_AT, operator,
+            Optional.of(ContactHubGson.formatDate(cursor))))
+        .sort(UPDATED_AT)
+        .direction("asc")
+        .page(pageNumber)
+        .pageSize(options.pageSize())
+        .build();
+
+    return CustomerApi.get(auth, clientData, transport, query);
+  }
+
+  private boolean isFullPageAt(List<Customer> customers, OffsetDateTime cursor) {
+    return customers.size() >= options.pageSize()
+        && customers.stream().allMatch(customer ->
+            customer.updatedAt().map(cursor::isEqual).orElse(false));
+  }
+
+  private static Set<String> ids(List<Customer> customers) {
+    Set<String> ids = new HashSet<>();
+    customers.forEach(customer -> customer.id().ifPresent(ids::add));
+    return ids;
+  }
+
+}
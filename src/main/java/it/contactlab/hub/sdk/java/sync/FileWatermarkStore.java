@@ -0,0 +1,46 @@
+package it.contactlab.hub.sdk.java.sync;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/**
+ * A {@link WatermarkStore} that keeps the watermark in a file, replaced
+ * atomically on every save.
+ */
+public class FileWatermarkStore implements WatermarkStore {
+
+  private final Path file;
+
+  public FileWatermarkStore(Path file) {
+    this.file = file;
+  }
+
+  @Override
+  public Optional<OffsetDateTime> load() throws IOException {
+    if (!Files.exists(file)) {
+      return Optional.empty();
+    }
+
+    String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+    try {
+      return Optional.of(OffsetDateTime.parse(content));
+    } catch (DateTimeParseException exception) {
+      throw new IOException("Invalid watermark in " + file + ": " + content, exception);
+    }
+  }
+
+  @Override
+  public void save(OffsetDateTime watermark) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    Files.write(temporary, watermark.toString().getBytes(StandardCharsets.UTF_8));
+    Files.move(temporary, file,
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+}
@@ -0,0 +1,23 @@
+package it.contactlab.hub.sdk.java.sync;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+/**
+ * Keeps the watermark of a {@link CustomerSync} between runs: the latest
+ * updatedAt the application has processed.
+ */
+public interface WatermarkStore {
+
+  /**
+   * Returns the saved watermark, or an empty Optional before the first sync.
+   */
+  Optional<OffsetDateTime> load() throws IOException;
+
+  /**
+   * Replaces the saved watermark. A failure must leave the previous one in place.
+   */
+  void save(OffsetDateTime watermark) throws IOException;
+
+}
@@ -0,0 +1,43 @@
+package it.contactlab.hub.sdk.java.tags;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * Settings for a {@link TagMutator}.
+ */
+@Value.Immutable
+@Value.Style(typeImmutable = "*")
+public abstract class AbstractTagOptions {
+
+  /**
+   * How long the tag changes of a Customer wait for more changes to the same
+   * Customer, to be sent with a single update. Zero by default: a change is
+   * sent at once, and only the changes made while an update of the same
+   * Customer is running are grouped.
+   */
+  @Value.Default
+  public Duration window() {
+    return Duration.ZERO;
+  }
+
+  /**
+   * The number of locks the Customers are spread over.
+   */
+  @Value.Default
+  public int stripes() {
+    return 64;
+  }
+
+  @Value.Check
+  protected void check() {
+    if (window().isNegative()) {
+      throw new IllegalArgumentException("window cannot be negative");
+    }
+    if (stripes() < 1) {
+      throw new IllegalArgumentException("stripes must be positive");
+    }
+  }
+
+}
@@ -0,0 +1,369 @@
+package it.contactlab.hub.sdk.java.tags;
+
+import it.contactlab.hub.sdk.java.Auth;
+import it.contactlab.hub.sdk.java.ClientData;
+import it.contactlab.hub.sdk.java.batch.CustomerBatcher;
+import it.contactlab.hub.sdk.java.cache.CustomerCache;
+import it.contactlab.hub.sdk.java.exceptions.ApiException;
+import it.contactlab.hub.sdk.java.http.HttpTransport;
+import it.contactlab.hub.sdk.java.internal.api.CustomerApi;
+import it.contactlab.hub.sdk.java.models.Customer;
+import it.contactlab.hub.sdk.java.models.CustomerTags;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Adds and removes the manual tags of Customers, one update at a time for
+ * each Customer, so that concurrent changes are never lost.
+ *
+ * <p>The changes to a Customer made while its previous update is running,
+ * or within the optional window, are applied together with a single PATCH.
+ * The current tags are read from the cache, if any, or loaded through a
+ * {@link CustomerBatcher}, so that changes to many Customers share the same
+ * queries. After an update, the next one starts from the Customer it
+ * returned. An update that fails with 409 Conflict is applied once more,
+ * to the Customer loaded again from the API.</p>
+ *
+ * <p>The Customers are spread over a fixed number of locks, that only guard
+ * the changes waiting to be sent.</p>
+ */
+public class TagMutator {
+
+  private static final int CONFLICT = 409;
+
+  private static final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "contacthub-tags-timer");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final Auth auth;
+  private final ClientData clientData;
+  private final HttpTransport transport;
+  private final Executor executor;
+  private final TagOptions options;
+  private final CustomerBatcher batcher;
+  private final Optional<CustomerCache> cache;
+  private final Stripe[] stripes;
+
+  /**
+   * Creates a new mutator.
+   *
+   * @param executor Sends the updates and processes the responses of the API.
+   * @param options  The {@link TagOptions} for the mutator.
+   * @param batcher  Loads the Customers that are not in 'cache'.
+   * @param cache    Where the current Customers are read from, and the
+   *                 updated ones are stored, if any.
+   */
+  public TagMutator(
+      Auth auth, ClientData clientData, HttpTransport transport, Executor executor,
+      TagOptions options, CustomerBatcher batcher, Optional<CustomerCache> cache
+  ) {
+    this.auth = auth;
+    this.clientData = clientData;
+    this.transport = transport;
+    this.executor = executor;
+    this.options = options;
+    this.batcher = batcher;
+    this.cache = cache;
+    this.stripes = new Stripe[options.stripes()];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  /**
+   * Adds a manual tag to a Customer.
+   *
+   * @return A future of the Customer after the update that included the tag.
+   */
+  public CompletableFuture<Customer> add(String customerId, String tag) {
+    return submit(customerId, new Change(tag, true));
+  }
+
+  /**
+   * Removes a manual tag from a Customer.
+   *
+   * @return A future of the Customer after the update that removed the tag.
+   */
+  public CompletableFuture<Customer> remove(String customerId, String tag) {
+    return submit(customerId, new Change(tag, false));
+  }
+
+  /**
+   * Adds a manual tag to many Customers.
+   *
+   * @return A future of a Map from each id, in the order given, to its
+   *         updated Customer. It fails if any of the updates fails.
+   */
+  public CompletableFuture<Map<String, Customer>> addAll(
+      Collection<String> customerIds, String tag
+  ) {
+    return submitAll(customerIds, tag, true);
+  }
+
+  /**
+   * Removes a manual tag from many Customers.
+   *
+   * @return A future of a Map from each id, in the order given, to its
+   *         updated Customer. It fails if any of the updates fails.
+   */
+  public CompletableFuture<Map<String, Customer>> removeAll(
+      Collection<String> customerIds, String tag
+  ) {
+    return submitAll(customerIds, tag, false);
+  }
+
+  private CompletableFuture<Map<String, Customer>> submitAll(
+      Collection<String> customerIds, String tag, boolean add
+  ) {
+    Map<String, CompletableFuture<Customer>> futures = new LinkedHashMap<>();
+    for (String customerId : customerIds) {
+      futures.computeIfAbsent(customerId, id -> submit(id, new Change(tag, add)));
+    }
+
+    return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+        .thenApply(done -> {
+          Map<String, Customer> customers = new LinkedHashMap<>();
+          futures.forEach((id, future) -> customers.put(id, future.join()));
+          return customers;
+        });
+  }
+
+  private CompletableFuture<Customer> submit(String customerId, Change change) {
+    Stripe stripe = stripe(customerId);
+    boolean schedule = false;
+
+    synchronized (stripe) {
+      Pending pending = stripe.pending.computeIfAbsent(customerId, id -> new Pending());
+      pending.changes.add(change);
+      if (!pending.running && !pending.scheduled) {
+        pending.scheduled = true;
+        schedule = true;
+      }
+    }
+
+    if (schedule && options.window().isZero()) {
+      execute(customerId, Optional.empty());
+    } else if (schedule) {
+      try {
+        timer.schedule(() -> execute(customerId, Optional.empty()),
+            options.window().toNanos(), TimeUnit.NANOSECONDS);
+      } catch (RejectedExecutionException exception) {
+        rejected(customerId, exception);
+      }
+    }
+    // A copy, so that a caller completing its own future cannot affect the others.
+    return change.future.thenApply(Function.identity());
+  }
+
+  /**
+   * Sends the changes waiting for a Customer, starting from 'current' if it
+   * was just returned by the previous update.
+   */
+  private void send(String customerId, Optional<Customer> current) {
+    Stripe stripe = stripe(customerId);
+    List<Change> changes;
+
+    synchronized (stripe) {
+      Pending pending = stripe.pending.get(customerId);
+      pending.scheduled = false;
+      pending.running = true;
+      changes = pending.changes;
+      pending.changes = new ArrayList<>();
+    }
+
+    CompletionStage<Customer> update;
+    try {
+      update = (current.isPresent() ? CompletableFuture.completedFuture(current.get())
+          : load(customerId))
+          .thenCompose(customer -> apply(customerId, customer, changes))
+          .handle((customer, exception) -> exception == null
+              ? CompletableFuture.completedFuture(customer)
+              : retryConflict(customerId, changes, exception))
+          .thenCompose(Function.identity());
+    } catch (RuntimeException exception) {
+      update = failed(exception);
+    }
+
+    update.whenComplete((customer, exception) -> {
+      if (exception == null) {
+        changes.forEach(change -> change.future.complete(customer));
+      } else {
+        // The cached copy may be why the update failed.
+        cache.ifPresent(customerCache -> customerCache.invalidate(customerId));
+        Throwable cause = unwrap(exception);
+        changes.forEach(change -> change.future.completeExceptionally(cause));
+      }
+      done(customerId, exception == null ? Optional.of(customer) : Optional.empty());
+    });
+  }
+
+  private void done(String customerId, Optional<Customer> updated) {
+    Stripe stripe = stripe(customerId);
+    boolean again;
+
+    synchronized (stripe) {
+      Pending pending = stripe.pending.get(customerId);
+      pending.running = false;
+      again = !pending.changes.isEmpty();
+      if (again) {
+        // These changes have waited for the update: send them right away.
+        pending.scheduled = true;
+      } else {
+        stripe.pending.remove(customerId);
+      }
+    }
+
+    if (again) {
+      execute(customerId, updated);
+    }
+  }
+
+  private void execute(String customerId, Optional<Customer> current) {
+    try {
+      executor.execute(() -> send(customerId, current));
+    } catch (RejectedExecutionException exception) {
+      rejected(customerId, exception);
+    }
+  }
+
+  /**
+   * Fails the changes waiting for a Customer whose update could not be
+   * started, so that the next change schedules a new one.
+   */
+  private void rejected(String customerId, RejectedExecutionException exception) {
+    Stripe stripe = stripe(customerId);
+    List<Change> changes;
+
+    synchronized (stripe) {
+      changes = stripe.pending.remove(customerId).changes;
+    }
+
+    changes.forEach(change -> change.future.completeExceptionally(exception));
+  }
+
+  /**
+   * Applies the changes again to a fresh copy of the Customer, if the update
+   * failed because the copy it started from was stale.
+   */
+  private CompletionStage<Customer> retryConflict(
+      String customerId, List<Change> changes, Throwable exception
+  ) {
+    Throwable cause = unwrap(exception);
+    if (!(cause instanceof ApiException) || ((ApiException) cause).getStatusCode() != CONFLICT) {
+      return failed(cause);
+    }
+    cache.ifPresent(customerCache -> customerCache.invalidate(customerId));
+    return CustomerApi.asyncGetById(auth, clientData, transport, executor, customerId)
+        .thenCompose(customer -> apply(customerId, customer, changes));
+  }
+
+  private CompletionStage<Customer> load(String customerId) {
+    Optional<Customer> cached = cache.flatMap(customerCache ->
+        customerCache.getIfPresent(customerId));
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(cached.get());
+    }
+
+    // An id the batch query did not find is requested on its own, to fail
+    // with the same error as without batching.
+    return batcher.load(customerId).thenCompose(found -> found.isPresent()
+        ? CompletableFuture.completedFuture(found.get())
+        : CustomerApi.asyncGetById(auth, clientData, transport, executor, customerId));
+  }
+
+  private CompletionStage<Customer> apply(
+      String customerId, Customer customer, List<Change> changes
+  ) {
+    Set<String> current = customer.tags().map(tags -> tags.manual())
+        .orElse(Collections.emptySet());
+    Set<String> manualTags = new LinkedHashSet<>(current);
+
+    for (Change change : changes) {
+      if (change.add) {
+        manualTags.add(change.tag);
+      } else {
+        manualTags.remove(change.tag);
+      }
+    }
+
+    if (manualTags.equals(current)) {
+      return CompletableFuture.completedFuture(customer);
+    }
+    return CustomerApi.asyncPatch(auth, clientData, transport, executor, customerId,
+        Customer.builder()
+            .tags(CustomerTags.builder().manual(manualTags).build())
+            .build())
+        .thenApply(updated -> {
+          cache.ifPresent(customerCache -> customerCache.put(updated));
+          return updated;
+        });
+  }
+
+  private Stripe stripe(String customerId) {
+    int hash = customerId.hashCode();
+    return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+  }
+
+  private static Throwable unwrap(Throwable exception) {
+    return exception instanceof CompletionException && exception.getCause() != null
+        ? exception.getCause()
+        : exception;
+  }
+
+  private static <T> CompletableFuture<T> failed(Throwable exception) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(exception);
+    return future;
+  }
+
+  private static class Stripe {
+
+    private final Map<String, Pending> pending = new HashMap<>();
+  }
+
+  /**
+   * The changes to a Customer waiting to be sent. 'scheduled' is set while
+   * they are waiting for the window, 'running' while an update is being
+   * sent: at most one of them at a time.
+   */
+  private static class Pending {
+
+    private List<Change> changes = new ArrayList<>();
+    private boolean scheduled;
+    private boolean running;
+  }
+
+  private static class Change {
+
+    private final String tag;
+    private final boolean add;
+    private final CompletableFuture<Customer> future = new CompletableFuture<>();
+
+    private Change(String tag, boolean add) {
+      this.tag = tag;
+      this.add = add;
+    }
+  }
+
+}
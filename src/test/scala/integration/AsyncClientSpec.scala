@@ -0,0 +1,140 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.AsyncContactHub
+import it.contactlab.hub.sdk.java.Auth
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.internal.concurrent.VirtualThreads
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+class AsyncClientSpec extends FeatureSpec with GivenWhenThen {
+
+  def customer(id: String) = s"""{"id":"$id","nodeId":"node"}"""
+
+  def customerId(path: String) = path.substring(path.lastIndexOf('/') + 1)
+
+  def named(name: String): ThreadFactory = runnable => {
+    val thread = new Thread(runnable, name)
+    thread.setDaemon(true)
+    thread
+  }
+
+  feature("Non-blocking requests") {
+    scenario("Requests in flight do not hold a thread each") {
+      Given("an API that takes 300ms to answer, and a client with a single thread")
+      val api = new FakeApi(request =>
+        FakeResponse(200, customer(customerId(request.path)), delayMillis = 300))
+      val single = Executors.newSingleThreadExecutor()
+      val ch = AsyncContactHub.builder(api.auth).executor(single).build
+
+      When("I get ten Customers at once")
+      val start = System.nanoTime
+      val customers = (1 to 10).map(i => ch.getCustomer(s"c$i").toCompletableFuture)
+      customers.foreach(_.get(10, TimeUnit.SECONDS))
+      val elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime - start)
+
+      Then("they are all in flight at the same time")
+      customers.map(_.get.id.get) shouldBe (1 to 10).map(i => s"c$i")
+      elapsed should be < 1500L
+      api.requests.get shouldBe 10
+
+      ch.close()
+      single.shutdown()
+      api.close()
+    }
+
+    scenario("A failed request fails the stage") {
+      Given("an API that is unavailable")
+      val api = new FakeApi(_ => FakeResponse(503))
+      val ch = AsyncContactHub.builder(api.auth).build
+
+      When("I get a Customer")
+      val result = ch.getCustomer("c1").toCompletableFuture
+
+      Then("the stage fails with a ServerException")
+      val exception = the [ExecutionException] thrownBy result.get(10, TimeUnit.SECONDS)
+      exception.getCause shouldBe a [ServerException]
+
+      ch.close()
+      api.close()
+    }
+  }
+
+  feature("Executors") {
+    scenario("Responses are processed on the executor of the client") {
+      Given("a client with an executor of its own")
+      val api = new FakeApi(request =>
+        FakeResponse(200, customer(customerId(request.path)), delayMillis = 100))
+      val executor = Executors.newCachedThreadPool(named("caller-executor"))
+      val ch = AsyncContactHub.builder(api.auth).executor(executor).build
+
+      When("I get a Customer")
+      val thread = ch.getCustomer("c1")
+        .thenApply[String](_ => Thread.currentThread.getName)
+        .toCompletableFuture.get(10, TimeUnit.SECONDS)
+
+      Then("the stage completes on a thread of that executor")
+      thread shouldBe "caller-executor"
+
+      ch.close()
+      executor.shutdown()
+      api.close()
+    }
+
+    scenario("A transport without a non-blocking client runs on the executor") {
+      Given("a client whose transport only has blocking requests")
+      @volatile var thread = ""
+      val stub = new StubTransport(_ => {
+        thread = Thread.currentThread.getName
+        StubTransport.response(200, customer("c1"))
+      })
+      val executor = Executors.newCachedThreadPool(named("caller-executor"))
+      val ch = AsyncContactHub.builder(new Auth("token", "workspace", "node", "http://localhost"))
+        .transport(stub)
+        .executor(executor)
+        .build
+
+      When("I get a Customer")
+      ch.getCustomer("c1").toCompletableFuture.get(10, TimeUnit.SECONDS).id.get shouldBe "c1"
+
+      Then("the blocking request ran on a thread of that executor")
+      thread shouldBe "caller-executor"
+
+      ch.close()
+      executor.shutdown()
+    }
+
+    scenario("Virtual threads, where the runtime has them") {
+      Given("a client builder")
+      val api = new FakeApi(request => FakeResponse(200, customer(customerId(request.path))))
+      val builder = AsyncContactHub.builder(api.auth)
+
+      if (VirtualThreads.isSupported) {
+        When("I ask for virtual threads")
+        val ch = builder.virtualThreads().build
+
+        Then("the responses are processed on virtual threads")
+        val virtual = ch.getCustomer("c1")
+          .thenApply[Boolean](_ =>
+            classOf[Thread].getMethod("isVirtual").invoke(Thread.currentThread) == true)
+          .toCompletableFuture.get(10, TimeUnit.SECONDS)
+        virtual shouldBe true
+        ch.close()
+      } else {
+        When("I ask for virtual threads on a runtime without them, such as Java 8")
+        Then("UnsupportedOperationException is thrown immediately")
+        an [UnsupportedOperationException] should be thrownBy builder.virtualThreads()
+      }
+
+      api.close()
+    }
+  }
+
+}
@@ -0,0 +1,178 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.ContactHub
+import it.contactlab.hub.sdk.java.bulk._
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.models._
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.collection.JavaConverters._
+
+class BulkUpserterSpec extends FeatureSpec with GivenWhenThen {
+
+  def customer(externalId: String) = Customer.builder.nodeId("node").externalId(externalId).build
+
+  def json(id: String, externalId: String) =
+    s"""{"id":"$id","nodeId":"node","externalId":"$externalId"}"""
+
+  def externalId(body: String) =
+    "\"externalId\"\\s*:\\s*\"([^\"]+)\"".r.findFirstMatchIn(body).map(_.group(1)).get
+
+  /**
+   * An API that adds every Customer, with its external id as its id.
+   */
+  def adding = new FakeApi(request => {
+    val id = externalId(request.body)
+    FakeResponse(200, json(id, id))
+  })
+
+  def upsert(api: FakeApi, options: BulkOptions, customers: Seq[Customer]) = {
+    val ch = ContactHub.builder(api.auth).build
+    val upserter = ch.bulkUpserter(options)
+    val results = upserter.upsert(customers.asJava).iterator.asScala.toList
+    ch.close()
+    api.close()
+    (results, upserter.stats)
+  }
+
+  feature("Results") {
+    scenario("Each Customer has a result of its own") {
+      Given("an API that adds every Customer")
+      val api = adding
+
+      When("I upsert ten new Customers")
+      val customers = (0 until 10).map(i => customer(s"e$i"))
+      val (results, stats) = upsert(api, BulkOptions.builder.build, customers)
+
+      Then("each is added once, and its result tells which input it was")
+      results.map(_.index).sorted shouldBe (0L until 10L)
+      results.foreach { result =>
+        result.outcome shouldBe UpsertOutcome.ADDED
+        result.input shouldBe customers(result.index.toInt)
+        result.customer.get.id.get shouldBe result.input.externalId.get
+        result.attempts shouldBe 1
+      }
+      api.requests.get shouldBe 10
+
+      And("the stats count them")
+      stats.added shouldBe 10
+      stats.completed shouldBe 10
+      stats.failed shouldBe 0
+    }
+
+    scenario("A Customer that already exists is updated instead") {
+      Given("an API where the Customer 'e1' exists already")
+      val updates = new AtomicInteger
+      val api = new FakeApi(request => (request.method, request.path) match {
+        case ("POST", _) if externalId(request.body) == "e1" =>
+          FakeResponse(409, """{"message":"Conflict"}""")
+        case ("POST", _) =>
+          FakeResponse(200, json("new", externalId(request.body)))
+        case ("GET", _) if request.query.contains("externalId=e1") =>
+          FakeResponse(200, s"""{"elements":[${json("existing", "e1")}],
+            "page":{"number":0,"size":10,"totalElements":1,"totalPages":1}}""")
+        case ("PUT", path) if path.endsWith("/customers/existing") =>
+          updates.incrementAndGet()
+          FakeResponse(200, json("existing", "e1"))
+        case _ => FakeResponse(404)
+      })
+
+      When("I upsert it, and a new Customer")
+      val (results, stats) = upsert(api, BulkOptions.builder.build,
+        Seq(customer("e0"), customer("e1")))
+
+      Then("the new one is added, and the other updated by its external id")
+      val byIndex = results.map(result => result.index -> result).toMap
+      byIndex(0).outcome shouldBe UpsertOutcome.ADDED
+      byIndex(1).outcome shouldBe UpsertOutcome.UPDATED
+      byIndex(1).customer.get.id.get shouldBe "existing"
+      byIndex(1).attempts shouldBe 1
+      updates.get shouldBe 1
+      stats.conflicts shouldBe 1
+      stats.updated shouldBe 1
+      stats.added shouldBe 1
+    }
+
+    scenario("An error fails that Customer only") {
+      Given("an API that rejects one Customer, and answers another with malformed JSON")
+      val api = new FakeApi(request => externalId(request.body) match {
+        case "bad" => FakeResponse(400, """{"message":"Invalid customer"}""")
+        case "garbled" => FakeResponse(200, """{"id":""")
+        case id => FakeResponse(200, json(id, id))
+      })
+
+      When("I upsert them among others")
+      val customers = Seq("e0", "bad", "e2", "garbled", "e4").map(customer)
+      val (results, stats) = upsert(api, BulkOptions.builder.build, customers)
+
+      Then("both fail, with their errors, and the others are added")
+      results.size shouldBe 5
+      val byId = results.map(result => result.input.externalId.get -> result).toMap
+      byId("bad").outcome shouldBe UpsertOutcome.FAILED
+      byId("bad").error.get shouldBe an [ApiException]
+      byId("garbled").outcome shouldBe UpsertOutcome.FAILED
+      byId("garbled").error.get.getCause should not be null
+      Seq("e0", "e2", "e4").foreach(id => byId(id).outcome shouldBe UpsertOutcome.ADDED)
+      stats.failed shouldBe 2
+      stats.added shouldBe 3
+    }
+
+    scenario("Transient failures are retried") {
+      Given("an API that is unavailable for the first two attempts")
+      val attempts = new AtomicInteger
+      val api = new FakeApi(request =>
+        if (attempts.incrementAndGet() <= 2) FakeResponse(503)
+        else FakeResponse(200, json("e0", "e0")))
+
+      When("I upsert a Customer")
+      val options = BulkOptions.builder
+        .retryBackoff(Duration.ofMillis(10))
+        .maxRetryBackoff(Duration.ofMillis(20))
+        .build
+      val (results, stats) = upsert(api, options, Seq(customer("e0")))
+
+      Then("it is added at the third attempt")
+      results.map(_.outcome) shouldBe Seq(UpsertOutcome.ADDED)
+      results.head.attempts shouldBe 3
+      stats.retries shouldBe 2
+    }
+  }
+
+  feature("Concurrency") {
+    scenario("No more than 'concurrency' writes run at the same time") {
+      Given("an API that counts its concurrent requests")
+      val current = new AtomicInteger
+      val highest = new AtomicInteger
+      val api = new FakeApi(request => {
+        highest.accumulateAndGet(current.incrementAndGet(), (a, b) => Math.max(a, b))
+        Thread.sleep(20)
+        current.decrementAndGet()
+        val id = externalId(request.body)
+        FakeResponse(200, json(id, id))
+      })
+
+      When("I upsert 30 Customers, 3 at a time")
+      val customers = (0 until 30).map(i => customer(s"e$i"))
+      val (results, stats) = upsert(api, BulkOptions.builder.concurrency(3).build, customers)
+
+      Then("they are all added, never more than 3 at a time")
+      results.size shouldBe 30
+      stats.added shouldBe 30
+      highest.get should (be > 1 and be <= 3)
+      stats.throughput should be > 0.0
+    }
+
+    scenario("Invalid options") {
+      Then("IllegalArgumentException is thrown immediately")
+      an [IllegalArgumentException] should be thrownBy BulkOptions.builder.concurrency(0).build
+      an [IllegalArgumentException] should be thrownBy BulkOptions.builder.maxRetries(-1).build
+    }
+  }
+
+}
@@ -0,0 +1,238 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.ContactHub
+import it.contactlab.hub.sdk.java.Auth
+import it.contactlab.hub.sdk.java.cache._
+import it.contactlab.hub.sdk.java.models._
+
+import java.time.Duration
+import java.util.Arrays
+import java.util.Collections
+import java.util.Optional
+import java.util.concurrent.ForkJoinPool
+
+import org.scalatest.FeatureSpec
+import org.scalatest.Matchers._
+import org.scalatest.GivenWhenThen
+
+class CacheSpec extends FeatureSpec with GivenWhenThen {
+
+  val auth = new Auth(
+    sys.env("CONTACTHUB_TEST_TOKEN"),
+    sys.env("CONTACTHUB_TEST_WORKSPACE_ID"),
+    sys.env("CONTACTHUB_TEST_NODE_ID")
+  )
+
+  val customerId = "b765329a-84b2-4380-bfa5-fa4ec33d3b82"
+
+  def customer(id: String) = Customer.builder.id(id).nodeId("node").build
+
+  def customer(id: String, externalId: String) =
+    Customer.builder.id(id).nodeId("node").externalId(externalId).build
+
+  /**
+   * A lookup of the external ids 'known', that counts its calls.
+   */
+  class CountingLookup(known: Map[String, Seq[Customer]]) extends CustomerIdResolver.Lookup {
+    var calls = 0
+
+    def find(externalId: String) = {
+      calls += 1
+      Arrays.asList(known.getOrElse(externalId, Seq.empty): _*)
+    }
+  }
+
+  feature("Customer cache") {
+    scenario("Reading the same customer twice", Integration) {
+      Given("a client with a customer cache")
+      val ch = ContactHub.builder(auth)
+        .customerCache(CacheOptions.builder.build)
+        .build
+
+      When("I get the same customer twice")
+      ch.getCustomer(customerId)
+      ch.getCustomer(customerId)
+
+      Then("the second read is a hit")
+      val stats = ch.customerCache.get.stats
+      stats.misses shouldBe 1
+      stats.hits shouldBe 1
+
+      ch.close()
+    }
+
+    scenario("Evicting the least recently used customer") {
+      Given("a cache with room for two customers")
+      val cache = new CustomerCache(
+        CacheOptions.builder.maximumWeight(2).build, ForkJoinPool.commonPool)
+      var loads = 0
+      val loader: CustomerCache.Loader = id => { loads += 1; customer(id) }
+
+      When("I read three customers, touching the first one again")
+      cache.get("a", loader)
+      cache.get("b", loader)
+      cache.get("a", loader)
+      cache.get("c", loader)
+
+      Then("the second one is evicted")
+      cache.size shouldBe 2
+      cache.stats.evictions shouldBe 1
+      cache.get("a", loader)
+      loads shouldBe 3
+    }
+
+    scenario("Writes replace the cached customer") {
+      Given("a cached customer")
+      val cache = new CustomerCache(CacheOptions.builder.build, ForkJoinPool.commonPool)
+      val loader: CustomerCache.Loader = id => customer(id)
+      cache.get("a", loader)
+
+      When("it is updated, then deleted")
+      val updated = Customer.builder.id("a").nodeId("node").externalId("ext").build
+      cache.put(updated)
+
+      Then("the cache returns the updated version, then nothing")
+      cache.get("a", loader) shouldBe updated
+      cache.invalidate("a")
+      cache.size shouldBe 0
+    }
+
+    scenario("A load that races with a write to the same customer is not stored") {
+      Given("a load during which the customer is updated")
+      val cache = new CustomerCache(CacheOptions.builder.build, ForkJoinPool.commonPool)
+      val updated = Customer.builder.id("a").nodeId("node").externalId("ext").build
+      val loader: CustomerCache.Loader = id => { cache.invalidate(id); customer(id) }
+
+      When("the load completes")
+      cache.get("a", loader)
+
+      Then("the loaded version is not cached")
+      cache.size shouldBe 0
+      cache.put(updated)
+      cache.get("a", loader) shouldBe updated
+    }
+
+    scenario("Writes to other customers do not affect a load") {
+      Given("a load during which other customers are written")
+      val cache = new CustomerCache(CacheOptions.builder.build, ForkJoinPool.commonPool)
+      val loader: CustomerCache.Loader = id => {
+        cache.put(customer("b"))
+        cache.invalidate("c")
+        customer(id)
+      }
+
+      When("the load completes")
+      cache.get("a", loader)
+
+      Then("the loaded customer is cached")
+      cache.getIfPresent("a").isPresent shouldBe true
+      cache.size shouldBe 2
+    }
+
+    scenario("A failed load is forgotten") {
+      Given("a load that fails")
+      val cache = new CustomerCache(CacheOptions.builder.build, ForkJoinPool.commonPool)
+      val failing: CustomerCache.Loader = _ => throw new IllegalStateException("down")
+      an [IllegalStateException] should be thrownBy cache.get("a", failing)
+
+      When("the customer is loaded again")
+      cache.get("a", id => customer(id))
+
+      Then("it is cached")
+      cache.size shouldBe 1
+    }
+  }
+
+  feature("Customer id resolver") {
+    scenario("An unknown external id is remembered for 'negativeTtl'") {
+      Given("a resolver that remembers unknown external ids for 100ms")
+      val lookup = new CountingLookup(Map.empty)
+      val resolver = new CustomerIdResolver(ResolverOptions.builder
+        .negativeTtl(Duration.ofMillis(100))
+        .build, lookup)
+
+      When("I resolve an unknown external id twice")
+      resolver.resolve("ext") shouldBe Optional.empty()
+      resolver.resolve("ext") shouldBe Optional.empty()
+
+      Then("it is looked up once")
+      lookup.calls shouldBe 1
+      resolver.stats.hits shouldBe 1
+
+      And("once expired, it is looked up again")
+      Thread.sleep(150)
+      resolver.resolve("ext") shouldBe Optional.empty()
+      lookup.calls shouldBe 2
+      resolver.stats.expirations shouldBe 1
+    }
+
+    scenario("An external id shared by several Customers is not resolved") {
+      Given("two Customers with the same external id")
+      val lookup = new CountingLookup(Map("ext" -> Seq(customer("a", "ext"), customer("b", "ext"))))
+      val resolver = new CustomerIdResolver(ResolverOptions.builder.build, lookup)
+
+      Then("it resolves to an empty Optional, remembered like an unknown one")
+      resolver.resolve("ext") shouldBe Optional.empty()
+      resolver.resolve("ext") shouldBe Optional.empty()
+      lookup.calls shouldBe 1
+    }
+
+    scenario("Warming up with known Customers") {
+      Given("an empty resolver")
+      val lookup = new CountingLookup(Map.empty)
+      val resolver = new CustomerIdResolver(ResolverOptions.builder.build, lookup)
+
+      When("I add Customers, one of them without an external id")
+      val added = resolver.addAll(Arrays.asList(
+        customer("a", "ext-a"), customer("b", "ext-b"), customer("c")))
+
+      Then("the others are resolved without lookups")
+      added shouldBe 2
+      resolver.peek("ext-a") shouldBe Optional.of("a")
+      resolver.resolve("ext-b") shouldBe Optional.of("b")
+      lookup.calls shouldBe 0
+      resolver.size shouldBe 2
+    }
+
+    scenario("Forgetting a deleted Customer") {
+      Given("a resolver that knows a Customer")
+      val lookup = new CountingLookup(Map.empty)
+      val resolver = new CustomerIdResolver(ResolverOptions.builder.build, lookup)
+      resolver.add(customer("a", "ext"))
+
+      When("the Customer is invalidated by its id")
+      resolver.invalidateCustomer("a")
+
+      Then("its external id is looked up again")
+      resolver.peek("ext") shouldBe Optional.empty()
+      resolver.resolve("ext") shouldBe Optional.empty()
+      lookup.calls shouldBe 1
+    }
+
+    scenario("A lookup that races with a write is not stored") {
+      Given("a lookup during which a Customer with the same external id is created")
+      var resolver: CustomerIdResolver = null
+      val lookup: CustomerIdResolver.Lookup = externalId => {
+        resolver.add(customer("new", externalId))
+        Collections.singletonList(customer("old", externalId))
+      }
+      resolver = new CustomerIdResolver(ResolverOptions.builder.build, lookup)
+
+      When("I resolve the external id")
+      val resolved = resolver.resolve("ext")
+
+      Then("the lookup result is returned, but the write is kept")
+      resolved shouldBe Optional.of("old")
+      resolver.peek("ext") shouldBe Optional.of("new")
+      resolver.size shouldBe 1
+    }
+
+    scenario("Invalid options") {
+      Then("IllegalArgumentException is thrown immediately")
+      an [IllegalArgumentException] should be thrownBy
+        ResolverOptions.builder.negativeTtl(Duration.ZERO).build
+      an [IllegalArgumentException] should be thrownBy ResolverOptions.builder.maximumSize(0).build
+    }
+  }
+
+}
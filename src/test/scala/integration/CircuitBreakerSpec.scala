@@ -0,0 +1,202 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.circuit._
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.http._
+
+import java.io.InterruptedIOException
+import java.net.SocketTimeoutException
+import java.time.Duration
+
+import org.apache.http.conn.ConnectTimeoutException
+import org.apache.http.conn.ConnectionPoolTimeoutException
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.collection.mutable.ArrayBuffer
+
+class CircuitBreakerSpec extends FeatureSpec with GivenWhenThen {
+
+  val options = CircuitBreakerOptions.builder
+    .windowSize(4)
+    .minimumCalls(4)
+    .failureRateThreshold(0.5)
+    .openDuration(Duration.ofMillis(100))
+    .halfOpenCalls(2)
+    .build
+
+  def transitions(breaker: CircuitBreaker) = {
+    val changes = ArrayBuffer[(String, CircuitState, CircuitState)]()
+    breaker.addListener(new StateChangeListener {
+      def onStateChange(group: String, from: CircuitState, to: CircuitState): Unit =
+        changes.synchronized { changes += ((group, from, to)) }
+    })
+    changes
+  }
+
+  def call(breaker: CircuitBreaker, failure: Boolean) =
+    breaker.tryAcquire.get.record(failure)
+
+  feature("Circuit states") {
+    scenario("Closed, open, half-open and closed again") {
+      Given("a closed circuit")
+      val breaker = new CircuitBreaker("customers", options)
+      val changes = transitions(breaker)
+      breaker.state shouldBe CircuitState.CLOSED
+
+      When("half of the calls of a full window fail")
+      Seq(false, true, false, true).foreach(call(breaker, _))
+
+      Then("the circuit opens, and refuses requests")
+      breaker.state shouldBe CircuitState.OPEN
+      breaker.tryAcquire.isPresent shouldBe false
+      breaker.rejected shouldBe 1
+
+      When("'openDuration' has passed")
+      Thread.sleep(150)
+
+      Then("'halfOpenCalls' trial requests are let through")
+      val trials = Seq(breaker.tryAcquire, breaker.tryAcquire)
+      trials.forall(_.isPresent) shouldBe true
+      breaker.state shouldBe CircuitState.HALF_OPEN
+      breaker.tryAcquire.isPresent shouldBe false
+
+      When("they succeed")
+      trials.foreach(_.get.record(false))
+
+      Then("the circuit closes, and the listener saw every change")
+      breaker.state shouldBe CircuitState.CLOSED
+      changes shouldBe Seq(
+        ("customers", CircuitState.CLOSED, CircuitState.OPEN),
+        ("customers", CircuitState.OPEN, CircuitState.HALF_OPEN),
+        ("customers", CircuitState.HALF_OPEN, CircuitState.CLOSED))
+    }
+
+    scenario("A failed trial opens the circuit again") {
+      Given("a half-open circuit")
+      val breaker = new CircuitBreaker("events", options)
+      (1 to 4).foreach(_ => call(breaker, true))
+      Thread.sleep(150)
+      val trials = Seq(breaker.tryAcquire, breaker.tryAcquire)
+
+      When("one of the trial requests fails")
+      trials.head.get.record(true)
+      trials.last.get.record(false)
+
+      Then("the circuit opens for another 'openDuration'")
+      breaker.state shouldBe CircuitState.OPEN
+      breaker.tryAcquire.isPresent shouldBe false
+    }
+
+    scenario("Too few calls do not open the circuit") {
+      Given("a closed circuit")
+      val breaker = new CircuitBreaker("customers", options)
+
+      When("fewer than 'minimumCalls' calls fail")
+      (1 to 3).foreach(_ => call(breaker, true))
+
+      Then("it stays closed")
+      breaker.state shouldBe CircuitState.CLOSED
+    }
+
+    scenario("Outcomes from before a state change are ignored") {
+      Given("a request started while the circuit was closed")
+      val breaker = new CircuitBreaker("customers", options)
+      val late = breaker.tryAcquire.get
+
+      When("the circuit opens, and then the request fails")
+      (1 to 4).foreach(_ => call(breaker, true))
+      Thread.sleep(150)
+      val trials = Seq(breaker.tryAcquire, breaker.tryAcquire)
+      late.record(true)
+      trials.foreach(_.get.record(false))
+
+      Then("its failure does not count against the trials")
+      breaker.state shouldBe CircuitState.CLOSED
+    }
+
+    scenario("A failing listener does not fail the request") {
+      Given("a listener that throws")
+      val breaker = new CircuitBreaker("customers", options)
+      breaker.addListener(new StateChangeListener {
+        def onStateChange(group: String, from: CircuitState, to: CircuitState): Unit =
+          throw new IllegalStateException("listener")
+      })
+
+      When("the circuit opens")
+      (1 to 4).foreach(_ => call(breaker, true))
+
+      Then("the state still changes")
+      breaker.state shouldBe CircuitState.OPEN
+    }
+  }
+
+  feature("Failures of the transport") {
+    def failing(cause: java.io.IOException) = {
+      val transport = new CircuitBreakingHttpTransport(
+        new StubTransport(_ => throw new HttpException(cause)), options)
+      (1 to 4).foreach { _ =>
+        an [HttpException] should be thrownBy transport.execute(StubTransport.request())
+      }
+      transport.breaker("customers").state
+    }
+
+    scenario("Timeouts count as failures") {
+      Given("requests that time out while connecting, reading, or waiting for a connection")
+      Then("the circuit opens for each kind of timeout")
+      failing(new ConnectTimeoutException("connect")) shouldBe CircuitState.OPEN
+      failing(new SocketTimeoutException("read")) shouldBe CircuitState.OPEN
+      failing(new ConnectionPoolTimeoutException("pool")) shouldBe CircuitState.OPEN
+    }
+
+    scenario("Interrupts do not count") {
+      Given("requests whose caller was interrupted")
+      Then("the circuit stays closed")
+      failing(new InterruptedIOException("interrupted")) shouldBe CircuitState.CLOSED
+    }
+
+    scenario("Requests to an open circuit are not sent") {
+      Given("a transport whose requests fail with 503")
+      val stub = new StubTransport(_ => StubTransport.response(503))
+      val transport = new CircuitBreakingHttpTransport(stub, options)
+
+      When("the circuit of their group opens")
+      (1 to 4).foreach(_ => transport.execute(StubTransport.request()).statusCode shouldBe 503)
+
+      Then("the next request fails at once, and only for that group")
+      val exception = the [CircuitOpenException] thrownBy transport.execute(StubTransport.request())
+      exception.getGroup shouldBe "customers"
+      stub.requests.get shouldBe 4
+      transport.execute(StubTransport.request(
+        url = "http://localhost/workspaces/workspace/events")).statusCode shouldBe 503
+    }
+
+    scenario("A trial request that throws an Error still counts") {
+      Given("a half-open circuit, whose trial requests throw an Error")
+      @volatile var error = false
+      val transport = new CircuitBreakingHttpTransport(new StubTransport(_ =>
+        if (error) throw new AssertionError("broken") else StubTransport.response(503)), options)
+      (1 to 4).foreach(_ => transport.execute(StubTransport.request()))
+      Thread.sleep(150)
+      error = true
+
+      When("both trials are sent")
+      (1 to 2).foreach { _ =>
+        an [AssertionError] should be thrownBy transport.execute(StubTransport.request())
+      }
+
+      Then("they count as failures, and the circuit opens again")
+      val breaker = transport.breaker("customers")
+      breaker.state shouldBe CircuitState.OPEN
+
+      And("after 'openDuration' new trials are let through")
+      Thread.sleep(150)
+      error = false
+      transport.execute(StubTransport.request()).statusCode shouldBe 503
+      breaker.state shouldBe CircuitState.HALF_OPEN
+    }
+  }
+
+}
@@ -0,0 +1,184 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.ClientData
+import it.contactlab.hub.sdk.java.ContactHub
+import it.contactlab.hub.sdk.java.batch._
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.http._
+import it.contactlab.hub.sdk.java.models.Customer
+
+import java.net.URLDecoder
+import java.time.Duration
+import java.util.Optional
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.collection.JavaConversions._
+import scala.collection.mutable.ArrayBuffer
+
+class CustomerBatcherSpec extends FeatureSpec with GivenWhenThen {
+
+  val executor = Executors.newCachedThreadPool { runnable =>
+    val thread = new Thread(runnable, "customer-batcher-spec")
+    thread.setDaemon(true)
+    thread
+  }
+
+  /**
+   * A node with the Customers 'existing', answering queries on their ids
+   * with at most 'pageSize' of them per page, and recording the ids asked.
+   */
+  class NodeApi(existing: Set[String], pageSize: Int = 100, status: Int = 200) {
+    val queries = ArrayBuffer[Seq[String]]()
+
+    val api = new FakeApi(request => {
+      val query = URLDecoder.decode(request.query, "UTF-8")
+      val ids = "\"(c\\d+)\"".r.findAllMatchIn(query).map(_.group(1)).toSeq
+      val number = "(?:^|&)page=(\\d+)".r
+        .findFirstMatchIn(query).map(_.group(1).toInt).getOrElse(0)
+      queries.synchronized(queries += ids)
+
+      val found = ids.filter(existing)
+      val elements = found.slice(number * pageSize, (number + 1) * pageSize).map(id =>
+        s"""{"id":"$id","nodeId":"node"}""")
+      val totalPages = (found.size + pageSize - 1) / pageSize
+      if (status != 200) FakeResponse(status) else FakeResponse(200,
+        s"""{"elements":[${elements.mkString(",")}],
+          "page":{"number":$number,"size":$pageSize,
+          "totalElements":${found.size},"totalPages":$totalPages}}""")
+    })
+
+    def batcher(options: BatchOptions) = new CustomerBatcher(api.auth,
+      new ClientData("customer-batcher-spec"), new PooledHttpTransport, executor, options)
+  }
+
+  def id(customer: Optional[Customer]) = customer.get.id.get
+
+  feature("Batches") {
+    scenario("Ids requested within the window are loaded with a single query") {
+      Given("a batcher with a window of 200ms")
+      val node = new NodeApi(Set("c1", "c2", "c3"))
+      val batcher = node.batcher(BatchOptions.builder.window(Duration.ofMillis(200)).build)
+
+      When("I load three ids, one of them twice")
+      val futures = Seq("c1", "c2", "c3", "c1").map(batcher.load)
+
+      Then("each gets its Customer, with a single request")
+      futures.map(future => id(future.get(5, TimeUnit.SECONDS))) shouldBe
+        Seq("c1", "c2", "c3", "c1")
+      node.api.requests.get shouldBe 1
+      node.queries.head.sorted shouldBe Seq("c1", "c2", "c3")
+
+      node.api.close()
+    }
+
+    scenario("A full batch is sent without waiting for the window") {
+      Given("a batcher of up to two ids, with a window of a minute")
+      val node = new NodeApi(Set("c1", "c2", "c3"))
+      val batcher = node.batcher(BatchOptions.builder
+        .maxBatchSize(2)
+        .window(Duration.ofMinutes(1))
+        .build)
+
+      When("I load three ids")
+      val futures = Seq("c1", "c2", "c3").map(batcher.load)
+
+      Then("the first two are loaded at once, and the third waits")
+      id(futures(0).get(5, TimeUnit.SECONDS)) shouldBe "c1"
+      id(futures(1).get(5, TimeUnit.SECONDS)) shouldBe "c2"
+      futures(2).isDone shouldBe false
+      node.api.requests.get shouldBe 1
+
+      And("flush() sends it")
+      batcher.flush()
+      id(futures(2).get(5, TimeUnit.SECONDS)) shouldBe "c3"
+      node.api.requests.get shouldBe 2
+
+      node.api.close()
+    }
+
+    scenario("A missing id gets an empty Optional") {
+      Given("a node without the Customer 'c2'")
+      val node = new NodeApi(Set("c1"))
+      val batcher = node.batcher(BatchOptions.builder.build)
+
+      When("I load it along with another")
+      val customers = batcher.loadAll(Seq("c1", "c2")).get(5, TimeUnit.SECONDS)
+
+      Then("it is empty, and the other is found")
+      id(customers("c1")) shouldBe "c1"
+      customers("c2") shouldBe Optional.empty()
+
+      node.api.close()
+    }
+
+    scenario("A failed query fails every id of the batch") {
+      Given("an API that is unavailable")
+      val node = new NodeApi(Set("c1", "c2"), status = 503)
+      val batcher = node.batcher(BatchOptions.builder.window(Duration.ofMillis(100)).build)
+
+      When("I load two ids")
+      val futures = Seq("c1", "c2").map(batcher.load)
+
+      Then("both fail with the same exception")
+      val causes = futures.map(future =>
+        (the [ExecutionException] thrownBy future.get(5, TimeUnit.SECONDS)).getCause)
+      causes.head shouldBe a [ServerException]
+      causes(1) should be theSameInstanceAs causes.head
+      node.api.requests.get shouldBe 1
+
+      node.api.close()
+    }
+
+    scenario("The Customers of every page are collected") {
+      Given("an API answering at most two Customers per page")
+      val node = new NodeApi((1 to 5).map(i => s"c$i").toSet, pageSize = 2)
+      val batcher = node.batcher(BatchOptions.builder.build)
+
+      When("I load five ids")
+      val ids = (1 to 5).map(i => s"c$i")
+      val customers = batcher.loadAll(ids).get(5, TimeUnit.SECONDS)
+
+      Then("all of them are found, with a request for each page")
+      customers.keys.toSeq shouldBe ids
+      customers.values.map(id) shouldBe ids
+      node.api.requests.get shouldBe 3
+
+      node.api.close()
+    }
+
+    scenario("Invalid options") {
+      Then("IllegalArgumentException is thrown immediately")
+      an [IllegalArgumentException] should be thrownBy BatchOptions.builder.maxBatchSize(0).build
+      an [IllegalArgumentException] should be thrownBy
+        BatchOptions.builder.window(Duration.ofMillis(-1)).build
+    }
+  }
+
+  feature("Many Customers by id") {
+    scenario("They are loaded with a single query, in the order given") {
+      Given("a node without the Customer 'c2'")
+      val node = new NodeApi(Set("c1", "c3"))
+      val ch = ContactHub.builder(node.api.auth).executor(executor).build
+
+      When("I get three Customers")
+      val customers = ch.getCustomers(Seq("c3", "c2", "c1"))
+
+      Then("each id has its Customer, or an empty Optional, after a single request")
+      customers.keys.toSeq shouldBe Seq("c3", "c2", "c1")
+      id(customers("c3")) shouldBe "c3"
+      customers("c2") shouldBe Optional.empty()
+      id(customers("c1")) shouldBe "c1"
+      node.api.requests.get shouldBe 1
+
+      ch.close()
+      node.api.close()
+    }
+  }
+
+}
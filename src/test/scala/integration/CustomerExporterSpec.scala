@@ -0,0 +1,189 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.ContactHub
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.export._
+import it.contactlab.hub.sdk.java.models._
+
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.FileInputStream
+import java.io.InputStream
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.util.zip.GZIPInputStream
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.collection.mutable.ArrayBuffer
+import scala.io.Source
+
+class CustomerExporterSpec extends FeatureSpec with GivenWhenThen {
+
+  val pageSize = 2
+  val ids = (0 until 12).map(i => f"c$i%02d")
+
+  /**
+   * A node with twelve Customers, two per page, whose pages from 'failFrom'
+   * on fail until 'failFrom' is moved past them.
+   */
+  class NodeApi {
+    @volatile var failFrom = Int.MaxValue
+    val pages = ArrayBuffer[Int]()
+
+    val api = new FakeApi(request => {
+      val number = "(?:^|&)page=(\\d+)".r
+        .findFirstMatchIn(request.query).map(_.group(1).toInt).getOrElse(0)
+      pages.synchronized(pages += number)
+
+      val elements = ids.slice(number * pageSize, (number + 1) * pageSize).map(id =>
+        s"""{"id":"$id","nodeId":"node"}""")
+      if (number >= failFrom) FakeResponse(503) else FakeResponse(200,
+        s"""{"elements":[${elements.mkString(",")}],
+          "page":{"number":$number,"size":$pageSize,
+          "totalElements":${ids.size},"totalPages":${ids.size / pageSize}}}""")
+    })
+
+    val ch = ContactHub.builder(api.auth).build
+
+    def exporter(gzip: Boolean) = ch.customerExporter(ExportOptions.builder
+      .customers(GetCustomersOptions.builder.pageSize(pageSize).build)
+      .concurrency(1)
+      .checkpointInterval(2)
+      .gzip(gzip)
+      .build)
+
+    def close(): Unit = {
+      ch.close()
+      api.close()
+    }
+  }
+
+  def exported(input: InputStream) =
+    Source.fromInputStream(input, "UTF-8").getLines.map(line =>
+      "\"id\":\"(\\w+)\"".r.findFirstMatchIn(line).get.group(1)).toList
+
+  def read(file: Path, gzip: Boolean) = {
+    val input = new FileInputStream(file.toFile)
+    try exported(if (gzip) new GZIPInputStream(input) else input) finally input.close()
+  }
+
+  def temporaryFile(suffix: String) = {
+    val file = Files.createTempFile("customer-exporter-spec", suffix)
+    file.toFile.deleteOnExit()
+    CustomerExporter.checkpointFile(file).toFile.deleteOnExit()
+    file
+  }
+
+  /**
+   * Exports to 'file' with an API failing at page 5, after the checkpoint
+   * of page 4 was saved.
+   */
+  def failMidExport(node: NodeApi, file: Path, gzip: Boolean) = {
+    node.failFrom = 5
+    a [ServerException] should be thrownBy node.exporter(gzip).export(file)
+    node.failFrom = Int.MaxValue
+    node.pages.clear()
+  }
+
+  feature("Resuming an export") {
+    scenario("A failed export resumes from its last checkpoint") {
+      Given("an export to a file that failed at page 5")
+      val node = new NodeApi
+      val file = temporaryFile(".ndjson")
+      failMidExport(node, file, false)
+
+      Then("the checkpoint points to the end of the 4 pages written before it")
+      val checkpoint = CustomerExporter.checkpointFile(file)
+      Files.exists(checkpoint) shouldBe true
+      val saved = new String(Files.readAllBytes(checkpoint), "UTF-8")
+      saved should include ("\"nextPage\":4")
+      saved should include (s""""bytes":${Files.size(file)}""")
+      read(file, false) shouldBe ids.take(8)
+
+      When("I run it again, with the same options")
+      val exporter = node.exporter(false)
+      exporter.export(file)
+
+      Then("it starts from page 4, and the file has every Customer once, in order")
+      node.pages.head shouldBe 4
+      node.pages.toSet shouldBe (4 until 6).toSet
+      read(file, false) shouldBe ids
+      exporter.progress.customers shouldBe 12
+
+      And("the checkpoint is removed")
+      Files.exists(checkpoint) shouldBe false
+
+      node.close()
+    }
+
+    scenario("Bytes written after the checkpoint are discarded") {
+      Given("a failed export, whose file has a partial line after the checkpoint")
+      val node = new NodeApi
+      val file = temporaryFile(".ndjson")
+      failMidExport(node, file, false)
+      Files.write(file, "{\"id\":\"partial".getBytes("UTF-8"), StandardOpenOption.APPEND)
+
+      When("I run it again")
+      node.exporter(false).export(file)
+
+      Then("the file is truncated to the checkpoint before the next pages are written")
+      read(file, false) shouldBe ids
+
+      node.close()
+    }
+
+    scenario("A gzipped export is resumed with a new gzip member") {
+      Given("a gzipped export that failed at page 5")
+      val node = new NodeApi
+      val file = temporaryFile(".ndjson.gz")
+      failMidExport(node, file, true)
+
+      When("I run it again")
+      node.exporter(true).export(file)
+
+      Then("the file decompresses as a single stream, with every Customer once")
+      read(file, true) shouldBe ids
+
+      node.close()
+    }
+
+    scenario("A checkpoint of an export with other options is refused") {
+      Given("a plain export that failed at page 5")
+      val node = new NodeApi
+      val file = temporaryFile(".ndjson")
+      failMidExport(node, file, false)
+
+      When("I run it again, gzipped")
+      Then("IllegalStateException is thrown, and the file is left alone")
+      val exception = the [IllegalStateException] thrownBy node.exporter(true).export(file)
+      exception.getMessage should include ("different options")
+      read(file, false) shouldBe ids.take(8)
+      node.pages shouldBe empty
+
+      node.close()
+    }
+  }
+
+  feature("Exporting to a stream") {
+    scenario("Every Customer is written, in order") {
+      Given("a node with twelve Customers")
+      val node = new NodeApi
+
+      When("I export them to a stream")
+      val output = new ByteArrayOutputStream
+      val exporter = node.exporter(false)
+      exporter.export(output)
+
+      Then("the stream has one line for each of them, in order")
+      exported(new ByteArrayInputStream(output.toByteArray)) shouldBe ids
+      exporter.progress.bytes shouldBe output.size
+
+      node.close()
+    }
+  }
+
+}
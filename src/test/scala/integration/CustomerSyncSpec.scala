@@ -0,0 +1,110 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.ContactHub
+import it.contactlab.hub.sdk.java.models._
+import it.contactlab.hub.sdk.java.sync._
+
+import java.net.URLDecoder
+import java.time.OffsetDateTime
+import java.util.Optional
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.collection.JavaConversions._
+import scala.collection.mutable.ArrayBuffer
+
+class CustomerSyncSpec extends FeatureSpec with GivenWhenThen {
+
+  val updatedAt = "2020-01-01T00:00:00.000Z"
+
+  /**
+   * A node whose Customers were all updated at the same time: queries on
+   * updatedAt equal to it answer the Customers in the order 'order(n)' for
+   * the n-th of them, and the others answer them in id order.
+   */
+  class SameTimeApi(ids: Seq[String], pageSize: Int, order: Int => Seq[String]) {
+    val equalQueries = new AtomicInteger
+
+    val api = new FakeApi(request => {
+      val query = URLDecoder.decode(request.query, "UTF-8")
+      val operator = "\"operator\"\\s*:\\s*\"(\\w+)\"".r
+        .findFirstMatchIn(query).map(_.group(1).toUpperCase).getOrElse("")
+      val number = "(?:^|&)page=(\\d+)".r
+        .findFirstMatchIn(query).map(_.group(1).toInt).getOrElse(0)
+
+      val matching = operator match {
+        case "EQUALS" => order(equalQueries.getAndIncrement())
+        case "GT" => Seq.empty
+        case _ => ids
+      }
+      FakeResponse(200, page(matching, number))
+    })
+
+    private def page(matching: Seq[String], number: Int) = {
+      val elements = matching.slice(number * pageSize, (number + 1) * pageSize).map(id =>
+        s"""{"id":"$id","nodeId":"node","updatedAt":"$updatedAt"}""")
+      val totalPages = (matching.size + pageSize - 1) / pageSize
+      s"""{"elements":[${elements.mkString(",")}],
+        "page":{"number":$number,"size":$pageSize,
+        "totalElements":${matching.size},"totalPages":$totalPages}}"""
+    }
+  }
+
+  class MemoryStore extends WatermarkStore {
+    @volatile var watermark: Optional[OffsetDateTime] = Optional.empty()
+
+    def load() = watermark
+
+    def save(value: OffsetDateTime): Unit = watermark = Optional.of(value)
+  }
+
+  def sync(fake: SameTimeApi, pageSize: Int) = {
+    val ch = ContactHub.builder(fake.api.auth).build
+    val delivered = ArrayBuffer[String]()
+    val store = new MemoryStore
+    val count = ch.customerSync(SyncOptions.builder.pageSize(pageSize).build, store)
+      .sync(changes => delivered ++= changes.map(_.id.get))
+    ch.close()
+    fake.api.close()
+    (count, delivered, store)
+  }
+
+  feature("Customers with the same updatedAt") {
+    scenario("More of them than a page holds are all delivered") {
+      Given("five Customers updated at the same time, and pages of two")
+      val ids = (1 to 5).map(i => s"c$i")
+      val fake = new SameTimeApi(ids, 2, _ => ids)
+
+      When("I sync")
+      val (count, delivered, store) = sync(fake, 2)
+
+      Then("each is delivered once, with a single pass over the pages")
+      count shouldBe 5
+      delivered.sorted shouldBe ids
+      fake.equalQueries.get shouldBe 3
+      store.watermark shouldBe Optional.of(OffsetDateTime.parse(updatedAt))
+    }
+
+    scenario("An order that changes between pages skips none of them") {
+      Given("an API whose order of equal Customers changes at every page")
+      val ids = (1 to 5).map(i => s"c$i")
+      val shuffled = Seq(
+        Seq("c1", "c2", "c3", "c4", "c5"),
+        Seq("c1", "c2", "c4", "c3", "c5"),
+        Seq("c1", "c2", "c3", "c5", "c4"))
+      val fake = new SameTimeApi(ids, 2, n => if (n < 3) shuffled(n) else ids)
+
+      When("I sync, and the first pass over the pages misses a Customer")
+      val (count, delivered, _) = sync(fake, 2)
+
+      Then("the pages are read again until it is found, and each is delivered once")
+      count shouldBe 5
+      delivered.sorted shouldBe ids
+      fake.equalQueries.get shouldBe 6
+    }
+  }
+
+}
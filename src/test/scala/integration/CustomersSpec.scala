@@ -14,10 +14,12 @@ import org.scalacheck.Gen
 import org.scalatest.FeatureSpec
 import org.scalatest.Matchers._
 import org.scalatest.GivenWhenThen
+import org.scalatest.BeforeAndAfterAll
 
 import scala.collection.convert.ImplicitConversions._
 
-class CustomersSpec extends FeatureSpec with GivenWhenThen with DataGenerators {
+class CustomersSpec extends FeatureSpec with GivenWhenThen with
+    DataGenerators with BeforeAndAfterAll {
 
   val auth = new Auth(
     sys.env("CONTACTHUB_TEST_TOKEN"),
@@ -26,6 +28,8 @@ class CustomersSpec extends FeatureSpec with GivenWhenThen with DataGenerators {
   )
 
   val ch = new ContactHub(auth)
+
+  override def afterAll(): Unit = ch.close()
   val customerId = "b765329a-84b2-4380-bfa5-fa4ec33d3b82"
   val extIdSingle = "test-extIdSingle"
   val extIdMultiple = "multipleExternalIdTest"
@@ -8,8 +8,9 @@ import it.contactlab.hub.sdk.java.exceptions._
 import org.scalatest.FeatureSpec
 import org.scalatest.Matchers._
 import org.scalatest.GivenWhenThen
+import org.scalatest.BeforeAndAfterAll
 
-class ErrorSpec extends FeatureSpec with GivenWhenThen with DataGenerators {
+class ErrorSpec extends FeatureSpec with GivenWhenThen with DataGenerators with BeforeAndAfterAll {
 
   val auth = new Auth(
     sys.env("CONTACTHUB_TEST_TOKEN"),
@@ -19,6 +20,8 @@ class ErrorSpec extends FeatureSpec with GivenWhenThen with DataGenerators {
 
   val ch = new ContactHub(auth)
 
+  override def afterAll(): Unit = ch.close()
+
   feature("Authentication errors") {
     scenario("Empty auth token") {
       Given("I try to use an empty string as a token")
@@ -53,6 +56,8 @@ class ErrorSpec extends FeatureSpec with GivenWhenThen with DataGenerators {
       e.getStatusCode shouldBe 401
       And("the exception errorMessage should be the one sent by the API")
       e.getApiErrorResponse.message shouldBe "The client is not authorized to access the API"
+
+      ch.close()
     }
   }
 
@@ -102,6 +107,8 @@ class ErrorSpec extends FeatureSpec with GivenWhenThen with DataGenerators {
 
       Then("an HttpException is thrown")
       val e = the [HttpException] thrownBy request
+
+      ch.close()
     }
 
     scenario("50x error") {
@@ -121,6 +128,8 @@ class ErrorSpec extends FeatureSpec with GivenWhenThen with DataGenerators {
       val e = the [ServerException] thrownBy request
       And("the exception statusCode is 500")
       e.getStatusCode shouldBe 500
+
+      ch.close()
     }
 
     scenario("40x error without a JSON body") {
@@ -140,6 +149,8 @@ class ErrorSpec extends FeatureSpec with GivenWhenThen with DataGenerators {
       val e = the [ServerException] thrownBy request
       And("the exception statusCode is 404")
       e.getStatusCode shouldBe 404
+
+      ch.close()
     }
   }
 
@@ -0,0 +1,292 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.Auth
+import it.contactlab.hub.sdk.java.ContactHub
+import it.contactlab.hub.sdk.java.http._
+import it.contactlab.hub.sdk.java.ingestion._
+import it.contactlab.hub.sdk.java.models._
+
+import java.io.RandomAccessFile
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+import org.scalatest.concurrent.Eventually
+import org.scalatest.time.Millis
+import org.scalatest.time.Seconds
+import org.scalatest.time.Span
+
+class EventOutboxSpec extends FeatureSpec with GivenWhenThen with Eventually {
+
+  override implicit val patienceConfig = PatienceConfig(Span(10, Seconds), Span(20, Millis))
+
+  def event(customerId: String) = Event.builder
+    .customerId(customerId)
+    .`type`(EventType.viewedPage)
+    .context(EventContext.WEB)
+    .build
+
+  def options(directory: Path) = EventOutboxOptions.builder
+    .directory(directory)
+    .retryBackoff(Duration.ofMillis(10))
+    .maxRetryBackoff(Duration.ofMillis(50))
+
+  def client(api: FakeApi, options: EventOutboxOptions) =
+    ContactHub.builder(api.auth).eventOutbox(options).build
+
+  val accepted = FakeResponse(202)
+
+  feature("Delivering events from the journal") {
+    scenario("Accepted events are acknowledged") {
+      Given("an API that accepts every event")
+      val api = new FakeApi(_ => accepted)
+      val ch = client(api, options(Files.createTempDirectory("outbox")).build)
+      val outbox = ch.eventOutbox.get
+
+      When("I add a few events")
+      (1 to 10).foreach(i => ch.addEvent(event(s"customer-$i")))
+
+      Then("they are all delivered, and none is left in the journal")
+      eventually {
+        outbox.delivered shouldBe 10
+        outbox.pending shouldBe 0
+      }
+      outbox.deadLettered shouldBe 0
+
+      ch.close()
+      api.close()
+    }
+
+    scenario("Delivered segments are deleted") {
+      Given("an outbox with small segments")
+      val api = new FakeApi(_ => accepted)
+      val ch = client(api, options(Files.createTempDirectory("outbox")).segmentSize(1024).build)
+      val outbox = ch.eventOutbox.get
+
+      When("I add enough events to fill several segments")
+      (1 to 50).foreach(i => ch.addEvent(event(s"customer-$i")))
+
+      Then("the journal shrinks back to a single segment once they are delivered")
+      eventually {
+        outbox.delivered shouldBe 50
+        outbox.diskUsage shouldBe 1024
+      }
+
+      ch.close()
+      api.close()
+    }
+
+    scenario("Delivered segments are deleted while events keep arriving") {
+      Given("an outbox with small segments, that sends 50 events per second")
+      val api = new FakeApi(_ => accepted)
+      val directory = Files.createTempDirectory("outbox")
+      val ch = client(api, options(directory)
+        .segmentSize(1024)
+        .maxReplayRate(50)
+        .replayBatchSize(5)
+        .build)
+      val outbox = ch.eventOutbox.get
+      val firstSegment = directory.resolve(f"events-${0}%020d.log")
+
+      When("I keep adding events faster than that")
+      val start = System.nanoTime
+      var added = 0
+      while (System.nanoTime - start < Duration.ofMillis(1500).toNanos) {
+        ch.addEvent(event(s"customer-$added"))
+        added += 1
+        Thread.sleep(5)
+      }
+
+      Then("the first segment is deleted, though events are still waiting")
+      outbox.pending should be > 0L
+      Files.exists(firstSegment) shouldBe false
+
+      ch.close()
+      api.close()
+    }
+
+    scenario("A torn write is discarded on recovery") {
+      Given("a journal left with events by an outbox that could not send them")
+      val directory = Files.createTempDirectory("outbox")
+      val down = new FakeApi(_ => FakeResponse(503))
+      val first = client(down, options(directory).build)
+      (1 to 5).foreach(i => first.addEvent(event(s"customer-$i")))
+      first.close()
+      down.close()
+
+      And("the payload of the last record corrupted, like a crash in the middle of a write")
+      val file = new RandomAccessFile(directory.resolve(f"events-${0}%020d.log").toFile, "rw")
+      var position = 0L
+      var last = 0L
+      var length = { file.seek(position); file.readInt() }
+      while (length != 0) {
+        last = position
+        position += 8 + math.abs(length)
+        file.seek(position)
+        length = file.readInt()
+      }
+      file.seek(last + 8)
+      val byte = file.readByte()
+      file.seek(last + 8)
+      file.writeByte(byte ^ 0xff)
+      file.close()
+
+      When("a new outbox opens the journal")
+      val api = new FakeApi(_ => accepted)
+      val second = client(api, options(directory).build)
+      val outbox = second.eventOutbox.get
+
+      Then("only the intact events are sent")
+      eventually {
+        outbox.delivered shouldBe 4
+        outbox.pending shouldBe 0
+      }
+
+      second.close()
+      api.close()
+    }
+  }
+
+  feature("Failed deliveries") {
+    scenario("Invalid events are dead-lettered, other errors are retried") {
+      Given("an API that rejects some events, and asks to authenticate again for one")
+      val calls = new ConcurrentHashMap[String, Integer]
+      val api = new FakeApi(request => {
+        val count = calls.merge(request.body.replaceAll(".*\"(c-[a-z0-9]+)\".*", "$1"), 1, _ + _)
+        request.body match {
+          case body if body.contains("c-invalid") =>
+            FakeResponse(400, """{"message":"Invalid event"}""")
+          case body if body.contains("c-missing") => FakeResponse(404)
+          case body if body.contains("c-unauthorized") && count <= 2 =>
+            FakeResponse(401, """{"message":"Unauthorized"}""")
+          case body if body.contains("c-throttled") && count <= 2 => FakeResponse(429)
+          case _ => accepted
+        }
+      })
+      val ch = client(api, options(Files.createTempDirectory("outbox")).build)
+      val outbox = ch.eventOutbox.get
+
+      When("I add them")
+      Seq("c-invalid", "c-missing", "c-unauthorized", "c-throttled", "c-valid")
+        .foreach(id => ch.addEvent(event(id)))
+
+      Then("400 and a 404 without a JSON body are dead-lettered at once")
+      And("401 and 429 are retried until they succeed")
+      eventually {
+        outbox.delivered shouldBe 3
+        outbox.pending shouldBe 0
+      }
+      outbox.rejected shouldBe 2
+      outbox.deadLettered shouldBe 2
+      outbox.deadLetterPending shouldBe 2
+      calls.get("c-invalid") shouldBe 1
+      calls.get("c-missing") shouldBe 1
+      calls.get("c-unauthorized") shouldBe 3
+
+      ch.close()
+      api.close()
+    }
+
+    scenario("An event that keeps failing does not hold back the others") {
+      Given("an API that always fails for one event")
+      @volatile var broken = true
+      val api = new FakeApi(request =>
+        if (broken && request.body.contains("c-poison")) FakeResponse(503) else accepted)
+      val ch = client(api, options(Files.createTempDirectory("outbox")).maxAttempts(3).build)
+      val outbox = ch.eventOutbox.get
+
+      When("I add it before other events")
+      ch.addEvent(event("c-poison"))
+      (1 to 5).foreach(i => ch.addEvent(event(s"c-valid-$i")))
+
+      Then("it is dead-lettered after 'maxAttempts' sends, and the others are delivered")
+      eventually {
+        outbox.delivered shouldBe 5
+        outbox.deadLettered shouldBe 1
+        outbox.pending shouldBe 0
+      }
+      outbox.rejected shouldBe 0
+
+      When("the API is fixed and the dead letters are redelivered")
+      broken = false
+      outbox.redeliverDeadLetters shouldBe 1
+
+      Then("it is delivered too")
+      eventually {
+        outbox.delivered shouldBe 6
+      }
+      outbox.deadLetterPending shouldBe 0
+
+      ch.close()
+      api.close()
+    }
+
+    scenario("An unexpected exception does not stop the deliveries") {
+      Given("a transport that throws at once for the first requests")
+      val failures = new AtomicInteger(2)
+      val transport = new StubTransport(_ => StubTransport.response(202)) {
+        override def executeAsync(request: TransportRequest, executor: Executor) =
+          if (failures.getAndDecrement() > 0) {
+            throw new IllegalStateException("broken")
+          } else {
+            super.executeAsync(request, executor)
+          }
+      }
+      val ch = ContactHub.builder(new Auth("token", "workspace", "node"))
+        .transport(transport)
+        .eventOutbox(options(Files.createTempDirectory("outbox")).build)
+        .build
+      val outbox = ch.eventOutbox.get
+
+      When("I add a few events")
+      (1 to 3).foreach(i => ch.addEvent(event(s"customer-$i")))
+
+      Then("they are sent again, and all delivered")
+      eventually {
+        outbox.delivered shouldBe 3
+        outbox.pending shouldBe 0
+      }
+
+      ch.close()
+    }
+
+    scenario("Closing does not wait for requests in flight") {
+      Given("an API that takes a long time to answer")
+      val api = new FakeApi(_ => FakeResponse(202, delayMillis = 5000))
+      val ch = client(api, options(Files.createTempDirectory("outbox")).build)
+
+      When("I close the client while an event is being sent")
+      ch.addEvent(event("c-slow"))
+      eventually {
+        api.requests.get shouldBe 1
+      }
+      val start = System.nanoTime
+      ch.close()
+
+      Then("it returns without waiting for the response")
+      (System.nanoTime - start) should be < Duration.ofSeconds(2).toNanos
+
+      api.close()
+    }
+  }
+
+  feature("Outbox options") {
+    scenario("Invalid options") {
+      Given("no attempts allowed")
+      def options = EventOutboxOptions.builder
+        .directory(Files.createTempDirectory("outbox"))
+        .maxAttempts(0)
+        .build
+
+      Then("IllegalArgumentException is thrown immediately")
+      an [IllegalArgumentException] should be thrownBy options
+    }
+  }
+
+}
@@ -0,0 +1,193 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.ContactHub
+import it.contactlab.hub.sdk.java.ingestion._
+import it.contactlab.hub.sdk.java.models._
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+import org.scalatest.concurrent.Eventually
+import org.scalatest.time.Millis
+import org.scalatest.time.Seconds
+import org.scalatest.time.Span
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+
+class EventSinkSpec extends FeatureSpec with GivenWhenThen with Eventually {
+
+  override implicit val patienceConfig = PatienceConfig(Span(10, Seconds), Span(20, Millis))
+
+  val executor = Executors.newCachedThreadPool { runnable =>
+    val thread = new Thread(runnable, "event-sink-spec")
+    thread.setDaemon(true)
+    thread
+  }
+
+  implicit val context = ExecutionContext.fromExecutor(executor)
+
+  def event(customerId: String) = Event.builder
+    .customerId(customerId)
+    .`type`(EventType.viewedPage)
+    .context(EventContext.WEB)
+    .build
+
+  def client(api: FakeApi) = ContactHub.builder(api.auth).executor(executor).build
+
+  /**
+   * A fake API whose requests wait for 'release', so that the first Event
+   * stays in flight, and the next ones in the queue.
+   */
+  class StuckApi {
+    val entered = new CountDownLatch(1)
+    val release = new CountDownLatch(1)
+
+    val api = new FakeApi(_ => {
+      entered.countDown()
+      release.await(10, TimeUnit.SECONDS)
+      FakeResponse(202)
+    })
+  }
+
+  /**
+   * A sink with a single Event in flight, and a queue of one.
+   */
+  def stuck(fake: StuckApi, ch: ContactHub, strategy: BackpressureStrategy) = {
+    val sink = ch.eventSink(EventSinkOptions.builder
+      .queueCapacity(1)
+      .workers(1)
+      .batchSize(1)
+      .backpressure(strategy)
+      .build)
+    sink.add(event("in-flight"))
+    fake.entered.await(10, TimeUnit.SECONDS) shouldBe true
+    sink.add(event("queued"))
+    sink
+  }
+
+  feature("Requests in flight") {
+    scenario("They are bounded across the workers") {
+      Given("an API that counts its concurrent requests")
+      val current = new AtomicInteger
+      val highest = new AtomicInteger
+      val api = new FakeApi(_ => {
+        highest.accumulateAndGet(current.incrementAndGet(), (a, b) => Math.max(a, b))
+        Thread.sleep(20)
+        current.decrementAndGet()
+        FakeResponse(202)
+      })
+      val ch = client(api)
+
+      When("4 workers send batches of 10, with at most 5 requests in flight")
+      val sink = ch.eventSink(EventSinkOptions.builder
+        .workers(4)
+        .batchSize(10)
+        .maxInFlight(5)
+        .build)
+      val accepted = (1 to 100).map(i => sink.add(event(s"customer-$i")))
+      sink.close()
+
+      Then("every Event is sent, never more than 5 at a time")
+      accepted.foreach(_.get(10, TimeUnit.SECONDS))
+      sink.sent shouldBe 100
+      highest.get should (be > 1 and be <= 5)
+
+      ch.close()
+      api.close()
+    }
+
+    scenario("The default matches the default connections per route") {
+      Given("the default options")
+      val options = EventSinkOptions.builder.build
+
+      Then("no more requests are in flight than pooled connections to the API")
+      options.maxInFlight shouldBe 20
+    }
+
+    scenario("Invalid options") {
+      Given("no requests in flight")
+      def options = EventSinkOptions.builder.maxInFlight(0).build
+
+      Then("IllegalArgumentException is thrown immediately")
+      an [IllegalArgumentException] should be thrownBy options
+    }
+  }
+
+  feature("Backpressure") {
+    scenario("BLOCK waits for room in the queue") {
+      Given("a sink whose queue is full")
+      val fake = new StuckApi
+      val ch = client(fake.api)
+      val sink = stuck(fake, ch, BackpressureStrategy.BLOCK)
+
+      When("I add an Event")
+      val added = Future(sink.add(event("blocked")))
+
+      Then("the call waits until the queue has room")
+      Thread.sleep(100)
+      added.isCompleted shouldBe false
+      fake.release.countDown()
+      eventually {
+        added.isCompleted shouldBe true
+      }
+      sink.close()
+      sink.sent shouldBe 3
+      sink.dropped shouldBe 0
+
+      ch.close()
+      fake.api.close()
+    }
+
+    scenario("DROP fails the future of the new Event") {
+      Given("a sink whose queue is full")
+      val fake = new StuckApi
+      val ch = client(fake.api)
+      val sink = stuck(fake, ch, BackpressureStrategy.DROP)
+
+      When("I add an Event")
+      val dropped = sink.add(event("dropped"))
+
+      Then("its future fails at once, and it is counted")
+      val exception = the [ExecutionException] thrownBy dropped.get(1, TimeUnit.SECONDS)
+      exception.getCause shouldBe a [RejectedExecutionException]
+      sink.dropped shouldBe 1
+
+      And("the other Events are still sent")
+      fake.release.countDown()
+      sink.close()
+      sink.sent shouldBe 2
+
+      ch.close()
+      fake.api.close()
+    }
+
+    scenario("FAIL throws to the caller") {
+      Given("a sink whose queue is full")
+      val fake = new StuckApi
+      val ch = client(fake.api)
+      val sink = stuck(fake, ch, BackpressureStrategy.FAIL)
+
+      When("I add an Event")
+      Then("RejectedExecutionException is thrown")
+      a [RejectedExecutionException] should be thrownBy sink.add(event("rejected"))
+
+      And("the other Events are still sent")
+      fake.release.countDown()
+      sink.close()
+      sink.sent shouldBe 2
+      sink.dropped shouldBe 0
+
+      ch.close()
+      fake.api.close()
+    }
+  }
+
+}
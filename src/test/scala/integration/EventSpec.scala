@@ -14,11 +14,12 @@ import org.scalatest.FeatureSpec
 import org.scalatest.Inspectors._
 import org.scalatest.Matchers._
 import org.scalatest.GivenWhenThen
+import org.scalatest.BeforeAndAfterAll
 
 import scala.collection.JavaConversions._
 import scala.collection.mutable._
 
-class EventSpec extends FeatureSpec with GivenWhenThen {
+class EventSpec extends FeatureSpec with GivenWhenThen with BeforeAndAfterAll {
 
   val auth = new Auth(
     sys.env("CONTACTHUB_TEST_TOKEN"),
@@ -28,6 +29,8 @@ class EventSpec extends FeatureSpec with GivenWhenThen {
 
   val ch = new ContactHub(auth)
 
+  override def afterAll(): Unit = ch.close()
+
   // FIXME: Given it takes about 30 seconds for new events to be indexed, we
   // rely on some existing events that were added manually to the test workspace
   val customerId = "b765329a-84b2-4380-bfa5-fa4ec33d3b82"
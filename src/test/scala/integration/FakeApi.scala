@@ -0,0 +1,110 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.Auth
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+
+import java.io.ByteArrayOutputStream
+import java.net.InetSocketAddress
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+import scala.collection.JavaConversions._
+import scala.io.Source
+
+/**
+ * A request received by a FakeApi, with its body inflated if it was gzipped.
+ * Header names are in lower case.
+ */
+case class FakeRequest(
+  method: String,
+  path: String,
+  query: String,
+  body: String,
+  headers: Map[String, String] = Map.empty
+)
+
+case class FakeResponse(
+  status: Int,
+  body: String = "",
+  headers: Map[String, String] = Map.empty,
+  delayMillis: Long = 0
+)
+
+/**
+ * A local HTTP server standing in for the ContactHub API, answering each
+ * request with 'handler'. Responses with a "Content-Encoding: gzip" header
+ * are gzipped.
+ */
+class FakeApi(handler: FakeRequest => FakeResponse) extends AutoCloseable {
+
+  val requests = new AtomicInteger
+
+  private val server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+
+  server.setExecutor(Executors.newCachedThreadPool { runnable =>
+    val thread = new Thread(runnable, "fake-api")
+    thread.setDaemon(true)
+    thread
+  })
+  server.createContext("/", (exchange: HttpExchange) => respond(exchange))
+  server.start()
+
+  val url = s"http://localhost:${server.getAddress.getPort}"
+
+  val auth = new Auth("token", "workspace", "node", url)
+
+  def close(): Unit = server.stop(0)
+
+  private def respond(exchange: HttpExchange): Unit = {
+    requests.incrementAndGet()
+    val headers = exchange.getRequestHeaders.keySet.map(name =>
+      name.toLowerCase -> exchange.getRequestHeaders.getFirst(name)).toMap
+    val input = exchange.getRequestBody
+    val body = Source.fromInputStream(
+      if (headers.get("content-encoding").contains("gzip")) new GZIPInputStream(input) else input,
+      "UTF-8").mkString
+    val uri = exchange.getRequestURI
+    val response = handler(FakeRequest(exchange.getRequestMethod, uri.getPath,
+      Option(uri.getRawQuery).getOrElse(""), body, headers))
+
+    if (response.delayMillis > 0) {
+      try {
+        Thread.sleep(response.delayMillis)
+      } catch {
+        case _: InterruptedException => ()
+      }
+    }
+
+    val bytes = if (response.headers.get("Content-Encoding").contains("gzip")) {
+      gzip(response.body.getBytes(UTF_8))
+    } else {
+      response.body.getBytes(UTF_8)
+    }
+    exchange.getResponseHeaders.set("Content-Type", "application/json")
+    response.headers.foreach { case (name, value) => exchange.getResponseHeaders.set(name, value) }
+    try {
+      exchange.sendResponseHeaders(response.status, if (bytes.isEmpty) -1 else bytes.length)
+      if (bytes.nonEmpty) {
+        exchange.getResponseBody.write(bytes)
+      }
+    } catch {
+      case _: java.io.IOException => () // The client went away, e.g. a cancelled request.
+    } finally {
+      exchange.close()
+    }
+  }
+
+  private def gzip(bytes: Array[Byte]) = {
+    val output = new ByteArrayOutputStream
+    val gzip = new GZIPOutputStream(output)
+    gzip.write(bytes)
+    gzip.close()
+    output.toByteArray
+  }
+
+}
@@ -0,0 +1,83 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.models._
+
+import java.io.IOException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.collection.JavaConversions._
+
+/**
+ * The pages of a result of 'totalPages' pages of 'pageSize' elements each,
+ * named after their page: "p3-0", "p3-1" and so on. Each request waits for
+ * 'delayMillis' of its page, and the page 'failing', if any, fails with an
+ * HttpException, as the API requests do.
+ */
+class FakePages(
+  totalPages: Int,
+  pageSize: Int = 2,
+  delayMillis: Int => Long = _ => 0,
+  failing: Option[Int] = None
+) {
+
+  val requests = new AtomicInteger
+  val current = new AtomicInteger
+  val highest = new AtomicInteger
+
+  def elements(number: Int) = (0 until pageSize).map(i => s"p$number-$i")
+
+  def allElements = (0 until totalPages).flatMap(elements)
+
+  def paged(number: Int) = Paged.builder[String]
+    .elements(elements(number))
+    .page(Page.builder
+      .number(number)
+      .size(pageSize)
+      .totalElements(totalPages * pageSize)
+      .totalPages(totalPages)
+      .build)
+    .build
+
+  /**
+   * Fetches a page the way the request functions of the API do: a failure
+   * is thrown as a RuntimeException, caused by the API exception.
+   */
+  def fetch(number: Int) = {
+    requests.incrementAndGet()
+    highest.accumulateAndGet(current.incrementAndGet(), (a, b) => Math.max(a, b))
+    try {
+      Thread.sleep(delayMillis(number))
+      if (failing.contains(number)) {
+        throw new RuntimeException(new HttpException(new IOException(s"page $number")))
+      }
+      paged(number)
+    } finally {
+      current.decrementAndGet()
+    }
+  }
+
+  def first: Paginated[String] = paginated(paged(0))
+
+  private def paginated(page: Paged[String]): Paginated[String] =
+    new Paginated[String](page, n => paginated(fetch(n)))
+
+  /**
+   * The first page of the async client, whose next pages are fetched on
+   * 'executor', or completed at once without one.
+   */
+  def firstAsync(executor: Option[Executor]): AsyncPaginated[String] =
+    asyncPaginated(paged(0), executor)
+
+  private def asyncPaginated(page: Paged[String], executor: Option[Executor])
+      : AsyncPaginated[String] = {
+    new AsyncPaginated[String](page, n => executor match {
+      case Some(pool) =>
+        CompletableFuture.supplyAsync(() => asyncPaginated(fetch(n), executor), pool)
+      case None =>
+        CompletableFuture.completedFuture(asyncPaginated(fetch(n), executor))
+    })
+  }
+}
@@ -0,0 +1,137 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.http._
+
+import java.io.InputStream
+import java.time.Duration
+import java.util.Map
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.io.Source
+
+class HedgingSpec extends FeatureSpec with GivenWhenThen {
+
+  val executor = Executors.newCachedThreadPool { runnable =>
+    val thread = new Thread(runnable, "hedging-spec")
+    thread.setDaemon(true)
+    thread
+  }
+
+  def options = HedgeOptions.builder
+    .initialDelay(Duration.ofMillis(50))
+    .sampleSize(20)
+    .minSamples(10)
+    .maxHedgeRatio(1)
+
+  /**
+   * A transport whose n-th request takes 'latency(n)' milliseconds.
+   */
+  def slow(latency: Int => Long) = {
+    val count = new AtomicInteger
+    new StubTransport(_ => {
+      Thread.sleep(latency(count.incrementAndGet()))
+      StubTransport.response(200, "body")
+    })
+  }
+
+  def get(transport: HttpTransport) =
+    transport.executeAsync(StubTransport.request(), executor).get
+
+  feature("Hedged GET requests") {
+    scenario("A late response is hedged") {
+      Given("a first request that takes 1s, and a second that takes 10ms")
+      val stub = slow(n => if (n == 1) 1000 else 10)
+      val hedging = new HedgingHttpTransport(stub, options.build)
+
+      When("I send a GET")
+      val start = System.nanoTime
+      val response = get(hedging)
+
+      Then("the second request answers first")
+      response.body shouldBe "body"
+      (System.nanoTime - start) should be < Duration.ofMillis(500).toNanos
+      stub.requests.get shouldBe 2
+      hedging.hedged shouldBe 1
+      hedging.hedgeWins shouldBe 1
+    }
+
+    scenario("Fast responses are not hedged") {
+      Given("requests that take 1ms")
+      val stub = slow(_ => 1)
+      val hedging = new HedgingHttpTransport(stub, options.build)
+
+      When("I send a few GETs")
+      (1 to 20).foreach(_ => get(hedging))
+
+      Then("each is sent once")
+      stub.requests.get shouldBe 20
+      hedging.hedged shouldBe 0
+    }
+
+    scenario("Hedges are limited by 'maxHedgeRatio'") {
+      Given("requests that are always late, and a ratio of 10%")
+      val stub = slow(n => if (n % 2 == 1) 100 else 1)
+      val hedging = new HedgingHttpTransport(stub, options
+        .initialDelay(Duration.ofMillis(5))
+        .maxHedgeRatio(0.1)
+        .build)
+
+      When("I send 30 GETs")
+      (1 to 30).foreach(_ => get(hedging))
+
+      Then("at most 3 of them are hedged")
+      hedging.hedged should be <= 3L
+    }
+
+    scenario("Cancelled slow requests still count") {
+      Given("first requests that take 300ms, and second requests that take 5ms")
+      val stub = slow(n => if (n % 2 == 1) 300 else 5)
+      val hedging = new HedgingHttpTransport(stub, options.build)
+
+      When("every GET is hedged, and its first request cancelled")
+      (1 to 20).foreach(_ => get(hedging))
+      hedging.hedged shouldBe 20
+
+      Then("the delay does not drift down to the fast second requests")
+      hedging.delay should be >= Duration.ofMillis(40)
+    }
+  }
+
+  feature("Requests that are not hedged") {
+    scenario("Other methods") {
+      Given("a slow POST")
+      val stub = slow(_ => 200)
+      val hedging = new HedgingHttpTransport(stub, options.build)
+
+      When("I send it")
+      hedging.executeAsync(StubTransport.request(HttpMethod.POST), executor).get
+
+      Then("it is sent once")
+      stub.requests.get shouldBe 1
+      hedging.hedged shouldBe 0
+    }
+
+    scenario("Streamed responses") {
+      Given("a slow GET read by a streaming handler")
+      val stub = slow(_ => 200)
+      val hedging = new HedgingHttpTransport(stub, options.build)
+
+      When("I send it")
+      val body = hedging.execute(StubTransport.request(), new ResponseHandler[String] {
+        def handle(statusCode: Int, headers: Map[String, String], body: InputStream) =
+          Source.fromInputStream(body).mkString
+      })
+
+      Then("it is passed to the wrapped transport, and sent once")
+      body shouldBe "body"
+      stub.requests.get shouldBe 1
+      hedging.hedged shouldBe 0
+    }
+  }
+
+}
@@ -8,12 +8,13 @@ import it.contactlab.hub.sdk.java.exceptions._
 import org.scalatest.FeatureSpec
 import org.scalatest.Matchers._
 import org.scalatest.GivenWhenThen
+import org.scalatest.BeforeAndAfterAll
 import org.scalatest.BeforeAndAfter
 
 import scala.collection.JavaConversions._
 
 class LikeSpec extends FeatureSpec with GivenWhenThen with BeforeAndAfter with
-    DataGenerators {
+    DataGenerators with BeforeAndAfterAll {
 
   val auth = new Auth(
     sys.env("CONTACTHUB_TEST_TOKEN"),
@@ -23,6 +24,8 @@ class LikeSpec extends FeatureSpec with GivenWhenThen with BeforeAndAfter with
 
   val ch = new ContactHub(auth)
 
+  override def afterAll(): Unit = ch.close()
+
   val customer = genCustomer.sample.get
   val customerId = ch.addCustomer(customer).id.get
 
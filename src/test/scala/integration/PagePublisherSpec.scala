@@ -0,0 +1,180 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.models._
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import org.reactivestreams.Publisher
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.collection.mutable.ArrayBuffer
+
+class PagePublisherSpec extends FeatureSpec with GivenWhenThen {
+
+  val executor = Executors.newCachedThreadPool { runnable =>
+    val thread = new Thread(runnable, "page-publisher-spec")
+    thread.setDaemon(true)
+    thread
+  }
+
+  /**
+   * Records the signals it receives, and requests nothing by itself.
+   */
+  class Recorder[T] extends Subscriber[T] {
+    val items = ArrayBuffer[T]()
+    val done = new CountDownLatch(1)
+    @volatile var subscription: Subscription = _
+    @volatile var error: Option[Throwable] = None
+    @volatile var completed = false
+
+    def onSubscribe(value: Subscription): Unit = subscription = value
+
+    def onNext(item: T): Unit = items.synchronized(items += item)
+
+    def onError(exception: Throwable): Unit = {
+      error = Some(exception)
+      done.countDown()
+    }
+
+    def onComplete(): Unit = {
+      completed = true
+      done.countDown()
+    }
+
+    def received = items.synchronized(items.toList)
+
+    def await() = done.await(10, TimeUnit.SECONDS) shouldBe true
+  }
+
+  def subscribe[T](publisher: Publisher[T]) = {
+    val recorder = new Recorder[T]
+    publisher.subscribe(recorder)
+    recorder
+  }
+
+  feature("Demand") {
+    scenario("Pages are requested only as the demand requires") {
+      Given("a publisher of ten pages, without prefetch")
+      val pages = new FakePages(10)
+      val recorder = subscribe(pages.firstAsync(None).pagePublisher(0))
+
+      Then("nothing is requested, nor published, before the subscriber asks")
+      recorder.received shouldBe empty
+      pages.requests.get shouldBe 0
+
+      When("it asks for one page, then two more")
+      recorder.subscription.request(1)
+      recorder.received.map(_.page.number) shouldBe Seq(0)
+      pages.requests.get shouldBe 0
+      recorder.subscription.request(2)
+
+      Then("it gets exactly three pages, for two requests")
+      recorder.received.map(_.page.number) shouldBe Seq(0, 1, 2)
+      pages.requests.get shouldBe 2
+      recorder.completed shouldBe false
+    }
+
+    scenario("Up to 'prefetch' pages are requested ahead") {
+      Given("a publisher of ten pages, with a prefetch of 3")
+      val pages = new FakePages(10)
+      val recorder = subscribe(pages.firstAsync(None).pagePublisher(3))
+
+      When("the subscriber asks for one page")
+      recorder.subscription.request(1)
+
+      Then("it gets it, and no more than 3 pages are requested ahead")
+      recorder.received.map(_.page.number) shouldBe Seq(0)
+      pages.requests.get should (be > 0 and be <= 3)
+    }
+
+    scenario("Elements are published in page order") {
+      Given("a publisher of the elements of ten async pages, the later ones faster")
+      val pages = new FakePages(10, delayMillis = number => (10 - number) * 10L)
+      val recorder = subscribe(pages.firstAsync(Some(executor)).publisher(4))
+
+      When("the subscriber asks for all of them")
+      recorder.subscription.request(Long.MaxValue)
+
+      Then("every element is published once, in order, then the stream completes")
+      recorder.await()
+      recorder.completed shouldBe true
+      recorder.received shouldBe pages.allElements
+      pages.highest.get should be <= 5
+    }
+
+    scenario("Each subscription walks the pages again") {
+      Given("a publisher of three pages")
+      val pages = new FakePages(3)
+      val publisher = pages.firstAsync(None).pagePublisher(0)
+
+      When("two subscribers ask for all of them")
+      val recorders = Seq(subscribe(publisher), subscribe(publisher))
+      recorders.foreach(_.subscription.request(Long.MaxValue))
+
+      Then("both get every page")
+      recorders.foreach(_.received.map(_.page.number) shouldBe Seq(0, 1, 2))
+      pages.requests.get shouldBe 4
+    }
+
+    scenario("A non-positive request is an error (rule 3.9)") {
+      Given("a subscription")
+      val recorder = subscribe(new FakePages(3).firstAsync(None).pagePublisher(0))
+
+      When("the subscriber requests zero items")
+      recorder.subscription.request(0)
+
+      Then("it gets an IllegalArgumentException")
+      recorder.error.get shouldBe an [IllegalArgumentException]
+    }
+
+    scenario("Invalid prefetch") {
+      Then("IllegalArgumentException is thrown immediately")
+      an [IllegalArgumentException] should be thrownBy
+        new FakePages(3).firstAsync(None).pagePublisher(-1)
+    }
+  }
+
+  feature("Cancellation and failures") {
+    scenario("Cancelling the subscription stops the requests") {
+      Given("a subscriber that got two pages of ten")
+      val pages = new FakePages(10)
+      val recorder = subscribe(pages.firstAsync(None).pagePublisher(0))
+      recorder.subscription.request(2)
+      val requested = pages.requests.get
+
+      When("it cancels the subscription, and asks for more")
+      recorder.subscription.cancel()
+      recorder.subscription.request(5)
+
+      Then("nothing more is requested, nor published")
+      recorder.received.size shouldBe 2
+      pages.requests.get shouldBe requested
+      recorder.completed shouldBe false
+      recorder.error shouldBe None
+    }
+
+    scenario("A failed request ends the stream with its error") {
+      Given("a publisher of five async pages, the third of which fails later")
+      val pages = new FakePages(5,
+        delayMillis = number => if (number == 2) 200 else 0, failing = Some(2))
+      val recorder = subscribe(pages.firstAsync(Some(executor)).pagePublisher(1))
+
+      When("the subscriber asks for all of them")
+      recorder.subscription.request(Long.MaxValue)
+
+      Then("it gets the pages before it, then the error")
+      recorder.await()
+      recorder.received.map(_.page.number) shouldBe Seq(0, 1)
+      recorder.error.get.getCause shouldBe a [HttpException]
+      recorder.completed shouldBe false
+    }
+  }
+
+}
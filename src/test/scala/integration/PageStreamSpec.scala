@@ -0,0 +1,85 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.models._
+
+import java.util.Spliterator
+import java.util.stream.Collectors
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.collection.JavaConversions._
+
+class PageStreamSpec extends FeatureSpec with GivenWhenThen {
+
+  feature("Streams of pages") {
+    scenario("Pages are requested only when the Stream reaches them") {
+      Given("ten pages")
+      val pages = new FakePages(10)
+
+      When("I take the first three elements of the Stream")
+      val taken = pages.first.elementsStream.limit(3).collect(Collectors.toList())
+
+      Then("only the second page is requested")
+      taken.toSeq shouldBe Seq("p0-0", "p0-1", "p1-0")
+      pages.requests.get shouldBe 1
+    }
+
+    scenario("Every page is in the Stream once, in order") {
+      Given("five pages")
+      val pages = new FakePages(5)
+
+      When("I collect the Stream of their elements")
+      val all = pages.first.elementsStream.collect(Collectors.toList())
+
+      Then("it has every element, in order")
+      all.toSeq shouldBe pages.allElements
+      pages.requests.get shouldBe 4
+    }
+
+    scenario("A parallel Stream splits the pages in ranges") {
+      Given("sixteen pages")
+      val pages = new FakePages(16)
+
+      When("I split the Stream of pages")
+      val suffix = pages.first.stream.spliterator
+      val prefix = suffix.trySplit
+
+      Then("each half covers half of the pages, and knows its size")
+      prefix.estimateSize shouldBe 8
+      suffix.estimateSize shouldBe 8
+      suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED) shouldBe true
+      pages.requests.get shouldBe 0
+
+      And("a parallel Stream gets every page once, in order")
+      val numbers = pages.first.stream.parallel.map[Integer](_.page.number)
+        .collect(Collectors.toList())
+      numbers.toSeq shouldBe (0 until 16)
+      pages.requests.get shouldBe 15
+    }
+
+    scenario("A single page is not split") {
+      Given("a result of a single page")
+      val pages = new FakePages(1)
+
+      Then("its Stream cannot be split, and has its elements")
+      pages.first.stream.spliterator.trySplit shouldBe null
+      pages.first.elementsStream.collect(Collectors.toList()).toSeq shouldBe pages.elements(0)
+    }
+
+    scenario("A failed request ends the Stream with its error") {
+      Given("five pages, the third of which fails")
+      val pages = new FakePages(5, failing = Some(2))
+
+      When("I collect the Stream of their elements")
+      val exception = the [RuntimeException] thrownBy
+        pages.first.elementsStream.collect(Collectors.toList())
+
+      Then("a RuntimeException is thrown, caused by the error of the request")
+      exception.getCause shouldBe a [HttpException]
+    }
+  }
+
+}
@@ -8,8 +8,9 @@ import it.contactlab.hub.sdk.java.models.EventFilters
 import org.scalatest.FeatureSpec
 import org.scalatest.Matchers._
 import org.scalatest.GivenWhenThen
+import org.scalatest.BeforeAndAfterAll
 
-class PaginationSpec extends FeatureSpec with GivenWhenThen {
+class PaginationSpec extends FeatureSpec with GivenWhenThen with BeforeAndAfterAll {
 
   val auth = new Auth(
     sys.env("CONTACTHUB_TEST_TOKEN"),
@@ -19,6 +20,8 @@ class PaginationSpec extends FeatureSpec with GivenWhenThen {
 
   val ch = new ContactHub(auth)
 
+  override def afterAll(): Unit = ch.close()
+
   // FIXME: Given it takes about 30 seconds for new events to be indexed, we
   // rely on some existing events that were added manually to the test workspace
   val customerId = "b765329a-84b2-4380-bfa5-fa4ec33d3b82"
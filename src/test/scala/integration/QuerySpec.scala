@@ -5,17 +5,21 @@ import it.contactlab.hub.sdk.java.Auth
 import it.contactlab.hub.sdk.java.models._
 import it.contactlab.hub.sdk.java.queries._
 
+import java.net.URLDecoder
 import java.time._
+import java.util.ArrayList
 import java.util.Arrays
 import java.util.Optional
 
 import org.scalatest.FeatureSpec
 import org.scalatest.Matchers._
 import org.scalatest.GivenWhenThen
+import org.scalatest.BeforeAndAfterAll
 
 import scala.collection.JavaConversions._
+import scala.collection.mutable.ArrayBuffer
 
-class QuerySpec extends FeatureSpec with GivenWhenThen {
+class QuerySpec extends FeatureSpec with GivenWhenThen with BeforeAndAfterAll {
 
   val auth = new Auth(
     sys.env("CONTACTHUB_TEST_TOKEN"),
@@ -25,6 +29,8 @@ class QuerySpec extends FeatureSpec with GivenWhenThen {
 
   val ch = new ContactHub(auth)
 
+  override def afterAll(): Unit = ch.close()
+
   val atomicMario = AtomicCondition.builder
     .attribute("base.firstName")
     .operator(Operator.EQUALS)
@@ -50,6 +56,19 @@ class QuerySpec extends FeatureSpec with GivenWhenThen {
     .conditions(Arrays.asList(atomicMario, atomicBetween))
     .build
 
+  /**
+   * A query value that counts how many times it is serialized. Not a local
+   * class, which Gson would not serialize.
+   */
+  class CountingList(values: String*) extends ArrayList[String](Arrays.asList(values: _*)) {
+    var iterations = 0
+
+    override def iterator() = {
+      iterations += 1
+      super.iterator()
+    }
+  }
+
   feature("createQuery helper") {
     scenario("Using the createQuery helper", Integration) {
       Given("I get a QueryContainer using the createQuery helper")
@@ -124,4 +143,207 @@ class QuerySpec extends FeatureSpec with GivenWhenThen {
     }
   }
 
+  feature("Local query evaluation") {
+    def customer(firstName: String, dob: String, tags: String*) = Customer.builder
+      .nodeId("node")
+      .base(BaseProperties.builder
+        .firstName(firstName)
+        .dob(LocalDate.parse(dob))
+        .build)
+      .tags(CustomerTags.builder.addAuto(tags: _*).build)
+      .build
+
+    val mario = customer("Mario", "1980-03-04", "vip")
+    val luigi = customer("Luigi", "1995-01-01")
+
+    scenario("Compiling a CompositeCondition") {
+      Given("a query on first name and date of birth")
+      val query = QueryContainer.builder
+        .query(SimpleQuery.builder
+          .are(ConditionContainer.builder.condition(compositeMario).build)
+          .build)
+        .build
+
+      When("I compile it")
+      val predicate = QueryCompiler.compile(query)
+
+      Then("it matches the customers the API would return")
+      predicate.test(mario) shouldBe true
+      predicate.test(luigi) shouldBe false
+    }
+
+    scenario("Compiling a CombinedQuery with EXCEPT") {
+      Given("all the customers born after 1900, except the ones tagged vip")
+      val query = CombinedQuery.builder
+        .conjunction(QueryConjunction.EXCEPT)
+        .addQueries(SimpleQuery.builder
+          .are(ConditionContainer.builder.condition(AtomicCondition.builder
+            .attribute("base.dob")
+            .operator(Operator.GT)
+            .value("1900-01-01")
+            .build).build).build)
+        .addQueries(SimpleQuery.builder
+          .are(ConditionContainer.builder.condition(AtomicCondition.builder
+            .attribute("tags.auto")
+            .operator(Operator.IN)
+            .value(Arrays.asList("vip", "gold"))
+            .build).build).build)
+        .build
+
+      When("I compile it")
+      val predicate = QueryCompiler.compile(query)
+
+      Then("only the customer without the tag matches")
+      predicate.test(mario) shouldBe false
+      predicate.test(luigi) shouldBe true
+    }
+
+    scenario("Compiling a condition on an unknown attribute") {
+      an [IllegalArgumentException] should be thrownBy {
+        QueryCompiler.compile(AtomicCondition.builder
+          .attribute("base.nickname")
+          .operator(Operator.IS_NULL)
+          .build)
+      }
+    }
+  }
+
+  feature("Query normalization") {
+    def equalTo(attribute: String, value: Object) = AtomicCondition.builder
+      .attribute(attribute)
+      .operator(Operator.EQUALS)
+      .value(value)
+      .build
+
+    scenario("Flattening and merging conditions") {
+      Given("nested conditions with repeated terms and EQUALS on one attribute")
+      val condition = CompositeCondition.builder
+        .conjunction(ConditionConjunction.and)
+        .addConditions(CompositeCondition.builder
+          .conjunction(ConditionConjunction.and)
+          .addConditions(atomicMario)
+          .addConditions(CompositeCondition.builder
+            .conjunction(ConditionConjunction.or)
+            .addConditions(equalTo("base.lastName", "Rossi"))
+            .addConditions(equalTo("base.lastName", "Bianchi"))
+            .build)
+          .build)
+        .addConditions(atomicMario)
+        .build
+
+      When("I normalize them")
+      val normalized = QueryNormalizer.normalize(condition)
+
+      Then("I get a single conjunction, with the EQUALS merged into an IN")
+      normalized shouldBe CompositeCondition.builder
+        .conjunction(ConditionConjunction.and)
+        .addConditions(atomicMario)
+        .addConditions(AtomicCondition.builder
+          .attribute("base.lastName")
+          .operator(Operator.IN)
+          .value(Arrays.asList("Bianchi", "Rossi"))
+          .build)
+        .build
+    }
+
+    scenario("Hashing equivalent queries") {
+      Given("the same conditions in a different order")
+      def query(conditions: Condition*) = QueryContainer.builder
+        .query(SimpleQuery.builder
+          .are(ConditionContainer.builder.condition(CompositeCondition.builder
+            .conjunction(ConditionConjunction.and)
+            .addConditions(conditions: _*)
+            .build).build)
+          .build)
+        .build
+
+      Then("their hashes are the same")
+      QueryNormalizer.hash(query(atomicMario, atomicPicture)) shouldBe
+        QueryNormalizer.hash(query(atomicPicture, atomicMario, atomicMario))
+
+      And("they differ from the hash of another query")
+      QueryNormalizer.hash(query(atomicMario, atomicPicture)) should not be
+        QueryNormalizer.hash(query(atomicMario, atomicBetween))
+    }
+
+    scenario("Keeping the first query of an EXCEPT") {
+      Given("an EXCEPT query")
+      val first = SimpleQuery.builder
+        .are(ConditionContainer.builder.condition(atomicPicture).build)
+        .build
+      val second = SimpleQuery.builder
+        .are(ConditionContainer.builder.condition(atomicMario).build)
+        .build
+      val query = CombinedQuery.builder
+        .conjunction(QueryConjunction.EXCEPT)
+        .addQueries(first, second)
+        .build
+
+      When("I normalize it")
+      val normalized = QueryNormalizer.normalize(query)
+
+      Then("the query the others are removed from is still the first one")
+      normalized shouldBe query
+    }
+  }
+
+  feature("Encoding a query once") {
+    /**
+     * An API answering three pages, that records the query of each request.
+     */
+    def pagesApi(queries: ArrayBuffer[String]) = new FakeApi(request => {
+      val query = URLDecoder.decode(request.query, "UTF-8")
+      val number = "(?:^|&)page=(\\d+)".r
+        .findFirstMatchIn(query).map(_.group(1).toInt).getOrElse(0)
+      queries.synchronized(queries += query.replaceAll("(?:^|&)page=\\d+", ""))
+      FakeResponse(200, s"""{"elements":[],
+        "page":{"number":$number,"size":10,"totalElements":30,"totalPages":3}}""")
+    })
+
+    scenario("The next pages reuse the encoded query") {
+      Given("a query on a list of ids")
+      val ids = new CountingList("c1", "c2")
+      val queries = ArrayBuffer[String]()
+      val api = pagesApi(queries)
+      val client = ContactHub.builder(api.auth).build
+      val options = GetCustomersOptions.builder
+        .query(client.createQuery("id", Operator.IN, ids))
+        .build
+
+      When("I read its three pages")
+      client.getCustomers(options).nextPage.get.nextPage.get.page.number shouldBe 2
+
+      Then("the query is encoded once, and sent the same with every page")
+      ids.iterations shouldBe 1
+      queries.size shouldBe 3
+      queries.distinct.size shouldBe 1
+      queries.head should include ("c2")
+
+      client.close()
+      api.close()
+    }
+
+    scenario("A prepared request encodes its query once for every run") {
+      Given("a prepared request for a query on a list of ids")
+      val ids = new CountingList("c1", "c2")
+      val api = pagesApi(ArrayBuffer[String]())
+      val client = ContactHub.builder(api.auth).build
+      val prepared = client.prepareGetCustomers(GetCustomersOptions.builder
+        .query(client.createQuery("id", Operator.IN, ids))
+        .build)
+
+      When("I run it for several pages")
+      prepared.get.page.number shouldBe 0
+      prepared.get(2).page.number shouldBe 2
+      prepared.get.nextPage.get.page.number shouldBe 1
+
+      Then("the query was encoded once, when prepared")
+      ids.iterations shouldBe 1
+      api.requests.get shouldBe 4
+
+      client.close()
+      api.close()
+    }
+  }
+
 }
@@ -0,0 +1,201 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.http._
+import it.contactlab.hub.sdk.java.ratelimit._
+
+import java.time.Duration
+import java.util.UUID
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.TimeUnit
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+class RateLimitSpec extends FeatureSpec with GivenWhenThen {
+
+  def millis(value: Long) = Duration.ofMillis(value)
+
+  /**
+   * A workspace id of its own, so that no other scenario shares its limiters.
+   */
+  def workspace() = UUID.randomUUID.toString
+
+  def ok = new StubTransport(_ => StubTransport.response(200))
+
+  def elapsedMillis(block: => Unit) = {
+    val start = System.nanoTime
+    block
+    TimeUnit.NANOSECONDS.toMillis(System.nanoTime - start)
+  }
+
+  feature("Token bucket") {
+    scenario("A full bucket gives 'burst' permits at once, then refills at the rate") {
+      Given("a limiter of 10 permits per second, with a burst of 5")
+      val limiter = new RateLimiter(10, 5)
+
+      Then("5 permits are given at once, and not a 6th")
+      (1 to 5).map(_ => limiter.tryAcquire(Duration.ZERO)) shouldBe Seq.fill(5)(true)
+      limiter.tryAcquire(Duration.ZERO) shouldBe false
+      limiter.rejected shouldBe 1
+
+      And("after 250ms, about two more are due")
+      Thread.sleep(250)
+      val refilled = Iterator.continually(limiter.tryAcquire(Duration.ZERO)).takeWhile(identity)
+      refilled.size should (be >= 1 and be <= 3)
+    }
+
+    scenario("A permit due within 'maxWait' is waited for") {
+      Given("an empty limiter of 20 permits per second")
+      val limiter = new RateLimiter(20, 1)
+      limiter.acquire()
+
+      When("I ask for a permit, waiting up to 1s")
+      var acquired = false
+      val waited = elapsedMillis { acquired = limiter.tryAcquire(Duration.ofSeconds(1)) }
+
+      Then("it is given once due, about 50ms later")
+      acquired shouldBe true
+      waited should (be >= 30L and be < 500L)
+      limiter.delayed shouldBe 1
+      limiter.maxWaitTime.toMillis should be > 0L
+    }
+
+    scenario("An interrupted wait gives its permit back") {
+      Given("an empty limiter of 2 permits per second")
+      val limiter = new RateLimiter(2, 1)
+      limiter.acquire()
+
+      When("a caller waiting for the next permit is interrupted")
+      val waiting = new Thread(() =>
+        an [InterruptedException] should be thrownBy limiter.acquire())
+      waiting.start()
+      Thread.sleep(50)
+      waiting.interrupt()
+      waiting.join()
+
+      Then("the next caller gets that permit, when it was due")
+      limiter.tryAcquire(millis(700)) shouldBe true
+      limiter.acquired shouldBe 2
+    }
+
+    scenario("Invalid rates") {
+      Then("IllegalArgumentException is thrown immediately")
+      an [IllegalArgumentException] should be thrownBy new RateLimiter(0, 1)
+      an [IllegalArgumentException] should be thrownBy new RateLimiter(1, 0)
+      an [IllegalArgumentException] should be thrownBy
+        RateLimitOptions.builder.permitsPerSecond(10).maxWait(millis(-1)).build
+    }
+  }
+
+  feature("Async permits") {
+    scenario("A permit that is due later completes the future later") {
+      Given("an empty limiter of 20 permits per second")
+      val limiter = new RateLimiter(20, 1)
+      limiter.tryAcquireAsync(Duration.ZERO).get shouldBe true
+
+      When("I ask for the next permits")
+      val later = limiter.tryAcquireAsync(Duration.ofSeconds(1))
+      val refused = limiter.tryAcquireAsync(Duration.ZERO)
+
+      Then("a permit within 'maxWait' is given once due, and the other refused at once")
+      refused.isDone shouldBe true
+      refused.get shouldBe false
+      later.isDone shouldBe false
+      later.get(1, TimeUnit.SECONDS) shouldBe true
+    }
+
+    scenario("An async request without a permit is not sent") {
+      Given("a transport whose limiter is empty, and a 'maxWait' of zero")
+      val stub = ok
+      val limiter = new RateLimiter(1, 1)
+      val transport = new RateLimitedHttpTransport(stub, limiter, null, Duration.ZERO)
+      transport.executeAsync(StubTransport.request(), ForkJoinPool.commonPool).get
+
+      When("I send another request")
+      val result = transport.executeAsync(StubTransport.request(), ForkJoinPool.commonPool)
+
+      Then("it fails with a RateLimitException")
+      val exception = the [ExecutionException] thrownBy result.get
+      exception.getCause shouldBe a [RateLimitException]
+      stub.requests.get shouldBe 1
+    }
+  }
+
+  feature("Rate limited transport") {
+    scenario("A request without a permit within 'maxWait' fails, without being sent") {
+      Given("a transport of 1 permit per second, that waits up to 50ms")
+      val stub = ok
+      val transport =
+        new RateLimitedHttpTransport(stub, new RateLimiter(1, 1), null, millis(50))
+      transport.execute(StubTransport.request())
+
+      Then("the next request fails with a RateLimitException")
+      a [RateLimitException] should be thrownBy transport.execute(StubTransport.request())
+      stub.requests.get shouldBe 1
+      transport.limiter(HttpMethod.GET).rejected shouldBe 1
+    }
+
+    scenario("Reads and writes take their permits from separate buckets") {
+      Given("a transport with a write rate of its own")
+      val transport = new RateLimitedHttpTransport(ok, workspace(), RateLimitOptions.builder
+        .permitsPerSecond(1)
+        .writePermitsPerSecond(1.0)
+        .maxWait(Duration.ZERO)
+        .build)
+
+      When("I send a read and a write")
+      transport.execute(StubTransport.request())
+      transport.execute(StubTransport.request(HttpMethod.POST))
+
+      Then("both are sent, and the next of each fails")
+      a [RateLimitException] should be thrownBy transport.execute(StubTransport.request())
+      a [RateLimitException] should be thrownBy
+        transport.execute(StubTransport.request(HttpMethod.DELETE))
+    }
+  }
+
+  feature("Limiters shared by a workspace") {
+    scenario("Clients of the same workspace share the buckets") {
+      Given("two clients of a workspace, with the same options")
+      val id = workspace()
+      val options = RateLimitOptions.builder.permitsPerSecond(1).maxWait(Duration.ZERO).build
+      val first = new RateLimitedHttpTransport(ok, id, options)
+      val second = new RateLimitedHttpTransport(ok, id, options)
+
+      Then("they use the same limiters, one for reads and one for writes")
+      first.limiter(HttpMethod.GET) should be theSameInstanceAs second.limiter(HttpMethod.GET)
+      first.limiter(HttpMethod.PUT) should be theSameInstanceAs second.limiter(HttpMethod.PUT)
+      first.limiter(HttpMethod.GET) should not be theSameInstanceAs(first.limiter(HttpMethod.PUT))
+      RateLimiter.shared(id, EndpointClass.READ).get should
+        be theSameInstanceAs first.limiter(HttpMethod.GET)
+
+      And("a read of one uses up the permit of the other")
+      first.execute(StubTransport.request())
+      a [RateLimitException] should be thrownBy second.execute(StubTransport.request())
+    }
+
+    scenario("A client asking for another rate fails") {
+      Given("a client of a workspace")
+      val id = workspace()
+      new RateLimitedHttpTransport(ok, id, RateLimitOptions.builder.permitsPerSecond(10).build)
+
+      Then("a client of the same workspace with another rate or write rate is refused")
+      an [IllegalArgumentException] should be thrownBy
+        new RateLimitedHttpTransport(ok, id, RateLimitOptions.builder.permitsPerSecond(20).build)
+      an [IllegalArgumentException] should be thrownBy
+        new RateLimitedHttpTransport(ok, id, RateLimitOptions.builder
+          .permitsPerSecond(10)
+          .writePermitsPerSecond(5.0)
+          .build)
+
+      And("once the rate is changed, clients asking for it are accepted")
+      RateLimiter.shared(id, EndpointClass.READ).get.setRate(20, 20)
+      RateLimiter.shared(id, EndpointClass.WRITE).get.setRate(20, 20)
+      new RateLimitedHttpTransport(ok, id, RateLimitOptions.builder.permitsPerSecond(20).build)
+    }
+  }
+
+}
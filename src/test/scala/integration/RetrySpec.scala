@@ -0,0 +1,225 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.ContactHub
+import it.contactlab.hub.sdk.java.bulk._
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.http._
+import it.contactlab.hub.sdk.java.models._
+
+import java.io.InterruptedIOException
+import java.time.Duration
+import java.time.ZonedDateTime
+import java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME
+import java.util.Optional
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.apache.http.conn.ConnectTimeoutException
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.collection.JavaConversions._
+
+class RetrySpec extends FeatureSpec with GivenWhenThen {
+
+  def millis(value: Long) = Duration.ofMillis(value)
+
+  val options = RetryOptions.builder
+    .maxAttempts(3)
+    .baseDelay(millis(1))
+    .maxDelay(millis(10))
+    .build
+
+  feature("Backoff") {
+    scenario("The bound doubles at each attempt, up to the maximum") {
+      Given("a base of 100ms and a maximum of 10s")
+      val bounds = (1 to 9).map(Backoff.bound(millis(100), Duration.ofSeconds(10), _))
+
+      Then("the bounds double, and stop at the maximum")
+      bounds.map(_.toMillis) shouldBe Seq(100, 200, 400, 800, 1600, 3200, 6400, 10000, 10000)
+
+      And("they do not overflow after many attempts, or with a long base")
+      Backoff.bound(millis(100), Duration.ofSeconds(10), 1000) shouldBe Duration.ofSeconds(10)
+      Backoff.bound(Duration.ofSeconds(10), Duration.ofDays(1), 40) shouldBe Duration.ofDays(1)
+      Backoff.bound(Duration.ZERO, Duration.ofSeconds(10), 5) shouldBe Duration.ZERO
+    }
+
+    scenario("The waits are spread below the bound") {
+      Given("many waits for the same attempt")
+      val delays = (1 to 2000).map(_ => Backoff.delay(millis(100), millis(1000), 3).toNanos)
+
+      Then("they are all within the bound, and spread over it")
+      all (delays) should (be >= 0L and be <= millis(400).toNanos)
+      delays.distinct.size should be > 1900
+      (delays.sum / delays.size).toDouble should be (millis(200).toNanos.toDouble +- 2e7)
+    }
+
+    scenario("A Retry-After sets the shortest wait, up to the maximum") {
+      Given("a wait asked by the API")
+      val atLeast = Optional.of(Duration.ofSeconds(5))
+
+      Then("the wait is at least that long")
+      Backoff.delay(millis(1), Duration.ofSeconds(10), 1, atLeast) shouldBe Duration.ofSeconds(5)
+
+      And("never longer than the maximum")
+      Backoff.delay(millis(1), Duration.ofSeconds(2), 1, atLeast) shouldBe Duration.ofSeconds(2)
+    }
+
+    scenario("Parsing Retry-After") {
+      Given("a number of seconds, an HTTP date, and invalid values")
+      val inAMinute = ZonedDateTime.now.plusSeconds(60).format(RFC_1123_DATE_TIME)
+      val anHourAgo = ZonedDateTime.now.minusHours(1).format(RFC_1123_DATE_TIME)
+
+      Then("they are parsed as the wait until then")
+      Backoff.parseRetryAfter(" 120 ") shouldBe Optional.of(Duration.ofSeconds(120))
+      Backoff.parseRetryAfter("-5") shouldBe Optional.of(Duration.ZERO)
+      Backoff.parseRetryAfter(inAMinute).get.getSeconds should (be >= 55L and be <= 60L)
+      Backoff.parseRetryAfter(anHourAgo) shouldBe Optional.of(Duration.ZERO)
+      Backoff.parseRetryAfter("soon") shouldBe Optional.empty
+    }
+  }
+
+  feature("Retrying transport") {
+    scenario("Connect timeouts are retried") {
+      Given("a transport whose first connection times out")
+      val attempts = new AtomicInteger
+      val transport = new RetryingHttpTransport(new StubTransport(_ =>
+        if (attempts.incrementAndGet() == 1) {
+          throw new HttpException(new ConnectTimeoutException("connect timed out"))
+        } else {
+          StubTransport.response(200)
+        }), options)
+
+      When("I send a GET")
+      val response = transport.execute(StubTransport.request())
+
+      Then("it is sent again, and succeeds")
+      response.statusCode shouldBe 200
+      attempts.get shouldBe 2
+      transport.retries shouldBe 1
+    }
+
+    scenario("Interrupts are not retried") {
+      Given("a transport whose caller is interrupted")
+      val attempts = new AtomicInteger
+      val transport = new RetryingHttpTransport(new StubTransport(_ => {
+        attempts.incrementAndGet()
+        throw new HttpException(new InterruptedIOException("interrupted"))
+      }), options)
+
+      Then("the request is not sent again")
+      an [HttpException] should be thrownBy transport.execute(StubTransport.request())
+      attempts.get shouldBe 1
+    }
+
+    scenario("An async retry on an executor shut down during the wait fails") {
+      Given("a transport whose first response asks to retry after a while")
+      val stub = new StubTransport(_ => StubTransport.response(503, "", Map("Retry-After" -> "1")))
+      val transport = new RetryingHttpTransport(stub, RetryOptions.builder
+        .maxAttempts(3)
+        .maxDelay(millis(300))
+        .build)
+      val executor = Executors.newSingleThreadExecutor
+
+      When("the executor is shut down before the retry")
+      val result = transport.executeAsync(StubTransport.request(), executor)
+      while (stub.requests.get == 0) {
+        Thread.sleep(1)
+      }
+      executor.shutdown()
+
+      Then("the request fails, instead of never completing")
+      val exception = the [ExecutionException] thrownBy result.get(5, TimeUnit.SECONDS)
+      exception.getCause shouldBe a [RejectedExecutionException]
+      stub.requests.get shouldBe 1
+    }
+
+    scenario("Retried status codes, until the attempts run out") {
+      Given("a transport that always answers 503 with a Retry-After")
+      val stub = new StubTransport(_ => StubTransport.response(503, "", Map("Retry-After" -> "0")))
+      val transport = new RetryingHttpTransport(stub, options)
+
+      When("I send a GET and a POST")
+      val get = transport.execute(StubTransport.request())
+      val post = transport.execute(StubTransport.request(HttpMethod.POST))
+
+      Then("the GET is sent 'maxAttempts' times, and the POST once")
+      get.statusCode shouldBe 503
+      post.statusCode shouldBe 503
+      stub.requests.get shouldBe 4
+      transport.exhausted shouldBe 1
+    }
+  }
+
+  feature("Bulk upserts on a retrying client") {
+    scenario("Writes are not retried twice over") {
+      Given("an API that always fails, and a client that retries")
+      val api = new FakeApi(_ => FakeResponse(503))
+      val ch = ContactHub.builder(api.auth).retry(options).build
+
+      When("I update a customer with a bulk upserter that retries too")
+      val upserter = ch.bulkUpserter(BulkOptions.builder
+        .maxRetries(3)
+        .retryBackoff(millis(1))
+        .build)
+      val results = upserter.upsert(Seq(Customer.builder.id("c1").nodeId("node").build)).iterator
+        .toList
+
+      Then("the write fails after 'maxAttempts' requests only")
+      results.map(_.outcome) shouldBe Seq(UpsertOutcome.FAILED)
+      api.requests.get shouldBe 3
+
+      ch.close()
+      api.close()
+    }
+
+    scenario("The counters of the client's retrying transport") {
+      Given("an API that always fails, and a client given a retrying transport")
+      val api = new FakeApi(_ => FakeResponse(503))
+      val ch = ContactHub.builder(api.auth)
+        .transport(new RetryingHttpTransport(new PooledHttpTransport, options))
+        .build
+      val retrying = ch.retryingTransport.get
+
+      When("I update a customer with a bulk upserter that retries too")
+      val results = ch.bulkUpserter(BulkOptions.builder
+        .maxRetries(3)
+        .retryBackoff(millis(1))
+        .build).upsert(Seq(Customer.builder.id("c1").nodeId("node").build)).iterator.toList
+
+      Then("the write is sent 'maxAttempts' times only, and counted by the transport")
+      results.map(_.outcome) shouldBe Seq(UpsertOutcome.FAILED)
+      api.requests.get shouldBe 3
+      retrying.retries shouldBe 2
+      retrying.exhausted shouldBe 1
+
+      And("a client built with 'retry' exposes its transport too")
+      val built = ContactHub.builder(api.auth).retry(options).build
+      val plain = ContactHub.builder(api.auth).build
+      built.retryingTransport.isPresent shouldBe true
+      plain.retryingTransport.isPresent shouldBe false
+
+      built.close()
+      plain.close()
+      ch.close()
+      api.close()
+    }
+
+    scenario("Invalid bulk options") {
+      Given("a first wait longer than the longest one")
+      def options = BulkOptions.builder
+        .retryBackoff(Duration.ofSeconds(20))
+        .maxRetryBackoff(Duration.ofSeconds(10))
+        .build
+
+      Then("IllegalArgumentException is thrown immediately")
+      an [IllegalArgumentException] should be thrownBy options
+    }
+  }
+
+}
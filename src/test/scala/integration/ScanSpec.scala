@@ -0,0 +1,155 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.models._
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.collection.mutable.ArrayBuffer
+
+class ScanSpec extends FeatureSpec with GivenWhenThen {
+
+  val executor = Executors.newCachedThreadPool { runnable =>
+    val thread = new Thread(runnable, "scan-spec")
+    thread.setDaemon(true)
+    thread
+  }
+
+  /**
+   * Later pages arrive first.
+   */
+  def reversed(totalPages: Int): Int => Long = number => (totalPages - number) * 20L
+
+  feature("Scanning pages in parallel") {
+    scenario("ORDERED delivers the elements in page order") {
+      Given("ten pages, the later ones faster")
+      val pages = new FakePages(10, delayMillis = reversed(10))
+
+      When("I scan them, 3 at a time")
+      val scanned = ArrayBuffer[String]()
+      pages.first.scan(3, ScanOrder.ORDERED, element => scanned += element)
+
+      Then("every element is delivered once, in order")
+      scanned shouldBe pages.allElements
+      pages.requests.get shouldBe 9
+
+      And("no more than 3 pages were requested at the same time")
+      pages.highest.get should (be > 1 and be <= 3)
+    }
+
+    scenario("UNORDERED delivers the pages as they arrive") {
+      Given("four pages, the second one slow")
+      val pages = new FakePages(4, delayMillis = number => if (number == 1) 300 else 0)
+
+      When("I scan them, 3 at a time, as they arrive")
+      val scanned = ArrayBuffer[Int]()
+      pages.first.scanPages(3, ScanOrder.UNORDERED, page => scanned += page.page.number)
+
+      Then("every page is delivered once, the slow one last")
+      scanned.sorted shouldBe (0 until 4)
+      scanned.last shouldBe 1
+    }
+
+    scenario("The scan stops at the first failed page") {
+      Given("twenty pages, the third of which fails")
+      val pages = new FakePages(20, delayMillis = _ => 10, failing = Some(2))
+
+      When("I scan them, 2 at a time")
+      val scanned = ArrayBuffer[Int]()
+      def scan = pages.first.scanPages(2, ScanOrder.ORDERED, page => scanned += page.page.number)
+
+      Then("the error of the request is thrown, and the pages after it are not requested")
+      an [HttpException] should be thrownBy scan
+      scanned shouldBe Seq(0, 1)
+      pages.requests.get should be < 10
+    }
+
+    scenario("A single page is delivered without requests") {
+      Given("a result of a single page")
+      val pages = new FakePages(1)
+
+      When("I scan it")
+      val scanned = ArrayBuffer[String]()
+      pages.first.scan(4, ScanOrder.ORDERED, element => scanned += element)
+
+      Then("its elements are delivered")
+      scanned shouldBe pages.elements(0)
+      pages.requests.get shouldBe 0
+    }
+
+    scenario("Invalid concurrency") {
+      Then("IllegalArgumentException is thrown immediately")
+      an [IllegalArgumentException] should be thrownBy
+        new FakePages(2).first.scan(0, ScanOrder.ORDERED, _ => ())
+      an [IllegalArgumentException] should be thrownBy
+        new FakePages(2).firstAsync(None).scan(0, ScanOrder.ORDERED, _ => ())
+    }
+  }
+
+  feature("Scanning async pages") {
+    scenario("ORDERED delivers the elements in page order") {
+      Given("ten async pages, the later ones faster")
+      val pages = new FakePages(10, delayMillis = reversed(10))
+
+      When("I scan them, 3 at a time")
+      val scanned = ArrayBuffer[String]()
+      val done = pages.firstAsync(Some(executor))
+        .scan(3, ScanOrder.ORDERED, element => scanned += element)
+
+      Then("every element is delivered once, in order, with at most 3 requests at a time")
+      done.toCompletableFuture.get(10, TimeUnit.SECONDS)
+      scanned shouldBe pages.allElements
+      pages.highest.get should (be > 1 and be <= 3)
+    }
+
+    scenario("UNORDERED delivers the pages as they arrive") {
+      Given("four async pages, the second one slow")
+      val pages = new FakePages(4, pageSize = 1,
+        delayMillis = number => if (number == 1) 300 else 0)
+
+      When("I scan them, 3 at a time, as they arrive")
+      val scanned = ArrayBuffer[String]()
+      pages.firstAsync(Some(executor))
+        .scan(3, ScanOrder.UNORDERED, element => scanned += element)
+        .toCompletableFuture.get(10, TimeUnit.SECONDS)
+
+      Then("every element is delivered once, the slow one last")
+      scanned.sorted shouldBe pages.allElements
+      scanned.last shouldBe "p1-0"
+    }
+
+    scenario("The scan stops at the first failed page") {
+      Given("twenty async pages, the third of which fails")
+      val pages = new FakePages(20, delayMillis = _ => 10, failing = Some(2))
+
+      When("I scan them, 2 at a time")
+      val done = pages.firstAsync(Some(executor)).scan(2, ScanOrder.ORDERED, _ => ())
+
+      Then("the returned stage fails with the error of the request")
+      val exception = the [ExecutionException] thrownBy
+        done.toCompletableFuture.get(10, TimeUnit.SECONDS)
+      exception.getCause.getCause shouldBe a [HttpException]
+      pages.requests.get should be < 10
+    }
+
+    scenario("Pages that are already complete do not overflow the stack") {
+      Given("many pages, whose requests complete in the calling thread")
+      val pages = new FakePages(20000, pageSize = 1)
+
+      When("I scan them")
+      var scanned = 0
+      val done = pages.firstAsync(None).scan(4, ScanOrder.ORDERED, _ => scanned += 1)
+
+      Then("every element is delivered")
+      done.toCompletableFuture.get(10, TimeUnit.SECONDS)
+      scanned shouldBe 20000
+    }
+  }
+
+}
@@ -5,8 +5,10 @@ import it.contactlab.hub.sdk.java.Auth
 import org.scalatest.FeatureSpec
 import org.scalatest.Matchers._
 import org.scalatest.GivenWhenThen
+import org.scalatest.BeforeAndAfterAll
 
-class SessionSpec extends FeatureSpec with GivenWhenThen with DataGenerators {
+class SessionSpec extends FeatureSpec with GivenWhenThen with
+    DataGenerators with BeforeAndAfterAll {
 
   val auth = new Auth(
     sys.env("CONTACTHUB_TEST_TOKEN"),
@@ -16,6 +18,8 @@ class SessionSpec extends FeatureSpec with GivenWhenThen with DataGenerators {
 
   val ch = new ContactHub(auth)
 
+  override def afterAll(): Unit = ch.close()
+
   val customer = genCustomer.sample.get
   val customerId = ch.addCustomer(customer).id.get
 
@@ -0,0 +1,214 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.http._
+
+import java.io.IOException
+import java.io.InputStream
+import java.util.Map
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.collection.JavaConversions._
+import scala.concurrent.Await
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.duration._
+import scala.io.Source
+
+class SingleFlightSpec extends FeatureSpec with GivenWhenThen {
+
+  val executor = Executors.newCachedThreadPool { runnable =>
+    val thread = new Thread(runnable, "single-flight-spec")
+    thread.setDaemon(true)
+    thread
+  }
+
+  // The calls block until the first request is released: one thread each.
+  implicit val context = ExecutionContext.fromExecutor(executor)
+
+  /**
+   * A transport whose requests wait for 'release', and then end with 'result'.
+   */
+  class Gate(result: TransportRequest => TransportResponse) {
+    val entered = new CountDownLatch(1)
+    val release = new CountDownLatch(1)
+
+    val stub = new StubTransport(request => {
+      entered.countDown()
+      release.await(10, TimeUnit.SECONDS)
+      result(request)
+    })
+    val transport = new SingleFlightHttpTransport(stub)
+
+    /**
+     * Sends a first request, and 'followers' more while it is in flight.
+     */
+    def send[T](followers: Int)(call: => T): Seq[Future[T]] = {
+      val leader = Future(call)
+      entered.await(10, TimeUnit.SECONDS) shouldBe true
+      val others = (1 to followers).map(_ => Future(call))
+      while (transport.coalesced < followers) {
+        Thread.sleep(1)
+      }
+      release.countDown()
+      leader +: others
+    }
+  }
+
+  def await[T](future: Future[T]) = Await.ready(future, 10.seconds).value.get
+
+  feature("Concurrent identical GETs") {
+    scenario("They are sent once") {
+      Given("a GET that is in flight")
+      val gate = new Gate(_ => StubTransport.response(200, "body"))
+
+      When("more identical GETs are sent meanwhile")
+      val responses = gate.send(4)(gate.transport.execute(StubTransport.request()))
+
+      Then("they all get its response")
+      responses.map(await(_).get.body) shouldBe Seq.fill(5)("body")
+      gate.stub.requests.get shouldBe 1
+      gate.transport.coalesced shouldBe 4
+    }
+
+    scenario("Each streaming handler reads the whole response") {
+      Given("a GET that is in flight")
+      val gate = new Gate(_ => StubTransport.response(200, "body"))
+      val handler = new ResponseHandler[String] {
+        def handle(statusCode: Int, headers: Map[String, String], body: InputStream) =
+          Source.fromInputStream(body).mkString
+      }
+
+      When("more identical GETs are read by streaming handlers")
+      val bodies = gate.send(2)(gate.transport.execute(StubTransport.request(), handler))
+
+      Then("each handler reads the body")
+      bodies.map(await(_).get) shouldBe Seq.fill(3)("body")
+      gate.stub.requests.get shouldBe 1
+    }
+
+    scenario("Async GETs are sent once") {
+      Given("an async GET that is in flight")
+      val gate = new Gate(_ => StubTransport.response(200, "body"))
+
+      When("more identical async GETs are sent meanwhile")
+      val responses = gate.send(3) {
+        gate.transport.executeAsync(StubTransport.request(), executor).get
+      }
+
+      Then("they all get its response")
+      responses.map(await(_).get.body) shouldBe Seq.fill(4)("body")
+      gate.stub.requests.get shouldBe 1
+    }
+
+    scenario("Responses are not cached") {
+      Given("a GET that has completed")
+      val stub = new StubTransport(_ => StubTransport.response(200))
+      val transport = new SingleFlightHttpTransport(stub)
+      transport.execute(StubTransport.request())
+
+      When("I send it again")
+      transport.execute(StubTransport.request())
+
+      Then("it is sent again")
+      stub.requests.get shouldBe 2
+      transport.coalesced shouldBe 0
+    }
+  }
+
+  feature("Failures") {
+    scenario("The followers get the failure of the first request") {
+      Given("a GET that is in flight, and will fail")
+      val gate = new Gate(_ => throw new HttpException(new IOException("reset")))
+
+      When("more identical GETs are sent meanwhile")
+      val results = gate.send(2)(gate.transport.execute(StubTransport.request()))
+
+      Then("they all fail with its exception")
+      results.map(await(_).failed.get.getClass) shouldBe Seq.fill(3)(classOf[HttpException])
+      gate.stub.requests.get shouldBe 1
+    }
+
+    scenario("An Error does not leave the followers waiting") {
+      Given("a GET that is in flight, and will throw an Error")
+      val gate = new Gate(_ => throw new AssertionError("broken"))
+
+      When("more identical GETs are sent meanwhile")
+      val results = gate.send(2)(gate.transport.execute(StubTransport.request()))
+
+      Then("they all fail with the Error, that Future boxes")
+      results.map(await(_).failed.get.getCause.getClass) shouldBe
+        Seq.fill(3)(classOf[AssertionError])
+
+      And("the next GET is sent again")
+      an [AssertionError] should be thrownBy gate.transport.execute(StubTransport.request())
+      gate.stub.requests.get shouldBe 2
+    }
+
+    scenario("A wrapped transport that throws at once does not block the next async GETs") {
+      Given("a transport whose async requests throw before they start")
+      val stub = new StubTransport(_ => StubTransport.response(200)) {
+        override def executeAsync(request: TransportRequest, executor: Executor) =
+          throw new IllegalStateException("closed")
+      }
+      val transport = new SingleFlightHttpTransport(stub)
+
+      When("I send two async GETs, one after the other")
+      Then("both fail at once")
+      an [IllegalStateException] should be thrownBy
+        transport.executeAsync(StubTransport.request(), executor)
+      an [IllegalStateException] should be thrownBy
+        transport.executeAsync(StubTransport.request(), executor)
+      transport.coalesced shouldBe 0
+    }
+  }
+
+  feature("Requests that are not coalesced") {
+    scenario("Other methods") {
+      Given("a POST that is in flight")
+      val gate = new Gate(_ => StubTransport.response(200))
+
+      When("more identical POSTs are sent meanwhile")
+      val leader = Future(gate.transport.execute(StubTransport.request(HttpMethod.POST)))
+      gate.entered.await(10, TimeUnit.SECONDS) shouldBe true
+      val other = Future(gate.transport.execute(StubTransport.request(HttpMethod.POST)))
+      Thread.sleep(50)
+      gate.release.countDown()
+
+      Then("each is sent")
+      Seq(leader, other).foreach(await(_).get.statusCode shouldBe 200)
+      gate.stub.requests.get shouldBe 2
+      gate.transport.coalesced shouldBe 0
+    }
+
+    scenario("Other credentials") {
+      Given("a GET that is in flight")
+      val gate = new Gate(_ => StubTransport.response(200))
+      def get(token: String) = TransportRequest.builder
+        .method(HttpMethod.GET)
+        .url(StubTransport.url)
+        .putHeaders("Authorization", s"Bearer $token")
+        .build
+
+      When("the same GET is sent with another token meanwhile")
+      val leader = Future(gate.transport.execute(get("a")))
+      gate.entered.await(10, TimeUnit.SECONDS) shouldBe true
+      val other = Future(gate.transport.execute(get("b")))
+      Thread.sleep(50)
+      gate.release.countDown()
+
+      Then("each is sent")
+      Seq(leader, other).foreach(await(_).get.statusCode shouldBe 200)
+      gate.stub.requests.get shouldBe 2
+      gate.transport.coalesced shouldBe 0
+    }
+  }
+
+}
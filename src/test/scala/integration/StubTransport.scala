@@ -0,0 +1,36 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.http._
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.collection.JavaConversions._
+
+/**
+ * An HttpTransport that answers each request with 'handler', without any
+ * network: 'handler' returns a response or throws an HttpException.
+ */
+class StubTransport(handler: TransportRequest => TransportResponse) extends HttpTransport {
+
+  val requests = new AtomicInteger
+
+  override def execute(request: TransportRequest): TransportResponse = {
+    requests.incrementAndGet()
+    handler(request)
+  }
+
+  override def close(): Unit = ()
+
+}
+
+object StubTransport {
+
+  val url = "http://localhost/workspaces/workspace/customers"
+
+  def request(method: HttpMethod = HttpMethod.GET, url: String = url) =
+    TransportRequest.builder.method(method).url(url).build
+
+  def response(status: Int, body: String = "", headers: Map[String, String] = Map.empty) =
+    TransportResponse.builder.statusCode(status).body(body).headers(headers).build
+
+}
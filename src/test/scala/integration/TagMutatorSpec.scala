@@ -0,0 +1,186 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.AsyncContactHub
+import it.contactlab.hub.sdk.java.ContactHub
+import it.contactlab.hub.sdk.java.exceptions._
+import it.contactlab.hub.sdk.java.tags._
+
+import java.time.Duration
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.scalatest.FeatureSpec
+import org.scalatest.GivenWhenThen
+import org.scalatest.Matchers._
+
+import scala.collection.JavaConversions._
+import scala.concurrent.Await
+import scala.concurrent.Future
+import scala.concurrent.ExecutionContext.Implicits.global
+import scala.concurrent.duration._
+
+class TagMutatorSpec extends FeatureSpec with GivenWhenThen {
+
+  /**
+   * A single Customer "c1" whose manual tags are kept by the fake API.
+   */
+  class TagApi(conflicts: Int = 0) {
+    @volatile var tags = Seq("old")
+    val patches = new AtomicInteger
+    val loads = new AtomicInteger
+    private val remainingConflicts = new AtomicInteger(conflicts)
+
+    def customer = {
+      val manual = tags.map(tag => "\"" + tag + "\"").mkString(",")
+      s"""{"id":"c1","nodeId":"node","tags":{"auto":[],"manual":[$manual]}}"""
+    }
+
+    val api = new FakeApi(request => synchronized {
+      (request.method, request.path) match {
+        case ("GET", path) if path.endsWith("/customers") =>
+          loads.incrementAndGet()
+          FakeResponse(200, s"""{"elements":[$customer],
+            "page":{"number":0,"size":10,"totalElements":1,"totalPages":1}}""")
+        case ("GET", path) if path.endsWith("/customers/c1") =>
+          loads.incrementAndGet()
+          FakeResponse(200, customer)
+        case ("PATCH", path) if path.endsWith("/customers/c1") =>
+          patches.incrementAndGet()
+          if (remainingConflicts.getAndDecrement() > 0) {
+            // Another client changed the Customer meanwhile.
+            tags = tags :+ "other"
+            FakeResponse(409, """{"message":"Conflict"}""")
+          } else {
+            tags = "\"([^\"]*)\"".r.findAllMatchIn(
+              request.body.replaceAll("(?s).*\"manual\"\\s*:\\s*\\[([^\\]]*)\\].*", "$1"))
+              .map(_.group(1)).toSeq
+            FakeResponse(200, customer)
+          }
+        case _ => FakeResponse(404)
+      }
+    })
+  }
+
+  def client(api: FakeApi, options: TagOptions = TagOptions.builder.build) =
+    ContactHub.builder(api.auth).tagMutations(options).build
+
+  feature("Tag mutations") {
+    scenario("No window by default") {
+      Given("the default options")
+      val options = TagOptions.builder.build
+
+      Then("changes are sent at once")
+      options.window shouldBe Duration.ZERO
+    }
+
+    scenario("Changes within the window are sent with a single update") {
+      Given("a client whose tag changes wait 200ms for more changes")
+      val fake = new TagApi
+      val ch = client(fake.api, TagOptions.builder.window(Duration.ofMillis(200)).build)
+
+      When("I add and remove a few tags of the same Customer at the same time")
+      val changes = Seq(
+        Future(ch.addTag("c1", "a")),
+        Future(ch.addTag("c1", "b")),
+        Future(ch.removeTag("c1", "old")),
+        Future(ch.addTag("c1", "c")))
+      val customers = changes.map(Await.result(_, 10.seconds))
+
+      Then("the Customer is loaded and updated once")
+      fake.loads.get shouldBe 1
+      fake.patches.get shouldBe 1
+      fake.tags.toSet shouldBe Set("a", "b", "c")
+      customers.map(_.tags.get.manual.toSet).distinct shouldBe Seq(Set("a", "b", "c"))
+
+      ch.close()
+      fake.api.close()
+    }
+
+    scenario("Concurrent changes are never lost") {
+      Given("a client without a window")
+      val fake = new TagApi
+      val ch = client(fake.api)
+
+      When("many callers add a tag to the same Customer at the same time")
+      val changes = (1 to 20).map(i => Future(ch.addTag("c1", s"t$i")))
+      changes.foreach(Await.result(_, 10.seconds))
+
+      Then("the Customer has all of them")
+      fake.tags.toSet shouldBe (1 to 20).map(i => s"t$i").toSet + "old"
+      fake.patches.get should be <= 20
+
+      ch.close()
+      fake.api.close()
+    }
+
+    scenario("An update that conflicts is applied again to a fresh copy") {
+      Given("a Customer changed by someone else while it is updated")
+      val fake = new TagApi(conflicts = 1)
+      val ch = client(fake.api)
+
+      When("I add a tag")
+      val customer = ch.addTag("c1", "new")
+
+      Then("the Customer is loaded again, and the tag added to its current tags")
+      fake.patches.get shouldBe 2
+      fake.loads.get shouldBe 2
+      fake.tags.toSet shouldBe Set("old", "other", "new")
+      customer.tags.get.manual.toSet shouldBe Set("old", "other", "new")
+
+      ch.close()
+      fake.api.close()
+    }
+
+    scenario("A second conflict fails the change") {
+      Given("a Customer that keeps changing")
+      val fake = new TagApi(conflicts = 2)
+      val ch = client(fake.api)
+
+      When("I add a tag")
+      val exception = the [ApiException] thrownBy ch.addTag("c1", "new")
+
+      Then("the change fails after one retry")
+      exception.getStatusCode shouldBe 409
+      fake.patches.get shouldBe 2
+
+      ch.close()
+      fake.api.close()
+    }
+
+    scenario("A rejected update fails its changes, and the next ones are sent") {
+      Given("an async client whose executor rejects tasks for a while")
+      val fake = new TagApi
+      @volatile var rejecting = true
+      val pool = Executors.newCachedThreadPool()
+      val executor: Executor = task =>
+        if (rejecting) throw new RejectedExecutionException("shut down") else pool.execute(task)
+      val ch = AsyncContactHub.builder(fake.api.auth)
+        .executor(executor)
+        .tagMutations(TagOptions.builder.build)
+        .build
+
+      When("I add a tag while the executor rejects it")
+      val rejected = ch.addTag("c1", "a").toCompletableFuture
+
+      Then("the change fails with the rejection, and nothing is sent")
+      val exception = the [ExecutionException] thrownBy rejected.get(10, TimeUnit.SECONDS)
+      exception.getCause shouldBe a [RejectedExecutionException]
+      fake.patches.get shouldBe 0
+
+      And("a change made once the executor accepts tasks again is sent")
+      rejecting = false
+      val customer = ch.addTag("c1", "b").toCompletableFuture.get(10, TimeUnit.SECONDS)
+      customer.tags.get.manual.toSet shouldBe Set("old", "b")
+      fake.patches.get shouldBe 1
+
+      ch.close()
+      pool.shutdown()
+      fake.api.close()
+    }
+  }
+
+}
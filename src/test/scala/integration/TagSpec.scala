@@ -8,11 +8,13 @@ import it.contactlab.hub.sdk.java.exceptions._
 import org.scalatest.FeatureSpec
 import org.scalatest.Matchers._
 import org.scalatest.GivenWhenThen
+import org.scalatest.BeforeAndAfterAll
 import org.scalatest.BeforeAndAfter
 
 import scala.collection.JavaConversions._
 
-class TagSpec extends FeatureSpec with GivenWhenThen with BeforeAndAfter with DataGenerators {
+class TagSpec extends FeatureSpec with GivenWhenThen with BeforeAndAfter with
+    DataGenerators with BeforeAndAfterAll {
 
   val auth = new Auth(
     sys.env("CONTACTHUB_TEST_TOKEN"),
@@ -21,6 +23,8 @@ class TagSpec extends FeatureSpec with GivenWhenThen with BeforeAndAfter with Da
   );
   val ch = new ContactHub(auth)
 
+  override def afterAll(): Unit = ch.close()
+
   val customer = genCustomer.sample.get
   val customerId = ch.addCustomer(customer).id.get
 
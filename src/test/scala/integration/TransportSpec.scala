@@ -0,0 +1,170 @@
+package it.contactlab.hub.sdk.java.test.integration
+
+import it.contactlab.hub.sdk.java.AsyncContactHub
+import it.contactlab.hub.sdk.java.ContactHub
+import it.contactlab.hub.sdk.java.Auth
+import it.contactlab.hub.sdk.java.http._
+import it.contactlab.hub.sdk.java.models._
+
+import com.google.gson.JsonParseException
+
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+
+import org.scalatest.FeatureSpec
+import org.scalatest.Matchers._
+import org.scalatest.GivenWhenThen
+
+import scala.collection.JavaConversions._
+import scala.collection.mutable.ArrayBuffer
+
+class TransportSpec extends FeatureSpec with GivenWhenThen {
+
+  /**
+   * A page of 'count' Customers, with the page metadata after the elements
+   * and a field the SDK does not know.
+   */
+  def customersPage(count: Int) = {
+    val elements = (0 until count).map(i => s"""{"id":"c$i","nodeId":"node"}""")
+    s"""{"elements":[${elements.mkString(",")}],"_links":{"self":"here"},
+      "page":{"number":0,"size":$count,"totalElements":$count,"totalPages":1}}"""
+  }
+
+  val auth = new Auth(
+    sys.env("CONTACTHUB_TEST_TOKEN"),
+    sys.env("CONTACTHUB_TEST_WORKSPACE_ID"),
+    sys.env("CONTACTHUB_TEST_NODE_ID")
+  )
+
+  feature("Per-client HTTP transport") {
+    scenario("Using a custom connection pool", Integration) {
+      Given("a client with its own pooling options")
+      val ch = ContactHub.builder(auth)
+        .poolingOptions(PoolingOptions.builder
+          .maxConnectionsTotal(4)
+          .maxConnectionsPerRoute(2)
+          .keepAlive(Duration.ofSeconds(5))
+          .build)
+        .build
+
+      When("I send a few requests")
+      val pages = (1 to 3).map(_ => ch.getCustomers)
+
+      Then("they all succeed")
+      pages.foreach(_.page.number shouldBe 0)
+
+      ch.close()
+    }
+
+    scenario("Invalid pooling options") {
+      Given("a negative connection limit")
+      def options = PoolingOptions.builder.maxConnectionsPerRoute(-1).build
+
+      Then("IllegalArgumentException is thrown immediately")
+      an [IllegalArgumentException] should be thrownBy options
+    }
+  }
+
+  feature("Streamed pages") {
+    scenario("Each Customer of a page is handed over as it is parsed") {
+      Given("an API answering a page of 500 Customers")
+      val api = new FakeApi(_ => FakeResponse(200, customersPage(500)))
+      val ch = ContactHub.builder(api.auth).build
+
+      When("I read the page one Customer at a time")
+      val ids = ArrayBuffer[String]()
+      val page = ch.forEachCustomer(GetCustomersOptions.builder.build, ids += _.id.get)
+
+      Then("every Customer is handed over, in order, and the page metadata returned")
+      ids shouldBe (0 until 500).map(i => s"c$i")
+      page.totalElements shouldBe 500
+
+      And("a whole page is parsed from the stream the same way")
+      ch.getCustomers.elements.map(_.id.get) shouldBe ids
+
+      ch.close()
+      api.close()
+    }
+
+    scenario("A page without its metadata is refused") {
+      Given("an API answering elements without a page")
+      val api = new FakeApi(_ => FakeResponse(200, """{"elements":[]}"""))
+      val ch = ContactHub.builder(api.auth).build
+
+      Then("reading it fails")
+      a [JsonParseException] should be thrownBy ch.getCustomers
+
+      ch.close()
+      api.close()
+    }
+  }
+
+  feature("Compression") {
+    def compressed(options: CompressionOptions) =
+      new PooledHttpTransport(PoolingOptions.builder.build, options)
+
+    scenario("Gzipped responses are inflated") {
+      Given("an API that gzips its responses when asked to")
+      val api = new FakeApi(request =>
+        if (request.headers.get("accept-encoding").exists(_.contains("gzip"))) {
+          FakeResponse(200, customersPage(200), headers = Map("Content-Encoding" -> "gzip"))
+        } else {
+          FakeResponse(200, customersPage(200))
+        })
+
+      When("clients with compression read a page, streamed and buffered")
+      val transport = compressed(CompressionOptions.builder.build)
+      val ch = ContactHub.builder(api.auth).transport(transport).build
+      val page = ch.getCustomers
+      val async = AsyncContactHub.builder(api.auth)
+        .compression(CompressionOptions.builder.build)
+        .build
+      val asyncPage = async.getCustomers.toCompletableFuture.get(10, TimeUnit.SECONDS)
+
+      Then("both read every Customer")
+      page.elements.size shouldBe 200
+      asyncPage.elements.size shouldBe 200
+
+      And("the stats show fewer bytes on the wire than in the body")
+      val stats = transport.compressionStats
+      stats.responseWireBytes should be < stats.responseBytes
+      stats.savedBytes should be > 0L
+
+      ch.close()
+      async.close()
+      api.close()
+    }
+
+    scenario("Request bodies above the threshold are gzipped") {
+      Given("a client that gzips bodies of at least 1KB")
+      val encodings = ArrayBuffer[Option[String]]()
+      val api = new FakeApi(request => {
+        encodings.synchronized(encodings += request.headers.get("content-encoding"))
+        FakeResponse(200, request.body)
+      })
+      val transport = compressed(CompressionOptions.builder.requestThreshold(1024).build)
+      val ch = ContactHub.builder(api.auth).transport(transport).build
+
+      When("I add a large Customer, then a small one")
+      val large = Customer.builder.nodeId("node").externalId("x" * 4096).build
+      val small = Customer.builder.nodeId("node").externalId("small").build
+      ch.addCustomer(large).externalId.get shouldBe large.externalId.get
+      ch.addCustomer(small).externalId.get shouldBe "small"
+
+      Then("only the large one is sent gzipped, and the API reads both")
+      encodings shouldBe Seq(Some("gzip"), None)
+      val stats = transport.compressionStats
+      stats.requestWireBytes should be < stats.requestBytes
+
+      ch.close()
+      api.close()
+    }
+
+    scenario("Invalid compression options") {
+      Then("IllegalArgumentException is thrown immediately")
+      an [IllegalArgumentException] should be thrownBy
+        CompressionOptions.builder.requestThreshold(-1).build
+    }
+  }
+
+}